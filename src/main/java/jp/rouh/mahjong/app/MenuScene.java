@@ -4,12 +4,13 @@ import jp.rouh.mahjong.app.view.TableScene;
 import jp.rouh.mahjong.game.GameTable;
 import jp.rouh.mahjong.bot.TableStrategyMock;
 import jp.rouh.mahjong.game.PreparedGame;
+import jp.rouh.mahjong.game.TableHost;
+import jp.rouh.mahjong.game.event.QueuedTableStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.concurrent.Executors;
 
 /**
  * メニュー画面。
@@ -106,21 +107,14 @@ public class MenuScene extends Scene{
 
         testButton.addActionListener(event->context.moveTo(TableScene.class, tableScene->{
             tableScene.setBackScene(MenuScene.class);
-            var executor = Executors.newSingleThreadExecutor();
-            executor.submit(()->{
-                try{
-                    var table = new GameTable();
-                    var name = nameField.getText().isBlank()? "you":nameField.getText();
-                    table.addPlayer(name, tableScene.getTableView());
-                    table.addPlayer("guest1", TableStrategyMock.DISCARD);
-                    table.addPlayer("guest2", TableStrategyMock.DISCARD);
-                    table.addPlayer("guest3", TableStrategyMock.DISCARD);
-                    table.start();
-                }catch(Exception e){
-                    LOG.error("エラー発生", e);
-                }
-            });
-            executor.shutdown();
+            var table = new GameTable();
+            var name = nameField.getText().isBlank()? "you":nameField.getText();
+            table.addPlayer(name, new QueuedTableStrategy(tableScene.getTableView(),
+                    256, QueuedTableStrategy.OverflowPolicy.BLOCK));
+            table.addPlayer("guest1", TableStrategyMock.DISCARD);
+            table.addPlayer("guest2", TableStrategyMock.DISCARD);
+            table.addPlayer("guest3", TableStrategyMock.DISCARD);
+            TableHost.getShared().submit("local-"+System.nanoTime(), table);
         }));
 
     }
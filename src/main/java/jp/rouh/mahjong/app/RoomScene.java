@@ -5,6 +5,7 @@ import jp.rouh.mahjong.game.event.ForwardingTableStrategy;
 import jp.rouh.mahjong.net.*;
 import jp.rouh.util.net.BioMessageClient;
 import jp.rouh.util.net.MessageConnection;
+import jp.rouh.util.net.MessageFraming;
 import jp.rouh.util.net.msg.MessageConverter;
 import jp.rouh.util.net.msg.RemoteConnections;
 
@@ -95,7 +96,7 @@ public class RoomScene extends Scene{
         private HostConnection(int port) throws IOException{
             localServer = new RoomServer();
             localServer.start(port);
-            localConnection = new BioMessageClient("localhost", port);
+            localConnection = new BioMessageClient("localhost", port, MessageFraming.LENGTH_PREFIXED);
             localConnection.addListener(RemoteConnections.newDispatcher(dispatcher, localConnection, converter));
             localRoom = RemoteConnections.newProxy(Room.class, localConnection, converter);
         }
@@ -120,7 +121,7 @@ public class RoomScene extends Scene{
         private final Room remoteRoom;
 
         JoinConnection(String host, int port) throws IOException{
-            remoteConnection = new BioMessageClient(host, port);
+            remoteConnection = new BioMessageClient(host, port, MessageFraming.LENGTH_PREFIXED);
             remoteConnection.addListener(RemoteConnections.newDispatcher(dispatcher, remoteConnection, converter));
             remoteRoom = RemoteConnections.newProxy(Room.class, remoteConnection, converter);
         }
@@ -0,0 +1,316 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.TableStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * NPCの意思決定を共有のワーカースレッドで実行するサービス。
+ * <p>ワーカースレッド数は既定では利用可能なプロセッサ数に制限されるため,
+ * 同時に進行する卓の数にかかわらずNPCが消費する計算資源の総量が抑えられます。
+ * <p>意思決定の要求は卓ごとの待ち行列に格納され, ワーカースレッドは要求の残っている卓を
+ * 順番に巡回して一件ずつ処理します(卓単位の公平なキューイング)。
+ * このため一つの卓のNPCが重い処理を続けても, 他の卓の意思決定が待たされ続けることはありません。
+ * <p>NPCの戦略は{@link #schedule}メソッドでラップして用います。
+ * ラップされた戦略は意思決定の結果を一定時間だけ待機し, 時間内に得られない場合は
+ * ツモ切りやパスなどの既定の行動を選択します。
+ * 局の通知も意思決定と同じ卓の待ち行列を経由して発生順に戦略へ伝達されるため,
+ * 待機時間を過ぎた意思決定が実行中であっても通知元のスレッドは待たされません。
+ * @author Rouh
+ * @version 1.0
+ */
+public class BotExecutionService{
+    private static final Logger LOG = LoggerFactory.getLogger(BotExecutionService.class);
+    private static final long DEFAULT_DECISION_TIMEOUT_MILLIS = 5000;
+    private static volatile BotExecutionService shared;
+    private final Map<String, TableLane> lanes = new ConcurrentHashMap<>();
+    private final BlockingQueue<TableLane> readyLanes = new LinkedBlockingQueue<>();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final Thread[] workers;
+    private volatile long decisionTimeoutMillis = DEFAULT_DECISION_TIMEOUT_MILLIS;
+    private volatile boolean shutdown = false;
+
+    /**
+     * 利用可能なプロセッサ数のワーカースレッドを持つサービスを生成します。
+     */
+    public BotExecutionService(){
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 指定された数のワーカースレッドを持つサービスを生成します。
+     * @param workerCount ワーカースレッド数
+     * @throws IllegalArgumentException ワーカースレッド数が1未満の場合
+     */
+    public BotExecutionService(int workerCount){
+        if(workerCount<1){
+            throw new IllegalArgumentException("invalid worker count: "+workerCount);
+        }
+        workers = new Thread[workerCount];
+        for(int i = 0; i<workerCount; i++){
+            workers[i] = new Thread(this::work, "bot-worker-"+i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * プロセス内で共有されるサービスを取得します。
+     * <p>初回の呼び出し時に利用可能なプロセッサ数のワーカースレッドで生成されます。
+     * @return 共有サービス
+     */
+    public static BotExecutionService getShared(){
+        var service = shared;
+        if(service==null){
+            synchronized(BotExecutionService.class){
+                service = shared;
+                if(service==null){
+                    service = new BotExecutionService();
+                    shared = service;
+                }
+            }
+        }
+        return service;
+    }
+
+    /**
+     * 意思決定の結果を待機する時間を設定します。
+     * <p>設定しない場合は5000ミリ秒となります。
+     * @param timeout 待機時間
+     * @param unit 待機時間の単位
+     * @throws IllegalArgumentException 待機時間が正でない場合
+     */
+    public void setDecisionTimeout(long timeout, TimeUnit unit){
+        if(timeout<=0){
+            throw new IllegalArgumentException("invalid timeout: "+timeout);
+        }
+        this.decisionTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    long getDecisionTimeoutMillis(){
+        return decisionTimeoutMillis;
+    }
+
+    /**
+     * 戦略の意思決定をこのサービスで実行するようラップします。
+     * <p>同じ卓IDを指定してラップされた戦略は, 同じ待ち行列を共有します。
+     * 卓の待ち行列は最初にラップした時点で作成され, {@link #closeTable}で破棄されるまで維持されます。
+     * @param tableId 卓ID
+     * @param strategy NPCの戦略
+     * @return ラップされた戦略
+     */
+    public TableStrategy schedule(String tableId, TableStrategy strategy){
+        lanes.computeIfAbsent(tableId, id->new TableLane());
+        return new ScheduledTableStrategy(this, tableId, strategy);
+    }
+
+    /**
+     * 卓の待ち行列を破棄します。
+     * <p>対局の終了後に呼び出します。未処理の要求は既定の行動で応答されます。
+     * 破棄した後に届いた通知は捨てられ, 意思決定の要求は既定の行動で応答されます。
+     * @param tableId 卓ID
+     */
+    public void closeTable(String tableId){
+        var lane = lanes.remove(tableId);
+        if(lane!=null){
+            lane.close();
+        }
+    }
+
+    /**
+     * サービスを停止します。
+     * <p>実行中の意思決定は中断され, 未処理の要求は既定の行動で応答されます。
+     */
+    public void shutdown(){
+        shutdown = true;
+        for(var worker:workers){
+            worker.interrupt();
+        }
+        lanes.values().forEach(TableLane::close);
+        lanes.clear();
+    }
+
+    /**
+     * 処理を完了した意思決定の数を取得します。
+     * <p>卓の待ち行列を経由した局の通知は数えません。
+     * @return 意思決定数
+     */
+    public long getCompletedCount(){
+        return completedCount.get();
+    }
+
+    /**
+     * 待機時間内に結果が得られず既定の行動で応答した意思決定の数を取得します。
+     * @return 意思決定数
+     */
+    public long getTimeoutCount(){
+        return timeoutCount.get();
+    }
+
+    /**
+     * 処理待ちの意思決定の数を取得します。
+     * <p>卓の待ち行列に積まれた局の通知は数えません。
+     * @return 意思決定数
+     */
+    public int getPendingCount(){
+        return lanes.values().stream().mapToInt(TableLane::getPendingDecisionCount).sum();
+    }
+
+    void timedOut(){
+        timeoutCount.incrementAndGet();
+    }
+
+    /**
+     * 意思決定を卓の待ち行列に追加します。
+     * <p>サービスが停止している場合, 又は卓の待ち行列が存在しない場合は
+     * {@link RejectedExecutionException}で失敗したオブジェクトを返します。
+     * @param tableId 卓ID
+     * @param decision 意思決定処理
+     * @param <T> 意思決定の結果の型
+     * @return 意思決定の結果
+     */
+    <T> CompletableFuture<T> submit(String tableId, Supplier<T> decision){
+        var future = new CompletableFuture<T>();
+        var lane = shutdown? null:lanes.get(tableId);
+        boolean added = lane!=null && lane.add(new LaneTask(()->{
+            if(future.isDone()){
+                //待機時間を過ぎ既定の行動で応答済み
+                return;
+            }
+            try{
+                future.complete(decision.get());
+            }catch(Throwable t){
+                future.completeExceptionally(t);
+            }
+        }, future));
+        if(!added){
+            future.completeExceptionally(new RejectedExecutionException(shutdown?
+                    "service already shut down":"table not scheduled or already closed: "+tableId));
+        }
+        return future;
+    }
+
+    /**
+     * 局の通知などの処理を卓の待ち行列に追加します。
+     * <p>サービスが停止している場合, 又は卓の待ち行列が存在しない場合, 処理は破棄されます。
+     * @param tableId 卓ID
+     * @param task 処理
+     */
+    void execute(String tableId, Runnable task){
+        var lane = shutdown? null:lanes.get(tableId);
+        if(lane==null || !lane.add(new LaneTask(task, null))){
+            LOG.debug("task discarded: table {} not scheduled or already closed", tableId);
+        }
+    }
+
+    private void work(){
+        while(!shutdown){
+            try{
+                var lane = readyLanes.take();
+                var task = lane.poll();
+                if(task!=null){
+                    try{
+                        task.body().run();
+                    }finally{
+                        if(task.isDecision()){
+                            completedCount.incrementAndGet();
+                        }
+                        lane.finish();
+                    }
+                }
+            }catch(InterruptedException e){
+                if(shutdown){
+                    return;
+                }
+            }catch(RuntimeException e){
+                LOG.error("unexpected exception in bot worker", e);
+            }
+        }
+    }
+
+    /**
+     * 卓の待ち行列に積まれた処理。
+     * @param body 処理
+     * @param future 意思決定の結果, 局の通知の場合はnull
+     */
+    private record LaneTask(Runnable body, CompletableFuture<?> future){
+        private boolean isDecision(){
+            return future!=null;
+        }
+    }
+
+    /**
+     * 卓ごとの意思決定の待ち行列。
+     * <p>処理待ちの要求を持つ間だけ巡回対象の行列に一度だけ登録されます。
+     * 破棄された待ち行列には要求を追加できません。
+     */
+    private class TableLane{
+        private final Queue<LaneTask> tasks = new ArrayDeque<>();
+        private int pendingDecisionCount = 0;
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        /**
+         * 要求を追加します。
+         * @param task 要求
+         * @return true  追加した場合
+         *         false 待ち行列が破棄済みの場合
+         */
+        private synchronized boolean add(LaneTask task){
+            if(closed){
+                return false;
+            }
+            tasks.add(task);
+            if(task.isDecision()){
+                pendingDecisionCount++;
+            }
+            if(!scheduled){
+                scheduled = true;
+                readyLanes.add(this);
+            }
+            return true;
+        }
+
+        private synchronized LaneTask poll(){
+            var task = tasks.poll();
+            if(task!=null && task.isDecision()){
+                pendingDecisionCount--;
+            }
+            return task;
+        }
+
+        /**
+         * 要求を一件処理した後に呼び出され, 要求が残っていれば巡回の末尾に再登録します。
+         */
+        private synchronized void finish(){
+            if(tasks.isEmpty()){
+                scheduled = false;
+            }else{
+                readyLanes.add(this);
+            }
+        }
+
+        private synchronized int getPendingDecisionCount(){
+            return pendingDecisionCount;
+        }
+
+        private synchronized void close(){
+            closed = true;
+            for(var task:tasks){
+                if(task.isDecision()){
+                    task.future().cancel(false);
+                }
+            }
+            tasks.clear();
+            pendingDecisionCount = 0;
+        }
+    }
+}
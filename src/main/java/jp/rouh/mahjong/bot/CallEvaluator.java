@@ -0,0 +1,289 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.CallAction;
+import jp.rouh.mahjong.game.event.CallActionType;
+import jp.rouh.mahjong.score.HandTiles;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 鳴きの選択肢を評価するクラス。
+ * <p>各選択肢について, 鳴いた後の向聴数と受け入れ枚数及び役の有無を算出し,
+ * 鳴かない場合と比較して向聴数が進む選択肢のうち最も評価の高いものを選択します。
+ * <p>手牌は牌種ごとの枚数の配列として保持され, 選択肢の評価は配列を直接増減させたのち
+ * 元に戻すことで行われます。向聴数の算出は{@link HandTiles#minimumSwapToReady(int[])}に委譲されます。
+ * <p>このクラスはスレッドセーフではありません。
+ * @author Rouh
+ * @version 1.0
+ */
+final class CallEvaluator{
+    private final int[] handCounts = new int[34];
+    private final int[] meldCounts = new int[34];
+    private final boolean[] valueKinds = new boolean[34];
+    private int meldCount;
+
+    /**
+     * 局の開始時に状態を初期化します。
+     */
+    void reset(){
+        Arrays.fill(handCounts, 0);
+        Arrays.fill(meldCounts, 0);
+        Arrays.fill(valueKinds, false);
+        meldCount = 0;
+        valueKinds[Tile.DW.tileNumber()] = true;
+        valueKinds[Tile.DG.tileNumber()] = true;
+        valueKinds[Tile.DR.tileNumber()] = true;
+    }
+
+    /**
+     * 役牌となる風牌を更新します。
+     * @param roundWind 場風
+     * @param seatWind 自風
+     */
+    void setWinds(Wind roundWind, Wind seatWind){
+        for(int kind = 27; kind<31; kind++){
+            valueKinds[kind] = kind==windKindOf(roundWind) || kind==windKindOf(seatWind);
+        }
+    }
+
+    private static int windKindOf(Wind wind){
+        return Tile.WE.tileNumber() + wind.ordinal();
+    }
+
+    /**
+     * 手牌を更新します。
+     * @param handTiles 手牌
+     */
+    void setHand(List<Tile> handTiles){
+        Arrays.fill(handCounts, 0);
+        for(var tile:handTiles){
+            handCounts[tile.tileNumber()]++;
+        }
+    }
+
+    /**
+     * 手牌の枚数配列を増減させます。
+     * @param kind 牌種
+     * @param delta 増減数
+     */
+    private void change(int kind, int delta){
+        handCounts[kind] += delta;
+    }
+
+    /**
+     * 現在の手牌の向聴数を算出します。
+     * <p>副露面子の数は手牌の枚数から求められ, 門前の場合は七対子及び国士無双の向聴数も考慮されます。
+     * @return 向聴数(和了形の場合は-1)
+     */
+    private int shanten(){
+        return HandTiles.minimumSwapToReady(handCounts);
+    }
+
+    /**
+     * 副露している手牌において, 自摸しても向聴数が変化し得ない孤立した牌種か検査します。
+     * <p>手牌に同種の牌も順子を構成しうる牌も存在しない牌種が該当します。
+     * 門前の場合は七対子/国士無双の向聴数が変化し得るため用いません。
+     */
+    private boolean isIsolated(int kind){
+        if(handCounts[kind]>0) return false;
+        if(kind>=27) return true;
+        int number = kind%9;
+        for(int d = -2; d<=2; d++){
+            int n = number + d;
+            if(d!=0 && n>=0 && n<9 && handCounts[kind + d]>0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 自家の副露面子を追加します。
+     * @param meldTiles 副露面子の構成牌
+     */
+    void addMeld(List<Tile> meldTiles){
+        for(var tile:meldTiles){
+            meldCounts[tile.tileNumber()]++;
+        }
+        meldCount++;
+    }
+
+    /**
+     * 自家の加槓牌を追加します。
+     * @param tile 加槓牌
+     */
+    void addQuadTile(Tile tile){
+        meldCounts[tile.tileNumber()]++;
+    }
+
+    /**
+     * 鳴きの選択肢から最も評価の高い選択肢を選択します。
+     * <p>ロンが可能な場合は常にロンを選択します。
+     * <p>チー/ポンは鳴いた後に最適な打牌をした場合の向聴数が鳴かない場合より小さく,
+     * かつ役が確定している場合にのみ選択されます。
+     * 大明槓は向聴数が変わらず, かつ役が確定している場合にのみ選択されます。
+     * 守備中の場合は鳴いて聴牌となる選択肢のみが選択されます。
+     * @param choices 選択肢
+     * @param calledTile 鳴きの対象となる打牌
+     * @param remaining 牌種(0..33)に対する残り枚数の関数
+     * @param defensive 守備中かどうか
+     * @return 選択された選択肢
+     */
+    CallAction select(List<CallAction> choices, Tile calledTile, IntUnaryOperator remaining, boolean defensive){
+        CallAction pass = null;
+        for(var choice:choices){
+            if(choice.type()==CallActionType.RON){
+                return choice;
+            }
+            if(choice.type()==CallActionType.PASS){
+                pass = choice;
+            }
+        }
+        if(calledTile==null){
+            return pass!=null? pass:choices.get(0);
+        }
+        int currentShanten = shanten();
+        CallAction best = pass;
+        Evaluation bestEvaluation = null;
+        for(var choice:choices){
+            var evaluation = switch(choice.type()){
+                case CHI, PON -> evaluateMeld(choice.arguments(), calledTile, remaining);
+                case KAN -> evaluateQuad(calledTile);
+                default -> null;
+            };
+            if(evaluation==null || !evaluation.valuable) continue;
+            if(choice.type()==CallActionType.KAN){
+                if(evaluation.shanten>currentShanten) continue;
+            }else if(evaluation.shanten>=currentShanten){
+                continue;
+            }
+            if(defensive && evaluation.shanten>0) continue;
+            if(bestEvaluation==null || evaluation.isBetterThan(bestEvaluation)){
+                best = choice;
+                bestEvaluation = evaluation;
+            }
+        }
+        return best!=null? best:choices.get(0);
+    }
+
+    /**
+     * チー/ポンした後に最適な打牌をした場合の評価を算出します。
+     * <p>打牌候補のうち役が確定するもののみを考慮します。
+     * 鳴いた牌と同種の牌は食い替えとなるため打牌候補から除外します。
+     */
+    private Evaluation evaluateMeld(List<Tile> baseTiles, Tile calledTile, IntUnaryOperator remaining){
+        int calledKind = calledTile.tileNumber();
+        for(var tile:baseTiles){
+            change(tile.tileNumber(), -1);
+            meldCounts[tile.tileNumber()]++;
+        }
+        meldCounts[calledKind]++;
+        meldCount++;
+        int bestShanten = Integer.MAX_VALUE;
+        int bestAcceptance = -1;
+        for(int kind = 0; kind<34; kind++){
+            if(handCounts[kind]==0 || kind==calledKind) continue;
+            change(kind, -1);
+            if(hasValue()){
+                int shanten = shanten();
+                if(shanten<=bestShanten){
+                    int acceptance = acceptanceOf(shanten, remaining);
+                    if(shanten<bestShanten || acceptance>bestAcceptance){
+                        bestShanten = shanten;
+                        bestAcceptance = acceptance;
+                    }
+                }
+            }
+            change(kind, 1);
+        }
+        meldCount--;
+        meldCounts[calledKind]--;
+        for(var tile:baseTiles){
+            change(tile.tileNumber(), 1);
+            meldCounts[tile.tileNumber()]--;
+        }
+        return new Evaluation(bestShanten, bestAcceptance, bestAcceptance>=0);
+    }
+
+    /**
+     * 大明槓した後の評価を算出します。
+     */
+    private Evaluation evaluateQuad(Tile calledTile){
+        int kind = calledTile.tileNumber();
+        change(kind, -3);
+        meldCounts[kind] += 4;
+        meldCount++;
+        int shanten = shanten();
+        boolean valuable = hasValue();
+        meldCount--;
+        meldCounts[kind] -= 4;
+        change(kind, 3);
+        return new Evaluation(shanten, 0, valuable);
+    }
+
+    /**
+     * 受け入れ枚数を算出します。
+     * @param shanten 現在の向聴数
+     * @param remaining 残り枚数の関数
+     * @return 受け入れ枚数
+     */
+    private int acceptanceOf(int shanten, IntUnaryOperator remaining){
+        int acceptance = 0;
+        for(int kind = 0; kind<34; kind++){
+            if(handCounts[kind] + meldCounts[kind]>=4) continue;
+            if(meldCount>0 && isIsolated(kind)) continue;
+            change(kind, 1);
+            if(shanten()<shanten){
+                acceptance += Math.max(0, remaining.applyAsInt(kind));
+            }
+            change(kind, -1);
+        }
+        return acceptance;
+    }
+
+    /**
+     * 副露後の手牌に役が確定しているか検査します。
+     * <p>役牌の刻子, 断么九, 混一色/清一色を考慮します。
+     * 手牌中に一枚だけ条件に合わない牌がある場合は, その牌を以後に打牌する前提で断么九/染め手とみなします。
+     */
+    private boolean hasValue(){
+        int nonSimple = 0;
+        int characters = 0;
+        int circles = 0;
+        int bamboos = 0;
+        for(int kind = 0; kind<34; kind++){
+            int total = handCounts[kind] + meldCounts[kind];
+            if(total==0) continue;
+            if(valueKinds[kind] && total>=3){
+                return true;
+            }
+            if(kind>=27 || kind%9==0 || kind%9==8){
+                nonSimple += meldCounts[kind]>0? 4:handCounts[kind];
+            }
+            if(kind<9) characters += total;
+            else if(kind<18) circles += total;
+            else if(kind<27) bamboos += total;
+        }
+        if(nonSimple<=1){
+            return true;
+        }
+        int suited = characters + circles + bamboos;
+        int major = Math.max(characters, Math.max(circles, bamboos));
+        return suited - major<=1;
+    }
+
+    /**
+     * 鳴きの選択肢の評価結果。
+     * @param shanten 鳴いた後の向聴数
+     * @param acceptance 鳴いた後の受け入れ枚数
+     * @param valuable 役が確定しているかどうか
+     */
+    private record Evaluation(int shanten, int acceptance, boolean valuable){
+        private boolean isBetterThan(Evaluation other){
+            if(shanten!=other.shanten) return shanten<other.shanten;
+            return acceptance>other.acceptance;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.Declaration;
+import jp.rouh.mahjong.game.event.TableObserverAdapter;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 他家の立直に対する牌の放銃危険度を推定するクラス。
+ * <p>危険度は現物, 筋, 壁(ノーチャンス), ワンチャンスを考慮して算出されます。
+ * <p>対局の通知を受けるたびに内部状態を差分更新するため,
+ * 各通知の処理及び危険度の参照はいずれも定数時間で完了します。
+ * @author Rouh
+ * @version 1.0
+ */
+class DangerMap implements TableObserverAdapter{
+
+    /**
+     * 安全牌の危険度
+     */
+    static final int SAFE = 0;
+    private static final int RYANMEN_DANGER = 4;
+    private static final int PENCHAN_DANGER = 2;
+    private static final int KANCHAN_DANGER = 1;
+    private static final int SHANPON_DANGER = 1;
+    private static final int TANKI_DANGER = 1;
+    private final int[] visibleCounts = new int[34];
+    private final long[] safeTileBits = new long[4];
+    private final boolean[] ready = new boolean[4];
+    private boolean distributed = false;
+
+    /**
+     * 立直者が存在するか検査します。
+     * @return true 自家以外に立直者が存在する場合
+     *         false 立直者が存在しない場合
+     */
+    boolean isThreatened(){
+        return ready[Side.RIGHT.ordinal()] || ready[Side.ACROSS.ordinal()] || ready[Side.LEFT.ordinal()];
+    }
+
+    /**
+     * 指定された相対方位のプレイヤーが立直しているか検査します。
+     * @param side 相対方位
+     * @return true 立直している場合
+     *         false 立直していない場合
+     */
+    boolean isReady(Side side){
+        return ready[side.ordinal()];
+    }
+
+    /**
+     * 指定された牌の危険度を取得します。
+     * <p>立直者が複数存在する場合は, 最も危険度が高くなる立直者に対する危険度が返されます。
+     * <p>立直者が存在しない場合は常に{@link #SAFE}が返されます。
+     * @param tile 対象牌
+     * @return 危険度(0..)
+     */
+    int dangerOf(Tile tile){
+        int danger = SAFE;
+        for(int i = 1; i<4; i++){
+            if(ready[i]){
+                danger = Math.max(danger, dangerOf(i, tile.tileNumber()));
+            }
+        }
+        return danger;
+    }
+
+    /**
+     * 指定された牌の指定された相対方位のプレイヤーに対する危険度を取得します。
+     * <p>対象のプレイヤーが立直していない場合も, 立直者と同様に評価した値が返されます。
+     * @param tile 対象牌
+     * @param side 相対方位
+     * @return 危険度(0..)
+     */
+    int dangerOf(Tile tile, Side side){
+        return dangerOf(side.ordinal(), tile.tileNumber());
+    }
+
+    private int dangerOf(int side, int kind){
+        long safeBits = safeTileBits[side];
+        if(isSafe(safeBits, kind)){
+            return SAFE;
+        }
+        int danger = TANKI_DANGER;
+        if(remainingOf(kind)>=2){
+            danger += SHANPON_DANGER;
+        }
+        if(kind>=27){
+            return danger;
+        }
+        int number = kind%9 + 1;
+        if(number<=6 && !isSafe(safeBits, kind + 3)){
+            //両面待ち(n+1, n+2)
+            danger += chanceWeighted(RYANMEN_DANGER, kind + 1, kind + 2);
+        }
+        if(number>=4 && !isSafe(safeBits, kind - 3)){
+            //両面待ち(n-2, n-1)
+            danger += chanceWeighted(RYANMEN_DANGER, kind - 2, kind - 1);
+        }
+        if(number==7){
+            //辺張待ち(8, 9)
+            danger += chanceWeighted(PENCHAN_DANGER, kind + 1, kind + 2);
+        }
+        if(number==3){
+            //辺張待ち(1, 2)
+            danger += chanceWeighted(PENCHAN_DANGER, kind - 2, kind - 1);
+        }
+        if(number>=2 && number<=8){
+            //嵌張待ち(n-1, n+1)
+            danger += chanceWeighted(KANCHAN_DANGER, kind - 1, kind + 1);
+        }
+        return danger;
+    }
+
+    /**
+     * 待ちの構成牌の残り枚数に応じて危険度を重み付けします。
+     * <p>構成牌のいずれかが見えている牌で枯れている場合(ノーチャンス)は0,
+     * いずれかの残りが1枚の場合(ワンチャンス)は半分の値を返します。
+     */
+    private int chanceWeighted(int danger, int kind1, int kind2){
+        int chance = Math.min(remainingOf(kind1), remainingOf(kind2));
+        if(chance==0) return 0;
+        if(chance==1) return danger/2;
+        return danger;
+    }
+
+    /**
+     * 指定された牌種の見えていない牌の枚数を取得します。
+     * <p>自家の手牌, ドラ表示牌, 他家の捨て牌及び副露牌を見えている牌として扱います。
+     * @param kind 牌種(0..33)
+     * @return 枚数(0..4)
+     */
+    int remainingOf(int kind){
+        return 4 - visibleCounts[kind];
+    }
+
+    private static boolean isSafe(long safeBits, int kind){
+        return (safeBits>>>kind & 1L)!=0;
+    }
+
+    private void addVisible(Tile tile){
+        visibleCounts[tile.tileNumber()]++;
+    }
+
+    @Override
+    public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        Arrays.fill(visibleCounts, 0);
+        Arrays.fill(safeTileBits, 0L);
+        Arrays.fill(ready, false);
+        distributed = false;
+    }
+
+    @Override
+    public void declared(Side side, Declaration declaration){
+        if(declaration==Declaration.READY){
+            ready[side.ordinal()] = true;
+        }
+    }
+
+    @Override
+    public void wallTileRevealed(Side side, int column, Tile tile){
+        //ドラ表示牌の登録
+        addVisible(tile);
+    }
+
+    @Override
+    public void riverTileAdded(Side side, Tile tile, boolean tilt){
+        if(side!=Side.SELF){
+            //他家の捨て牌の登録
+            addVisible(tile);
+        }
+        long bit = 1L<<tile.tileNumber();
+        //捨て牌は打牌者の現物となる
+        safeTileBits[side.ordinal()] |= bit;
+        for(int i = 1; i<4; i++){
+            if(ready[i]){
+                //立直後に見逃された牌は立直者の現物となる
+                safeTileBits[i] |= bit;
+            }
+        }
+    }
+
+    @Override
+    public void tiltMeldAdded(Side side, Side tilt, List<Tile> tiles){
+        if(side!=Side.SELF){
+            //大明槓/チー/ポンの手出し牌の登録
+            int calledIndex = switch(tilt){
+                case LEFT -> 0;
+                case ACROSS -> 1;
+                default -> 2;
+            };
+            for(int i = 0; i<tiles.size(); i++){
+                if(i!=calledIndex){
+                    addVisible(tiles.get(i));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void meldTileAdded(Side side, int index, Tile tile){
+        if(side!=Side.SELF){
+            //加槓牌の登録
+            addVisible(tile);
+        }
+    }
+
+    @Override
+    public void selfQuadAdded(Side side, List<Tile> tiles){
+        if(side!=Side.SELF){
+            //暗槓の登録
+            for(var tile:tiles){
+                addVisible(tile);
+            }
+        }
+    }
+
+    @Override
+    public void handUpdated(List<Tile> allTiles, boolean wide){
+        if(wide){
+            if(!distributed){
+                //配牌の登録
+                distributed = true;
+                for(var tile:allTiles){
+                    addVisible(tile);
+                }
+            }else{
+                //自摸牌の登録
+                addVisible(allTiles.get(allTiles.size() - 1));
+            }
+        }
+    }
+}
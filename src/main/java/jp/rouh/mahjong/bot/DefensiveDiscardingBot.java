@@ -0,0 +1,72 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.util.Lists;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 他家の立直に対して守備を行う打牌ボット。
+ * <p>立直者が存在しない場合は{@link StandardDiscardingBot#READY_SCORE_MAXIMIZER}と同様に
+ * 手牌の評価が最も高くなる牌を選択します。
+ * <p>立直者が存在する場合は, 危険度マップ{@link DangerMap}から得られる危険度を
+ * 手牌の評価点から差し引いた値が最も高くなる牌を選択します。
+ * 自身の手牌が二向聴以上の場合は押し返しを諦め, 最も危険度が低い牌を選択します。
+ * @author Rouh
+ * @version 1.0
+ */
+class DefensiveDiscardingBot implements DiscardingBot{
+    private static final int DANGER_WEIGHT = 40;
+    private static final int FOLD_SWAP_COUNT = 2;
+    private final DangerMap dangerMap;
+
+    /**
+     * 打牌ボットを生成します。
+     * @param dangerMap 参照する危険度マップ
+     */
+    DefensiveDiscardingBot(DangerMap dangerMap){
+        this.dangerMap = dangerMap;
+    }
+
+    @Override
+    public Tile select(List<Tile> allTiles, TileCounter counter){
+        if(!dangerMap.isThreatened()){
+            return HandAnalyses.selectDiscardTileByHighestReadyScore(allTiles, counter);
+        }
+        var readyScores = HandAnalyses.evaluateDiscardCandidates(allTiles, counter);
+        var bestTile = readyScores.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElseThrow()
+                .getKey();
+        if(HandAnalyses.minimumSwapToReadyOfHand(Lists.removed(allTiles, bestTile))>=FOLD_SWAP_COUNT){
+            //ベタオリ
+            return readyScores.entrySet().stream()
+                    .min(Comparator.<Map.Entry<Tile, Integer>>comparingInt(entry->dangerMap.dangerOf(entry.getKey()))
+                            .thenComparing(Map.Entry::getValue, Comparator.reverseOrder()))
+                    .orElseThrow()
+                    .getKey();
+        }
+        return readyScores.entrySet().stream()
+                .max(Comparator.comparingInt(entry->entry.getValue() - dangerMap.dangerOf(entry.getKey())*DANGER_WEIGHT))
+                .orElseThrow()
+                .getKey();
+    }
+
+    @Override
+    public Tile selectReady(List<Tile> allTiles, Set<Tile> readyTiles, TileCounter counter){
+        if(!dangerMap.isThreatened()){
+            return StandardDiscardingBot.READY_SCORE_MAXIMIZER.selectReady(allTiles, readyTiles, counter);
+        }
+        return readyTiles.stream()
+                .min(Comparator.comparingInt(dangerMap::dangerOf))
+                .orElseThrow();
+    }
+
+    @Override
+    public String name(){
+        return "DEFENSIVE_READY_SCORE_MAXIMIZER";
+    }
+}
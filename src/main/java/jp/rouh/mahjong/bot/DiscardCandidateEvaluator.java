@@ -0,0 +1,207 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.score.HandTiles;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.util.Lists;
+
+import java.util.*;
+
+/**
+ * 打牌候補の評価点を一括で算出するクラス。
+ * <p>{@link HandAnalyses#calculateReadyScore}を打牌候補ごとに呼び出す場合と同じ評価点を算出しますが,
+ * 手牌(14枚)のセクション分割を一度だけ行い, 各セクションの分解結果を候補間で共有します。
+ * 一枚の牌を打牌しても変化するのはその牌を含むセクションのみであるため,
+ * その他のセクションの分解結果は再計算されません。
+ * <p>各セクションは分解結果を(面子数, 対子数, 塔子数)の組ごとに集約した形で保持されます。
+ * 手牌パターンの向聴数はこの組の和のみから決まるため, 手牌パターンの直積を生成することなく
+ * セクションごとの集約結果の組み合わせから有効牌の候補を列挙することができます。
+ * 手牌の向聴数及び有効牌の判定には{@link HandTiles#minimumSwapToMeldHandReady}を用います。
+ * <p>評価は呼び出し元のスレッドで逐次に実行されます。
+ * NPCの意思決定は{@link BotExecutionService}の作業スレッドで実行されるため,
+ * 共有のスレッドプールを用いて並列化することはしません。
+ * <p>このクラスのインスタンスは一度の打牌選択ごとに生成して用いることを想定します。
+ * インスタンスはスレッドセーフではありません。
+ * @author Rouh
+ * @version 1.0
+ */
+final class DiscardCandidateEvaluator{
+    private final Map<List<Tile>, Map<ChunkCount, ChunkTiles>> summaries = new HashMap<>();
+    private final TileCounter counter;
+
+    /**
+     * 評価器を生成します。
+     * @param counter 残り枚数カウンター
+     */
+    DiscardCandidateEvaluator(TileCounter counter){
+        this.counter = counter;
+    }
+
+    /**
+     * 打牌候補ごとの評価点を算出します。
+     * <p>評価点は{@link HandAnalyses#calculateReadyScore}と同じ基準で算出されます。
+     * @param allTiles 手牌(14枚, 副露している場合は14-3n枚)
+     * @return 打牌候補と評価点のマップ(手牌での出現順)
+     */
+    Map<Tile, Integer> evaluate(List<Tile> allTiles){
+        var candidates = allTiles.stream().distinct().toList();
+        var sections = HandAnalyses.toSections(allTiles.stream().sorted().toList());
+        var scores = new LinkedHashMap<Tile, Integer>();
+        for(var candidate:candidates){
+            var evaluation = evaluateCandidate(sections, candidate);
+            int etc = evaluation.effectiveTiles.stream()
+                    .mapToInt(counter::count)
+                    .sum();
+            scores.put(candidate, (9 - evaluation.minimumSwap)*100 + etc);
+        }
+        return scores;
+    }
+
+    /**
+     * 打牌候補を打牌した後の手牌の向聴数及び有効牌を算出します。
+     * @param sections 手牌(14枚)のセクション
+     * @param discardTile 打牌候補
+     * @return 評価結果
+     */
+    private CandidateEvaluation evaluateCandidate(List<List<Tile>> sections, Tile discardTile){
+        var handSections = removed(sections, discardTile);
+        var handTiles = handSections.stream().flatMap(List::stream).toList();
+        var summaryList = handSections.stream().map(this::summaryOf).toList();
+        var optimalCounts = new ArrayList<Set<ChunkCount>>(summaryList.size());
+        for(int i = 0; i<summaryList.size(); i++){
+            optimalCounts.add(new HashSet<>());
+        }
+        collectOptimalCounts(summaryList, HandAnalyses.meldCountOf(handTiles), optimalCounts);
+        int currentMsr = HandAnalyses.minimumSwapToReadyOfHand(handTiles);
+        var acceptableTiles = new HashSet<Tile>();
+        var discardTiles = new HashSet<Tile>();
+        for(int i = 0; i<summaryList.size(); i++){
+            for(var count:optimalCounts.get(i)){
+                var chunkTiles = summaryList.get(i).get(count);
+                acceptableTiles.addAll(chunkTiles.acceptableTiles);
+                discardTiles.addAll(chunkTiles.discardTiles);
+            }
+        }
+        var effectiveTiles = new HashSet<Tile>();
+        for(var acceptTile:acceptableTiles){
+            for(var discard:discardTiles){
+                var derivedHandTiles = Lists.added(Lists.removed(handTiles, discard), acceptTile);
+                if(HandAnalyses.minimumSwapToReadyOfHand(derivedHandTiles)<currentMsr){
+                    effectiveTiles.add(acceptTile);
+                    break;
+                }
+            }
+        }
+        return new CandidateEvaluation(currentMsr, effectiveTiles);
+    }
+
+    /**
+     * セクションごとの集約結果の組み合わせのうち, 手牌パターンの向聴数が最小となるものを探索します。
+     * @param summaryList セクションごとの集約結果
+     * @param meldCount 副露面子の数
+     * @param optimalCounts 向聴数が最小となる組み合わせに含まれる集約キーの格納先
+     */
+    private static void collectOptimalCounts(List<Map<ChunkCount, ChunkTiles>> summaryList, int meldCount, List<Set<ChunkCount>> optimalCounts){
+        var keyLists = summaryList.stream().map(s->List.copyOf(s.keySet())).toList();
+        var selected = new ChunkCount[keyLists.size()];
+        int[] minimum = {Integer.MAX_VALUE};
+        search(keyLists, 0, meldCount, 0, 0, selected, minimum, optimalCounts);
+    }
+
+    private static void search(List<List<ChunkCount>> keyLists, int index, int mc, int tbc, int sbc,
+                               ChunkCount[] selected, int[] minimum, List<Set<ChunkCount>> optimalCounts){
+        if(index==keyLists.size()){
+            int msr = HandAnalyses.minimumSwapToReady(tbc, sbc, mc);
+            if(msr<minimum[0]){
+                minimum[0] = msr;
+                optimalCounts.forEach(Set::clear);
+            }
+            if(msr==minimum[0]){
+                for(int i = 0; i<selected.length; i++){
+                    optimalCounts.get(i).add(selected[i]);
+                }
+            }
+            return;
+        }
+        for(var key:keyLists.get(index)){
+            selected[index] = key;
+            search(keyLists, index + 1, mc + key.mc, tbc + key.tbc, sbc + key.sbc, selected, minimum, optimalCounts);
+        }
+    }
+
+    /**
+     * セクションの分解結果を集約したものを取得します。
+     * @param section 手牌セクション
+     * @return (面子数, 対子数, 塔子数)の組と, その組となる分解結果の待ち牌及び不要牌のマップ
+     */
+    private Map<ChunkCount, ChunkTiles> summaryOf(List<Tile> section){
+        return summaries.computeIfAbsent(section, DiscardCandidateEvaluator::summarize);
+    }
+
+    private static Map<ChunkCount, ChunkTiles> summarize(List<Tile> section){
+        var summary = new HashMap<ChunkCount, ChunkTiles>();
+        for(var pattern:HandAnalyses.toMeldBasePattern(section)){
+            int mc = 0;
+            int tbc = 0;
+            int sbc = 0;
+            for(var chunk:pattern){
+                if(chunk.size()==3) mc++;
+                if(chunk.size()==2){
+                    if(chunk.get(0).equalsIgnoreRed(chunk.get(1))){
+                        tbc++;
+                    }else{
+                        sbc++;
+                    }
+                }
+            }
+            var chunkTiles = summary.computeIfAbsent(new ChunkCount(mc, tbc, sbc), c->new ChunkTiles());
+            for(var chunk:pattern){
+                chunkTiles.acceptableTiles.addAll(HandAnalyses.acceptableTilesOfChunk(chunk));
+                if(chunk.size()!=3){
+                    chunkTiles.discardTiles.addAll(chunk);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * セクションのリストから指定された牌を一枚取り除きます。
+     * <p>牌を取り除いたセクションは必要に応じて再分割されます。
+     * @param sections セクションのリスト
+     * @param tile 取り除く牌
+     * @return 取り除いた後のセクションのリスト
+     */
+    private static List<List<Tile>> removed(List<List<Tile>> sections, Tile tile){
+        var result = new ArrayList<List<Tile>>(sections.size() + 1);
+        boolean removed = false;
+        for(var section:sections){
+            if(!removed && section.contains(tile)){
+                removed = true;
+                var rest = Lists.removed(section, tile);
+                if(!rest.isEmpty()){
+                    result.addAll(HandAnalyses.toSections(rest));
+                }
+            }else{
+                result.add(section);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * セクション分解結果の(面子数, 対子数, 塔子数)の組。
+     */
+    private record ChunkCount(int mc, int tbc, int sbc){
+    }
+
+    /**
+     * 同じ組となるセクション分解結果の待ち牌及び不要牌(面子以外の構成牌)。
+     */
+    private static class ChunkTiles{
+        private final Set<Tile> acceptableTiles = new HashSet<>();
+        private final Set<Tile> discardTiles = new HashSet<>();
+    }
+
+    private record CandidateEvaluation(int minimumSwap, Set<Tile> effectiveTiles){
+    }
+}
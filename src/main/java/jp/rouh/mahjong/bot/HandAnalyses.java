@@ -20,15 +20,28 @@ final class HandAnalyses{
 
     /**
      * 打牌時に最も手牌の評価が高くなる牌を算出します。
+     * <p>評価点が同じ牌が複数存在する場合は, 手牌中で先に現れる牌が選択されます。
+     * <p>各打牌候補の評価は{@link DiscardCandidateEvaluator}によって一括で行われます。
      * @param allTiles 手牌(14枚)
      * @param counter 残り枚数カウンター
      * @return 捨て牌
      */
     public static Tile selectDiscardTileByHighestReadyScore(List<Tile> allTiles, TileCounter counter){
-        return allTiles.stream()
-                .distinct()
-                .max(Comparator.comparing(d->calculateReadyScore(Lists.removed(allTiles, d), counter)))
-                .orElseThrow();
+        return evaluateDiscardCandidates(allTiles, counter).entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElseThrow()
+                .getKey();
+    }
+
+    /**
+     * 打牌候補ごとに打牌後の手牌の評価点を算出します。
+     * <p>評価点は{@link #calculateReadyScore}と同じ基準で算出されます。
+     * @param allTiles 手牌(14枚)
+     * @param counter 残り枚数カウンター
+     * @return 打牌候補と評価点のマップ(手牌での出現順)
+     */
+    static Map<Tile, Integer> evaluateDiscardCandidates(List<Tile> allTiles, TileCounter counter){
+        return new DiscardCandidateEvaluator(counter).evaluate(allTiles);
     }
 
     /**
@@ -69,10 +82,11 @@ final class HandAnalyses{
      * @return 有効牌のセット
      */
     private static Set<Tile> effectiveTilesOfHand(List<Tile> handTiles){
+        int meldCount = meldCountOf(handTiles);
         var patternsByMsr = toPattern(handTiles).stream()
-                .collect(Collectors.groupingBy(HandAnalyses::minimumSwapToReadyOfPattern));
-        int currentMsr = Collections.min(patternsByMsr.keySet());
-        var patterns = patternsByMsr.get(currentMsr);
+                .collect(Collectors.groupingBy(p->minimumSwapToReadyOfPattern(p, meldCount)));
+        var patterns = patternsByMsr.get(Collections.min(patternsByMsr.keySet()));
+        int currentMsr = minimumSwapToReadyOfHand(handTiles);
         var acceptableTiles = patterns.stream()
                 .flatMap(p->p.stream()
                         .flatMap(c->acceptableTilesOfChunk(c).stream()))
@@ -95,22 +109,32 @@ final class HandAnalyses{
     }
 
     /**
-     * 手牌の向聴数を計算します。
-     * @param handTiles 手牌(13枚)
+     * 手牌の面子手としての向聴数を計算します。
+     * <p>副露している場合, 手牌の枚数から副露面子の数を求めて計算します。
+     * 計算は{@link HandTiles#minimumSwapToMeldHandReady}に委譲されます。
+     * @param handTiles 手牌(13枚, 副露している場合は13-3n枚)
      * @return 向聴数
      */
-    private static int minimumSwapToReadyOfHand(List<Tile> handTiles){
-        return toPattern(handTiles).stream()
-                .mapToInt(HandAnalyses::minimumSwapToReadyOfPattern)
-                .min().orElseThrow();
+    static int minimumSwapToReadyOfHand(List<Tile> handTiles){
+        return HandTiles.minimumSwapToMeldHandReady(handTiles);
+    }
+
+    /**
+     * 手牌の枚数から副露面子の数を算出します。
+     * @param handTiles 手牌(13-3n枚)
+     * @return 副露面子の数
+     */
+    static int meldCountOf(List<Tile> handTiles){
+        return (13 - handTiles.size())/3;
     }
 
     /**
      * 手牌パターンの向聴数を計算します。
      * @param pattern 手牌パターン
+     * @param meldCount 副露面子の数
      * @return 向聴数
      */
-    private static int minimumSwapToReadyOfPattern(List<List<Tile>> pattern){
+    private static int minimumSwapToReadyOfPattern(List<List<Tile>> pattern, int meldCount){
         int mc = 0;
         int tbc = 0;
         int sbc = 0;
@@ -124,25 +148,22 @@ final class HandAnalyses{
                 }
             }
         }
-        return minimumSwapToReady(tbc, sbc, mc);
+        return minimumSwapToReady(tbc, sbc, mc + meldCount);
     }
 
     /**
-     * 向聴数を計算します。
+     * 手牌パターンの要素数から向聴数を計算します。
+     * <p>対子のうち一つを雀頭とみなし, {@link HandTiles#minimumSwapToReady(int, int, boolean)}に委譲します。
      * @param tbc 対子の数
      * @param sbc 塔子の数
      * @param mc 面子の数
      * @return 向聴数
      */
-    private static int minimumSwapToReady(int tbc, int sbc, int mc){
+    static int minimumSwapToReady(int tbc, int sbc, int mc){
         if((tbc*2 + sbc*2 + mc*3)>13)
             throw new IllegalArgumentException("invalid pattern: tripleBase="+tbc+" straightBase="+sbc+" meld="+mc);
-        if(tbc==0 && sbc==0 && mc==4) return 0;
-        if(tbc==1 && sbc==1 && mc==3) return 0;
-        if((sbc + mc)>4) return minimumSwapToReady(tbc, sbc - 1, mc);
-        if(tbc>1) return minimumSwapToReady(tbc - 1, sbc + 1, mc);
-        if(sbc>1) return 1 + minimumSwapToReady(tbc, sbc - 1, mc + 1);
-        return 1 + minimumSwapToReady(tbc + 1, sbc, mc);
+        boolean head = tbc>0;
+        return HandTiles.minimumSwapToReady(mc, tbc + sbc - (head? 1:0), head);
     }
 
     /**
@@ -151,7 +172,7 @@ final class HandAnalyses{
      * @param chunk パターン要素
      * @return 待ち牌
      */
-    private static Set<Tile> acceptableTilesOfChunk(List<Tile> chunk){
+    static Set<Tile> acceptableTilesOfChunk(List<Tile> chunk){
         if(chunk.size()>3 || chunk.isEmpty()) throw new IllegalArgumentException("invalid chunk size: "+chunk);
         if(chunk.size()==3) return Set.of();
         if(chunk.size()==2){
@@ -192,13 +213,21 @@ final class HandAnalyses{
      */
     static Set<List<List<Tile>>> toPattern(List<Tile> handTiles){
         var sorted = handTiles.stream().sorted().toList();
-        var sections = Lists.split(sorted, (t1, t2)->!Tiles.isNeighbour(t1, t2));
-        return sections.stream()
+        return toSections(sorted).stream()
                 .map(HandAnalyses::toMeldBasePattern)
                 .reduce(HandAnalyses::combine)
                 .orElseThrow();
     }
 
+    /**
+     * ソート済みの手牌を順子を構成しうる境界で分割します。
+     * @param sorted ソート済みの手牌
+     * @return 手牌セクションのリスト
+     */
+    static List<List<Tile>> toSections(List<Tile> sorted){
+        return Lists.split(sorted, (t1, t2)->!Tiles.isNeighbour(t1, t2));
+    }
+
     private static Set<List<List<Tile>>> combine(Set<List<List<Tile>>> ps1, Set<List<List<Tile>>> ps2){
         var patterns = new HashSet<List<List<Tile>>>();
         for(var p1:ps1){
@@ -217,7 +246,7 @@ final class HandAnalyses{
      * @param section 手牌セクション
      * @return 手牌セクションパターン
      */
-    private static Set<List<List<Tile>>> toMeldBasePattern(List<Tile> section){
+    static Set<List<List<Tile>>> toMeldBasePattern(List<Tile> section){
         var patterns = new HashSet<List<List<Tile>>>();
         for(var meldPattern:toMeldPatterns(section)){
             for(var basePattern:toBasePatterns(meldPattern.get(meldPattern.size() - 1))){
@@ -0,0 +1,255 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static jp.rouh.mahjong.game.event.TableEvent.Type.*;
+
+/**
+ * 意思決定を{@link BotExecutionService}のワーカースレッドで実行する戦略のラッパ。
+ * <p>局の通知も意思決定と同じ卓の待ち行列に積まれ, ワーカースレッドで発生順に委譲先へ伝達されます。
+ * 委譲先は意思決定の時点でそれまでの通知を全て受け取っており,
+ * 待機時間を過ぎた意思決定が委譲先で実行中であっても, 通知元のスレッドはその完了を待ちません。
+ * <p>意思決定の結果が待機時間内に得られない場合, 又は委譲先で例外が発生した場合は
+ * 既定の行動(ターン内行動はツモ切り, 鳴き行動はパス)を選択します。
+ * 待機時間を過ぎた時点で未着手の意思決定は実行されません。
+ * @author Rouh
+ * @version 1.0
+ */
+class ScheduledTableStrategy extends ForwardingTableStrategy{
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledTableStrategy.class);
+    private final BotExecutionService service;
+    private final TableStrategy strategy;
+    private final String tableId;
+
+    /**
+     * 戦略のラッパを生成します。
+     * @param service 実行サービス
+     * @param tableId 卓ID
+     * @param strategy 委譲先の戦略
+     */
+    ScheduledTableStrategy(BotExecutionService service, String tableId, TableStrategy strategy){
+        super(strategy);
+        this.service = service;
+        this.strategy = strategy;
+        this.tableId = tableId;
+    }
+
+    /**
+     * 通知を卓の待ち行列に積みます。
+     * @param event 通知
+     */
+    private void post(TableEvent event){
+        service.execute(tableId, ()->{
+            try{
+                event.dispatchTo(strategy);
+            }catch(RuntimeException e){
+                LOG.error("failed to dispatch "+event+" on table "+tableId, e);
+            }
+        });
+    }
+
+    @Override
+    public boolean isDecisionTimeBounded(){
+        return true;
+    }
+
+    @Override
+    public TurnAction selectTurnAction(List<TurnAction> choices){
+        return selectTurnActionAsync(choices).toCompletableFuture().join();
+    }
+
+    @Override
+    public CallAction selectCallAction(List<CallAction> choices){
+        return selectCallActionAsync(choices).toCompletableFuture().join();
+    }
+
+    @Override
+    public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices, Executor executor){
+        return withDeadline(service.submit(tableId, ()->strategy.selectTurnAction(choices)))
+                .thenApply(action->action!=null? action:new TurnActionSelector(choices).getDefaultAction());
+    }
+
+    @Override
+    public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices, Executor executor){
+        return withDeadline(service.submit(tableId, ()->strategy.selectCallAction(choices)))
+                .thenApply(action->action!=null? action:new CallActionSelector(choices).getPassAction());
+    }
+
+    /**
+     * 意思決定の結果に待機時間を設けます。
+     * <p>待機時間を過ぎた意思決定は取り消され, 未着手であれば実行されません。
+     * @param future 意思決定の結果
+     * @param <T> 意思決定の結果の型
+     * @return 意思決定の結果, 待機時間を過ぎた場合又は失敗した場合はnullで完了するオブジェクト
+     */
+    private <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future){
+        return future.orTimeout(service.getDecisionTimeoutMillis(), TimeUnit.MILLISECONDS).handle((result, e)->{
+            var cause = e instanceof CompletionException? e.getCause():e;
+            if(cause==null){
+                return result;
+            }
+            if(cause instanceof TimeoutException){
+                service.timedOut();
+                LOG.warn("bot decision timed out on table {}", tableId);
+            }else if(cause instanceof CancellationException){
+                LOG.warn("bot decision cancelled on table {}", tableId);
+            }else if(cause instanceof RejectedExecutionException){
+                LOG.warn("bot decision rejected on table {}: {}", tableId, cause.getMessage());
+            }else{
+                LOG.error("bot decision failed on table "+tableId, cause);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void gameStarted(List<ProfileData> players){
+        post(TableEvent.of(GAME_STARTED, players));
+    }
+
+    @Override
+    public void gameFinished(List<GameScoreData> scores){
+        post(TableEvent.of(GAME_FINISHED, scores));
+    }
+
+    @Override
+    public void temporarySeatUpdated(Map<Side, PlayerTempData> players){
+        post(TableEvent.of(TEMPORARY_SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void seatUpdated(Map<Side, PlayerData> players){
+        post(TableEvent.of(SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        post(TableEvent.of(ROUND_STARTED, wind, count, streak, deposit, last));
+    }
+
+    @Override
+    public void roundDrawn(DrawType drawType){
+        post(TableEvent.of(ROUND_DRAWN, drawType));
+    }
+
+    @Override
+    public void handScoreNotified(List<HandScoreData> scores){
+        post(TableEvent.of(HAND_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void riverScoreNotified(List<RiverScoreData> scores){
+        post(TableEvent.of(RIVER_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void paymentNotified(Map<Side, PaymentData> payments){
+        post(TableEvent.of(PAYMENT_NOTIFIED, payments));
+    }
+
+    @Override
+    public void roundFinished(){
+        post(TableEvent.of(ROUND_FINISHED));
+    }
+
+    @Override
+    public void diceRolled(Side side, int dice1, int dice2){
+        post(TableEvent.of(DICE_ROLLED, side, dice1, dice2));
+    }
+
+    @Override
+    public void declared(Side side, Declaration declaration){
+        post(TableEvent.of(DECLARED, side, declaration));
+    }
+
+    @Override
+    public void readyBoneAdded(Side side){
+        post(TableEvent.of(READY_BONE_ADDED, side));
+    }
+
+    @Override
+    public void wallGenerated(){
+        post(TableEvent.of(WALL_GENERATED));
+    }
+
+    @Override
+    public void wallTileTaken(Side side, int column, int floor){
+        post(TableEvent.of(WALL_TILE_TAKEN, side, column, floor));
+    }
+
+    @Override
+    public void wallTileRevealed(Side side, int column, Tile tile){
+        post(TableEvent.of(WALL_TILE_REVEALED, side, column, tile));
+    }
+
+    @Override
+    public void turnStarted(Side side){
+        post(TableEvent.of(TURN_STARTED, side));
+    }
+
+    @Override
+    public void handLocked(){
+        post(TableEvent.of(HAND_LOCKED));
+    }
+
+    @Override
+    public void handUpdated(Side side, int size, boolean wide){
+        post(TableEvent.of(OTHER_HAND_UPDATED, side, size, wide));
+    }
+
+    @Override
+    public void handUpdated(List<Tile> allTiles, boolean wide){
+        post(TableEvent.of(HAND_UPDATED, allTiles, wide));
+    }
+
+    @Override
+    public void handRevealed(Side side, List<Tile> allTiles, boolean wide){
+        post(TableEvent.of(HAND_REVEALED, side, allTiles, wide));
+    }
+
+    @Override
+    public void riverTileAdded(Side side, Tile tile, boolean tilt){
+        post(TableEvent.of(RIVER_TILE_ADDED, side, tile, tilt));
+    }
+
+    @Override
+    public void riverTileTaken(Side side){
+        post(TableEvent.of(RIVER_TILE_TAKEN, side));
+    }
+
+    @Override
+    public void tiltMeldAdded(Side side, Side tilt, List<Tile> tiles){
+        post(TableEvent.of(TILT_MELD_ADDED, side, tilt, tiles));
+    }
+
+    @Override
+    public void selfQuadAdded(Side side, List<Tile> tiles){
+        post(TableEvent.of(SELF_QUAD_ADDED, side, tiles));
+    }
+
+    @Override
+    public void meldTileAdded(Side side, int index, Tile tile){
+        post(TableEvent.of(MELD_TILE_ADDED, side, index, tile));
+    }
+
+    @Override
+    public void notificationsCompleted(){
+        post(TableEvent.of(NOTIFICATIONS_COMPLETED));
+    }
+}
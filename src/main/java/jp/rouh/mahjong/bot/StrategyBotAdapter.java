@@ -9,7 +9,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static jp.rouh.mahjong.game.event.TableEventCategory.*;
 
 /**
  * 捨て牌ボットをテーブル戦略とするアダプタクラス。
@@ -19,12 +24,27 @@ import java.util.List;
 class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStrategy{
     private static final Logger LOG = LoggerFactory.getLogger(StrategyBotAdapter.class);
     private final DiscardingBot bot;
+    private final DangerMap dangerMap;
+    private final CallEvaluator callEvaluator = new CallEvaluator();
     private final List<Tile> exposedTiles = new ArrayList<>(136);
     private final List<Tile> allTiles = new ArrayList<>(14);
     private boolean distributed = false;
+    private Wind roundWind = Wind.EAST;
+    private Tile lastDiscardedTile;
 
     StrategyBotAdapter(DiscardingBot bot){
+        this(bot, new DangerMap());
+    }
+
+    /**
+     * 危険度マップを指定してアダプタを生成します。
+     * <p>危険度マップにはこのアダプタが受け取った通知が転送されます。
+     * @param bot 打牌ボット
+     * @param dangerMap 危険度マップ
+     */
+    StrategyBotAdapter(DiscardingBot bot, DangerMap dangerMap){
         this.bot = bot;
+        this.dangerMap = dangerMap;
     }
 
     @Override
@@ -37,6 +57,39 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
         synchronized(this){
             exposedTiles.clear();
             distributed = false;
+            roundWind = wind;
+            lastDiscardedTile = null;
+            callEvaluator.reset();
+            dangerMap.roundStarted(wind, count, streak, deposit, last);
+        }
+    }
+
+    @Override
+    public void seatUpdated(Map<Side, PlayerData> players){
+        synchronized(this){
+            var self = players.get(Side.SELF);
+            if(self!=null){
+                callEvaluator.setWinds(roundWind, self.getSeatWind());
+            }
+        }
+    }
+
+    @Override
+    public void diceRolled(Side side, int dice1, int dice2){
+        synchronized(this){
+            //局の開始時には親が賽を振るため, 賽を振ったプレイヤーの方位から自風を求める
+            for(var seatWind:Wind.values()){
+                if(side.of(seatWind)==Wind.EAST){
+                    callEvaluator.setWinds(roundWind, seatWind);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void declared(Side side, Declaration declaration){
+        synchronized(this){
+            dangerMap.declared(side, declaration);
         }
     }
 
@@ -45,6 +98,7 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
         synchronized(this){
             //ドラ表示牌の登録
             exposedTiles.add(tile);
+            dangerMap.wallTileRevealed(side, column, tile);
         }
     }
 
@@ -54,7 +108,9 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
             if(side!=Side.SELF){
                 //他家の捨て牌の登録
                 exposedTiles.add(tile);
+                lastDiscardedTile = tile;
             }
+            dangerMap.riverTileAdded(side, tile, tilt);
         }
     }
 
@@ -82,7 +138,10 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
                         }
                     }
                 }
+            }else{
+                callEvaluator.addMeld(tiles);
             }
+            dangerMap.tiltMeldAdded(side, tilt, tiles);
         }
     }
 
@@ -92,7 +151,10 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
             //加槓牌の登録
             if(side!=Side.SELF){
                 exposedTiles.add(tile);
+            }else{
+                callEvaluator.addQuadTile(tile);
             }
+            dangerMap.meldTileAdded(side, index, tile);
         }
     }
 
@@ -102,7 +164,10 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
             //暗槓の登録
             if(side!=Side.SELF){
                 exposedTiles.addAll(tiles);
+            }else{
+                callEvaluator.addMeld(tiles);
             }
+            dangerMap.selfQuadAdded(side, tiles);
         }
     }
 
@@ -118,13 +183,26 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
                     //自摸牌の登録
                     exposedTiles.add(allTiles.get(allTiles.size() - 1));
                 }
-                this.allTiles.clear();
-                this.allTiles.addAll(allTiles);
-                this.allTiles.sort(Comparator.naturalOrder());
             }
+            //副露後の打牌に備え, 自摸以外の手牌の変化も反映する
+            this.allTiles.clear();
+            this.allTiles.addAll(allTiles);
+            this.allTiles.sort(Comparator.naturalOrder());
+            callEvaluator.setHand(allTiles);
+            dangerMap.handUpdated(allTiles, wide);
         }
     }
 
+    @Override
+    public Set<TableEventCategory> getRequiredEventCategories(){
+        return EnumSet.of(DICE, INDICATOR, HAND, RIVER, MELD, DECLARATION);
+    }
+
+    @Override
+    public boolean isDecisionTimeBounded(){
+        return true;
+    }
+
     @Override
     public TurnAction selectTurnAction(List<TurnAction> choices){
         synchronized(this){
@@ -145,6 +223,14 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
                     return selector.getReadyActionOf(readyDiscardTile);
                 }
                 var discardTile = bot.select(allTiles, this);
+                if(!selector.canSelectForDiscard(discardTile)){
+                    //食い替えとなる牌を避けて打牌
+                    discardTile = HandAnalyses.evaluateDiscardCandidates(allTiles, this).entrySet().stream()
+                            .filter(entry->selector.canSelectForDiscard(entry.getKey()))
+                            .max(Map.Entry.comparingByValue())
+                            .orElseThrow()
+                            .getKey();
+                }
                 return selector.getDiscardActionOf(discardTile);
             }catch(Exception e){
                 LOG.error(bot + " produced an error", e);
@@ -159,11 +245,18 @@ class StrategyBotAdapter implements TileCounter, TableObserverAdapter, TableStra
     @Override
     public CallAction selectCallAction(List<CallAction> choices){
         synchronized(this){
-            var selector = new CallActionSelector(choices);
-            if(selector.canDeclareRon()){
-                return selector.getRonAction();
+            try{
+                return callEvaluator.select(choices, lastDiscardedTile, dangerMap::remainingOf, dangerMap.isThreatened());
+            }catch(Exception e){
+                LOG.error(bot + " produced an error", e);
+                LOG.error("allTiles=" + allTiles);
+                LOG.error("choices=" + choices);
+                var selector = new CallActionSelector(choices);
+                if(selector.canDeclareRon()){
+                    return selector.getRonAction();
+                }
+                return selector.getPassAction();
             }
-            return selector.getPassAction();
         }
     }
 }
@@ -20,4 +20,13 @@ public final class TableStrategyBots{
         return new StrategyBotAdapter(StandardDiscardingBot.READY_SCORE_MAXIMIZER);
     }
 
+    /**
+     * 立直を目指しつつ, 他家の立直に対しては守備を行う戦略のインスタンスを取得します。
+     * @return テーブル戦略
+     */
+    public static TableStrategy newDefensiveBot(){
+        var dangerMap = new DangerMap();
+        return new StrategyBotAdapter(new DefensiveDiscardingBot(dangerMap), dangerMap);
+    }
+
 }
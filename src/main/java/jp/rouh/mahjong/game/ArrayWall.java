@@ -17,8 +17,9 @@ class ArrayWall implements Wall{
     private static final int[] UPPER_INDICATOR_OFFSETS = {130, 128, 126, 124, 122};
     private static final int[] LOWER_INDICATOR_OFFSETS = {131, 129, 127, 125, 123};
     private final List<WallObserver> observers = new ArrayList<>();
-    private final Tile[] tiles;
-    private final int firstIndex;
+    private Tile[] tiles;
+    private int firstIndex;
+    private boolean tilesShared = false;
     private int drawCount = 0;
     private int quadCount = 0;
     private int revealCount = 0;
@@ -35,7 +36,50 @@ class ArrayWall implements Wall{
         if(tiles.length!=136)
             throw new IllegalArgumentException("invalid length of tiles: "+tiles.length);
         this.tiles = tiles.clone();
-        this.firstIndex = ((3- diceSum%4)*34 + diceSum*2)%136;
+        this.firstIndex = firstIndexOf(diceSum);
+    }
+
+    private ArrayWall(ArrayWall original){
+        original.tilesShared = true;
+        this.tilesShared = true;
+        this.tiles = original.tiles;
+        this.firstIndex = original.firstIndex;
+        this.drawCount = original.drawCount;
+        this.quadCount = original.quadCount;
+        this.revealCount = original.revealCount;
+    }
+
+    /**
+     * 牌山を新しい牌の並びで初期化し, 再利用します。
+     * <p>牌の取得数及びドラ表示牌の公開数は初期化され, 観測者は全て取り除かれます。
+     * 牌の配列は可能な限り使い回しますが, {@link #copy}で複製した牌山と共有している場合は
+     * 複製した牌山に影響しないよう新たな配列を確保します。
+     * @param tiles 牌の配列(長さ136)
+     * @param diceSum 2つのサイコロの目の合計値(2..12)
+     * @throws IllegalArgumentException 与えられた牌が136枚でない場合
+     */
+    void reset(Tile[] tiles, int diceSum){
+        if(tiles.length!=136)
+            throw new IllegalArgumentException("invalid length of tiles: "+tiles.length);
+        if(tilesShared){
+            this.tiles = new Tile[136];
+            this.tilesShared = false;
+        }
+        System.arraycopy(tiles, 0, this.tiles, 0, 136);
+        this.firstIndex = firstIndexOf(diceSum);
+        this.drawCount = 0;
+        this.quadCount = 0;
+        this.revealCount = 0;
+        this.observers.clear();
+    }
+
+    /**
+     * 配牌の最初の牌の配列上の位置を取得します。
+     * @param diceSum 2つのサイコロの目の合計値(2..12)
+     * @return 配列上の位置(0..135)
+     */
+    static int firstIndexOf(int diceSum){
+        return ((3- diceSum%4)*34 + diceSum*2)%136;
     }
 
     @Override
@@ -117,6 +161,22 @@ class ArrayWall implements Wall{
                 .toList();
     }
 
+    @Override
+    public List<Tile> getTiles(){
+        return List.of(tiles);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>牌の配列は複製元と共有します。
+     * 複製元が{@link #reset}で再利用される場合も複製した牌山の牌の並びは変わりません。
+     * @return 牌山の複製
+     */
+    @Override
+    public ArrayWall copy(){
+        return new ArrayWall(this);
+    }
+
     private Tile tileAt(int offset){
         return tiles[indexOf(offset)];
     }
@@ -22,20 +22,21 @@ interface GameAccessor{
 
     /**
      * オカを取得します。
+     * <p>オカは4人分の返し点と持ち点の差分の合計であり, トップのプレイヤーに加算されます。
      * @return オカ
      */
     default int getTopScore(){
-        return getReturnScore() - getDefaultScore();
+        return (getReturnScore() - getDefaultScore())*4;
     }
 
     /**
-     * 指定されたプレイヤーの順位を取得します。
+     * 対局の順位表を取得します。
      * <p>プレイヤーの順位はプレイヤーの持ち点で決定されます。
      * 同点のプレイヤーがいる場合は, 起家から見て上家側が優先的に順位付けされます。
-     * @param player 対象プレイヤー
-     * @return 対象プレイヤーの順位(1..4)
+     * 対局プレイヤーは持ち点が変わるたびに順位表へ変更を通知します。
+     * @return 順位表
      */
-    int getRankOf(GamePlayer player);
+    Standings getStandings();
 
     /**
      * 指定された順位に対応するウマを取得します。
@@ -0,0 +1,489 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 対局の通知及びプレイヤーの選択を二進形式で対局ごとのファイルに追記する記録先。
+ * <p>記録はバッファに書き込まれ, バッファが満たされた時点及び局の終了時にファイルへ書き出されます。
+ * ファイルの同期は局の終了時に前回の同期から一定時間が経過している場合と, 対局の終了時に行います。
+ * <p>ファイルは4バイトのマジックナンバー{@code MJNL}と1バイトのバージョン番号に続き, 記録の列で構成されます。
+ * 各記録は1バイトのヘッダで始まり, 上位4ビットが記録の種類を, 下位4ビットが記録の対象を表します。
+ * 対象の下位2ビットは風の序数, 第3ビットは横向き・副露牌を含む手牌などのフラグです。
+ * ただし座席情報の更新の記録では, 対象は前回の記録から内容が変化したプレイヤーの風のビットマスクです。
+ * 種類が{@link #EXTENDED}の記録はヘッダに続く1バイトで拡張された種類を表します。
+ * <p>牌は{@link Tile#ordinal}の1バイトで, 牌のリストは要素数の1バイトに続く各牌で,
+ * 整数はLEB128形式の可変長整数(符号付きの場合はZigZag符号化)で, 文字列は長さに続くUTF-8のバイト列で表します。
+ * <p>記録済みの牌山とプレイヤーの選択から再現可能な内容, すなわち手牌の更新時の手牌,
+ * 自摸時の牌山の位置及び捨て牌の牌は記録せず, 通知が発生したことのみを記録します。
+ * これにより半荘一回分の記録を数キロバイトに抑えます。
+ * <p>このクラスは一つの対局の処理から逐次的に呼び出されることを想定し, スレッドセーフではありません。
+ * ファイルへの書き込みに失敗した場合は以降の記録を破棄し, 対局の進行は妨げません。
+ * @author Rouh
+ * @version 1.0
+ */
+class GameJournal implements TableRecorder, Closeable{
+    private static final Logger LOG = LoggerFactory.getLogger(GameJournal.class);
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int BUFFER_SIZE = 8192;
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+    static final byte[] MAGIC = {'M', 'J', 'N', 'L'};
+    static final int VERSION = 1;
+    static final String FILE_SUFFIX = ".mjl";
+
+    static final int EXTENDED = 0x0;
+    static final int TURN_STARTED = 0x1;
+    static final int WALL_TILE_TAKEN = 0x2;
+    static final int HAND_UPDATED = 0x3;
+    static final int RIVER_TILE_ADDED = 0x4;
+    static final int TURN_ACTION = 0x5;
+    static final int CALL_ACTION = 0x6;
+    static final int SEAT_UPDATED = 0x7;
+    static final int RIVER_TILE_TAKEN = 0x8;
+    static final int TILT_MELD_ADDED = 0x9;
+    static final int SELF_QUAD_ADDED = 0xA;
+    static final int MELD_TILE_ADDED = 0xB;
+    static final int WALL_TILE_REVEALED = 0xC;
+    static final int DECLARED = 0xD;
+    static final int HAND_REVEALED = 0xE;
+    static final int READY_BONE_ADDED = 0xF;
+
+    static final int GAME_STARTED = 0;
+    static final int GAME_FINISHED = 1;
+    static final int ROUND_STARTED = 2;
+    static final int DICE_ROLLED = 3;
+    static final int WALL_GENERATED = 4;
+    static final int ROUND_DRAWN = 5;
+    static final int HAND_SCORE_NOTIFIED = 6;
+    static final int RIVER_SCORE_NOTIFIED = 7;
+    static final int PAYMENT_NOTIFIED = 8;
+    static final int ROUND_FINISHED = 9;
+
+    static final int FLAG = 0x4;
+    static final int NO_SIDE = 0xF;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final WritableByteChannel channel;
+    private final String name;
+    private final long syncIntervalNanos;
+    private final LongSupplier clock;
+    private final int[] lastScores = new int[4];
+    private final int[] lastRanks = new int[4];
+    private long lastSyncNanos;
+    private long writtenSize;
+    private boolean failed;
+
+    /**
+     * 記録先を生成します。
+     * @param path 記録先のファイルのパス
+     * @param syncIntervalMillis ファイルの同期の最小間隔(ミリ秒)
+     * @throws IOException ファイルを開けない場合
+     */
+    GameJournal(Path path, long syncIntervalMillis) throws IOException{
+        this(FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.CREATE),
+                path.toString(), syncIntervalMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * 任意の出力先に記録する記録先を生成します。
+     * <p>出力先がファイルでない場合, ファイルの同期は行いません。
+     * 出力先が空でないファイルの場合はマジックナンバー及びバージョン番号を書き込みません。
+     * @param channel 記録の出力先
+     * @param name ログに出力する記録先の名前
+     * @param syncIntervalMillis ファイルの同期の最小間隔(ミリ秒)
+     * @param clock 対局開始時に記録する時刻(エポックミリ秒)の供給関数
+     * @throws IOException 出力先の状態を取得できない場合
+     */
+    GameJournal(WritableByteChannel channel, String name, long syncIntervalMillis, LongSupplier clock) throws IOException{
+        this.channel = channel;
+        this.name = name;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        this.clock = clock;
+        this.lastSyncNanos = System.nanoTime();
+        if(!(channel instanceof FileChannel fileChannel) || fileChannel.size()==0){
+            writeBytes(MAGIC);
+            writeByte(VERSION);
+        }
+    }
+
+    /**
+     * 指定されたディレクトリに新しい対局の記録ファイルを作成し, 記録先を生成します。
+     * <p>ファイル名は作成日時と重複を避けるための文字列から構成されます。
+     * @param directory 記録ファイルを作成するディレクトリ
+     * @return 記録先
+     * @throws IOException ファイルを作成できない場合
+     */
+    static GameJournal create(Path directory) throws IOException{
+        Files.createDirectories(directory);
+        var prefix = "game-"+LocalDateTime.now().format(FILE_NAME_FORMATTER)+"-";
+        return new GameJournal(Files.createTempFile(directory, prefix, FILE_SUFFIX), DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * 記録したバイト数を取得します。
+     * <p>ファイルへ書き出していないバッファ上の記録を含みます。
+     * @return バイト数
+     */
+    long getSize(){
+        return writtenSize + buffer.position();
+    }
+
+    @Override
+    public void gameStarted(Map<Wind, String> names){
+        extended(GAME_STARTED, 0);
+        writeVarint(clock.getAsLong());
+        for(var wind:Wind.values()){
+            writeString(names.get(wind));
+        }
+    }
+
+    @Override
+    public void gameFinished(List<GameScoreData> scores){
+        extended(GAME_FINISHED, 0);
+        writeByte(scores.size());
+        for(var score:scores){
+            writeString(score.getName());
+            writeSignedVarint(score.getScore());
+            writeSignedVarint((int)Math.round(score.getResultPoint()*1000));
+        }
+        sync(true);
+    }
+
+    @Override
+    public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        extended(ROUND_STARTED, operandOf(wind, last));
+        writeByte(count);
+        writeVarint(streak);
+        writeVarint(deposit);
+    }
+
+    @Override
+    public void seatUpdated(Map<Wind, PlayerData> players){
+        int mask = 0;
+        for(var wind:Wind.values()){
+            var data = players.get(wind);
+            if(data.getScore()!=lastScores[wind.ordinal()] || data.getRank()!=lastRanks[wind.ordinal()]){
+                mask |= 1<<wind.ordinal();
+            }
+        }
+        header(SEAT_UPDATED, mask);
+        for(var wind:Wind.values()){
+            if((mask & 1<<wind.ordinal())!=0){
+                var data = players.get(wind);
+                writeByte(data.getRank());
+                writeSignedVarint(data.getScore());
+                lastScores[wind.ordinal()] = data.getScore();
+                lastRanks[wind.ordinal()] = data.getRank();
+            }
+        }
+    }
+
+    @Override
+    public void diceRolled(Wind wind, int dice1, int dice2){
+        extended(DICE_ROLLED, wind.ordinal());
+        writeByte(dice1<<4 | dice2);
+    }
+
+    @Override
+    public void wallGenerated(List<Tile> tiles){
+        extended(WALL_GENERATED, 0);
+        ensure(tiles.size());
+        for(var tile:tiles){
+            buffer.put((byte)tile.ordinal());
+        }
+    }
+
+    @Override
+    public void wallTileTaken(Wind wind, int column, int floor){
+        header(WALL_TILE_TAKEN, wind.ordinal());
+    }
+
+    @Override
+    public void wallTileRevealed(Wind wind, int column, Tile tile){
+        header(WALL_TILE_REVEALED, wind.ordinal());
+        writeByte(column);
+        writeTile(tile);
+    }
+
+    @Override
+    public void turnStarted(Wind wind){
+        header(TURN_STARTED, wind.ordinal());
+    }
+
+    @Override
+    public void handUpdated(Wind wind, List<Tile> wideTiles, boolean wide){
+        header(HAND_UPDATED, operandOf(wind, wide));
+    }
+
+    @Override
+    public void handRevealed(Wind wind, List<Tile> wideTiles, boolean wide){
+        header(HAND_REVEALED, operandOf(wind, wide));
+        writeTiles(wideTiles);
+    }
+
+    @Override
+    public void riverTileAdded(Wind wind, Tile tile, boolean tilt){
+        header(RIVER_TILE_ADDED, operandOf(wind, tilt));
+    }
+
+    @Override
+    public void riverTileTaken(Wind wind){
+        header(RIVER_TILE_TAKEN, wind.ordinal());
+    }
+
+    @Override
+    public void tiltMeldAdded(Wind wind, Side tilt, List<Tile> tiles){
+        header(TILT_MELD_ADDED, wind.ordinal());
+        writeByte(tilt.ordinal()<<4 | tiles.size());
+        for(var tile:tiles){
+            writeTile(tile);
+        }
+    }
+
+    @Override
+    public void selfQuadAdded(Wind wind, List<Tile> tiles){
+        header(SELF_QUAD_ADDED, wind.ordinal());
+        writeTiles(tiles);
+    }
+
+    @Override
+    public void meldTileAdded(Wind wind, int index, Tile tile){
+        header(MELD_TILE_ADDED, wind.ordinal());
+        writeByte(index);
+        writeTile(tile);
+    }
+
+    @Override
+    public void declared(Wind wind, Declaration declaration){
+        header(DECLARED, wind.ordinal());
+        writeByte(declaration.ordinal());
+    }
+
+    @Override
+    public void readyBoneAdded(Wind wind){
+        header(READY_BONE_ADDED, wind.ordinal());
+    }
+
+    @Override
+    public void turnActionSelected(Wind wind, TurnAction action){
+        header(TURN_ACTION, wind.ordinal());
+        writeByte(action.type().ordinal());
+        if(action.hasArgument()){
+            writeTile(action.argument());
+        }
+    }
+
+    @Override
+    public void callActionsSelected(Map<Wind, CallAction> actions){
+        for(var wind:Wind.values()){
+            var action = actions.get(wind);
+            if(action!=null){
+                header(CALL_ACTION, wind.ordinal());
+                var arguments = action.hasArguments()? action.arguments():List.<Tile>of();
+                writeByte(action.type().ordinal()<<4 | arguments.size());
+                for(var tile:arguments){
+                    writeTile(tile);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void roundDrawn(DrawType drawType){
+        extended(ROUND_DRAWN, 0);
+        writeByte(drawType.ordinal());
+    }
+
+    @Override
+    public void handScoreNotified(List<HandScoreData> scores){
+        extended(HAND_SCORE_NOTIFIED, 0);
+        writeByte(scores.size());
+        for(var score:scores){
+            writeTiles(score.getHandTiles());
+            writeTile(score.getWinningTile());
+            writeByte(score.isTsumo()? 1:0);
+            var melds = score.getOpenMelds();
+            var sides = score.getMeldTiltSides();
+            writeByte(melds.size());
+            for(int i = 0; i<melds.size(); i++){
+                var side = sides.get(i);
+                writeByte((side==null? NO_SIDE:side.ordinal())<<4 | melds.get(i).size());
+                for(var tile:melds.get(i)){
+                    writeTile(tile);
+                }
+            }
+            writeTiles(score.getUpperIndicators());
+            writeTiles(score.getLowerIndicators());
+            var names = score.getHandTypeNames();
+            var grades = score.getHandTypeGrades();
+            writeByte(names.size());
+            for(int i = 0; i<names.size(); i++){
+                writeString(names.get(i));
+                writeString(grades.get(i));
+            }
+            writeString(score.getScoreExpression());
+        }
+    }
+
+    @Override
+    public void riverScoreNotified(List<RiverScoreData> scores){
+        extended(RIVER_SCORE_NOTIFIED, 0);
+        writeByte(scores.size());
+        for(var score:scores){
+            writeString(score.getHandTypeName());
+            writeString(score.getHandTypeGrade());
+            writeString(score.getScoreExpression());
+        }
+    }
+
+    @Override
+    public void paymentNotified(Map<Wind, PaymentData> payments){
+        extended(PAYMENT_NOTIFIED, 0);
+        for(var wind:Wind.values()){
+            var payment = payments.get(wind);
+            writeByte(payment.getRankBefore()<<4 | payment.getRankAfter());
+            writeSignedVarint(payment.getScoreBefore());
+            writeSignedVarint(payment.getScoreAfter() - payment.getScoreBefore());
+        }
+    }
+
+    @Override
+    public void roundFinished(){
+        extended(ROUND_FINISHED, 0);
+        sync(false);
+    }
+
+    /**
+     * バッファ上の記録をファイルへ書き出して同期し, ファイルを閉じます。
+     */
+    @Override
+    public void close(){
+        if(!channel.isOpen()){
+            return;
+        }
+        sync(true);
+        try{
+            channel.close();
+        }catch(IOException e){
+            LOG.error("failed to close game journal: "+name, e);
+        }
+    }
+
+    private static int operandOf(Wind wind, boolean flag){
+        return flag? wind.ordinal() | FLAG:wind.ordinal();
+    }
+
+    private void header(int type, int operand){
+        writeByte(type<<4 | operand);
+    }
+
+    private void extended(int type, int operand){
+        ensure(2);
+        buffer.put((byte)(EXTENDED<<4 | operand));
+        buffer.put((byte)type);
+    }
+
+    private void writeByte(int value){
+        ensure(1);
+        buffer.put((byte)value);
+    }
+
+    private void writeTile(Tile tile){
+        writeByte(tile.ordinal());
+    }
+
+    private void writeTiles(List<Tile> tiles){
+        ensure(tiles.size() + 1);
+        buffer.put((byte)tiles.size());
+        for(var tile:tiles){
+            buffer.put((byte)tile.ordinal());
+        }
+    }
+
+    private void writeVarint(long value){
+        ensure(10);
+        while((value & ~0x7FL)!=0){
+            buffer.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    private void writeSignedVarint(int value){
+        writeVarint(Integer.toUnsignedLong((value<<1) ^ (value>>31)));
+    }
+
+    private void writeString(String value){
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        writeBytes(bytes);
+    }
+
+    private void writeBytes(byte[] bytes){
+        int offset = 0;
+        while(offset<bytes.length){
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensure(int size){
+        if(buffer.remaining()<size){
+            flush();
+        }
+    }
+
+    private void flush(){
+        buffer.flip();
+        if(!failed){
+            try{
+                while(buffer.hasRemaining()){
+                    writtenSize += channel.write(buffer);
+                }
+            }catch(IOException e){
+                failed = true;
+                LOG.error("failed to write game journal, following records are discarded: "+name, e);
+            }
+        }
+        buffer.clear();
+    }
+
+    private void sync(boolean force){
+        flush();
+        long now = System.nanoTime();
+        if(failed || (!force && now - lastSyncNanos<syncIntervalNanos)){
+            return;
+        }
+        try{
+            if(channel instanceof FileChannel fileChannel){
+                fileChannel.force(false);
+            }
+            lastSyncNanos = now;
+        }catch(IOException e){
+            failed = true;
+            LOG.error("failed to sync game journal, following records are discarded: "+name, e);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package jp.rouh.mahjong.game;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 対局エンジンの統計値を集計するクラス。
+ * <p>対局数, 局数, 通知数の計数と, ターン内行動の選択, ターン外行動の調停及び
+ * 和了時の点数計算に要した時間の分布を集計します。
+ * 集計はロックを用いない{@link LongAdder}及び{@link LatencyHistogram}で行うため,
+ * 多数のテーブルが並行して進行していても局の進行を妨げません。
+ * <p>{@link #getShared}で取得する共有のインスタンスは初回の取得時に
+ * プラットフォームMBeanサーバへ{@value #OBJECT_NAME}の名前で登録され,
+ * jconsoleなどのJMXクライアントから参照できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public final class GameMetrics implements GameMetricsMBean{
+    private static final Logger LOG = LoggerFactory.getLogger(GameMetrics.class);
+
+    /** 共有のインスタンスのMBeanの名前 */
+    public static final String OBJECT_NAME = "jp.rouh.mahjong:type=GameMetrics";
+
+    /** 何も集計しないインスタンス */
+    static final GameMetrics DISABLED = new GameMetrics(false);
+    private static volatile GameMetrics shared;
+    private final boolean enabled;
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder roundsPlayed = new LongAdder();
+    private final LongAdder eventsNotified = new LongAdder();
+    private final LatencyHistogram turnDecisions = new LatencyHistogram();
+    private final LatencyHistogram callMediations = new LatencyHistogram();
+    private final LatencyHistogram scorings = new LatencyHistogram();
+
+    /**
+     * 集計を行うインスタンスを生成します。
+     * <p>生成したインスタンスはMBeanサーバへ登録されません。
+     */
+    public GameMetrics(){
+        this(true);
+    }
+
+    private GameMetrics(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    /**
+     * プロセス内で共有されるインスタンスを取得します。
+     * <p>共有のインスタンスは初回の呼び出し時に生成され, MBeanサーバへ登録されます。
+     * 登録に失敗した場合も集計は行われます。
+     * @return 共有のインスタンス
+     */
+    public static GameMetrics getShared(){
+        var metrics = shared;
+        if(metrics==null){
+            synchronized(GameMetrics.class){
+                metrics = shared;
+                if(metrics==null){
+                    metrics = new GameMetrics();
+                    register(metrics);
+                    shared = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    private static void register(GameMetrics metrics){
+        try{
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if(!server.isRegistered(name)){
+                server.registerMBean(metrics, name);
+            }
+        }catch(JMException | SecurityException e){
+            LOG.warn("failed to register game metrics MBean", e);
+        }
+    }
+
+    void gameStarted(){
+        if(enabled){
+            gamesStarted.increment();
+        }
+    }
+
+    void gameFinished(){
+        if(enabled){
+            gamesFinished.increment();
+        }
+    }
+
+    void roundPlayed(){
+        if(enabled){
+            roundsPlayed.increment();
+        }
+    }
+
+    void eventNotified(){
+        if(enabled){
+            eventsNotified.increment();
+        }
+    }
+
+    /**
+     * ターン内行動の選択に要した時間を記録します。
+     * @param nanos 所要時間(ナノ秒)
+     */
+    void turnDecided(long nanos){
+        if(enabled){
+            turnDecisions.record(nanos);
+        }
+    }
+
+    /**
+     * ターン外行動の調停に要した時間を記録します。
+     * @param nanos 所要時間(ナノ秒)
+     */
+    void callMediated(long nanos){
+        if(enabled){
+            callMediations.record(nanos);
+        }
+    }
+
+    /**
+     * 和了時の点数計算に要した時間を記録します。
+     * @param nanos 所要時間(ナノ秒)
+     */
+    void handScored(long nanos){
+        if(enabled){
+            scorings.record(nanos);
+        }
+    }
+
+    @Override
+    public long getGamesStarted(){
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished(){
+        return gamesFinished.sum();
+    }
+
+    @Override
+    public long getRoundsPlayed(){
+        return roundsPlayed.sum();
+    }
+
+    @Override
+    public long getEventsNotified(){
+        return eventsNotified.sum();
+    }
+
+    @Override
+    public long getTurnDecisionCount(){
+        return turnDecisions.getCount();
+    }
+
+    @Override
+    public double getTurnDecisionMeanMicros(){
+        return turnDecisions.getMeanMicros();
+    }
+
+    @Override
+    public long getTurnDecisionP50Micros(){
+        return turnDecisions.getPercentileMicros(0.5);
+    }
+
+    @Override
+    public long getTurnDecisionP99Micros(){
+        return turnDecisions.getPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getTurnDecisionMaxMicros(){
+        return turnDecisions.getMaxMicros();
+    }
+
+    @Override
+    public long getCallMediationCount(){
+        return callMediations.getCount();
+    }
+
+    @Override
+    public double getCallMediationMeanMicros(){
+        return callMediations.getMeanMicros();
+    }
+
+    @Override
+    public long getCallMediationP99Micros(){
+        return callMediations.getPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getCallMediationMaxMicros(){
+        return callMediations.getMaxMicros();
+    }
+
+    @Override
+    public long getScoringCount(){
+        return scorings.getCount();
+    }
+
+    @Override
+    public double getScoringMeanMicros(){
+        return scorings.getMeanMicros();
+    }
+
+    @Override
+    public long getScoringP99Micros(){
+        return scorings.getPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getScoringMaxMicros(){
+        return scorings.getMaxMicros();
+    }
+
+    @Override
+    public void reset(){
+        gamesStarted.reset();
+        gamesFinished.reset();
+        roundsPlayed.reset();
+        eventsNotified.reset();
+        turnDecisions.reset();
+        callMediations.reset();
+        scorings.reset();
+    }
+
+    @Override
+    public String toString(){
+        return "GameMetrics{games="+getGamesFinished()+"/"+getGamesStarted()
+                +", rounds="+getRoundsPlayed()
+                +", events="+getEventsNotified()
+                +", turnDecisions="+getTurnDecisionCount()
+                +", callMediations="+getCallMediationCount()
+                +", scorings="+getScoringCount()+"}";
+    }
+}
@@ -0,0 +1,121 @@
+package jp.rouh.mahjong.game;
+
+/**
+ * 対局エンジンの統計値を公開するMBeanインターフェース。
+ * <p>処理時間の単位は全てマイクロ秒です。
+ * 自風別の値は東南西北の順の配列で返します。
+ * @author Rouh
+ * @version 1.0
+ * @see GameMetrics
+ */
+public interface GameMetricsMBean{
+
+    /**
+     * 開始した対局の数を取得します。
+     * @return 対局数
+     */
+    long getGamesStarted();
+
+    /**
+     * 終了した対局の数を取得します。
+     * @return 対局数
+     */
+    long getGamesFinished();
+
+    /**
+     * 終了した局の数を取得します。
+     * @return 局数
+     */
+    long getRoundsPlayed();
+
+    /**
+     * プレイヤーへ行った通知の数を取得します。
+     * <p>全員への一回の通知を一件として数えます。
+     * @return 通知数
+     */
+    long getEventsNotified();
+
+    /**
+     * ターン内行動の選択の数を取得します。
+     * @return 選択数
+     */
+    long getTurnDecisionCount();
+
+    /**
+     * ターン内行動の選択に要した時間の平均値を取得します。
+     * @return 平均値
+     */
+    double getTurnDecisionMeanMicros();
+
+    /**
+     * ターン内行動の選択に要した時間の中央値の近似値を取得します。
+     * @return 中央値
+     */
+    long getTurnDecisionP50Micros();
+
+    /**
+     * ターン内行動の選択に要した時間の99パーセンタイルの近似値を取得します。
+     * @return 99パーセンタイル
+     */
+    long getTurnDecisionP99Micros();
+
+    /**
+     * ターン内行動の選択に要した時間の最大値を取得します。
+     * @return 最大値
+     */
+    long getTurnDecisionMaxMicros();
+
+    /**
+     * ターン外行動の調停の数を取得します。
+     * <p>全員の選択肢がパスのみで調停を行わなかった場合は数えません。
+     * @return 調停数
+     */
+    long getCallMediationCount();
+
+    /**
+     * ターン外行動の調停に要した時間の平均値を取得します。
+     * @return 平均値
+     */
+    double getCallMediationMeanMicros();
+
+    /**
+     * ターン外行動の調停に要した時間の99パーセンタイルの近似値を取得します。
+     * @return 99パーセンタイル
+     */
+    long getCallMediationP99Micros();
+
+    /**
+     * ターン外行動の調停に要した時間の最大値を取得します。
+     * @return 最大値
+     */
+    long getCallMediationMaxMicros();
+
+    /**
+     * 和了時の点数計算の数を取得します。
+     * @return 計算数
+     */
+    long getScoringCount();
+
+    /**
+     * 和了時の点数計算に要した時間の平均値を取得します。
+     * @return 平均値
+     */
+    double getScoringMeanMicros();
+
+    /**
+     * 和了時の点数計算に要した時間の99パーセンタイルの近似値を取得します。
+     * @return 99パーセンタイル
+     */
+    long getScoringP99Micros();
+
+    /**
+     * 和了時の点数計算に要した時間の最大値を取得します。
+     * @return 最大値
+     */
+    long getScoringMaxMicros();
+
+    /**
+     * 全ての統計値を初期化します。
+     */
+    void reset();
+}
@@ -14,6 +14,8 @@ class GamePlayer extends ForwardingTableStrategy implements GamePlayerAccessor{
     private final String name;
     private final Wind initialSeatWind;
     private int score;
+    private int timeoutCount;
+    private final boolean decisionTimeBounded;
 
     /**
      * 対局プレイヤーのコンストラクタ。
@@ -23,10 +25,12 @@ class GamePlayer extends ForwardingTableStrategy implements GamePlayerAccessor{
      */
     GamePlayer(GameAccessor game, Player player, Wind initialSeatWind){
         super(player.getStrategy());
+        this.decisionTimeBounded = player.getStrategy().isDecisionTimeBounded();
         this.game = game;
         this.name = player.getName();
         this.initialSeatWind = initialSeatWind;
         this.score = game.getDefaultScore();
+        game.getStandings().scoreChanged(initialSeatWind, score);
     }
 
     @Override
@@ -54,12 +58,33 @@ class GamePlayer extends ForwardingTableStrategy implements GamePlayerAccessor{
 
     @Override
     public int getRank(){
-        return game.getRankOf(this);
+        return game.getStandings().getRankOf(initialSeatWind);
+    }
+
+    @Override
+    public int getScoreGapToUpperRank(){
+        return game.getStandings().getScoreGapToUpperRank(initialSeatWind);
     }
 
     @Override
     public void applyScore(int score){
         this.score += score;
+        game.getStandings().scoreChanged(initialSeatWind, this.score);
+    }
+
+    @Override
+    public void decisionTimedOut(){
+        timeoutCount++;
+    }
+
+    @Override
+    public int getTimeoutCount(){
+        return timeoutCount;
+    }
+
+    @Override
+    public boolean isDecisionTimeBounded(){
+        return decisionTimeBounded;
     }
 
     /**
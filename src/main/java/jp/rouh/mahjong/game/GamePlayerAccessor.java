@@ -37,6 +37,13 @@ interface GamePlayerAccessor extends TableStrategy{
      */
     int getRank();
 
+    /**
+     * 一つ上の順位のゲームプレイヤーとの点差を取得します。
+     * <p>1位の場合や, 同点で上位のプレイヤーがいる場合は0となります。
+     * @return 点差
+     */
+    int getScoreGapToUpperRank();
+
     /**
      * ゲームプレイヤーに点数を設定します。
      * <p>受け取りであれば正の数を, 支払いであれば負の数を指定します。
@@ -44,4 +51,15 @@ interface GamePlayerAccessor extends TableStrategy{
      */
     void applyScore(int score);
 
+    /**
+     * ゲームプレイヤーが待機時間内に行動を選択しなかったことを記録します。
+     */
+    void decisionTimedOut();
+
+    /**
+     * ゲームプレイヤーが待機時間内に行動を選択しなかった回数を取得します。
+     * @return 回数
+     */
+    int getTimeoutCount();
+
 }
@@ -0,0 +1,322 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.CallAction;
+import jp.rouh.mahjong.game.event.CallActionType;
+import jp.rouh.mahjong.game.event.TurnAction;
+import jp.rouh.mahjong.game.event.TurnActionType;
+import jp.rouh.mahjong.tile.DiceTwin;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static jp.rouh.mahjong.game.GameJournal.*;
+
+/**
+ * {@link GameJournal}で記録した一対局分の記録を読み込んだクラス。
+ * <p>対局を再実行するために必要な情報, すなわち対局開始時の席順, 各局のサイコロの目と牌山,
+ * 及びプレイヤーの選択を記録から取り出して保持します。
+ * 記録のバイト列そのものも保持し, 再実行時の通知が記録と一致するかの検証に用います。
+ * @author Rouh
+ * @version 1.0
+ */
+class GameRecord{
+    private static final Tile[] TILES = Tile.values();
+    private final byte[] bytes;
+    private final Map<Wind, String> names = new EnumMap<>(Wind.class);
+    private final List<DiceTwin> dices = new ArrayList<>();
+    private final List<Tile[]> walls = new ArrayList<>();
+    private final List<Decision> decisions = new ArrayList<>();
+    private long startedTime;
+    private RoundID lastRoundId;
+    private int position;
+
+    /**
+     * プレイヤーの選択。
+     * <p>ターン内行動の選択の場合は{@code turnAction}を, ターン外行動の選択の場合は
+     * 最終的に適用された行動のマップ{@code callActions}を保持します。
+     * 全員がパスしたターン外行動の選択は記録されません。
+     * @param wind ターン内行動を選択したプレイヤーの自風, ターン外行動の場合はnull
+     * @param turnAction ターン内行動, ターン外行動の場合はnull
+     * @param callActions ターン外行動のマップ, ターン内行動の場合はnull
+     */
+    record Decision(Wind wind, TurnAction turnAction, Map<Wind, CallAction> callActions){
+
+        /**
+         * ターン内行動の選択か検査します。
+         * @return true ターン内行動の場合
+         *         false ターン外行動の場合
+         */
+        boolean isTurn(){
+            return turnAction!=null;
+        }
+    }
+
+    private GameRecord(byte[] bytes){
+        this.bytes = bytes;
+    }
+
+    /**
+     * 記録ファイルを読み込みます。
+     * @param path 記録ファイルのパス
+     * @return 対局の記録
+     * @throws IOException ファイルを読み込めない場合
+     * @throws IllegalArgumentException 記録の形式が不正の場合
+     */
+    static GameRecord read(Path path) throws IOException{
+        return parse(Files.readAllBytes(path));
+    }
+
+    /**
+     * 記録のバイト列を読み込みます。
+     * @param bytes 記録のバイト列
+     * @return 対局の記録
+     * @throws IllegalArgumentException 記録の形式が不正の場合
+     */
+    static GameRecord parse(byte[] bytes){
+        var record = new GameRecord(bytes);
+        try{
+            record.parse();
+        }catch(IndexOutOfBoundsException e){
+            throw new IllegalArgumentException("truncated game journal at "+record.position, e);
+        }
+        return record;
+    }
+
+    /**
+     * 記録のバイト列を取得します。
+     * @return バイト列
+     */
+    byte[] getBytes(){
+        return bytes;
+    }
+
+    /**
+     * 対局開始時の時刻を取得します。
+     * @return エポックミリ秒
+     */
+    long getStartedTime(){
+        return startedTime;
+    }
+
+    /**
+     * 対局開始時の自風に対するプレイヤー名のマップを取得します。
+     * @return マップ
+     */
+    Map<Wind, String> getNames(){
+        return Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * 各局のサイコロの目を局の順に取得します。
+     * @return サイコロの目のリスト
+     */
+    List<DiceTwin> getDices(){
+        return Collections.unmodifiableList(dices);
+    }
+
+    /**
+     * 指定された局の牌山の牌を生成時の配列上の順に取得します。
+     * @param roundIndex 局の通し番号(0..)
+     * @return 牌の配列(長さ136)
+     */
+    Tile[] getWall(int roundIndex){
+        return walls.get(roundIndex).clone();
+    }
+
+    /**
+     * プレイヤーの選択を選択の順に取得します。
+     * @return 選択のリスト
+     */
+    List<Decision> getDecisions(){
+        return Collections.unmodifiableList(decisions);
+    }
+
+    /**
+     * 記録から対局のスパンを推定します。
+     * <p>オーラスとして開始された最初の局を最終局とするスパンを返します。
+     * オーラスに到達せずに終局した場合は, 記録された局の進行と矛盾しない一荘戦のスパンを返します。
+     * @return 局スパン
+     * @throws IllegalStateException 該当するスパンが存在しない場合
+     */
+    GameSpan getSpan(){
+        if(lastRoundId==null){
+            return GameSpan.ofFullGame();
+        }
+        for(var span:List.of(GameSpan.ofEastGame(), GameSpan.ofHalfGame(), GameSpan.ofFullGame())){
+            if(span.isLastRound(lastRoundId)){
+                return span;
+            }
+        }
+        throw new IllegalStateException("unsupported game span: last round "+lastRoundId);
+    }
+
+    private void parse(){
+        for(int i = 0; i<MAGIC.length; i++){
+            if(bytes[i]!=MAGIC[i]){
+                throw new IllegalArgumentException("not a game journal");
+            }
+        }
+        position = MAGIC.length;
+        int version = readByte();
+        if(version!=VERSION){
+            throw new IllegalArgumentException("unsupported game journal version: "+version);
+        }
+        Map<Wind, CallAction> callActions = null;
+        while(position<bytes.length){
+            int header = readByte();
+            int type = header>>>4;
+            int operand = header & 0xF;
+            var wind = Wind.values()[operand & 0x3];
+            if(type!=CALL_ACTION){
+                callActions = null;
+            }
+            switch(type){
+                case EXTENDED -> parseExtended(readByte(), operand);
+                case TURN_STARTED, WALL_TILE_TAKEN, HAND_UPDATED, RIVER_TILE_ADDED,
+                        RIVER_TILE_TAKEN, READY_BONE_ADDED -> {}
+                case TURN_ACTION -> {
+                    var actionType = TurnActionType.values()[readByte()];
+                    boolean hasArgument = actionType!=TurnActionType.TSUMO && actionType!=TurnActionType.NINE_TILES;
+                    var action = new TurnAction(actionType, hasArgument? readTile():null);
+                    decisions.add(new Decision(wind, action, null));
+                }
+                case CALL_ACTION -> {
+                    int value = readByte();
+                    var arguments = readTiles(value & 0xF);
+                    var action = new CallAction(CallActionType.values()[value>>>4], arguments.isEmpty()? null:arguments);
+                    if(callActions==null){
+                        callActions = new EnumMap<>(Wind.class);
+                        decisions.add(new Decision(null, null, callActions));
+                    }
+                    callActions.put(wind, action);
+                }
+                case SEAT_UPDATED -> {
+                    for(int i = 0; i<4; i++){
+                        if((operand & 1<<i)!=0){
+                            readByte();
+                            readVarint();
+                        }
+                    }
+                }
+                case TILT_MELD_ADDED -> skip(readByte() & 0xF);
+                case SELF_QUAD_ADDED, HAND_REVEALED -> skip(readByte());
+                case MELD_TILE_ADDED, WALL_TILE_REVEALED -> skip(2);
+                case DECLARED -> skip(1);
+                default -> throw new AssertionError();
+            }
+        }
+    }
+
+    private void parseExtended(int type, int operand){
+        switch(type){
+            case GAME_STARTED -> {
+                startedTime = readVarint();
+                for(var wind:Wind.values()){
+                    names.put(wind, readString());
+                }
+            }
+            case GAME_FINISHED -> {
+                int count = readByte();
+                for(int i = 0; i<count; i++){
+                    readString();
+                    readVarint();
+                    readVarint();
+                }
+            }
+            case ROUND_STARTED -> {
+                int count = readByte();
+                readVarint();
+                readVarint();
+                if(lastRoundId==null && (operand & FLAG)!=0){
+                    lastRoundId = new RoundID(Wind.values()[operand & 0x3], count);
+                }
+            }
+            case DICE_ROLLED -> {
+                int value = readByte();
+                dices.add(new DiceTwin(value>>>4, value & 0xF));
+            }
+            case WALL_GENERATED -> walls.add(readTiles(136).toArray(new Tile[0]));
+            case ROUND_DRAWN -> skip(1);
+            case HAND_SCORE_NOTIFIED -> {
+                int count = readByte();
+                for(int i = 0; i<count; i++){
+                    skip(readByte());
+                    skip(2);
+                    int meldCount = readByte();
+                    for(int j = 0; j<meldCount; j++){
+                        skip(readByte() & 0xF);
+                    }
+                    skip(readByte());
+                    skip(readByte());
+                    int handTypeCount = readByte();
+                    for(int j = 0; j<handTypeCount*2 + 1; j++){
+                        readString();
+                    }
+                }
+            }
+            case RIVER_SCORE_NOTIFIED -> {
+                int count = readByte();
+                for(int i = 0; i<count*3; i++){
+                    readString();
+                }
+            }
+            case PAYMENT_NOTIFIED -> {
+                for(int i = 0; i<4; i++){
+                    readByte();
+                    readVarint();
+                    readVarint();
+                }
+            }
+            case ROUND_FINISHED -> {}
+            default -> throw new IllegalArgumentException("unknown record type: "+type+" at "+(position - 1));
+        }
+    }
+
+    private int readByte(){
+        if(position>=bytes.length){
+            throw new IndexOutOfBoundsException(position);
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private Tile readTile(){
+        return TILES[readByte()];
+    }
+
+    private List<Tile> readTiles(int size){
+        var tiles = new ArrayList<Tile>(size);
+        for(int i = 0; i<size; i++){
+            tiles.add(readTile());
+        }
+        return tiles;
+    }
+
+    private long readVarint(){
+        long value = 0;
+        for(int shift = 0; ; shift += 7){
+            int b = readByte();
+            value |= (long)(b & 0x7F)<<shift;
+            if((b & 0x80)==0){
+                return value;
+            }
+        }
+    }
+
+    private String readString(){
+        int length = (int)readVarint();
+        skip(length);
+        return new String(bytes, position - length, length, StandardCharsets.UTF_8);
+    }
+
+    private void skip(int length){
+        if(position + length>bytes.length){
+            throw new IndexOutOfBoundsException(position + length);
+        }
+        position += length;
+    }
+}
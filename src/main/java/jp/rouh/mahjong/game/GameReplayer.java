@@ -0,0 +1,247 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link GameJournal}で記録した対局を画面を伴わずに再実行するクラス。
+ * <p>記録された各局のサイコロの目と牌山, 及びプレイヤーの選択を{@link PreparedGame}に与えて対局を再実行し,
+ * 再実行中の全ての通知と選択を記録と同一の形式で符号化して記録のバイト列と照合します。
+ * 照合に失敗した場合, その対局の再実行は直ちに中断され不一致として計上されます。
+ * 再実行は通常の対局と同様に全ての通知を生成して行うため, シミュレーションモードで記録した対局は照合できません。
+ * <p>エンジンの変更に対する回帰確認, 実際の対局データを用いた性能計測, 及び対局内容の検証に用います。
+ * <p>対局は既定では利用可能なプロセッサ数のスレッドで並列に再実行されます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class GameReplayer{
+    private static final Logger LOG = LoggerFactory.getLogger(GameReplayer.class);
+    private final List<Path> paths = new ArrayList<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 再実行する対局の記録ファイルを追加します。
+     * @param path 記録ファイルのパス
+     */
+    public void addJournal(Path path){
+        paths.add(path);
+    }
+
+    /**
+     * 対局を並列に再実行するスレッド数を設定します。
+     * @param parallelism スレッド数
+     * @throws IllegalArgumentException スレッド数が1未満の場合
+     */
+    public void setParallelism(int parallelism){
+        if(parallelism<1){
+            throw new IllegalArgumentException("invalid parallelism: "+parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 全ての対局を再実行し, 終了するまで待機します。
+     * <p>記録を読み込めない対局, 及び再実行中に例外が発生した対局は不一致として計上されます。
+     * @return 再実行の結果
+     */
+    public ReplayResult start(){
+        var result = new ReplayResult();
+        var executorService = Executors.newFixedThreadPool(parallelism);
+        var completionService = new ExecutorCompletionService<Integer>(executorService);
+        long startNanos = System.nanoTime();
+        for(var path:paths){
+            completionService.submit(()->replay(GameRecord.read(path)));
+        }
+        executorService.shutdown();
+        try{
+            for(var path:paths){
+                try{
+                    result.addGame(completionService.take().get());
+                }catch(ExecutionException e){
+                    LOG.error("replay diverged from game journal", e.getCause());
+                    result.addMismatch(String.valueOf(e.getCause().getMessage()));
+                }
+            }
+        }catch(InterruptedException e){
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("replay interrupted", e);
+        }
+        result.setElapsedNanos(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    /**
+     * 対局を再実行し, 記録と照合します。
+     * @param record 対局の記録
+     * @return 再実行したプレイヤーの選択の数
+     * @throws IOException 照合用の記録先を生成できない場合
+     * @throws IllegalStateException 再実行の内容が記録と一致しない場合
+     */
+    static int replay(GameRecord record) throws IOException{
+        var cursor = new DecisionCursor(record.getDecisions());
+        var players = new EnumMap<Wind, Player>(Wind.class);
+        for(var wind:Wind.values()){
+            players.put(wind, new Player(record.getNames().get(wind), new ScriptedStrategy(wind, cursor)));
+        }
+        var dices = record.getDices().iterator();
+        var roundIndex = new int[1];
+        var game = new PreparedGame(players, record.getSpan(),
+                (dice1, dice2)->new ArrayWall(record.getWall(roundIndex[0]++), dice1 + dice2));
+        var verifier = new VerifyingChannel(record.getBytes());
+        game.setDiceRoller(()->{
+            if(!dices.hasNext()){
+                throw new IllegalStateException("replay diverged from record: more rounds than recorded");
+            }
+            return dices.next();
+        });
+        game.setRecorder(new ReplayJournal(verifier, record.getStartedTime(), cursor));
+        game.start();
+        verifier.verifyCompleted();
+        return record.getDecisions().size();
+    }
+
+    /**
+     * 記録されたプレイヤーの選択の読み出し位置。
+     * <p>読み出し位置は局の進行スレッドで選択が適用された時点で進められ,
+     * 各プレイヤーの戦略オブジェクトからは現在の選択が参照されます。
+     */
+    private static class DecisionCursor{
+        private final List<GameRecord.Decision> decisions;
+        private volatile int index;
+
+        private DecisionCursor(List<GameRecord.Decision> decisions){
+            this.decisions = decisions;
+        }
+
+        private GameRecord.Decision current(){
+            int i = index;
+            return i<decisions.size()? decisions.get(i):null;
+        }
+
+        private void advance(){
+            index++;
+        }
+    }
+
+    /**
+     * 記録されたプレイヤーの選択を順に再現する戦略オブジェクト。
+     */
+    private static class ScriptedStrategy implements TableObserverAdapter, TableStrategy{
+        private final Wind initialSeatWind;
+        private final DecisionCursor cursor;
+        private volatile Wind seatWind;
+
+        private ScriptedStrategy(Wind initialSeatWind, DecisionCursor cursor){
+            this.initialSeatWind = initialSeatWind;
+            this.cursor = cursor;
+            this.seatWind = initialSeatWind;
+        }
+
+        @Override
+        public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+            seatWind = initialSeatWind.shift(5 - count);
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            var decision = cursor.current();
+            if(decision==null || !decision.isTurn() || decision.wind()!=seatWind){
+                throw new IllegalStateException("replay diverged from record: unexpected turn action of "+seatWind+", recorded: "+decision);
+            }
+            if(!choices.contains(decision.turnAction())){
+                throw new IllegalStateException("replay diverged from record: "+decision.turnAction()+" is not in "+choices);
+            }
+            return decision.turnAction();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            var decision = cursor.current();
+            var action = decision!=null && !decision.isTurn()?
+                    decision.callActions().getOrDefault(seatWind, CallAction.ofPass()):CallAction.ofPass();
+            if(!choices.contains(action)){
+                throw new IllegalStateException("replay diverged from record: "+action+" is not in "+choices);
+            }
+            return action;
+        }
+    }
+
+    /**
+     * 選択の適用に合わせて読み出し位置を進める照合用の記録先。
+     */
+    private static class ReplayJournal extends GameJournal{
+        private final DecisionCursor cursor;
+
+        private ReplayJournal(VerifyingChannel channel, long startedTime, DecisionCursor cursor) throws IOException{
+            super(channel, "replay", Long.MAX_VALUE, ()->startedTime);
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void turnActionSelected(Wind wind, TurnAction action){
+            super.turnActionSelected(wind, action);
+            cursor.advance();
+        }
+
+        @Override
+        public void callActionsSelected(Map<Wind, CallAction> actions){
+            super.callActionsSelected(actions);
+            if(!actions.isEmpty()){
+                cursor.advance();
+            }
+        }
+    }
+
+    /**
+     * 書き込まれたバイト列を記録のバイト列と照合する出力先。
+     */
+    private static class VerifyingChannel implements WritableByteChannel{
+        private final byte[] expected;
+        private int position;
+
+        private VerifyingChannel(byte[] expected){
+            this.expected = expected;
+        }
+
+        @Override
+        public int write(ByteBuffer src){
+            int length = src.remaining();
+            for(int i = 0; i<length; i++){
+                byte actual = src.get();
+                if(position>=expected.length || expected[position]!=actual){
+                    throw new IllegalStateException("replay diverged from record at byte offset "+position);
+                }
+                position++;
+            }
+            return length;
+        }
+
+        private void verifyCompleted(){
+            if(position!=expected.length){
+                throw new IllegalStateException("replay diverged from record: "+(expected.length - position)+" bytes not replayed");
+            }
+        }
+
+        @Override
+        public boolean isOpen(){
+            return true;
+        }
+
+        @Override
+        public void close(){
+            //pass
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package jp.rouh.mahjong.game;
 
+import jp.rouh.mahjong.game.event.AsyncTableStrategy;
 import jp.rouh.mahjong.game.event.PlayerTempData;
+import jp.rouh.mahjong.game.event.TableEventCategory;
 import jp.rouh.mahjong.game.event.TableObserver;
 import jp.rouh.mahjong.game.event.TableStrategy;
 import jp.rouh.mahjong.tile.DiceTwin;
 import jp.rouh.mahjong.tile.Side;
 import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static jp.rouh.mahjong.tile.Wind.*;
 
@@ -18,7 +27,13 @@ import static jp.rouh.mahjong.tile.Wind.*;
  * @version 1.0
  */
 public class GameTable{
+    private static final Logger LOG = LoggerFactory.getLogger(GameTable.class);
     private final List<Player> players = new ArrayList<>(4);
+    private boolean simulationMode = false;
+    private long decisionTimeoutMillis = 0;
+    private PreparedGame game;
+    private Path journalDirectory;
+    private GameJournal journal;
 
     /**
      * 参加プレイヤーを追加します。
@@ -33,11 +48,86 @@ public class GameTable{
         players.add(new Player(name, strategy));
     }
 
+    /**
+     * シミュレーションモードを設定します。
+     * <p>シミュレーションモードでは, 各プレイヤーの戦略オブジェクトが
+     * {@link TableObserver#getRequiredEventCategories}で宣言した分類の通知のみを生成し通知します。
+     * 画面を伴わない自己対局など, 全ての通知を必要としない対局の高速化に用いられます。
+     * <p>設定しない場合は全ての通知を行います。
+     * @param simulationMode シミュレーションモードとする場合はtrue
+     */
+    public void setSimulationMode(boolean simulationMode){
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * プレイヤーの行動選択の待機時間を設定します。
+     * <p>待機時間内に行動を選択しなかったプレイヤーには既定の行動
+     * (ターン内行動ではツモ切り, ターン外行動ではパス)が適用されます。
+     * <p>設定しない場合は選択を無制限に待機します。
+     * @param timeout 待機時間, 0以下の場合は無制限
+     * @param unit 待機時間の単位
+     */
+    public void setDecisionTimeout(long timeout, TimeUnit unit){
+        this.decisionTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * 対局の記録ファイルを作成するディレクトリを設定します。
+     * <p>設定した場合, 対局ごとに全ての通知とプレイヤーの選択を二進形式で記録したファイルを作成します。
+     * 記録ファイルを作成できない場合は記録せずに対局を行います。
+     * <p>設定しない場合は記録しません。
+     * @param journalDirectory 記録ファイルを作成するディレクトリ
+     */
+    public void setJournalDirectory(Path journalDirectory){
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * 直前の対局でプレイヤーが待機時間内に行動を選択しなかった回数を取得します。
+     * @return プレイヤー名と回数のマップ, 対局を開始していない場合は空のマップ
+     */
+    public Map<String, Integer> getTimeoutCounts(){
+        return game==null? Map.of():game.getTimeoutCounts();
+    }
+
     /**
      * 対局を開始します。
      * @throws IllegalStateException 参加プレイヤーの数が不正の場合
      */
     public void start(){
+        var prepared = prepare();
+        try{
+            prepared.start();
+        }finally{
+            closeJournal();
+        }
+    }
+
+    /**
+     * 対局を非同期に開始します。
+     * <p>親決め及び各局の処理は実行サービス上で行われ,
+     * プレイヤーの行動選択を待機する間はスレッドを占有しません。
+     * 行動選択を非同期に行うには, 戦略オブジェクトに{@link AsyncTableStrategy}を実装します。
+     * @param executor 対局の処理を行う実行サービス
+     * @return 対局の終了時に完了するオブジェクト
+     * @throws IllegalStateException 参加プレイヤーの数が不正の場合
+     */
+    public CompletableFuture<Void> startAsync(Executor executor){
+        if(players.size()!=4){
+            throw new IllegalStateException("need more players to start: count="+players.size());
+        }
+        return CompletableFuture.supplyAsync(this::prepare, executor)
+                .thenCompose(prepared->prepared.startAsync(executor))
+                .whenComplete((result, e)->closeJournal());
+    }
+
+    /**
+     * 親決めを行い, 対局を準備します。
+     * @throws IllegalStateException 参加プレイヤーの数が不正の場合
+     * @return 席決め後の対局
+     */
+    private PreparedGame prepare(){
         if(players.size()!=4){
             throw new IllegalStateException("need more players to start: count="+players.size());
         }
@@ -58,8 +148,25 @@ public class GameTable{
             var seatWind = orderWind.from(dealerOrderWind).of(EAST);
             playerMap.put(seatWind, players.get(orderWind.ordinal()));
         }
-        var preparedGame = new PreparedGame(playerMap, GameSpan.ofHalfGame());
-        preparedGame.start();
+        game = new PreparedGame(playerMap, GameSpan.ofHalfGame());
+        game.setSimulationMode(simulationMode);
+        game.setDecisionTimeout(decisionTimeoutMillis);
+        if(journalDirectory!=null){
+            try{
+                journal = GameJournal.create(journalDirectory);
+                game.setRecorder(journal);
+            }catch(IOException e){
+                LOG.error("failed to create game journal in "+journalDirectory, e);
+            }
+        }
+        return game;
+    }
+
+    private void closeJournal(){
+        if(journal!=null){
+            journal.close();
+            journal = null;
+        }
     }
 
     /**
@@ -79,6 +186,9 @@ public class GameTable{
      * @param dealerOrderWind 親の席風
      */
     private void seatUpdated(Wind dealerOrderWind){
+        if(players.stream().noneMatch(player->isRequired(player, TableEventCategory.SEAT))){
+            return;
+        }
         var map = new HashMap<Wind, PlayerTempData>();
         for(var orderWind:Wind.values()){
             var player = players.get(orderWind.ordinal());
@@ -86,11 +196,14 @@ public class GameTable{
             map.put(seatWind, player.getPlayerTempData(seatWind));
         }
         for(var orderWind:Wind.values()){
-            var sideMap = new HashMap<Side, PlayerTempData>();
-            for(var side:Side.values()){
-                sideMap.put(side, map.get(side.of(orderWind)));
+            var player = players.get(orderWind.ordinal());
+            if(isRequired(player, TableEventCategory.SEAT)){
+                var sideMap = new HashMap<Side, PlayerTempData>();
+                for(var side:Side.values()){
+                    sideMap.put(side, map.get(side.of(orderWind)));
+                }
+                player.getStrategy().temporarySeatUpdated(sideMap);
             }
-            players.get(orderWind.ordinal()).getStrategy().temporarySeatUpdated(sideMap);
         }
     }
 
@@ -103,7 +216,21 @@ public class GameTable{
     private void diceRolled(Wind wind, DiceTwin dices){
         for(var orderWind:Wind.values()){
             var player = players.get(orderWind.ordinal());
-            player.getStrategy().diceRolled(wind.from(orderWind), dices.firstValue(), dices.secondValue());
+            if(isRequired(player, TableEventCategory.DICE)){
+                player.getStrategy().diceRolled(wind.from(orderWind), dices.firstValue(), dices.secondValue());
+            }
         }
     }
+
+    /**
+     * プレイヤーが指定された分類の通知を必要とするか検査します。
+     * <p>シミュレーションモードでない場合は常に必要とします。
+     * @param player プレイヤー
+     * @param category 通知の分類
+     * @return true  通知を必要とする場合
+     *         false 通知を必要としない場合
+     */
+    private boolean isRequired(Player player, TableEventCategory category){
+        return !simulationMode || player.getStrategy().getRequiredEventCategories().contains(category);
+    }
 }
@@ -0,0 +1,103 @@
+package jp.rouh.mahjong.game;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 処理時間の分布を記録するヒストグラム。
+ * <p>処理時間(ナノ秒)を2の冪を境界とする階級に分けて{@link LongAdder}で計数します。
+ * 記録はロックを用いず, 複数のスレッドから同時に記録しても互いに待機しません。
+ * 百分位数は階級の上限値で近似するため, 最大で実際の値の2倍程度の値を返します。
+ * @author Rouh
+ * @version 1.0
+ */
+final class LatencyHistogram{
+    private static final int BUCKET_COUNT = 64;
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    LatencyHistogram(){
+        for(int i = 0; i<BUCKET_COUNT; i++){
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 処理時間を記録します。
+     * @param nanos 処理時間(ナノ秒), 負の値は0とみなします
+     */
+    void record(long nanos){
+        long value = Math.max(0, nanos);
+        buckets[BUCKET_COUNT - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * 記録した数を取得します。
+     * @return 記録数
+     */
+    long getCount(){
+        return count.sum();
+    }
+
+    /**
+     * 処理時間の平均値を取得します。
+     * @return 平均値(マイクロ秒), 記録がない場合は0
+     */
+    double getMeanMicros(){
+        long n = count.sum();
+        return n==0? 0:sum.sum()/1000.0/n;
+    }
+
+    /**
+     * 処理時間の最大値を取得します。
+     * @return 最大値(マイクロ秒)
+     */
+    long getMaxMicros(){
+        return max.get()/1000;
+    }
+
+    /**
+     * 処理時間の百分位数の近似値を取得します。
+     * @param quantile 分位(0以上1以下)
+     * @return 百分位数の近似値(マイクロ秒), 記録がない場合は0
+     */
+    long getPercentileMicros(double quantile){
+        long total = 0;
+        var counts = new long[BUCKET_COUNT];
+        for(int i = 0; i<BUCKET_COUNT; i++){
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if(total==0){
+            return 0;
+        }
+        long threshold = Math.max(1, (long)Math.ceil(total*quantile));
+        long cumulative = 0;
+        for(int i = 0; i<BUCKET_COUNT; i++){
+            cumulative += counts[i];
+            if(cumulative>=threshold){
+                long upperBound = i==0? 0:i>=63? Long.MAX_VALUE:(1L<<i) - 1;
+                return Math.min(upperBound, max.get())/1000;
+            }
+        }
+        return max.get()/1000;
+    }
+
+    /**
+     * 記録を全て破棄します。
+     * <p>記録中のスレッドが存在する場合, その記録が破棄されるかどうかは保証されません。
+     */
+    void reset(){
+        for(var bucket:buckets){
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
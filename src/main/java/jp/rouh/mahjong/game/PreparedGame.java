@@ -6,9 +6,12 @@ import jp.rouh.util.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static jp.rouh.mahjong.tile.Wind.EAST;
 
@@ -23,9 +26,22 @@ public class PreparedGame implements GameAccessor{
     private static final int RETURN_SCORE = 30000;
     private static final int BIG_RANK_SCORE = 20000;
     private static final int SMALL_RANK_SCORE = 10000;
+    private final Standings standings = new Standings(DEFAULT_SCORE);
     private final Map<Wind, GamePlayer> gamePlayers;
     private final GameSpan span;
     private final WallGenerator wallGenerator;
+    private boolean simulationMode = false;
+    private boolean roundReuse = false;
+    private Round reusableRound;
+    private long decisionTimeoutMillis = 0;
+    private Executor callExecutor;
+    private RoundID roundId;
+    private int streak;
+    private int deposit;
+    private boolean finished;
+    private TableRecorder recorder = TableRecorder.NONE;
+    private final GameMetrics metrics = GameMetrics.getShared();
+    private Supplier<DiceTwin> diceRoller = DiceTwin::roll;
 
     /**
      * コンストラクタ。
@@ -48,75 +64,217 @@ public class PreparedGame implements GameAccessor{
         this.wallGenerator = wallGenerator;
     }
 
+    /**
+     * シミュレーションモードを設定します。
+     * <p>シミュレーションモードでは, 各局でプレイヤーが必要とする分類の通知のみを行います。
+     * @see Round#setSimulationMode
+     * @param simulationMode シミュレーションモードとする場合はtrue
+     */
+    void setSimulationMode(boolean simulationMode){
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * 局のオブジェクトを局ごとに使い回すかどうかを設定します。
+     * <p>使い回す場合, 二局目以降は終了した局を{@link Round#reset}で初期化して用います。
+     * 局プレイヤー及びその点数計算機なども使い回されるため, 自己対局などで大量の局を進行する際の
+     * オブジェクトの生成を削減できます。
+     * <p>設定しない場合は局ごとに新たな局を生成します。
+     * @param roundReuse 使い回す場合はtrue
+     */
+    void setRoundReuse(boolean roundReuse){
+        this.roundReuse = roundReuse;
+    }
+
+    /**
+     * プレイヤーの行動選択の待機時間を設定します。
+     * @see Round#setDecisionTimeout
+     * @param decisionTimeoutMillis 待機時間(ミリ秒), 0以下の場合は無制限
+     */
+    void setDecisionTimeout(long decisionTimeoutMillis){
+        this.decisionTimeoutMillis = decisionTimeoutMillis;
+    }
+
+    /**
+     * 各局でターン外行動の選択を要求する実行サービスを設定します。
+     * <p>設定しない場合は局の既定の実行サービスを用います。
+     * @see Round#setCallExecutor
+     * @param callExecutor 実行サービス
+     */
+    void setCallExecutor(Executor callExecutor){
+        this.callExecutor = callExecutor;
+    }
+
+    /**
+     * 通知及びプレイヤーの選択の記録先を設定します。
+     * <p>設定しない場合は記録しません。
+     * @param recorder 記録先
+     */
+    void setRecorder(TableRecorder recorder){
+        this.recorder = recorder;
+    }
+
+    /**
+     * 各局の開始時に振るサイコロの出目の供給関数を設定します。
+     * <p>設定しない場合は{@link DiceTwin#roll}により無作為に出目を決定します。
+     * @param diceRoller サイコロの出目の供給関数
+     */
+    void setDiceRoller(Supplier<DiceTwin> diceRoller){
+        this.diceRoller = diceRoller;
+    }
+
+    /**
+     * プレイヤーが待機時間内に行動を選択しなかった回数を取得します。
+     * @return 対局開始時の自風順のプレイヤー名と回数のマップ
+     */
+    Map<String, Integer> getTimeoutCounts(){
+        var timeoutCounts = new LinkedHashMap<String, Integer>();
+        for(var wind:Wind.values()){
+            var player = gamePlayers.get(wind);
+            timeoutCounts.put(player.getName(), player.getTimeoutCount());
+        }
+        return timeoutCounts;
+    }
+
+    /**
+     * 対局を開始します。
+     * <p>対局が終了するまで呼び出し元のスレッドで各局を進行します。
+     */
     void start(){
-        var roundId = span.getFirstRoundSign();
-        int streak = 0;
-        int deposit = 0;
-        var playerList = List.copyOf(gamePlayers.values());
-        boolean finished = false;
+        gameStarted();
         while(!finished){
-            boolean last = span.isLastRound(roundId);
-            var params = new RoundParameter(roundId, streak, deposit, last);
-            var round = wallGenerator==null?
-                    new Round(params, playerList):
-                    new Round(params, playerList, wallGenerator);
-            var dices = DiceTwin.roll();
-            var result = round.start(dices.firstValue(), dices.secondValue());
-            if(span.hasExtended()){
-                if(playerList.stream().anyMatch(player->player.getScore()>=30000)){
-                    //サドンデスによる終局
+            var round = newRound();
+            var dices = diceRoller.get();
+            roundFinished(round, round.start(dices.firstValue(), dices.secondValue()));
+        }
+        gameFinished();
+    }
+
+    /**
+     * 対局を非同期に開始します。
+     * <p>各局は{@link Round#startAsync}により非同期に進行し,
+     * プレイヤーの行動選択を待機する間はスレッドを占有しません。
+     * @param executor 局の処理を行う実行サービス
+     * @return 対局の終了時に完了するオブジェクト
+     */
+    CompletableFuture<Void> startAsync(Executor executor){
+        gameStarted();
+        return playAsync(executor).thenRun(this::gameFinished);
+    }
+
+    private CompletableFuture<Void> playAsync(Executor executor){
+        if(finished){
+            return CompletableFuture.completedFuture(null);
+        }
+        var round = newRound();
+        var dices = diceRoller.get();
+        return round.startAsync(dices.firstValue(), dices.secondValue(), executor).thenCompose(result->{
+            roundFinished(round, result);
+            return playAsync(executor);
+        });
+    }
+
+    private void gameStarted(){
+        roundId = span.getFirstRoundSign();
+        streak = 0;
+        deposit = 0;
+        finished = false;
+        metrics.gameStarted();
+        recorder.gameStarted(Maps.ofEnum(Wind.class, wind->gamePlayers.get(wind).getName()));
+    }
+
+    private Round newRound(){
+        var params = new RoundParameter(roundId, streak, deposit, span.isLastRound(roundId));
+        if(roundReuse && reusableRound!=null){
+            //シミュレーションモードなどの設定は初期化後も維持される
+            reusableRound.reset(params);
+            return reusableRound;
+        }
+        var playerList = List.copyOf(gamePlayers.values());
+        var round = wallGenerator==null?
+                new Round(params, playerList):
+                new Round(params, playerList, wallGenerator);
+        round.setSimulationMode(simulationMode);
+        round.setDecisionTimeout(decisionTimeoutMillis);
+        if(callExecutor!=null){
+            round.setCallExecutor(callExecutor);
+        }
+        round.setRecorder(recorder);
+        if(roundReuse){
+            reusableRound = round;
+        }
+        return round;
+    }
+
+    /**
+     * 局の終了時の処理。
+     * <p>局の結果から終局を判定し, 次局の局パラメータを更新します。
+     * @param round 終了した局
+     * @param result 局の結果
+     */
+    private void roundFinished(Round round, RoundResultType result){
+        var playerList = gamePlayers.values();
+        boolean last = span.isLastRound(roundId);
+        if(span.hasExtended()){
+            if(playerList.stream().anyMatch(player->player.getScore()>=30000)){
+                //サドンデスによる終局
+                finished = true;
+            }
+        }
+        if(last){
+            if(result.isDealerAdvantage()){
+                int count = roundId.count();
+                var dealer = playerList.stream()
+                        .filter(player->player.getSeatWindAt(count)==EAST)
+                        .findAny().orElseThrow();
+                if(dealer.getRank()==1 && dealer.getScore()>=30000){
+                    //オーラス和了止めにより終局
                     finished = true;
                 }
-            }
-            if(last){
-                if(result.isDealerAdvantage()){
-                    int count = roundId.count();
-                    var dealer = playerList.stream()
-                            .filter(player->player.getSeatWindAt(count)==EAST)
-                            .findAny().orElseThrow();
-                    if(dealer.getRank()==1 && dealer.getScore()>=30000){
-                        //オーラス和了止めにより終局
-                        finished = true;
-                    }
+            }else{
+                if(playerList.stream().allMatch(player->player.getScore()<30000)){
+                    span.extend();
                 }else{
-                    if(playerList.stream().allMatch(player->player.getScore()<30000)){
-                        span.extend();
-                    }else{
-                        //流局による終局
-                        finished = true;
-                    }
+                    //流局による終局
+                    finished = true;
                 }
-            }else if(playerList.stream().anyMatch(player->player.getScore()<0)){
-                //飛びによる終局
-                finished = true;
-            }
-            roundId = result.isDealerAdvantage()? roundId:roundId.next();
-            streak = result.isNonDealerVictory()? 0:streak + 1;
-            deposit = result.isDrawn()? (deposit + round.getReadyCount()):0;
-
-            int sum = 0;
-            for(var wind:Wind.values()){
-                int score = gamePlayers.get(wind).getScore();
-                LOG.info("{} {}", gamePlayers.get(wind).getName(), score);
-                sum += score;
-            }
-            sum += deposit*1000;
-            LOG.info("deposit={}", deposit*1000);
-            if(sum!=100000){
-                LOG.error("invalid score sum: {}", sum);
-                throw new IllegalStateException("invalid score sum");
             }
+        }else if(playerList.stream().anyMatch(player->player.getScore()<0)){
+            //飛びによる終局
+            finished = true;
+        }
+        roundId = result.isDealerAdvantage()? roundId:roundId.next();
+        streak = result.isNonDealerVictory()? 0:streak + 1;
+        deposit = result.isDrawn()? (deposit + round.getReadyCount()):0;
 
+        int sum = 0;
+        for(var wind:Wind.values()){
+            int score = gamePlayers.get(wind).getScore();
+            LOG.info("{} {}", gamePlayers.get(wind).getName(), score);
+            sum += score;
         }
-        var playerRanking = gamePlayers.values().stream()
-                .sorted(Comparator.comparing(GamePlayer::getRank)).toList();
+        sum += deposit*1000;
+        LOG.info("deposit={}", deposit*1000);
+        if(sum!=100000){
+            LOG.error("invalid score sum: {}", sum);
+            throw new IllegalStateException("invalid score sum");
+        }
+    }
+
+    private void gameFinished(){
+        var playerRanking = standings.getWindsInRankOrder().stream().map(gamePlayers::get).toList();
         if(deposit>0){
             playerRanking.get(0).applyScore(deposit*1000);
         }
         var resultScores = playerRanking.stream().map(GamePlayer::getResultScoreData).toList();
+        recorder.gameFinished(resultScores);
+        metrics.gameFinished();
         for(var wind:Wind.values()){
             gamePlayers.get(wind).gameFinished(resultScores);
         }
+        if(decisionTimeoutMillis>0){
+            LOG.info("decision timeouts: {}", getTimeoutCounts());
+        }
     }
 
     @Override
@@ -130,11 +288,8 @@ public class PreparedGame implements GameAccessor{
     }
 
     @Override
-    public int getRankOf(GamePlayer player){
-        return gamePlayers.values().stream()
-                .sorted(Comparator.comparing(GamePlayer::getScore).reversed()
-                        .thenComparing(GamePlayer::getInitialSeatWind))
-                .toList().indexOf(player) + 1;
+    public Standings getStandings(){
+        return standings;
     }
 
     @Override
@@ -0,0 +1,106 @@
+package jp.rouh.mahjong.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 対局の再実行{@link GameReplayer}の結果クラス。
+ * <p>記録と一致した対局数, 不一致となった対局の内容及び再実行全体の処理性能を保持します。
+ * @author Rouh
+ * @version 1.0
+ */
+public class ReplayResult{
+    private final List<String> mismatches = new ArrayList<>();
+    private int gameCount;
+    private long decisionCount;
+    private long elapsedNanos;
+
+    ReplayResult(){
+    }
+
+    void addGame(int decisions){
+        gameCount++;
+        decisionCount += decisions;
+    }
+
+    void addMismatch(String message){
+        mismatches.add(message);
+    }
+
+    void setElapsedNanos(long elapsedNanos){
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 記録と一致した対局数を取得します。
+     * @return 対局数
+     */
+    public int getGameCount(){
+        return gameCount;
+    }
+
+    /**
+     * 記録と一致しなかった対局数を取得します。
+     * @return 対局数
+     */
+    public int getMismatchCount(){
+        return mismatches.size();
+    }
+
+    /**
+     * 記録と一致しなかった対局の不一致の内容を取得します。
+     * @return 不一致の内容のリスト
+     */
+    public List<String> getMismatches(){
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    /**
+     * 記録と一致した対局で再現したプレイヤーの選択の総数を取得します。
+     * @return 選択数
+     */
+    public long getDecisionCount(){
+        return decisionCount;
+    }
+
+    /**
+     * 再実行の所要時間を取得します。
+     * @return 所要時間(ミリ秒)
+     */
+    public long getElapsedMillis(){
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * 一秒あたりの対局数を取得します。
+     * @return 対局数/秒
+     */
+    public double getGamesPerSecond(){
+        return perSecond(gameCount + mismatches.size());
+    }
+
+    /**
+     * 一秒あたりの選択数を取得します。
+     * @return 選択数/秒
+     */
+    public double getDecisionsPerSecond(){
+        return perSecond(decisionCount);
+    }
+
+    private double perSecond(long count){
+        return elapsedNanos==0? 0:count*1e9/elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        var sb = new StringBuilder();
+        sb.append(String.format("games=%d mismatched=%d elapsed=%dms throughput=%.2fgames/s %.1fdecisions/s%n",
+                gameCount, mismatches.size(), getElapsedMillis(), getGamesPerSecond(), getDecisionsPerSecond()));
+        for(var mismatch:mismatches){
+            sb.append(mismatch).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
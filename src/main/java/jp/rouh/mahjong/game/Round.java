@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -21,11 +22,13 @@ import static jp.rouh.mahjong.game.RoundResultType.*;
 class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
     private static final Logger LOG = LoggerFactory.getLogger(Round.class);
     private final Map<Wind, RoundPlayer> roundPlayers;
+    private final Map<Wind, Set<TableEventCategory>> requiredCategories = new EnumMap<>(Wind.class);
+    private final Set<TableEventCategory> anyRequiredCategories = EnumSet.noneOf(TableEventCategory.class);
     private final WallGenerator wallGenerator;
-    private final RoundID id;
-    private final int streak;
-    private final int deposit;
-    private final boolean last;
+    private RoundID id;
+    private int streak;
+    private int deposit;
+    private boolean last;
     private Wall wall;
     private Wind turnWind = Wind.EAST;
     private boolean afterCall = false;
@@ -33,6 +36,35 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
     private boolean firstAround = true;
     private final List<Tile> firstAroundDiscards = new ArrayList<>(4);
     private RoundResultType resultType;
+    private long decisionTimeoutMillis = 0;
+    private Executor callExecutor = CallActionMediator.getSharedExecutor();
+    private boolean simulationMode = false;
+    private Phase phase;
+    private TurnActionList turnChoices = TurnActionList.EMPTY;
+    private final Map<Wind, List<CallAction>> callChoices = new EnumMap<>(Wind.class);
+    private Tile calledTile;
+    private boolean selfQuad;
+    private TableRecorder recorder = TableRecorder.NONE;
+    private GameMetrics metrics = GameMetrics.getShared();
+    private long decisionStartedNanos;
+
+    /**
+     * 局の進行段階。
+     * <p>{@link #TURN_DECISION}, {@link #QUAD_CALL_WINDOW}及び{@link #DISCARD_CALL_WINDOW}は
+     * プレイヤーの入力待ちの段階を表します。
+     */
+    enum Phase{
+        /** 手番のプレイヤーの自摸 */
+        DRAW,
+        /** 手番のプレイヤーのターン内行動の入力待ち */
+        TURN_DECISION,
+        /** カン宣言牌に対するターン外行動の入力待ち */
+        QUAD_CALL_WINDOW,
+        /** 打牌に対するターン外行動の入力待ち */
+        DISCARD_CALL_WINDOW,
+        /** 局の終了 */
+        FINISHED
+    }
 
     /**
      * 局のコンストラクタ。
@@ -57,19 +89,267 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
         this.wallGenerator = wallGenerator;
         this.roundPlayers = gamePlayers.stream()
                 .map(gamePlayer->new RoundPlayer(this, gamePlayer))
-                .collect(Collectors.toMap(RoundPlayer::getSeatWind, Function.identity()));
+                .collect(Collectors.toMap(RoundPlayer::getSeatWind, Function.identity(), (a, b)->a, ()->new EnumMap<>(Wind.class)));
+        setSimulationMode(false);
+    }
+
+    /**
+     * 局の状態から局を復元します。
+     * <p>復元した局の牌山には観測者が登録されず, 局の開始の通知及び配牌は行われません。
+     * 局の進行は{@link #proceed}, {@link #resumeTurn}及び{@link #resumeCall}で再開します。
+     * @param snapshot 局の状態
+     * @param gamePlayers プレイヤー
+     */
+    Round(RoundSnapshot snapshot, List<? extends GamePlayerAccessor> gamePlayers){
+        var params = snapshot.getParameter();
+        this.id = params.getRoundId();
+        this.streak = params.getStreakCount();
+        this.deposit = params.getDepositCount();
+        this.last = params.isLast();
+        this.wallGenerator = null;
+        this.roundPlayers = new EnumMap<>(Wind.class);
+        for(var gamePlayer:gamePlayers){
+            var seatWind = gamePlayer.getSeatWindAt(id.count());
+            roundPlayers.put(seatWind, new RoundPlayer(this, gamePlayer, snapshot.getPlayerAt(seatWind)));
+        }
+        this.wall = snapshot.getWall();
+        this.phase = snapshot.getPhase();
+        this.turnWind = snapshot.getTurnWind();
+        this.afterCall = snapshot.isAfterCall();
+        this.afterQuad = snapshot.isAfterQuad();
+        this.firstAround = snapshot.isFirstAround();
+        this.selfQuad = snapshot.isSelfQuad();
+        this.firstAroundDiscards.addAll(snapshot.getFirstAroundDiscards());
+        this.calledTile = snapshot.getCalledTile();
+        this.turnChoices = TurnActionList.copyOf(snapshot.getTurnChoices());
+        this.callChoices.putAll(snapshot.getCallChoices());
+        this.resultType = snapshot.getResultType();
+        setSimulationMode(false);
+    }
+
+    /**
+     * 終了した局を次の局として初期化し, 再利用します。
+     * <p>局プレイヤーは{@link RoundPlayer#reset}で初期化され, 新しい局数に基づく自風で配置し直されます。
+     * シミュレーションモード, 待機時間, 記録先及び統計値の集計先の設定は維持され,
+     * 自風に応じた通知の分類は配置し直した局プレイヤーから再計算されます。
+     * <p>自己対局などで大量の局を進行する際に, 局ごとのオブジェクトの生成を避けるために用います。
+     * @param params 次の局の局パラメータ
+     * @throws IllegalStateException 局が終了していない場合
+     */
+    void reset(RoundParameter params){
+        if(phase!=Phase.FINISHED){
+            throw new IllegalStateException("round not finished yet: "+phase);
+        }
+        this.id = params.getRoundId();
+        this.streak = params.getStreakCount();
+        this.deposit = params.getDepositCount();
+        this.last = params.isLast();
+        var players = List.copyOf(roundPlayers.values());
+        roundPlayers.clear();
+        for(var player:players){
+            player.reset();
+            roundPlayers.put(player.getSeatWind(), player);
+        }
+        wall = null;
+        turnWind = Wind.EAST;
+        afterCall = false;
+        afterQuad = false;
+        firstAround = true;
+        firstAroundDiscards.clear();
+        resultType = null;
+        phase = null;
+        turnChoices = TurnActionList.EMPTY;
+        callChoices.clear();
+        calledTile = null;
+        selfQuad = false;
+        setSimulationMode(simulationMode);
+    }
+
+    /**
+     * 局の現在の状態を取得します。
+     * <p>局の進行中であればどの段階でも取得できます。
+     * @return 局の状態
+     * @throws IllegalStateException 配牌前の場合
+     */
+    RoundSnapshot snapshot(){
+        if(phase==null){
+            throw new IllegalStateException("round not dealt");
+        }
+        var players = new RoundSnapshot.PlayerSnapshot[4];
+        for(var wind:Wind.values()){
+            players[wind.ordinal()] = roundPlayers.get(wind).snapshot();
+        }
+        var choices = new EnumMap<Wind, List<CallAction>>(Wind.class);
+        if(phase==Phase.QUAD_CALL_WINDOW || phase==Phase.DISCARD_CALL_WINDOW){
+            callChoices.forEach((wind, actions)->choices.put(wind, List.copyOf(actions)));
+        }
+        return new RoundSnapshot(new RoundParameter(id, streak, deposit, last), wall.copy(), phase, turnWind,
+                afterCall, afterQuad, firstAround, selfQuad, RoundSnapshot.bytesOf(firstAroundDiscards), calledTile,
+                phase==Phase.TURN_DECISION? turnChoices:List.of(), Collections.unmodifiableMap(choices), resultType, players);
+    }
+
+    /**
+     * シミュレーションモードを設定します。
+     * <p>シミュレーションモードでは, 各プレイヤーが{@link TableObserver#getRequiredEventCategories}で
+     * 宣言した分類の通知のみを生成し通知します。
+     * 通常の対局では全ての通知を行います。
+     * <p>このメソッドは局の開始前に呼び出す必要があります。
+     * @param simulation シミュレーションモードとする場合はtrue
+     */
+    void setSimulationMode(boolean simulation){
+        simulationMode = simulation;
+        anyRequiredCategories.clear();
+        for(var wind:Wind.values()){
+            var categories = simulation?
+                    EnumSet.of(TableEventCategory.PROGRESS):
+                    EnumSet.allOf(TableEventCategory.class);
+            if(simulation){
+                categories.addAll(getPlayerAt(wind).getRequiredEventCategories());
+            }
+            requiredCategories.put(wind, categories);
+            anyRequiredCategories.addAll(categories);
+        }
+    }
+
+    /**
+     * プレイヤーの行動選択の待機時間を設定します。
+     * <p>待機時間内に行動を選択しなかったプレイヤーには既定の行動を適用し,
+     * その回数をプレイヤーごとに記録します。
+     * 既定の行動はターン内行動ではツモ切り(ツモ切りが不可能な場合は最初の打牌), ターン外行動ではパスとなります。
+     * <p>選択に要する時間を自ら制限しているプレイヤー({@link TableStrategy#isDecisionTimeBounded})には
+     * 待機時間を適用しません。
+     * <p>設定しない場合は選択を無制限に待機します。
+     * @param decisionTimeoutMillis 待機時間(ミリ秒), 0以下の場合は無制限
+     */
+    void setDecisionTimeout(long decisionTimeoutMillis){
+        this.decisionTimeoutMillis = decisionTimeoutMillis;
+    }
+
+    /**
+     * {@link #start}で局を進行する際にターン外行動の選択を要求する実行サービスを設定します。
+     * <p>複数のプレイヤーが選択する場合, 既定では共有の実行サービスで並行に選択を要求し,
+     * 優先度の高い選択が確定した時点で残りの要求を取り消します。
+     * 呼び出し元のスレッドで実行する実行サービスを与えた場合は東家から順に全員へ選択を要求するため,
+     * 選択の要求回数も含めて進行が決定的になります。ただしこの場合は待機時間は適用されません。
+     * <p>{@link #startAsync}による進行では引数の実行サービスが用いられます。
+     * @param callExecutor 実行サービス
+     */
+    void setCallExecutor(Executor callExecutor){
+        this.callExecutor = callExecutor;
+    }
+
+    /**
+     * 通知及びプレイヤーの選択の記録先を設定します。
+     * <p>設定しない場合は記録しません。
+     * <p>このメソッドは局の開始前に呼び出す必要があります。
+     * @param recorder 記録先
+     */
+    void setRecorder(TableRecorder recorder){
+        this.recorder = recorder;
+    }
+
+    /**
+     * 統計値の集計先を設定します。
+     * <p>設定しない場合は共有の集計先{@link GameMetrics#getShared}で集計します。
+     * <p>このメソッドは局の開始前に呼び出す必要があります。
+     * @param metrics 集計先
+     */
+    void setMetrics(GameMetrics metrics){
+        this.metrics = metrics;
     }
 
     /**
      * 局を開始します。
-     * @throws IllegalStateException プレイヤー数が不正の場合
+     * <p>局が終了するまで呼び出し元のスレッドで局を進行し,
+     * プレイヤーの行動選択もこのスレッドで待機します。
+     * @param dice1 サイコロの出目1
+     * @param dice2 サイコロの出目2
+     * @return 局の結果
      */
     public RoundResultType start(int dice1, int dice2){
+        deal(dice1, dice2);
+        while(proceed()!=Phase.FINISHED){
+            completeNotificationsIfWaiting();
+            if(phase==Phase.TURN_DECISION){
+                resumeTurn(selectTurnAction(getPlayerAt(turnWind), turnChoices));
+            }else if(hasCallChoices()){
+                resumeCall(mediate());
+            }else{
+                resumeCall(Map.of());
+            }
+        }
+        return resultType;
+    }
+
+    /**
+     * 局を非同期に開始します。
+     * <p>局の各段階の処理は実行サービス上で行われ, プレイヤーの行動選択を要求した時点で
+     * スレッドを解放します。選択が完了すると実行サービス上で局の処理を再開します。
+     * そのため少数のスレッドで多数の局を並行して進行させることができます。
+     * <p>プレイヤーの行動選択は{@link AsyncTableStrategy}の非同期の選択要求を用いて行います。
+     * 戦略が非同期の選択要求に対応していない場合は, 指定された実行サービス上で同期的な選択要求を行います。
+     * @param dice1 サイコロの出目1
+     * @param dice2 サイコロの出目2
+     * @param executor 局の処理を行う実行サービス
+     * @return 局の結果で完了するオブジェクト
+     */
+    CompletableFuture<RoundResultType> startAsync(int dice1, int dice2, Executor executor){
+        var result = new CompletableFuture<RoundResultType>();
+        executor.execute(()->resume(()->deal(dice1, dice2), null, executor, result));
+        return result;
+    }
+
+    /**
+     * 非同期の局の処理を再開します。
+     * @param input 再開時に適用する入力
+     * @param failure 入力の取得時に発生した例外, 発生しなかった場合はnull
+     * @param executor 局の処理を行う実行サービス
+     * @param result 局の結果で完了するオブジェクト
+     */
+    private void resume(Runnable input, Throwable failure, Executor executor, CompletableFuture<RoundResultType> result){
+        if(failure!=null){
+            result.completeExceptionally(failure);
+            return;
+        }
+        try{
+            input.run();
+            if(proceed()!=Phase.FINISHED){
+                completeNotificationsIfWaiting();
+            }
+            switch(phase){
+                case TURN_DECISION -> selectTurnActionAsync(getPlayerAt(turnWind), turnChoices, executor)
+                        .whenCompleteAsync((action, e)->resume(()->resumeTurn(action), e, executor, result), executor);
+                case QUAD_CALL_WINDOW, DISCARD_CALL_WINDOW -> {
+                    if(!hasCallChoices()){
+                        executor.execute(()->resume(()->resumeCall(Map.of()), null, executor, result));
+                        return;
+                    }
+                    var mediator = newCallActionMediator().withExecutor(executor);
+                    mediator.mediateAsync().whenCompleteAsync((actions, e)->resume(()->{
+                        reportTimedOut(mediator);
+                        resumeCall(actions);
+                    }, e, executor, result), executor);
+                }
+                case FINISHED -> result.complete(resultType);
+                default -> throw new AssertionError();
+            }
+        }catch(Throwable e){
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 局の開始を通知し, サイコロを振って配牌を行います。
+     * @param dice1 サイコロの出目1
+     * @param dice2 サイコロの出目2
+     */
+    void deal(int dice1, int dice2){
         LOG.info("round started");
         roundStarted(id.wind(), id.count(), streak, deposit, last);
         seatUpdated();
         diceRolled(Wind.EAST, dice1, dice2);
         wall = wallGenerator.generate(dice1, dice2);
+        recorder.wallGenerated(wall.getTiles());
         wallGenerated();
         wall.addObserver(this);
         wall.revealIndicatorImmediately();
@@ -81,7 +361,22 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
         for(var wind:Wind.values()){
             roundPlayers.get(wind).distributed(wall.takeTile());
         }
-        while(wall.hasDrawableTile() || afterCall){
+        phase = Phase.DRAW;
+    }
+
+    /**
+     * プレイヤーの入力が必要となるか, 局が終了するまで局を進行します。
+     * <p>入力待ちの段階では{@link #resumeTurn}又は{@link #resumeCall}で
+     * 入力を与えることで局の進行を再開できます。
+     * @return 現在の段階
+     */
+    Phase proceed(){
+        if(phase==Phase.DRAW){
+            if(!wall.hasDrawableTile() && !afterCall){
+                exhaustiveDraw();
+                finish();
+                return phase;
+            }
             turnStarted(turnWind);
             var turnPlayer = roundPlayers.get(turnWind);
             if(afterQuad){
@@ -90,29 +385,33 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
             }else if(!afterCall){
                 turnPlayer.draw(wall.takeTile());
             }
-            turnPhase();
-            if(resultType!=null){
-                roundFinished();
-                return resultType;
-            }
+            turnChoices = turnPlayer.getTurnActions(afterCall, afterQuad);
+            LOG.debug("[{}]{}: selecting turn action from {}", turnWind, turnPlayer.getName(), turnChoices);
+            phase = Phase.TURN_DECISION;
         }
-        exhaustiveDraw();
-        roundFinished();
-        return resultType;
+        if(phase!=Phase.FINISHED){
+            decisionStartedNanos = System.nanoTime();
+        }
+        return phase;
     }
 
     /**
-     * ターン開始時の処理。
+     * ターン内行動の入力を与えて局の進行を再開します。
+     * @param turnAction 手番のプレイヤーが選択した行動
+     * @throws IllegalStateException ターン内行動の入力待ちでない場合
+     * @throws IllegalArgumentException 行動が選択肢に含まれない場合
      */
-    private void turnPhase(){
+    void resumeTurn(TurnAction turnAction){
+        if(phase!=Phase.TURN_DECISION){
+            throw new IllegalStateException("not waiting for turn action: "+phase);
+        }
         var turnPlayer = roundPlayers.get(turnWind);
-        var turnChoices = turnPlayer.getTurnActions(afterCall, afterQuad);
-        LOG.debug("["+turnWind+"]"+turnPlayer.getName()+": selecting turn action from "+turnChoices);
-        var turnAction = turnPlayer.selectTurnAction(turnChoices);
-        LOG.debug("["+turnWind+"]"+turnPlayer.getName()+": selected "+turnAction);
+        LOG.debug("[{}]{}: selected {}", turnWind, turnPlayer.getName(), turnAction);
         if(!turnChoices.contains(turnAction)){
             throw new IllegalArgumentException("illegal action has been detected: choices:"+turnChoices+" the choice:"+turnAction);
         }
+        metrics.turnDecided(System.nanoTime() - decisionStartedNanos);
+        recorder.turnActionSelected(turnWind, turnAction);
         switch(turnAction.type()){
             case TSUMO -> turnWinning(turnWind);
             case NINE_TILES -> {
@@ -123,47 +422,195 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
                 var quadTile = turnAction.argument();
                 turnPlayer.declareKan(quadTile);
                 roundPlayers.values().forEach(RoundPlayer::quadDeclared);
-                boolean selfQuad = turnPlayer.isLastMeldSelfQuad();
-                var callActions = new CallActionMediator(turnWind.others())
-                        .withPlayers(this::getPlayerAt)
-                        .withChoices(wind->getPlayerAt(wind).getCallActionsForQuad(quadTile, selfQuad))
-                        .mediate();
-                if(!callActions.isEmpty()){
-                    callWinning(callActions.keySet(), quadTile, true);
-                    return;
-                }
-                if(selfQuad){
-                    wall.revealIndicatorImmediately();
-                }
-                afterCall = false;
-                afterQuad = true;
+                selfQuad = turnPlayer.isLastMeldSelfQuad();
+                openCallWindow(Phase.QUAD_CALL_WINDOW, quadTile, wind->getPlayerAt(wind).getCallActionsForQuad(quadTile, selfQuad));
+                return;
             }
             case READY_DISCARD -> {
                 var discardedTile = turnAction.argument();
                 turnPlayer.discardAndReady(discardedTile);
-                callPhase(discardedTile);
+                openCallWindow(Phase.DISCARD_CALL_WINDOW, discardedTile, wind->getPlayerAt(wind).getCallActionsForDiscard(turnWind, discardedTile));
+                return;
             }
             case DISCARD, DISCARD_DRAWN -> {
                 var discardedTile = turnAction.argument();
                 turnPlayer.discard(discardedTile);
-                callPhase(discardedTile);
+                openCallWindow(Phase.DISCARD_CALL_WINDOW, discardedTile, wind->getPlayerAt(wind).getCallActionsForDiscard(turnWind, discardedTile));
+                return;
+            }
+        }
+        finish();
+    }
+
+    /**
+     * ターン外行動の入力を与えて局の進行を再開します。
+     * @param callActions 適用される行動のマップ
+     * @see CallActionMediator#mediate
+     * @throws IllegalStateException ターン外行動の入力待ちでない場合
+     */
+    void resumeCall(Map<Wind, CallAction> callActions){
+        if(phase==Phase.QUAD_CALL_WINDOW || phase==Phase.DISCARD_CALL_WINDOW){
+            if(hasCallChoices()){
+                metrics.callMediated(System.nanoTime() - decisionStartedNanos);
             }
+            recorder.callActionsSelected(callActions);
+        }
+        switch(phase){
+            case QUAD_CALL_WINDOW -> quadSettled(callActions);
+            case DISCARD_CALL_WINDOW -> callPhase(calledTile, callActions);
+            default -> throw new IllegalStateException("not waiting for call action: "+phase);
+        }
+        if(resultType!=null){
+            finish();
+        }else{
+            phase = Phase.DRAW;
+        }
+    }
+
+    /**
+     * プレイヤーの行動選択を待機する場合, 一連の通知が完了したことを通知します。
+     * <p>ターン外行動の選択肢が全員パスのみの場合は待機せずに進行するため通知しません。
+     */
+    private void completeNotificationsIfWaiting(){
+        if(phase==Phase.TURN_DECISION || hasCallChoices()){
+            notificationsCompleted();
         }
     }
 
+    /**
+     * パス以外のターン外行動を選択できるプレイヤーが存在するか検査します。
+     * @return true  存在する場合
+     *         false 全員の選択肢がパスのみの場合
+     */
+    private boolean hasCallChoices(){
+        return callChoices.values().stream().anyMatch(choices->choices.size()>1);
+    }
+
+    private void openCallWindow(Phase callPhase, Tile tile, Function<Wind, List<CallAction>> choicesSupplier){
+        calledTile = tile;
+        callChoices.clear();
+        for(var wind:turnWind.others()){
+            callChoices.put(wind, choicesSupplier.apply(wind));
+        }
+        phase = callPhase;
+    }
+
+    private void finish(){
+        metrics.roundPlayed();
+        roundFinished();
+        phase = Phase.FINISHED;
+    }
+
+    /**
+     * プレイヤーにターン内行動の選択を要求します。
+     * <p>待機時間が設定されている場合, 待機時間内に選択しなければ既定の打牌を選択したものとみなします。
+     * @param player プレイヤー
+     * @param choices ターン内行動の選択肢
+     * @return 選択された行動
+     */
+    private TurnAction selectTurnAction(RoundPlayer player, List<TurnAction> choices){
+        if(decisionTimeoutMillis<=0 || player.isDecisionTimeBounded()){
+            return player.selectTurnAction(choices);
+        }
+        var task = new FutureTask<>(()->player.selectTurnAction(choices));
+        CallActionMediator.getSharedExecutor().execute(task);
+        try{
+            return task.get(decisionTimeoutMillis, TimeUnit.MILLISECONDS);
+        }catch(TimeoutException e){
+            task.cancel(true);
+            LOG.warn("["+player.getSeatWind()+"]"+player.getName()+": turn action timed out");
+            player.decisionTimedOut();
+            return new TurnActionSelector(choices).getDefaultAction();
+        }catch(ExecutionException e){
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }catch(InterruptedException e){
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * プレイヤーにターン内行動の選択を非同期に要求します。
+     * <p>待機時間が設定されている場合, 待機時間内に選択しなければ既定の打牌を選択したものとみなします。
+     * @param player プレイヤー
+     * @param choices ターン内行動の選択肢
+     * @param executor 同期的な選択要求を行う実行サービス
+     * @return 選択された行動で完了するオブジェクト
+     */
+    private CompletableFuture<TurnAction> selectTurnActionAsync(RoundPlayer player, List<TurnAction> choices, Executor executor){
+        var future = player.selectTurnActionAsync(choices, executor).toCompletableFuture();
+        if(decisionTimeoutMillis<=0 || player.isDecisionTimeBounded()){
+            return future;
+        }
+        return future.copy().orTimeout(decisionTimeoutMillis, TimeUnit.MILLISECONDS).handle((action, e)->{
+            if(e==null){
+                return action;
+            }
+            if(e instanceof TimeoutException){
+                future.cancel(true);
+                LOG.warn("["+player.getSeatWind()+"]"+player.getName()+": turn action timed out");
+                player.decisionTimedOut();
+                return new TurnActionSelector(choices).getDefaultAction();
+            }
+            throw e instanceof CompletionException ce? ce:new CompletionException(e);
+        });
+    }
+
+    /**
+     * 打牌又はカン宣言牌に対するターン外行動の選択を要求します。
+     * @see CallActionMediator#mediate
+     * @return プレイヤーの自風と行動のマップ
+     */
+    private Map<Wind, CallAction> mediate(){
+        var mediator = newCallActionMediator().withExecutor(callExecutor);
+        var actions = mediator.mediate();
+        reportTimedOut(mediator);
+        return actions;
+    }
+
+    private CallActionMediator newCallActionMediator(){
+        return new CallActionMediator(turnWind.others())
+                .withPlayers(this::getPlayerAt)
+                .withChoices(callChoices::get)
+                .withTimeout(decisionTimeoutMillis);
+    }
+
+    private void reportTimedOut(CallActionMediator mediator){
+        for(var wind:mediator.getTimedOutWinds()){
+            getPlayerAt(wind).decisionTimedOut();
+        }
+    }
+
+    /**
+     * カン宣言時のターン外行動の確定時の処理。
+     * @param callActions 適用される行動のマップ
+     */
+    private void quadSettled(Map<Wind, CallAction> callActions){
+        if(!callActions.isEmpty()){
+            callWinning(callActions.keySet(), calledTile, true);
+            return;
+        }
+        if(selfQuad){
+            wall.revealIndicatorImmediately();
+        }
+        afterCall = false;
+        afterQuad = true;
+    }
+
     /**
      * 打牌時の処理。
      * @param discarded 打牌
+     * @param actions 適用される行動のマップ
      */
-    private void callPhase(Tile discarded){
+    private void callPhase(Tile discarded, Map<Wind, CallAction> actions){
         var discarderWind = turnWind;
         var discarder = getPlayerAt(turnWind);
-        LOG.debug("["+turnWind+"]"+discarder.getName()+" discarded "+discarded);
-        var actions = new CallActionMediator(discarderWind.others())
-                .withPlayers(this::getPlayerAt)
-                .withChoices(wind->getPlayerAt(wind).getCallActionsForDiscard(discarderWind, discarded))
-                .mediate();
-        actions.forEach((wind, action)->LOG.debug("["+wind+"] select call action "+action));
+        LOG.debug("[{}]{} discarded {}", turnWind, discarder.getName(), discarded);
+        actions.forEach((wind, action)->LOG.debug("[{}] select call action {}", wind, action));
         if(!actions.isEmpty()){
             if(actions.values().stream().allMatch(action->action.type()==CallActionType.RON)){
                 callWinning(actions.keySet(), discarded, false);
@@ -218,7 +665,9 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
      * @param turnWind 和了者の自風
      */
     private void turnWinning(Wind turnWind){
+        long scoringStartedNanos = System.nanoTime();
         var result = roundPlayers.get(turnWind).declareTsumo(afterQuad);
+        metrics.handScored(System.nanoTime() - scoringStartedNanos);
         var score = result.getHandScore();
         var scoreData = result.getHandScoreData();
         var paymentTable = new PaymentTable();
@@ -250,7 +699,9 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
         for(var side:new Side[]{Side.RIGHT, Side.ACROSS, Side.LEFT}){
             if(winnerWinds.contains(side.of(turnWind))){
                 var winner = getPlayerAt(side.of(turnWind));
+                long scoringStartedNanos = System.nanoTime();
                 var result = winner.declareRon(winningTile, turnWind, quadGrab);
+                metrics.handScored(System.nanoTime() - scoringStartedNanos);
                 int totalDepositCount = secondary?0:deposit + getReadyCount();
                 int streakCount = secondary?0:streak;
                 payments.apply(result.getHandScore(), totalDepositCount, streakCount);
@@ -321,6 +772,9 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
     }
 
     private void seatUpdated(){
+        if(!isRequired(TableEventCategory.SEAT)){
+            return;
+        }
         var dataMap = new HashMap<Wind, PlayerData>();
         for(var wind:Wind.values()){
             dataMap.put(wind, getPlayerAt(wind).getPlayerData());
@@ -328,6 +782,50 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
         seatUpdated(dataMap);
     }
 
+    /**
+     * 現在の段階を取得します。
+     * @return 段階, 配牌前の場合はnull
+     */
+    Phase getPhase(){
+        return phase;
+    }
+
+    /**
+     * 手番のプレイヤーの自風を取得します。
+     * @return 自風
+     */
+    Wind getTurnWind(){
+        return turnWind;
+    }
+
+    /**
+     * 入力待ちのターン内行動の選択肢を取得します。
+     * @return ターン内行動のリスト, 入力待ちでない場合は空のリスト
+     */
+    List<TurnAction> getTurnChoices(){
+        return phase==Phase.TURN_DECISION? turnChoices:List.of();
+    }
+
+    /**
+     * 入力待ちのターン外行動の選択肢を取得します。
+     * @param seatWind 選択するプレイヤーの自風
+     * @return ターン外行動のリスト, 入力待ちでない場合は空のリスト
+     */
+    List<CallAction> getCallChoices(Wind seatWind){
+        if(phase!=Phase.QUAD_CALL_WINDOW && phase!=Phase.DISCARD_CALL_WINDOW){
+            return List.of();
+        }
+        return Collections.unmodifiableList(callChoices.getOrDefault(seatWind, List.of()));
+    }
+
+    /**
+     * 局の結果を取得します。
+     * @return 局の結果, 局が終了していない場合はnull
+     */
+    RoundResultType getResultType(){
+        return resultType;
+    }
+
     @Override
     public Wind getRoundWind(){
         return id.wind();
@@ -391,6 +889,26 @@ class Round implements TableMasterAdapter, RoundAccessor, WallObserver{
         return roundPlayers.get(seatWind);
     }
 
+    @Override
+    public boolean isRequired(Wind seatWind, TableEventCategory category){
+        return requiredCategories.get(seatWind).contains(category);
+    }
+
+    @Override
+    public boolean isRequired(TableEventCategory category){
+        return anyRequiredCategories.contains(category);
+    }
+
+    @Override
+    public TableRecorder getRecorder(){
+        return recorder;
+    }
+
+    @Override
+    public GameMetrics getMetrics(){
+        return metrics;
+    }
+
     @Override
     public void tileTaken(Wind wind, int column, int floor){
         wallTileTaken(wind, column, floor);
@@ -9,22 +9,30 @@ import jp.rouh.util.Lists;
 
 import java.util.*;
 
-import static java.util.function.Predicate.not;
-
 /**
  * 局プレイヤー。
  * @author Rouh
  * @version 1.0
  */
 class RoundPlayer extends ForwardingTableStrategy{
+    private static final int CALLED = 1;
+    private static final int READY_PREPARED = 1<<1;
+    private static final int FIRST_AROUND_READY = 1<<2;
+    private static final int READY = 1<<3;
+    private static final int READY_AROUND = 1<<4;
+    private static final int RIVER_LOCK = 1<<5;
+    private static final int AROUND_LOCK = 1<<6;
+    private static final Tile[] TILES = Tile.values();
     private final HandScoreCalculator calculator = new StandardHandScoreCalculator();
     private final RoundAccessor round;
     private final TableMaster notifier;
     private final GamePlayerAccessor gamePlayer;
-    private final Wind seatWind;
-    private final Set<Tile> river = new HashSet<>();
+    private Wind seatWind;
+    private byte[] river = new byte[24];
+    private int riverSize = 0;
     private final List<Tile> handTiles = new ArrayList<>();
     private final LinkedList<Meld> openMelds = new LinkedList<>();
+    private final TurnActionModel turnActionModel = new TurnActionModel(handTiles);
 
     //stored when player draw a tile from the wall, disposed when player discard a tile
     private Tile drawnTile;
@@ -59,6 +67,71 @@ class RoundPlayer extends ForwardingTableStrategy{
         this.seatWind = gamePlayer.getSeatWindAt(round.getRoundCount());
     }
 
+    /**
+     * 次の局のために局プレイヤーを初期化します。
+     * <p>手牌, 副露, 河及び立直などの状態を全て破棄し, 局情報の参照先の局数から自風を再計算します。
+     * 手牌や河の領域及び点数計算機は破棄せずに使い回します。
+     */
+    void reset(){
+        seatWind = gamePlayer.getSeatWindAt(round.getRoundCount());
+        riverSize = 0;
+        handTiles.clear();
+        openMelds.clear();
+        turnActionModel.handChanged();
+        drawnTile = null;
+        winningTiles = null;
+        discardLockedTiles = null;
+        readyQuadTiles = null;
+        called = false;
+        readyPrepared = false;
+        firstAroundReady = false;
+        ready = false;
+        readyAround = false;
+        riverLock = false;
+        aroundLock = false;
+    }
+
+    /**
+     * 局プレイヤーの状態から局プレイヤーを復元します。
+     * @param round 局情報の参照先
+     * @param gamePlayer 対局プレイヤー情報の参照先
+     * @param snapshot 局プレイヤーの状態
+     */
+    RoundPlayer(RoundAccessor round, GamePlayerAccessor gamePlayer, RoundSnapshot.PlayerSnapshot snapshot){
+        this(round, gamePlayer);
+        handTiles.addAll(RoundSnapshot.tilesOf(snapshot.handTiles()));
+        turnActionModel.handChanged();
+        drawnTile = snapshot.drawnTile()<0? null:TILES[snapshot.drawnTile()];
+        openMelds.addAll(snapshot.openMelds());
+        var snapshotRiver = snapshot.river();
+        river = Arrays.copyOf(snapshotRiver, Math.max(24, snapshotRiver.length*2));
+        riverSize = snapshotRiver.length;
+        winningTiles = RoundSnapshot.setOf(snapshot.winningTiles());
+        discardLockedTiles = snapshot.discardLockedTiles()==0? null:RoundSnapshot.setOf(snapshot.discardLockedTiles());
+        readyQuadTiles = RoundSnapshot.setOf(snapshot.readyQuadTiles());
+        int flags = snapshot.flags();
+        called = (flags & CALLED)!=0;
+        readyPrepared = (flags & READY_PREPARED)!=0;
+        firstAroundReady = (flags & FIRST_AROUND_READY)!=0;
+        ready = (flags & READY)!=0;
+        readyAround = (flags & READY_AROUND)!=0;
+        riverLock = (flags & RIVER_LOCK)!=0;
+        aroundLock = (flags & AROUND_LOCK)!=0;
+    }
+
+    /**
+     * 局プレイヤーの現在の状態を取得します。
+     * @return 局プレイヤーの状態
+     */
+    RoundSnapshot.PlayerSnapshot snapshot(){
+        int flags = (called? CALLED:0) | (readyPrepared? READY_PREPARED:0) | (firstAroundReady? FIRST_AROUND_READY:0)
+                | (ready? READY:0) | (readyAround? READY_AROUND:0) | (riverLock? RIVER_LOCK:0) | (aroundLock? AROUND_LOCK:0);
+        return new RoundSnapshot.PlayerSnapshot(getName(), gamePlayer.getSeatWindAt(1), getScore(),
+                RoundSnapshot.bytesOf(handTiles), drawnTile==null? -1:(byte)drawnTile.ordinal(), List.copyOf(openMelds),
+                Arrays.copyOf(river, riverSize), RoundSnapshot.maskOf(winningTiles), RoundSnapshot.maskOf(discardLockedTiles),
+                RoundSnapshot.maskOf(readyQuadTiles), flags);
+    }
+
     /**
      * このプレイヤーに最後の1枚の配牌を行います。
      * @param tile 配牌される牌
@@ -69,8 +142,9 @@ class RoundPlayer extends ForwardingTableStrategy{
         }
         handTiles.add(tile);
         handTiles.sort(Comparator.naturalOrder());
+        turnActionModel.handChanged();
         winningTiles = HandTiles.winningTilesOf(handTiles);
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
     }
 
     /**
@@ -86,7 +160,8 @@ class RoundPlayer extends ForwardingTableStrategy{
         }
         handTiles.addAll(tiles);
         handTiles.sort(Comparator.naturalOrder());
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        turnActionModel.handChanged();
+        notifyHandUpdated(false);
     }
 
     /**
@@ -99,7 +174,7 @@ class RoundPlayer extends ForwardingTableStrategy{
         requireCallPhase();
         drawnTile = tile;
         aroundLock = false;
-        notifier.handUpdated(seatWind, Lists.added(handTiles, drawnTile), true);
+        notifyHandUpdated(true);
     }
 
     /**
@@ -137,11 +212,14 @@ class RoundPlayer extends ForwardingTableStrategy{
         remove(tile);
         if(hasChanged){
             winningTiles = HandTiles.winningTilesOf(handTiles);
-            riverLock = winningTiles.stream().anyMatch(river::contains);
+            riverLock = isRiverLocked();
+        }
+        if(riverSize==river.length){
+            river = Arrays.copyOf(river, riverSize*2);
         }
-        river.add(tile);
+        river[riverSize++] = (byte)tile.ordinal();
         discardLockedTiles = null;
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
         if(riverLock){
             handLocked();
         }
@@ -160,7 +238,7 @@ class RoundPlayer extends ForwardingTableStrategy{
         discardLockedTiles = HandTiles.waitingTargetsOf(baseTiles);
         notifier.declared(seatWind, Declaration.CHI);
         notifier.tiltMeldAdded(seatWind, Side.LEFT, openMelds.getLast().getTilesFormed());
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
         notifier.riverTileTaken(Side.LEFT.of(seatWind));
     }
 
@@ -177,7 +255,7 @@ class RoundPlayer extends ForwardingTableStrategy{
         discardLockedTiles = HandTiles.waitingTargetsOf(baseTiles);
         notifier.declared(seatWind, Declaration.PON);
         notifier.tiltMeldAdded(seatWind, discarderWind.from(seatWind), openMelds.getLast().getTilesFormed());
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
         notifier.riverTileTaken(discarderWind);
     }
 
@@ -191,9 +269,10 @@ class RoundPlayer extends ForwardingTableStrategy{
         var baseTiles = handTiles.stream().filter(calledTile::equalsIgnoreRed).toList();
         remove(baseTiles);
         openMelds.add(Meld.ofCallQuad(baseTiles, calledTile, discarderWind.from(seatWind)));
+        updateWinningTiles();
         notifier.declared(seatWind, Declaration.KAN);
         notifier.tiltMeldAdded(seatWind, discarderWind.from(seatWind), openMelds.getLast().getTilesFormed());
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
         notifier.riverTileTaken(discarderWind);
     }
 
@@ -211,9 +290,10 @@ class RoundPlayer extends ForwardingTableStrategy{
             //暗槓
             remove(quadTiles);
             openMelds.add(Meld.ofSelfQuad(quadTiles));
+            updateWinningTiles();
             notifier.declared(seatWind, Declaration.KAN);
             notifier.selfQuadAdded(seatWind, openMelds.getLast().getTilesFormed());
-            notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+            notifyHandUpdated(false);
             return;
         }
         //加槓
@@ -225,9 +305,30 @@ class RoundPlayer extends ForwardingTableStrategy{
         int index = openMelds.indexOf(triple);
         openMelds.remove(index);
         openMelds.add(index, Meld.ofAddQuad(triple, selectedTile));
+        updateWinningTiles();
         notifier.declared(seatWind, Declaration.KAN);
         notifier.meldTileAdded(seatWind, index, selectedTile);
-        notifier.handUpdated(seatWind, List.copyOf(handTiles), false);
+        notifyHandUpdated(false);
+    }
+
+    /**
+     * カンにより手牌が変化した後に和了牌とフリテン状態を再計算します。
+     * <p>嶺上牌での和了判定は更新後の和了牌に基づいて行われます。
+     */
+    private void updateWinningTiles(){
+        winningTiles = HandTiles.winningTilesOf(handTiles);
+        riverLock = isRiverLocked();
+    }
+
+    /**
+     * 手牌が更新されたことを通知します。
+     * <p>通知を必要とするプレイヤーが存在しない場合は手牌の複製を省略します。
+     * @param wide 自摸牌を含む場合はtrue
+     */
+    private void notifyHandUpdated(boolean wide){
+        if(notifier.isRequired(seatWind, TableEventCategory.HAND) || notifier.isRequired(TableEventCategory.OTHER_HAND)){
+            notifier.handUpdated(seatWind, wide? Lists.added(handTiles, drawnTile):List.copyOf(handTiles), wide);
+        }
     }
 
     /**
@@ -242,20 +343,28 @@ class RoundPlayer extends ForwardingTableStrategy{
     /**
      * このターンで選択可能なターン行動をリスト形式で取得します。
      *
+     * <p>九種九牌, カン及び立直宣言打牌の可否は{@link TurnActionModel}が
+     * 手牌の変更まで保持する計算結果を用いて判定します。
      * @param afterCall このターンが副露後かどうか
      * @param afterQuad このターンがカン後かどうか
      * @return ターン行動のリスト
      */
-    List<TurnAction> getTurnActions(boolean afterCall, boolean afterQuad){
+    TurnActionList getTurnActions(boolean afterCall, boolean afterQuad){
         requireTurnPhase();
         if(afterCall){
             //副露後
-            return handTiles.stream().filter(not(discardLockedTiles::contains)).map(TurnAction::ofDiscard).toList();
+            var actions = TurnActionList.builder(handTiles.size());
+            for(var tile:handTiles){
+                if(!discardLockedTiles.contains(tile)){
+                    actions.add(TurnAction.ofDiscard(tile));
+                }
+            }
+            return actions.build();
         }
         requireDrawTurnPhase();
-        var actions = new ArrayList<TurnAction>();
         if(ready){
             //自摸後(立直下)
+            var actions = TurnActionList.builder(3);
             actions.add(TurnAction.ofDiscardDrawn(drawnTile));
             if(winningTiles.contains(drawnTile)){
                 actions.add(TurnAction.ofTsumo());
@@ -263,28 +372,41 @@ class RoundPlayer extends ForwardingTableStrategy{
             if(!round.isLastTurn() && round.getTotalQuadCount()<4 && readyQuadTiles.contains(drawnTile)){
                 actions.add(TurnAction.ofKan(drawnTile));
             }
-            return actions;
+            return actions.build();
         }
         //自摸後
-        actions.addAll(handTiles.stream().map(TurnAction::ofDiscard).toList());
+        var actions = TurnActionList.builder(handTiles.size() + 4);
+        for(var tile:handTiles){
+            actions.add(TurnAction.ofDiscard(tile));
+        }
         actions.add(TurnAction.ofDiscard(drawnTile));
         actions.add(TurnAction.ofDiscardDrawn(drawnTile));
-        if(round.isFirstAround() && HandTiles.isNineTiles(handTiles, drawnTile)){
+        if(round.isFirstAround() && turnActionModel.isNineTiles(drawnTile)){
             actions.add(TurnAction.ofNineTiles());
         }
         if(winningTiles.contains(drawnTile) && hasScore(afterQuad)){
             actions.add(TurnAction.ofTsumo());
         }
         if(!round.isLastTurn() && round.getTotalQuadCount()<4){
-            var meldTiles = openMelds.stream().map(Meld::getTilesSorted).toList();
-            actions.addAll(HandTiles.addKanTargetsOf(handTiles, drawnTile, meldTiles).stream().map(TurnAction::ofKan).toList());
-            actions.addAll(HandTiles.selfKanTargetsOf(handTiles, drawnTile).stream().map(TurnAction::ofKan).toList());
+            for(var tile:turnActionModel.kanTargetsOf(drawnTile, openMelds)){
+                actions.add(TurnAction.ofKan(tile));
+            }
         }
-        boolean concealed = openMelds.stream().allMatch(Meld::isConcealed);
-        if(concealed && !round.isLastTurn() && getScore()>=1000){
-            actions.addAll(HandTiles.readyTilesOf(handTiles, drawnTile).stream().map(TurnAction::ofReadyAndDiscard).toList());
+        if(!round.isLastTurn() && getScore()>=1000 && isConcealed()){
+            for(var tile:turnActionModel.readyTilesOf(drawnTile)){
+                actions.add(TurnAction.ofReadyAndDiscard(tile));
+            }
         }
-        return actions;
+        return actions.build();
+    }
+
+    private boolean isConcealed(){
+        for(var meld:openMelds){
+            if(!meld.isConcealed()){
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -307,10 +429,10 @@ class RoundPlayer extends ForwardingTableStrategy{
         if(winningTiles.contains(discardedTile) && !riverLock && !aroundLock && hasScore(discardedTile, discarderWind.from(seatWind))){
             actions.add(CallAction.ofRon());
         }
-        if(!HandTiles.kanBasesOf(handTiles, discardedTile).isEmpty()){
-            actions.add(CallAction.ofKan());
-        }
         if(!round.isLastTurn()){
+            if(round.getTotalQuadCount()<4 && !HandTiles.kanBasesOf(handTiles, discardedTile).isEmpty()){
+                actions.add(CallAction.ofKan());
+            }
             actions.addAll(HandTiles.ponBasesOf(handTiles, discardedTile).stream().map(CallAction::ofPon).toList());
             if(discarderWind==Side.LEFT.of(seatWind)){
                 actions.addAll(HandTiles.chiBasesOf(handTiles, discardedTile).stream().map(CallAction::ofChi).toList());
@@ -392,7 +514,7 @@ class RoundPlayer extends ForwardingTableStrategy{
 
     private List<WinningOption> getWinningOptions(boolean afterQuad, boolean quadGrab){
         var options = new ArrayList<WinningOption>();
-        if(round.isFirstAround()) options.add(WinningOption.FIRST_AROUND_WIN);
+        if(round.isFirstAround() && riverSize==0) options.add(WinningOption.FIRST_AROUND_WIN);
         if(round.isLastTurn()) options.add(WinningOption.LAST_TILE_WIN);
         if(ready) options.add(WinningOption.READY);
         if(readyAround) options.add(WinningOption.READY_AROUND_WIN);
@@ -402,10 +524,20 @@ class RoundPlayer extends ForwardingTableStrategy{
         return options;
     }
 
+    private boolean isRiverLocked(){
+        for(int i = 0; i<riverSize; i++){
+            if(winningTiles.contains(TILES[river[i]])){
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void remove(Tile tile){
         if(!handTiles.remove(tile)){
             throw new IllegalArgumentException("tile not found: removing "+tile+" from "+handTiles);
         }
+        turnActionModel.handChanged();
     }
 
     private void remove(List<Tile> tiles){
@@ -534,7 +666,15 @@ class RoundPlayer extends ForwardingTableStrategy{
      *         false 流し満貫状態でない場合
      */
     boolean isOrphanRiver(){
-        return !called && river.stream().allMatch(Tile::isOrphan);
+        if(called){
+            return false;
+        }
+        for(int i = 0; i<riverSize; i++){
+            if(!TILES[river[i]].isOrphan()){
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -589,6 +729,7 @@ class RoundPlayer extends ForwardingTableStrategy{
         data.setSeatWind(seatWind);
         data.setScore(getScore());
         data.setRank(getRank());
+        data.setScoreGapToUpperRank(gamePlayer.getScoreGapToUpperRank());
         return data;
     }
 
@@ -600,4 +741,16 @@ class RoundPlayer extends ForwardingTableStrategy{
         gamePlayer.applyScore(score);
     }
 
+    /**
+     * このプレイヤーが待機時間内に行動を選択しなかったことを記録します。
+     */
+    void decisionTimedOut(){
+        gamePlayer.decisionTimedOut();
+    }
+
+    @Override
+    public boolean isDecisionTimeBounded(){
+        return gamePlayer.isDecisionTimeBounded();
+    }
+
 }
@@ -0,0 +1,234 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.CallAction;
+import jp.rouh.mahjong.game.event.TurnAction;
+import jp.rouh.mahjong.score.Meld;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.*;
+
+/**
+ * 進行中の局の状態を保持する不変クラス。
+ * <p>{@link Round#snapshot}で取得し, {@link #fork}で同じ状態から進行する
+ * シミュレーション用の局{@link SimulationRound}を何度でも生成できます。
+ * <p>手牌及び河は{@link Tile#ordinal}のバイト配列で, 和了牌などの牌の集合は
+ * {@link Tile#ordinal}をビット位置とするビットマスクで保持します。
+ * 牌山の牌の並びは局の全てのスナップショットで共有され, 牌山の状態は自摸及び嶺上牌の取得数と
+ * ドラ表示牌の公開数のみで表されます。副露は不変な{@link Meld}のリストを共有します。
+ * そのため一局面あたりのスナップショットの取得は手牌及び河の長さに比例する程度の短い配列の複製で済みます。
+ * @author Rouh
+ * @version 1.0
+ */
+final class RoundSnapshot{
+    private static final Tile[] TILES = Tile.values();
+    private final RoundParameter params;
+    private final Wall wall;
+    private final Round.Phase phase;
+    private final Wind turnWind;
+    private final boolean afterCall;
+    private final boolean afterQuad;
+    private final boolean firstAround;
+    private final boolean selfQuad;
+    private final byte[] firstAroundDiscards;
+    private final Tile calledTile;
+    private final List<TurnAction> turnChoices;
+    private final Map<Wind, List<CallAction>> callChoices;
+    private final RoundResultType resultType;
+    private final PlayerSnapshot[] players;
+
+    /**
+     * 局プレイヤーの状態。
+     * @param name プレイヤーの名前
+     * @param initialSeatWind 対局開始時の自風
+     * @param score 点数
+     * @param handTiles 自摸牌を除く手牌(昇順)
+     * @param drawnTile 自摸牌, 存在しない場合は-1
+     * @param openMelds 副露のリスト
+     * @param river 打牌の順の河の牌(鳴かれた牌を含む)
+     * @param winningTiles 和了牌のビットマスク
+     * @param discardLockedTiles 喰い替えにより打牌できない牌のビットマスク, 制限がない場合は0
+     * @param readyQuadTiles 立直後にカン可能な牌のビットマスク
+     * @param flags 立直状態などのフラグ
+     */
+    record PlayerSnapshot(String name, Wind initialSeatWind, int score, byte[] handTiles, byte drawnTile,
+                          List<Meld> openMelds, byte[] river, long winningTiles, long discardLockedTiles,
+                          long readyQuadTiles, int flags){
+
+        /**
+         * 局プレイヤーの状態を生成します。
+         * <p>手牌及び河の配列は複製して保持されます。
+         */
+        PlayerSnapshot{
+            handTiles = handTiles.clone();
+            openMelds = List.copyOf(openMelds);
+            river = river.clone();
+        }
+
+        /**
+         * 自摸牌を除く手牌を取得します。
+         * @return 手牌の配列の複製
+         */
+        @Override
+        public byte[] handTiles(){
+            return handTiles.clone();
+        }
+
+        /**
+         * 河の牌を取得します。
+         * @return 河の配列の複製
+         */
+        @Override
+        public byte[] river(){
+            return river.clone();
+        }
+    }
+
+    RoundSnapshot(RoundParameter params, Wall wall, Round.Phase phase, Wind turnWind,
+                  boolean afterCall, boolean afterQuad, boolean firstAround, boolean selfQuad,
+                  byte[] firstAroundDiscards, Tile calledTile, List<TurnAction> turnChoices,
+                  Map<Wind, List<CallAction>> callChoices, RoundResultType resultType, PlayerSnapshot[] players){
+        this.params = params;
+        this.wall = wall;
+        this.phase = phase;
+        this.turnWind = turnWind;
+        this.afterCall = afterCall;
+        this.afterQuad = afterQuad;
+        this.firstAround = firstAround;
+        this.selfQuad = selfQuad;
+        this.firstAroundDiscards = firstAroundDiscards;
+        this.calledTile = calledTile;
+        this.turnChoices = turnChoices;
+        this.callChoices = callChoices;
+        this.resultType = resultType;
+        this.players = players;
+    }
+
+    /**
+     * このスナップショットの状態から進行するシミュレーション用の局を生成します。
+     * <p>生成した局はこのスナップショット及び他の局と状態を共有しません。
+     * @return シミュレーション用の局
+     */
+    SimulationRound fork(){
+        return new SimulationRound(this);
+    }
+
+    RoundParameter getParameter(){
+        return params;
+    }
+
+    /**
+     * 牌山の複製を取得します。
+     * @return 観測者を持たない牌山
+     */
+    Wall getWall(){
+        return wall.copy();
+    }
+
+    Round.Phase getPhase(){
+        return phase;
+    }
+
+    Wind getTurnWind(){
+        return turnWind;
+    }
+
+    boolean isAfterCall(){
+        return afterCall;
+    }
+
+    boolean isAfterQuad(){
+        return afterQuad;
+    }
+
+    boolean isFirstAround(){
+        return firstAround;
+    }
+
+    boolean isSelfQuad(){
+        return selfQuad;
+    }
+
+    List<Tile> getFirstAroundDiscards(){
+        return tilesOf(firstAroundDiscards);
+    }
+
+    Tile getCalledTile(){
+        return calledTile;
+    }
+
+    List<TurnAction> getTurnChoices(){
+        return turnChoices;
+    }
+
+    Map<Wind, List<CallAction>> getCallChoices(){
+        return callChoices;
+    }
+
+    RoundResultType getResultType(){
+        return resultType;
+    }
+
+    /**
+     * 指定された自風の局プレイヤーの状態を取得します。
+     * @param seatWind 自風
+     * @return 局プレイヤーの状態
+     */
+    PlayerSnapshot getPlayerAt(Wind seatWind){
+        return players[seatWind.ordinal()];
+    }
+
+    /**
+     * 牌のリストをバイト配列に変換します。
+     * @param tiles 牌のリスト
+     * @return バイト配列
+     */
+    static byte[] bytesOf(List<Tile> tiles){
+        var bytes = new byte[tiles.size()];
+        for(int i = 0; i<bytes.length; i++){
+            bytes[i] = (byte)tiles.get(i).ordinal();
+        }
+        return bytes;
+    }
+
+    /**
+     * バイト配列を牌のリストに変換します。
+     * @param bytes バイト配列
+     * @return 変更可能な牌のリスト
+     */
+    static List<Tile> tilesOf(byte[] bytes){
+        var tiles = new ArrayList<Tile>(bytes.length + 1);
+        for(var b:bytes){
+            tiles.add(TILES[b]);
+        }
+        return tiles;
+    }
+
+    /**
+     * 牌の集合をビットマスクに変換します。
+     * @param tiles 牌の集合, nullの場合は空集合とみなします
+     * @return ビットマスク
+     */
+    static long maskOf(Set<Tile> tiles){
+        long mask = 0;
+        if(tiles!=null){
+            for(var tile:tiles){
+                mask |= 1L<<tile.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * ビットマスクを牌の集合に変換します。
+     * @param mask ビットマスク
+     * @return 変更可能な牌の集合
+     */
+    static Set<Tile> setOf(long mask){
+        var tiles = EnumSet.noneOf(Tile.class);
+        for(long rest = mask; rest!=0; rest &= rest - 1){
+            tiles.add(TILES[Long.numberOfTrailingZeros(rest)]);
+        }
+        return tiles;
+    }
+}
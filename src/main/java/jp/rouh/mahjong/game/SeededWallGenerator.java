@@ -0,0 +1,90 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Tiles;
+
+import java.util.SplittableRandom;
+
+/**
+ * シード値から再現可能な牌山を生成する牌山生成器。
+ * <p>対局のシード値と局の通し番号から各局の牌山を決定します。
+ * サイコロの目は牌山の切り位置に反映されますが, 配牌及び自摸の順序には影響しません。
+ * そのため同じシード値を与えた対局では常に同じ順序で牌が配られます。
+ * <p>自己対局などの大量の対局での利用を想定し, 乱数生成器には{@link SplittableRandom}を用い,
+ * 牌の配列を使い回してその場でシャッフルします。
+ * 暗号論的に安全な乱数ではないため, 通常の対局では用いません。
+ * <p>このクラスは一つの対局につき一つのインスタンスを生成して用いることを想定します。
+ * @author Rouh
+ * @version 1.0
+ */
+class SeededWallGenerator implements WallGenerator{
+    private static final Tile[] TILE_SET = Tiles.newTileSet().toArray(new Tile[0]);
+    private final Tile[] tiles = new Tile[136];
+    private final long gameSeed;
+    private int roundIndex = 0;
+    private ArrayWall reusableWall;
+    private boolean wallReuse = false;
+
+    /**
+     * 牌山生成器を生成します。
+     * @param gameSeed 対局のシード値
+     */
+    SeededWallGenerator(long gameSeed){
+        this.gameSeed = gameSeed;
+    }
+
+    /**
+     * 牌山のオブジェクトを局ごとに使い回すかどうかを設定します。
+     * <p>使い回す場合, 生成した牌山は次の牌山の生成時に{@link ArrayWall#reset}で初期化されるため,
+     * 局の終了後に牌山を参照してはいけません。
+     * {@link Wall#copy}で複製した牌山は影響を受けません。
+     * <p>設定しない場合は局ごとに新たな牌山を生成します。
+     * @param wallReuse 使い回す場合はtrue
+     */
+    void setWallReuse(boolean wallReuse){
+        this.wallReuse = wallReuse;
+    }
+
+    @Override
+    public Wall generate(int dice1, int dice2){
+        int diceSum = dice1 + dice2;
+        int firstIndex = ArrayWall.firstIndexOf(diceSum);
+        //配牌の順に並べた牌セットを切り位置から配置する
+        System.arraycopy(TILE_SET, 0, tiles, firstIndex, 136 - firstIndex);
+        System.arraycopy(TILE_SET, 136 - firstIndex, tiles, 0, firstIndex);
+        var random = new SplittableRandom(roundSeedOf(gameSeed, roundIndex++));
+        for(int i = 135; i>0; i--){
+            int j = random.nextInt(i + 1);
+            int from = (firstIndex + i)%136;
+            int to = (firstIndex + j)%136;
+            var tile = tiles[from];
+            tiles[from] = tiles[to];
+            tiles[to] = tile;
+        }
+        if(!wallReuse){
+            return new ArrayWall(tiles, diceSum);
+        }
+        if(reusableWall==null){
+            reusableWall = new ArrayWall(tiles, diceSum);
+        }else{
+            reusableWall.reset(tiles, diceSum);
+        }
+        return reusableWall;
+    }
+
+    /**
+     * 局の牌山を決定するシード値を取得します。
+     * @param gameSeed 対局のシード値
+     * @param roundIndex 局の通し番号(0..)
+     * @return 局のシード値
+     */
+    static long roundSeedOf(long gameSeed, int roundIndex){
+        return mix64(mix64(gameSeed) + roundIndex);
+    }
+
+    private static long mix64(long z){
+        z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
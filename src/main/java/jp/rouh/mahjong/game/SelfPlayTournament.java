@@ -0,0 +1,249 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * 自己対局による大会を実行するクラス。
+ * <p>登録された4つの戦略の組み合わせで画面を伴わない対局を指定回数実行し,
+ * 参加枠ごとの成績を集計します。
+ * <p>対局は既定では利用可能なプロセッサ数のスレッドで並列に実行されます。
+ * 各対局の牌山は大会のシード値と対局番号から{@link SeededWallGenerator}によって
+ * 再現可能な形で生成されます。
+ * <p>席順は対局ごとに一つずつずらして割り当てられるため, 席順による有利不利は平準化されます。
+ * <p>対局は既定ではシミュレーションモードで実行され, 戦略オブジェクトが必要としない通知は省略されます。
+ * シミュレーションモードでは局及び牌山のオブジェクトも局ごとに使い回されます。
+ * <p>ターン外行動の選択は対局のスレッドで順に要求されるため, 同じシード値の大会では
+ * 並列数やシミュレーションモードによらず同じ成績が得られます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class SelfPlayTournament{
+    private static final Logger LOG = LoggerFactory.getLogger(SelfPlayTournament.class);
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+    private final List<String> names = new ArrayList<>(4);
+    private final List<Supplier<? extends TableStrategy>> strategySuppliers = new ArrayList<>(4);
+    private final int gameCount;
+    private final long seed;
+    private Supplier<GameSpan> spanSupplier = GameSpan::ofHalfGame;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean simulationMode = true;
+
+    /**
+     * 大会を生成します。
+     * @param gameCount 対局数
+     * @param seed 大会のシード値
+     * @throws IllegalArgumentException 対局数が1未満の場合
+     */
+    public SelfPlayTournament(int gameCount, long seed){
+        if(gameCount<1){
+            throw new IllegalArgumentException("invalid game count: "+gameCount);
+        }
+        this.gameCount = gameCount;
+        this.seed = seed;
+    }
+
+    /**
+     * 参加枠を追加します。
+     * <p>戦略オブジェクトは対局ごとに供給関数から新たに取得されます。
+     * @param name 参加枠の名前(重複を排除しない)
+     * @param strategySupplier 戦略オブジェクトの供給関数
+     * @throws IllegalStateException 参加枠が既に4つ存在する場合
+     */
+    public void addPlayer(String name, Supplier<? extends TableStrategy> strategySupplier){
+        if(names.size()>=4){
+            throw new IllegalStateException("tournament is already full");
+        }
+        names.add(name);
+        strategySuppliers.add(strategySupplier);
+    }
+
+    /**
+     * 対局のスパンを設定します。
+     * <p>設定しない場合は半荘戦となります。
+     * @param spanSupplier 局スパンの供給関数
+     */
+    public void setSpan(Supplier<GameSpan> spanSupplier){
+        this.spanSupplier = spanSupplier;
+    }
+
+    /**
+     * 対局を並列に実行するスレッド数を設定します。
+     * @param parallelism スレッド数
+     * @throws IllegalArgumentException スレッド数が1未満の場合
+     */
+    public void setParallelism(int parallelism){
+        if(parallelism<1){
+            throw new IllegalArgumentException("invalid parallelism: "+parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 対局をシミュレーションモードで実行するかどうかを設定します。
+     * <p>設定しない場合はシミュレーションモードで実行されます。
+     * @see GameTable#setSimulationMode
+     * @param simulationMode シミュレーションモードとする場合はtrue
+     */
+    public void setSimulationMode(boolean simulationMode){
+        this.simulationMode = simulationMode;
+    }
+
+    /**
+     * 大会を開始し, 全ての対局が終了するまで待機します。
+     * <p>例外により中断した対局は集計から除外され, 失敗数として計上されます。
+     * @return 大会の結果
+     * @throws IllegalStateException 参加枠の数が不正の場合
+     */
+    public TournamentResult start(){
+        if(names.size()!=4){
+            throw new IllegalStateException("need more players to start: count="+names.size());
+        }
+        var result = new TournamentResult(names);
+        var executorService = Executors.newFixedThreadPool(parallelism);
+        var futures = new ArrayList<Future<List<SeatRecorder>>>(gameCount);
+        long startNanos = System.nanoTime();
+        for(int i = 0; i<gameCount; i++){
+            int gameIndex = i;
+            futures.add(executorService.submit(()->play(gameIndex)));
+        }
+        executorService.shutdown();
+        try{
+            //完了順によらず成績が一致するよう対局番号の順に集計する
+            for(var future:futures){
+                try{
+                    var recorders = future.get();
+                    for(int slot = 0; slot<4; slot++){
+                        var recorder = recorders.get(slot);
+                        result.getStatistics(slot).add(recorder.rounds, recorder.wins, recorder.dealIns,
+                                recorder.decisions, recorder.rank, recorder.score, recorder.resultPoint);
+                    }
+                }catch(ExecutionException e){
+                    LOG.error("game aborted in tournament", e.getCause());
+                    result.addFailure();
+                }
+            }
+        }catch(InterruptedException e){
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tournament interrupted", e);
+        }
+        result.setElapsedNanos(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    private List<SeatRecorder> play(int gameIndex){
+        var recorders = new ArrayList<SeatRecorder>(4);
+        var players = new HashMap<Wind, Player>();
+        for(int slot = 0; slot<4; slot++){
+            var recorderName = slot+":"+names.get(slot);
+            var recorder = new SeatRecorder(recorderName, strategySuppliers.get(slot).get());
+            var seatWind = Wind.values()[(slot + gameIndex)%4];
+            players.put(seatWind, new Player(recorderName, recorder));
+            recorders.add(recorder);
+        }
+        long gameSeed = seed + gameIndex*SEED_GAMMA;
+        var wallGenerator = new SeededWallGenerator(gameSeed);
+        wallGenerator.setWallReuse(simulationMode);
+        var game = new PreparedGame(players, spanSupplier.get(), wallGenerator);
+        game.setSimulationMode(simulationMode);
+        game.setRoundReuse(simulationMode);
+        game.setCallExecutor(Runnable::run);
+        game.start();
+        return recorders;
+    }
+
+    /**
+     * 参加枠の一対局分の成績を記録する戦略オブジェクト。
+     */
+    private static class SeatRecorder extends ForwardingTableStrategy{
+        private final String name;
+        private boolean scored;
+        private boolean tsumo;
+        private int rounds;
+        private int wins;
+        private int dealIns;
+        private int decisions;
+        private int rank;
+        private int score;
+        private double resultPoint;
+
+        private SeatRecorder(String name, TableStrategy strategy){
+            super(strategy);
+            this.name = name;
+        }
+
+        @Override
+        public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+            rounds++;
+            scored = false;
+            tsumo = false;
+            super.roundStarted(wind, count, streak, deposit, last);
+        }
+
+        @Override
+        public void handScoreNotified(List<HandScoreData> scores){
+            scored = true;
+            tsumo = scores.get(0).isTsumo();
+            super.handScoreNotified(scores);
+        }
+
+        @Override
+        public void riverScoreNotified(List<RiverScoreData> scores){
+            scored = true;
+            tsumo = true;
+            super.riverScoreNotified(scores);
+        }
+
+        @Override
+        public void paymentNotified(Map<Side, PaymentData> payments){
+            if(scored){
+                var payment = payments.get(Side.SELF);
+                int delta = payment.getScoreAfter() - payment.getScoreBefore();
+                if(delta>0){
+                    wins++;
+                }else if(delta<0 && !tsumo){
+                    dealIns++;
+                }
+            }
+            super.paymentNotified(payments);
+        }
+
+        @Override
+        public void gameFinished(List<GameScoreData> scores){
+            for(int i = 0; i<scores.size(); i++){
+                var data = scores.get(i);
+                if(data.getName().equals(name)){
+                    rank = i + 1;
+                    score = data.getScore();
+                    resultPoint = data.getResultPoint();
+                }
+            }
+            super.gameFinished(scores);
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            decisions++;
+            return super.selectTurnAction(choices);
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            decisions++;
+            return super.selectCallAction(choices);
+        }
+    }
+}
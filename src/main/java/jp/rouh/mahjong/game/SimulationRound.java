@@ -0,0 +1,272 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * {@link RoundSnapshot}から生成されるシミュレーション用の局。
+ * <p>先読みを行うボットや局面の検討のため, 局の途中の状態から任意の選択を与えて局を進行します。
+ * 観測者及び牌山の観測者を持たず, シミュレーションモードで進行するため
+ * 局の進行に必要な通知以外は生成されません。
+ * また対局エンジンの統計値{@link GameMetrics}には集計されません。
+ * プレイヤーに選択を要求することはなく, 選択は{@link #resumeTurn}及び{@link #resumeCall}で
+ * 呼び出し元が与えます。局の進行は全て呼び出し元のスレッドで行われます。
+ * <p>このクラスはスレッドセーフではありません。
+ * 同じスナップショットから生成した複数の局は互いに独立しているため, 別々のスレッドで進行できます。
+ * @author Rouh
+ * @version 1.0
+ */
+final class SimulationRound{
+    private final Round round;
+    private final Map<Wind, SimulationPlayer> players = new EnumMap<>(Wind.class);
+
+    /**
+     * スナップショットの状態からシミュレーション用の局を生成します。
+     * @param snapshot 局の状態
+     */
+    SimulationRound(RoundSnapshot snapshot){
+        int roundCount = snapshot.getParameter().getRoundId().count();
+        var gamePlayers = new ArrayList<SimulationPlayer>(4);
+        var standings = new Standings();
+        for(var seatWind:Wind.values()){
+            var player = new SimulationPlayer(snapshot.getPlayerAt(seatWind), seatWind, roundCount, standings);
+            gamePlayers.add(player);
+            players.put(seatWind, player);
+        }
+        this.round = new Round(snapshot, gamePlayers);
+        round.setSimulationMode(true);
+        round.setMetrics(GameMetrics.DISABLED);
+    }
+
+    /**
+     * プレイヤーの入力が必要となるか, 局が終了するまで局を進行します。
+     * @return 現在の段階
+     */
+    Round.Phase proceed(){
+        return round.proceed();
+    }
+
+    /**
+     * ターン内行動の入力を与えて局の進行を再開します。
+     * @param turnAction 手番のプレイヤーが選択した行動
+     * @throws IllegalStateException ターン内行動の入力待ちでない場合
+     * @throws IllegalArgumentException 行動が選択肢に含まれない場合
+     */
+    void resumeTurn(TurnAction turnAction){
+        round.resumeTurn(turnAction);
+    }
+
+    /**
+     * 各プレイヤーのターン外行動の選択を与えて局の進行を再開します。
+     * <p>選択は{@link CallActionMediator}と同様に優先度に基づいて調停され,
+     * 最も優先度の高い行動のみが適用されます。
+     * @param selectedActions プレイヤーの自風と選択した行動のマップ, 含まれないプレイヤーはパスとみなします
+     * @throws IllegalStateException ターン外行動の入力待ちでない場合
+     * @throws IllegalArgumentException 行動が選択肢に含まれない場合
+     */
+    void resumeCall(Map<Wind, CallAction> selectedActions){
+        var phase = round.getPhase();
+        if(phase!=Round.Phase.QUAD_CALL_WINDOW && phase!=Round.Phase.DISCARD_CALL_WINDOW){
+            throw new IllegalStateException("not waiting for call action: "+phase);
+        }
+        var actions = new EnumMap<Wind, CallAction>(Wind.class);
+        for(var entry:selectedActions.entrySet()){
+            var wind = entry.getKey();
+            var action = entry.getValue();
+            var choices = round.getCallChoices(wind);
+            if(!choices.contains(action)){
+                throw new IllegalArgumentException("illegal action has been detected: choices:"+choices+" the choice:"+action);
+            }
+            if(action.type()==CallActionType.PASS){
+                continue;
+            }
+            int highestPriority = actions.isEmpty()? 0:actions.values().iterator().next().priority();
+            if(action.priority()>highestPriority){
+                actions.clear();
+            }
+            if(action.priority()>=highestPriority){
+                actions.put(wind, action);
+            }
+        }
+        round.resumeCall(actions);
+    }
+
+    /**
+     * 与えられた選択の方針に従って局が終了するまで局を進行します。
+     * @param turnPolicy 手番のプレイヤーの自風と選択肢からターン内行動を選択する関数
+     * @param callPolicy プレイヤーの自風と選択肢からターン外行動を選択する関数
+     * @return 局の結果
+     */
+    RoundResultType playOut(BiFunction<Wind, List<TurnAction>, TurnAction> turnPolicy,
+                            BiFunction<Wind, List<CallAction>, CallAction> callPolicy){
+        Round.Phase phase;
+        while((phase = proceed())!=Round.Phase.FINISHED){
+            if(phase==Round.Phase.TURN_DECISION){
+                resumeTurn(turnPolicy.apply(getTurnWind(), getTurnChoices()));
+            }else{
+                var selectedActions = new EnumMap<Wind, CallAction>(Wind.class);
+                for(var wind:getTurnWind().others()){
+                    var choices = getCallChoices(wind);
+                    if(choices.size()>1){
+                        selectedActions.put(wind, callPolicy.apply(wind, choices));
+                    }
+                }
+                resumeCall(selectedActions);
+            }
+        }
+        return getResultType();
+    }
+
+    /**
+     * 局の現在の状態を取得します。
+     * @return 局の状態
+     */
+    RoundSnapshot snapshot(){
+        return round.snapshot();
+    }
+
+    /**
+     * 現在の段階を取得します。
+     * @return 段階
+     */
+    Round.Phase getPhase(){
+        return round.getPhase();
+    }
+
+    /**
+     * 手番のプレイヤーの自風を取得します。
+     * @return 自風
+     */
+    Wind getTurnWind(){
+        return round.getTurnWind();
+    }
+
+    /**
+     * 入力待ちのターン内行動の選択肢を取得します。
+     * @return ターン内行動のリスト, 入力待ちでない場合は空のリスト
+     */
+    List<TurnAction> getTurnChoices(){
+        return round.getTurnChoices();
+    }
+
+    /**
+     * 入力待ちのターン外行動の選択肢を取得します。
+     * @param seatWind 選択するプレイヤーの自風
+     * @return ターン外行動のリスト, 入力待ちでない場合は空のリスト
+     */
+    List<CallAction> getCallChoices(Wind seatWind){
+        return round.getCallChoices(seatWind);
+    }
+
+    /**
+     * 局の結果を取得します。
+     * @return 局の結果, 局が終了していない場合はnull
+     */
+    RoundResultType getResultType(){
+        return round.getResultType();
+    }
+
+    /**
+     * 指定された自風のプレイヤーの現在の点数を取得します。
+     * @param seatWind 自風
+     * @return 点数
+     */
+    int getScoreAt(Wind seatWind){
+        return players.get(seatWind).getScore();
+    }
+
+    /**
+     * シミュレーション用の対局プレイヤー。
+     * <p>点数と順位のみを管理し, 通知は全て破棄します。
+     * 順位は同じ局の他のプレイヤーと共有する順位表で管理します。
+     */
+    private static class SimulationPlayer implements GamePlayerAccessor, TableObserverAdapter{
+        private final String name;
+        private final Wind initialSeatWind;
+        private final Wind seatWind;
+        private final int roundCount;
+        private final Standings standings;
+        private int score;
+
+        private SimulationPlayer(RoundSnapshot.PlayerSnapshot snapshot, Wind seatWind, int roundCount, Standings standings){
+            this.name = snapshot.name();
+            this.initialSeatWind = snapshot.initialSeatWind();
+            this.seatWind = seatWind;
+            this.roundCount = roundCount;
+            this.score = snapshot.score();
+            this.standings = standings;
+            standings.scoreChanged(initialSeatWind, score);
+        }
+
+        @Override
+        public String getName(){
+            return name;
+        }
+
+        @Override
+        public Wind getSeatWindAt(int roundCount){
+            return seatWind.shift(Math.floorMod(this.roundCount - roundCount, 4));
+        }
+
+        @Override
+        public int getScore(){
+            return score;
+        }
+
+        @Override
+        public int getRank(){
+            return standings.getRankOf(initialSeatWind);
+        }
+
+        @Override
+        public int getScoreGapToUpperRank(){
+            return standings.getScoreGapToUpperRank(initialSeatWind);
+        }
+
+        @Override
+        public void applyScore(int score){
+            this.score += score;
+            standings.scoreChanged(initialSeatWind, this.score);
+        }
+
+        @Override
+        public void decisionTimedOut(){
+            //pass
+        }
+
+        @Override
+        public int getTimeoutCount(){
+            return 0;
+        }
+
+        @Override
+        public Set<TableEventCategory> getRequiredEventCategories(){
+            return EnumSet.noneOf(TableEventCategory.class);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>シミュレーション用の局は{@link Round#proceed}で入力待ちの段階まで進行し,
+         * 選択は呼び出し元が{@link SimulationRound#resumeTurn}で与えるため, このメソッドが呼び出されることはありません。
+         * @throws IllegalStateException 常に
+         */
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            throw new IllegalStateException("simulation round must be resumed by resumeTurn, not by asking "+name);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>シミュレーション用の局は{@link Round#proceed}で入力待ちの段階まで進行し,
+         * 選択は呼び出し元が{@link SimulationRound#resumeCall}で与えるため, このメソッドが呼び出されることはありません。
+         * @throws IllegalStateException 常に
+         */
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            throw new IllegalStateException("simulation round must be resumed by resumeCall, not by asking "+name);
+        }
+    }
+}
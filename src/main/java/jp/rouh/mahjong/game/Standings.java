@@ -0,0 +1,122 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.List;
+
+/**
+ * 対局中のプレイヤーの順位表。
+ * <p>プレイヤーは対局開始時の自風で識別します。
+ * 順位は点数が高いプレイヤーから1位～4位となり,
+ * 同点の場合は対局開始時の自風が東に近いほうが上位となります。
+ * <p>点数の変更を{@link #scoreChanged}で通知すると, 変更されたプレイヤーのみを
+ * 順位表の中で移動させて順位を更新します。順位及び点差の取得は定数時間で行えます。
+ * @author Rouh
+ * @version 1.0
+ */
+final class Standings{
+    private static final Wind[] WINDS = Wind.values();
+    private final int[] scores = new int[4];
+    private final int[] ranks = {1, 2, 3, 4};
+    private final Wind[] order = WINDS.clone();
+
+    /**
+     * 全てのプレイヤーの点数が0点の順位表を生成します。
+     */
+    Standings(){
+    }
+
+    /**
+     * 全てのプレイヤーの点数が指定された点数の順位表を生成します。
+     * @param defaultScore 点数
+     */
+    Standings(int defaultScore){
+        for(var wind:WINDS){
+            scores[wind.ordinal()] = defaultScore;
+        }
+    }
+
+    /**
+     * プレイヤーの点数が変更されたことを通知し, 順位を更新します。
+     * @param initialSeatWind 対局開始時の自風
+     * @param score 変更後の点数
+     */
+    void scoreChanged(Wind initialSeatWind, int score){
+        scores[initialSeatWind.ordinal()] = score;
+        int position = ranks[initialSeatWind.ordinal()] - 1;
+        while(position>0 && isAbove(initialSeatWind, order[position - 1])){
+            moveTo(order[position - 1], position);
+            position--;
+        }
+        while(position<order.length - 1 && isAbove(order[position + 1], initialSeatWind)){
+            moveTo(order[position + 1], position);
+            position++;
+        }
+        moveTo(initialSeatWind, position);
+    }
+
+    private boolean isAbove(Wind wind, Wind other){
+        int score = scores[wind.ordinal()];
+        int otherScore = scores[other.ordinal()];
+        return score>otherScore || (score==otherScore && wind.ordinal()<other.ordinal());
+    }
+
+    private void moveTo(Wind wind, int position){
+        order[position] = wind;
+        ranks[wind.ordinal()] = position + 1;
+    }
+
+    /**
+     * プレイヤーの点数を取得します。
+     * @param initialSeatWind 対局開始時の自風
+     * @return 点数
+     */
+    int getScoreOf(Wind initialSeatWind){
+        return scores[initialSeatWind.ordinal()];
+    }
+
+    /**
+     * プレイヤーの順位を取得します。
+     * @param initialSeatWind 対局開始時の自風
+     * @return 順位(1..4)
+     */
+    int getRankOf(Wind initialSeatWind){
+        return ranks[initialSeatWind.ordinal()];
+    }
+
+    /**
+     * 指定された順位のプレイヤーの対局開始時の自風を取得します。
+     * @param rank 順位(1..4)
+     * @return 対局開始時の自風
+     * @throws IllegalArgumentException 順位が範囲外の場合
+     */
+    Wind getWindAt(int rank){
+        if(rank<1 || rank>order.length){
+            throw new IllegalArgumentException("invalid rank "+rank);
+        }
+        return order[rank - 1];
+    }
+
+    /**
+     * 順位順に並べた対局開始時の自風のリストを取得します。
+     * @return 1位から順の対局開始時の自風のリスト
+     */
+    List<Wind> getWindsInRankOrder(){
+        return List.of(order);
+    }
+
+    /**
+     * 一つ上の順位のプレイヤーとの点差を取得します。
+     * <p>同点で上位となっているプレイヤーとの点差は0です。
+     * 1位のプレイヤーの場合は0を返します。
+     * @param initialSeatWind 対局開始時の自風
+     * @return 点差(0以上)
+     */
+    int getScoreGapToUpperRank(Wind initialSeatWind){
+        int rank = ranks[initialSeatWind.ordinal()];
+        if(rank==1){
+            return 0;
+        }
+        return scores[order[rank - 2].ordinal()] - scores[initialSeatWind.ordinal()];
+    }
+}
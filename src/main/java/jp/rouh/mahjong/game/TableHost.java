@@ -0,0 +1,251 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 複数の対局テーブルを並行して実行するサービス。
+ * <p>受け付けたテーブルはそれぞれ専用のスレッドで{@link GameTable#start}を実行します。
+ * 実行環境で仮想スレッドが利用可能であれば仮想スレッドを,
+ * そうでなければ同時実行数を上限とする固定数のスレッドプールを用います。
+ * 人間のプレイヤーの入力を待機している時間が大半を占めるテーブルを多数実行することを想定します。
+ * <p>同時に実行するテーブル数は生成時に指定した上限を超えません。
+ * 上限に達している場合, 及び受付を停止した後のテーブルの追加要求は拒否されます。
+ * <p>{@link #drain}によってテーブルの受付を停止し,
+ * {@link #awaitDrained}で実行中のテーブルの終了を待機することができます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class TableHost{
+    private static final Logger LOG = LoggerFactory.getLogger(TableHost.class);
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static volatile TableHost shared;
+    private final ConcurrentMap<String, GameTable> runningTables = new ConcurrentHashMap<>();
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int capacity;
+    private volatile boolean draining;
+
+    /**
+     * サービスを生成します。
+     * @param capacity 同時に実行するテーブル数の上限
+     * @throws IllegalArgumentException 上限が1未満の場合
+     */
+    public TableHost(int capacity){
+        if(capacity<1){
+            throw new IllegalArgumentException("invalid capacity: "+capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.executor = Threads.newVirtualThreadPerTaskExecutorOr(
+                ()->Executors.newFixedThreadPool(capacity, Threads.newDaemonThreadFactory("table-host")));
+    }
+
+    /**
+     * プロセス内で共有されるサービスを取得します。
+     * <p>共有のサービスは初回の呼び出し時に生成されます。
+     * @return 共有のサービス
+     */
+    public static TableHost getShared(){
+        var host = shared;
+        if(host==null){
+            synchronized(TableHost.class){
+                host = shared;
+                if(host==null){
+                    host = new TableHost(DEFAULT_CAPACITY);
+                    shared = host;
+                }
+            }
+        }
+        return host;
+    }
+
+    /**
+     * テーブルを受け付け, 対局を開始します。
+     * <p>返される{@link CompletableFuture}は対局が終了した時点で完了し,
+     * 対局が例外により中断した場合はその例外で完了します。
+     * @param tableId テーブルID
+     * @param table 参加プレイヤーを追加済みのテーブル
+     * @return 対局の終了を表すオブジェクト
+     * @throws RejectedExecutionException 同時実行数が上限に達している場合, 又は受付を停止している場合
+     * @throws IllegalArgumentException 同じテーブルIDのテーブルが実行中の場合
+     */
+    public CompletableFuture<Void> submit(String tableId, GameTable table){
+        if(draining){
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("table host is draining");
+        }
+        if(!slots.tryAcquire()){
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("table host is full: capacity="+capacity);
+        }
+        if(runningTables.putIfAbsent(tableId, table)!=null){
+            slots.release();
+            throw new IllegalArgumentException("duplicate table id: "+tableId);
+        }
+        var future = new CompletableFuture<Void>();
+        try{
+            executor.execute(()->run(tableId, table, future));
+        }catch(RejectedExecutionException e){
+            runningTables.remove(tableId);
+            slots.release();
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+        return future;
+    }
+
+    private void run(String tableId, GameTable table, CompletableFuture<Void> future){
+        startedCount.incrementAndGet();
+        LOG.info("table {} started", tableId);
+        Throwable failure = null;
+        try{
+            table.start();
+            completedCount.incrementAndGet();
+            LOG.info("table {} finished", tableId);
+        }catch(Throwable e){
+            failedCount.incrementAndGet();
+            LOG.error("exception caught while playing on table "+tableId, e);
+            failure = e;
+        }finally{
+            //完了を待機している呼び出し元から枠が空いて見えるよう, 完了前に枠を解放する
+            runningTables.remove(tableId);
+            slots.release();
+        }
+        if(failure==null){
+            future.complete(null);
+        }else{
+            future.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * テーブルの受付を停止します。
+     * <p>実行中のテーブルは中断されず, 対局の終了まで実行されます。
+     */
+    public void drain(){
+        draining = true;
+        LOG.info("table host draining: running={}", getRunningCount());
+    }
+
+    /**
+     * 受付を停止した後, 全てのテーブルの対局が終了するまで待機します。
+     * @param timeout 最大待機時間
+     * @param unit 最大待機時間の単位
+     * @return true  全てのテーブルの対局が終了した場合
+     *         false 待機時間が経過した場合
+     * @throws IllegalStateException 受付を停止していない場合
+     * @throws InterruptedException 待機中にスレッドが中断された場合
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException{
+        if(!draining){
+            throw new IllegalStateException("table host is not draining");
+        }
+        if(!slots.tryAcquire(capacity, timeout, unit)){
+            return false;
+        }
+        slots.release(capacity);
+        return true;
+    }
+
+    /**
+     * テーブルの受付を停止し, 実行中のテーブルのスレッドを中断します。
+     */
+    public void shutdownNow(){
+        drain();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 受付を停止しているか検査します。
+     * @return true  受付を停止している場合
+     *         false テーブルを受け付けている場合
+     */
+    public boolean isDraining(){
+        return draining;
+    }
+
+    /**
+     * 同時に実行するテーブル数の上限を取得します。
+     * @return 上限
+     */
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * 実行中のテーブル数を取得します。
+     * @return テーブル数
+     */
+    public int getRunningCount(){
+        return runningTables.size();
+    }
+
+    /**
+     * 実行中のテーブルのIDを取得します。
+     * @return テーブルIDのセット
+     */
+    public Set<String> getRunningTableIds(){
+        return Set.copyOf(runningTables.keySet());
+    }
+
+    /**
+     * 対局を開始したテーブル数を取得します。
+     * @return テーブル数
+     */
+    public long getStartedCount(){
+        return startedCount.get();
+    }
+
+    /**
+     * 対局が終了したテーブル数を取得します。
+     * @return テーブル数
+     */
+    public long getCompletedCount(){
+        return completedCount.get();
+    }
+
+    /**
+     * 対局が例外により中断したテーブル数を取得します。
+     * @return テーブル数
+     */
+    public long getFailedCount(){
+        return failedCount.get();
+    }
+
+    /**
+     * 受付を拒否したテーブル数を取得します。
+     * @return テーブル数
+     */
+    public long getRejectedCount(){
+        return rejectedCount.get();
+    }
+
+    /**
+     * 仮想スレッドでテーブルを実行しているか検査します。
+     * @return true  仮想スレッドで実行している場合
+     *         false スレッドプールで実行している場合
+     */
+    public boolean isUsingVirtualThreads(){
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    @Override
+    public String toString(){
+        return "TableHost[running="+getRunningCount()+"/"+capacity
+                +", started="+getStartedCount()
+                +", completed="+getCompletedCount()
+                +", failed="+getFailedCount()
+                +", rejected="+getRejectedCount()
+                +", draining="+draining+"]";
+    }
+}
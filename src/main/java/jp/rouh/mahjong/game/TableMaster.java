@@ -22,6 +22,36 @@ interface TableMaster{
      */
     TableObserver getPlayerAt(Wind seatWind);
 
+    /**
+     * 指定された自風に位置するプレイヤーが指定された分類の通知を必要とするか検査します。
+     * @param seatWind 自風
+     * @param category 通知の分類
+     * @return true  通知を必要とする場合
+     *         false 通知を必要としない場合
+     */
+    boolean isRequired(Wind seatWind, TableEventCategory category);
+
+    /**
+     * いずれかのプレイヤーが指定された分類の通知を必要とするか検査します。
+     * <p>通知内容の生成を省略できるかどうかの判定に用いられます。
+     * @param category 通知の分類
+     * @return true  通知を必要とするプレイヤーが存在する場合
+     *         false 通知を必要とするプレイヤーが存在しない場合
+     */
+    boolean isRequired(TableEventCategory category);
+
+    /**
+     * 通知及びプレイヤーの選択の記録先を取得します。
+     * @return 記録先
+     */
+    TableRecorder getRecorder();
+
+    /**
+     * 統計値の集計先を取得します。
+     * @return 集計先
+     */
+    GameMetrics getMetrics();
+
     /**
      * 対局が開始したことを通知します。
      * @param players 参加プレイヤー名のリスト
@@ -176,4 +206,10 @@ interface TableMaster{
      */
     void meldTileAdded(Wind wind, int index, Tile tile);
 
+    /**
+     * 一連の通知が完了したことを全てのプレイヤーに通知します。
+     * @see TableObserver#notificationsCompleted
+     */
+    void notificationsCompleted();
+
 }
@@ -9,8 +9,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static jp.rouh.mahjong.game.event.TableEventCategory.*;
+
 /**
  * 対局時の情報を各風のプレイヤーへ通知するアダプタクラス。
+ * <p>各通知は{@link #isRequired(Wind, TableEventCategory)}によって
+ * 通知を必要とすると判定されたプレイヤーにのみ通知されます。
+ * <p>各通知はプレイヤーへの通知に先立って{@link #getRecorder}の記録先に記録されます。
+ * また通知の数は{@link #getMetrics}の集計先で計数されます。
  * @author Rouh
  * @version 1.0
  */
@@ -21,6 +27,7 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void gameStarted(List<ProfileData> players){
+        getMetrics().eventNotified();
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).gameStarted(players);
         }
@@ -28,17 +35,23 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void seatUpdated(Map<Wind, PlayerData> players){
+        getMetrics().eventNotified();
+        getRecorder().seatUpdated(players);
         for(var eachWind:Wind.values()){
-            var map = new HashMap<Side, PlayerData>();
-            for(var side:Side.values()){
-                map.put(side, players.get(side.of(eachWind)));
+            if(isRequired(eachWind, SEAT)){
+                var map = new HashMap<Side, PlayerData>();
+                for(var side:Side.values()){
+                    map.put(side, players.get(side.of(eachWind)));
+                }
+                getPlayerAt(eachWind).seatUpdated(map);
             }
-            getPlayerAt(eachWind).seatUpdated(map);
         }
     }
 
     @Override
     default void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        getMetrics().eventNotified();
+        getRecorder().roundStarted(wind, count, streak, deposit, last);
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).roundStarted(wind, count, streak, deposit, last);
         }
@@ -46,6 +59,8 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void roundDrawn(DrawType drawType){
+        getMetrics().eventNotified();
+        getRecorder().roundDrawn(drawType);
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).roundDrawn(drawType);
         }
@@ -53,6 +68,8 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void handScoreNotified(List<HandScoreData> scores){
+        getMetrics().eventNotified();
+        getRecorder().handScoreNotified(scores);
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).handScoreNotified(scores);
         }
@@ -60,6 +77,8 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void riverScoreNotified(List<RiverScoreData> scores){
+        getMetrics().eventNotified();
+        getRecorder().riverScoreNotified(scores);
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).riverScoreNotified(scores);
         }
@@ -67,6 +86,8 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void paymentNotified(Map<Wind, PaymentData> payments){
+        getMetrics().eventNotified();
+        getRecorder().paymentNotified(payments);
         for(var eachWind:Wind.values()){
             var map = new HashMap<Side, PaymentData>();
             for(var side:Side.values()){
@@ -78,6 +99,8 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void roundFinished(){
+        getMetrics().eventNotified();
+        getRecorder().roundFinished();
         for(var eachWind:Wind.values()){
             getPlayerAt(eachWind).roundFinished();
         }
@@ -85,100 +108,164 @@ interface TableMasterAdapter extends TableMaster{
 
     @Override
     default void diceRolled(Wind wind, int dice1, int dice2){
+        getMetrics().eventNotified();
+        getRecorder().diceRolled(wind, dice1, dice2);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).diceRolled(wind.from(eachWind), dice1, dice2);
+            if(isRequired(eachWind, DICE)){
+                getPlayerAt(eachWind).diceRolled(wind.from(eachWind), dice1, dice2);
+            }
         }
     }
 
     @Override
     default void declared(Wind wind, Declaration declaration){
+        getMetrics().eventNotified();
+        getRecorder().declared(wind, declaration);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).declared(wind.from(eachWind), declaration);
+            if(isRequired(eachWind, DECLARATION)){
+                getPlayerAt(eachWind).declared(wind.from(eachWind), declaration);
+            }
         }
     }
 
     @Override
     default void readyBoneAdded(Wind wind){
+        getMetrics().eventNotified();
+        getRecorder().readyBoneAdded(wind);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).readyBoneAdded(wind.from(eachWind));
+            if(isRequired(eachWind, DECLARATION)){
+                getPlayerAt(eachWind).readyBoneAdded(wind.from(eachWind));
+            }
         }
     }
 
     @Override
     default void wallGenerated(){
+        getMetrics().eventNotified();
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).wallGenerated();
+            if(isRequired(eachWind, WALL)){
+                getPlayerAt(eachWind).wallGenerated();
+            }
         }
     }
 
     @Override
     default void wallTileTaken(Wind wind, int column, int floor){
+        getMetrics().eventNotified();
+        getRecorder().wallTileTaken(wind, column, floor);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).wallTileTaken(wind.from(eachWind), column, floor);
+            if(isRequired(eachWind, WALL)){
+                getPlayerAt(eachWind).wallTileTaken(wind.from(eachWind), column, floor);
+            }
         }
     }
 
     @Override
     default void wallTileRevealed(Wind wind, int column, Tile tile){
+        getMetrics().eventNotified();
+        getRecorder().wallTileRevealed(wind, column, tile);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).wallTileRevealed(wind.from(eachWind), column, tile);
+            if(isRequired(eachWind, INDICATOR)){
+                getPlayerAt(eachWind).wallTileRevealed(wind.from(eachWind), column, tile);
+            }
         }
     }
 
     @Override
     default void turnStarted(Wind wind){
+        getMetrics().eventNotified();
+        getRecorder().turnStarted(wind);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).turnStarted(wind.from(eachWind));
+            if(isRequired(eachWind, TURN)){
+                getPlayerAt(eachWind).turnStarted(wind.from(eachWind));
+            }
         }
     }
 
     @Override
     default void handUpdated(Wind wind, List<Tile> wideTiles, boolean wide){
-        getPlayerAt(wind).handUpdated(wideTiles, wide);
+        getMetrics().eventNotified();
+        getRecorder().handUpdated(wind, wideTiles, wide);
+        if(isRequired(wind, HAND)){
+            getPlayerAt(wind).handUpdated(wideTiles, wide);
+        }
         for(var eachWind:wind.others()){
-            getPlayerAt(eachWind).handUpdated(wind.from(eachWind), wideTiles.size(), wide);
+            if(isRequired(eachWind, OTHER_HAND)){
+                getPlayerAt(eachWind).handUpdated(wind.from(eachWind), wideTiles.size(), wide);
+            }
         }
     }
 
     @Override
     default void handRevealed(Wind wind, List<Tile> wideTiles, boolean wide){
+        getMetrics().eventNotified();
+        getRecorder().handRevealed(wind, wideTiles, wide);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).handRevealed(wind.from(eachWind), wideTiles, wide);
+            if(isRequired(eachWind, OTHER_HAND)){
+                getPlayerAt(eachWind).handRevealed(wind.from(eachWind), wideTiles, wide);
+            }
         }
     }
 
     @Override
     default void riverTileAdded(Wind wind, Tile tile, boolean tilt){
+        getMetrics().eventNotified();
+        getRecorder().riverTileAdded(wind, tile, tilt);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).riverTileAdded(wind.from(eachWind), tile, tilt);
+            if(isRequired(eachWind, RIVER)){
+                getPlayerAt(eachWind).riverTileAdded(wind.from(eachWind), tile, tilt);
+            }
         }
     }
 
     @Override
     default void riverTileTaken(Wind wind){
+        getMetrics().eventNotified();
+        getRecorder().riverTileTaken(wind);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).riverTileTaken(wind.from(eachWind));
+            if(isRequired(eachWind, RIVER)){
+                getPlayerAt(eachWind).riverTileTaken(wind.from(eachWind));
+            }
         }
     }
 
     @Override
     default void tiltMeldAdded(Wind wind, Side tilt, List<Tile> tiles){
+        getMetrics().eventNotified();
+        getRecorder().tiltMeldAdded(wind, tilt, tiles);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).tiltMeldAdded(wind.from(eachWind), tilt, tiles);
+            if(isRequired(eachWind, MELD)){
+                getPlayerAt(eachWind).tiltMeldAdded(wind.from(eachWind), tilt, tiles);
+            }
         }
     }
 
     @Override
     default void selfQuadAdded(Wind wind, List<Tile> tiles){
+        getMetrics().eventNotified();
+        getRecorder().selfQuadAdded(wind, tiles);
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).selfQuadAdded(wind.from(eachWind), tiles);
+            if(isRequired(eachWind, MELD)){
+                getPlayerAt(eachWind).selfQuadAdded(wind.from(eachWind), tiles);
+            }
         }
     }
 
     @Override
     default void meldTileAdded(Wind wind, int index, Tile tile){
+        getMetrics().eventNotified();
+        getRecorder().meldTileAdded(wind, index, tile);
+        for(var eachWind:Wind.values()){
+            if(isRequired(eachWind, MELD)){
+                getPlayerAt(eachWind).meldTileAdded(wind.from(eachWind), index, tile);
+            }
+        }
+    }
+
+    @Override
+    default void notificationsCompleted(){
         for(var eachWind:Wind.values()){
-            getPlayerAt(eachWind).meldTileAdded(wind.from(eachWind), index, tile);
+            getPlayerAt(eachWind).notificationsCompleted();
         }
     }
 }
@@ -0,0 +1,75 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 対局中の通知及びプレイヤーの選択を記録するインターフェース。
+ * <p>{@link TableMaster}の通知と同名のメソッドは, プレイヤーへの通知に先立って呼び出されます。
+ * 加えて対局の開始と終了, 局の牌山及びプレイヤーの選択が記録されます。
+ * <p>既定の実装では何も記録しません。
+ * @author Rouh
+ * @version 1.0
+ */
+interface TableRecorder{
+
+    /**
+     * 何も記録しない記録先。
+     */
+    TableRecorder NONE = new TableRecorder(){};
+
+    default void gameStarted(Map<Wind, String> names){}
+
+    default void gameFinished(List<GameScoreData> scores){}
+
+    default void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){}
+
+    default void seatUpdated(Map<Wind, PlayerData> players){}
+
+    default void diceRolled(Wind wind, int dice1, int dice2){}
+
+    default void wallGenerated(List<Tile> tiles){}
+
+    default void wallTileTaken(Wind wind, int column, int floor){}
+
+    default void wallTileRevealed(Wind wind, int column, Tile tile){}
+
+    default void turnStarted(Wind wind){}
+
+    default void handUpdated(Wind wind, List<Tile> wideTiles, boolean wide){}
+
+    default void handRevealed(Wind wind, List<Tile> wideTiles, boolean wide){}
+
+    default void riverTileAdded(Wind wind, Tile tile, boolean tilt){}
+
+    default void riverTileTaken(Wind wind){}
+
+    default void tiltMeldAdded(Wind wind, Side tilt, List<Tile> tiles){}
+
+    default void selfQuadAdded(Wind wind, List<Tile> tiles){}
+
+    default void meldTileAdded(Wind wind, int index, Tile tile){}
+
+    default void declared(Wind wind, Declaration declaration){}
+
+    default void readyBoneAdded(Wind wind){}
+
+    default void turnActionSelected(Wind wind, TurnAction action){}
+
+    default void callActionsSelected(Map<Wind, CallAction> actions){}
+
+    default void roundDrawn(DrawType drawType){}
+
+    default void handScoreNotified(List<HandScoreData> scores){}
+
+    default void riverScoreNotified(List<RiverScoreData> scores){}
+
+    default void paymentNotified(Map<Wind, PaymentData> payments){}
+
+    default void roundFinished(){}
+}
@@ -0,0 +1,213 @@
+package jp.rouh.mahjong.game;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自己対局による大会{@link SelfPlayTournament}の結果クラス。
+ * <p>参加枠ごとの成績及び大会全体の処理性能を保持します。
+ * @author Rouh
+ * @version 1.0
+ */
+public class TournamentResult{
+    private final SeatStatistics[] statistics = new SeatStatistics[4];
+    private int failedGameCount;
+    private long elapsedNanos;
+
+    /**
+     * 大会結果を生成します。
+     * @param names 参加枠の名前のリスト(長さ4)
+     */
+    TournamentResult(List<String> names){
+        for(int slot = 0; slot<4; slot++){
+            statistics[slot] = new SeatStatistics(names.get(slot));
+        }
+    }
+
+    void addFailure(){
+        failedGameCount++;
+    }
+
+    void setElapsedNanos(long elapsedNanos){
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 指定された参加枠の成績を取得します。
+     * @param slot 参加枠の登録順(0..3)
+     * @return 成績
+     */
+    public SeatStatistics getStatistics(int slot){
+        return statistics[slot];
+    }
+
+    /**
+     * 正常に終了した対局数を取得します。
+     * @return 対局数
+     */
+    public int getGameCount(){
+        return statistics[0].gameCount;
+    }
+
+    /**
+     * 例外により中断した対局数を取得します。
+     * @return 対局数
+     */
+    public int getFailedGameCount(){
+        return failedGameCount;
+    }
+
+    /**
+     * 全参加枠の意思決定の総数を取得します。
+     * @return 意思決定数
+     */
+    public long getDecisionCount(){
+        long sum = 0;
+        for(var each:statistics){
+            sum += each.decisionCount;
+        }
+        return sum;
+    }
+
+    /**
+     * 大会の所要時間を取得します。
+     * @return 所要時間(ミリ秒)
+     */
+    public long getElapsedMillis(){
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * 一秒あたりの対局数を取得します。
+     * @return 対局数/秒
+     */
+    public double getGamesPerSecond(){
+        return perSecond(getGameCount() + failedGameCount);
+    }
+
+    /**
+     * 一秒あたりの意思決定数を取得します。
+     * @return 意思決定数/秒
+     */
+    public double getDecisionsPerSecond(){
+        return perSecond(getDecisionCount());
+    }
+
+    private double perSecond(long count){
+        return elapsedNanos==0? 0:count*1e9/elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        var sb = new StringBuilder();
+        sb.append(String.format("games=%d failed=%d elapsed=%dms throughput=%.2fgames/s %.1fdecisions/s%n",
+                getGameCount(), failedGameCount, getElapsedMillis(), getGamesPerSecond(), getDecisionsPerSecond()));
+        for(var each:statistics){
+            sb.append(each).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 参加枠ごとの成績クラス。
+     */
+    public static class SeatStatistics{
+        private final String name;
+        private final int[] rankCounts = new int[4];
+        private int gameCount;
+        private long roundCount;
+        private long winCount;
+        private long dealInCount;
+        private long decisionCount;
+        private long rankSum;
+        private long scoreSum;
+        private double resultPointSum;
+
+        private SeatStatistics(String name){
+            this.name = name;
+        }
+
+        void add(int rounds, int wins, int dealIns, int decisions, int rank, int score, double resultPoint){
+            gameCount++;
+            roundCount += rounds;
+            winCount += wins;
+            dealInCount += dealIns;
+            decisionCount += decisions;
+            rankSum += rank;
+            rankCounts[rank - 1]++;
+            scoreSum += score;
+            resultPointSum += resultPoint;
+        }
+
+        /**
+         * 参加枠の名前を取得します。
+         * @return 名前
+         */
+        public String getName(){
+            return name;
+        }
+
+        /**
+         * 和了率を取得します。
+         * @return 局数に対する和了数の割合(0..1)
+         */
+        public double getWinRate(){
+            return roundCount==0? 0:winCount/(double)roundCount;
+        }
+
+        /**
+         * 放銃率を取得します。
+         * @return 局数に対する放銃数の割合(0..1)
+         */
+        public double getDealInRate(){
+            return roundCount==0? 0:dealInCount/(double)roundCount;
+        }
+
+        /**
+         * 平均順位を取得します。
+         * @return 平均順位(1..4)
+         */
+        public double getAverageRank(){
+            return gameCount==0? 0:rankSum/(double)gameCount;
+        }
+
+        /**
+         * 指定された順位を獲得した割合を取得します。
+         * @param rank 順位(1..4)
+         * @return 対局数に対する割合(0..1)
+         */
+        public double getRankRate(int rank){
+            return gameCount==0? 0:rankCounts[rank - 1]/(double)gameCount;
+        }
+
+        /**
+         * 対局終了時の平均持ち点を取得します。
+         * @return 平均持ち点
+         */
+        public double getAverageScore(){
+            return gameCount==0? 0:scoreSum/(double)gameCount;
+        }
+
+        /**
+         * 平均ゲームポイントを取得します。
+         * @return 平均ゲームポイント
+         */
+        public double getAverageResultPoint(){
+            return gameCount==0? 0:resultPointSum/gameCount;
+        }
+
+        /**
+         * 意思決定の総数を取得します。
+         * @return 意思決定数
+         */
+        public long getDecisionCount(){
+            return decisionCount;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("%s: win=%.3f dealIn=%.3f rank=%.3f score=%.0f point=%+.2f",
+                    name, getWinRate(), getDealInRate(), getAverageRank(), getAverageScore(), getAverageResultPoint());
+        }
+    }
+}
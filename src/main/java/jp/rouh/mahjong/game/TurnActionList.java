@@ -0,0 +1,119 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.TurnAction;
+import jp.rouh.mahjong.game.event.TurnActionType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * ターン内行動の選択肢のリスト。
+ * <p>行動の種別ごとに対象牌の序数をビットとした索引を保持し,
+ * {@link #contains}による選択の検証を選択肢の数によらず定数時間で行います。
+ * <p>選択肢の順序と重複は追加された通りに保持されます。
+ * 構築後のリストは変更できません。
+ * @author Rouh
+ * @version 1.0
+ */
+final class TurnActionList extends AbstractList<TurnAction> implements RandomAccess{
+    private static final TurnActionType[] TYPES = TurnActionType.values();
+    private static final long NO_ARGUMENT = 1L<<63;
+
+    /** 空の選択肢 */
+    static final TurnActionList EMPTY = new TurnActionList(0);
+    private final List<TurnAction> actions;
+    private final long[] index = new long[TYPES.length];
+
+    private TurnActionList(int initialCapacity){
+        this.actions = new ArrayList<>(initialCapacity);
+    }
+
+    /**
+     * 与えられたリストと同じ選択肢を持つリストを生成します。
+     * @param actions 選択肢のリスト
+     * @return 選択肢のリスト
+     */
+    static TurnActionList copyOf(List<TurnAction> actions){
+        if(actions instanceof TurnActionList list){
+            return list;
+        }
+        var builder = builder(actions.size());
+        for(var action:actions){
+            builder.add(action);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 選択肢のリストの構築を開始します。
+     * @param initialCapacity 想定される選択肢の数
+     * @return 構築用オブジェクト
+     */
+    static Builder builder(int initialCapacity){
+        return new Builder(new TurnActionList(initialCapacity));
+    }
+
+    private static long bitOf(TurnAction action){
+        return action.hasArgument()? 1L<<action.argument().ordinal():NO_ARGUMENT;
+    }
+
+    @Override
+    public boolean contains(Object o){
+        if(o instanceof TurnAction action && action.type()!=null){
+            return (index[action.type().ordinal()] & bitOf(action))!=0;
+        }
+        return false;
+    }
+
+    @Override
+    public TurnAction get(int i){
+        return actions.get(i);
+    }
+
+    @Override
+    public int size(){
+        return actions.size();
+    }
+
+    /**
+     * 選択肢のリストの構築用クラス。
+     */
+    static final class Builder{
+        private TurnActionList list;
+
+        private Builder(TurnActionList list){
+            this.list = list;
+        }
+
+        /**
+         * 選択肢を追加します。
+         * @param action 行動
+         * @return このオブジェクト
+         * @throws IllegalStateException 構築済みの場合
+         */
+        Builder add(TurnAction action){
+            if(list==null){
+                throw new IllegalStateException("already built");
+            }
+            list.actions.add(action);
+            list.index[action.type().ordinal()] |= bitOf(action);
+            return this;
+        }
+
+        /**
+         * 選択肢のリストを取得します。
+         * @return 選択肢のリスト
+         * @throws IllegalStateException 構築済みの場合
+         */
+        TurnActionList build(){
+            if(list==null){
+                throw new IllegalStateException("already built");
+            }
+            var built = list;
+            list = null;
+            return built;
+        }
+    }
+}
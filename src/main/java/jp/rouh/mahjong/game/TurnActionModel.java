@@ -0,0 +1,185 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.score.HandTiles;
+import jp.rouh.mahjong.score.Meld;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.util.Lists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 局プレイヤーの手牌に対するターン内行動の可否を計算するクラス。
+ * <p>九種九牌, カン及び立直宣言打牌の可否を必要になった時点で計算します。
+ * 手牌の牌の種類ごとの枚数と向聴数は手牌が変更されるまで保持されるため,
+ * 手牌の向聴数が2以上の場合は自摸のたびに立直宣言牌を探索せずに済みます。
+ * 向聴数が1以下の場合も, 打牌後の向聴数が0となる候補に対してのみ
+ * {@link HandTiles#isHandReady}による聴牌判定を行います。
+ * <p>手牌を変更した場合は{@link #handChanged}を呼び出す必要があります。
+ * @author Rouh
+ * @version 1.0
+ */
+final class TurnActionModel{
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private static final Tile[] TILES = Tile.values();
+    private final List<Tile> handTiles;
+    private final int[] tileCounts = new int[34];
+    private boolean countsValid = false;
+    private int handSwap = UNKNOWN;
+    private Tile readyDrawnTile;
+    private List<Tile> readyTiles;
+
+    /**
+     * 手牌を参照するモデルを生成します。
+     * @param handTiles 手牌(自摸牌を含まない)の参照
+     */
+    TurnActionModel(List<Tile> handTiles){
+        this.handTiles = handTiles;
+    }
+
+    /**
+     * 手牌が変更されたことを通知し, 保持している計算結果を破棄します。
+     */
+    void handChanged(){
+        countsValid = false;
+        handSwap = UNKNOWN;
+        readyDrawnTile = null;
+        readyTiles = null;
+    }
+
+    private int[] tileCounts(){
+        if(!countsValid){
+            Arrays.fill(tileCounts, 0);
+            for(var tile:handTiles){
+                tileCounts[tile.tileNumber()]++;
+            }
+            countsValid = true;
+        }
+        return tileCounts;
+    }
+
+    /**
+     * 手牌(自摸牌を含まない)の向聴数を取得します。
+     * @return 向聴数
+     */
+    int getHandSwap(){
+        if(handSwap==UNKNOWN){
+            handSwap = HandTiles.minimumSwapToReady(tileCounts());
+        }
+        return handSwap;
+    }
+
+    /**
+     * 手牌と自摸牌が九種九牌形であるかどうか検査します。
+     * @param drawnTile 自摸牌
+     * @return true  九種九牌形である場合
+     *         false 九種九牌形でない場合
+     */
+    boolean isNineTiles(Tile drawnTile){
+        if(handTiles.size()!=13){
+            return false;
+        }
+        //赤ドラ牌は么九牌でないため, 重複のない牌の数は牌の種類の数と一致する
+        int kinds = 0;
+        for(var tile:allTilesOf(drawnTile)){
+            if(tile.isOrphan()){
+                kinds++;
+            }
+        }
+        return kinds>=9;
+    }
+
+    /**
+     * 手牌と自摸牌からカン宣言が可能な牌を取得します。
+     * <p>暗槓は同種牌4枚の全ての牌を, 加槓はポンした刻子と同種の全ての牌を対象とします。
+     * 結果は{@link HandTiles#selfKanTargetsOf}及び{@link HandTiles#addKanTargetsOf}の
+     * 結果の和と同じ牌を理牌順に含みます。
+     * @param drawnTile 自摸牌
+     * @param openMelds 副露
+     * @return カン宣言が可能な牌のリスト
+     */
+    List<Tile> kanTargetsOf(Tile drawnTile, List<Meld> openMelds){
+        var counts = tileCounts();
+        long tripleKinds = 0;
+        for(var meld:openMelds){
+            if(meld.isTriple()){
+                tripleKinds |= 1L<<meld.getFirst().tileNumber();
+            }
+        }
+        List<Tile> targets = null;
+        for(var tile:allTilesOf(drawnTile)){
+            int kind = tile.tileNumber();
+            int count = counts[kind] + (drawnTile.tileNumber()==kind? 1:0);
+            if(count==4 || (tripleKinds & 1L<<kind)!=0){
+                if(targets==null){
+                    targets = new ArrayList<>(4);
+                }
+                targets.add(tile);
+            }
+        }
+        return targets==null? List.of():targets;
+    }
+
+    /**
+     * 手牌と自摸牌から立直宣言可能牌を取得します。
+     * <p>結果は{@link HandTiles#readyTilesOf}と同じ牌を理牌順に含みます。
+     * 同じ自摸牌に対する結果は手牌が変更されるまで保持されます。
+     * @param drawnTile 自摸牌
+     * @return 立直宣言可能牌のリスト
+     */
+    List<Tile> readyTilesOf(Tile drawnTile){
+        if(readyTiles!=null && readyDrawnTile==drawnTile){
+            return readyTiles;
+        }
+        readyDrawnTile = drawnTile;
+        readyTiles = searchReadyTiles(drawnTile);
+        return readyTiles;
+    }
+
+    private List<Tile> searchReadyTiles(Tile drawnTile){
+        //自摸牌1枚で向聴数は高々1しか下がらない
+        if(getHandSwap()>=2){
+            return List.of();
+        }
+        var counts = tileCounts();
+        counts[drawnTile.tileNumber()]++;
+        try{
+            if(HandTiles.minimumSwapToReady(counts)>0){
+                return List.of();
+            }
+            var allTiles = Lists.added(handTiles, drawnTile);
+            List<Tile> tiles = null;
+            for(var tile:allTilesOf(drawnTile)){
+                counts[tile.tileNumber()]--;
+                boolean candidate = HandTiles.minimumSwapToReady(counts)==0;
+                counts[tile.tileNumber()]++;
+                if(candidate && HandTiles.isHandReady(Lists.removed(allTiles, tile))){
+                    if(tiles==null){
+                        tiles = new ArrayList<>(4);
+                    }
+                    tiles.add(tile);
+                }
+            }
+            return tiles==null? List.of():tiles;
+        }finally{
+            counts[drawnTile.tileNumber()]--;
+        }
+    }
+
+    /**
+     * 手牌と自摸牌の重複のない牌を理牌順に取得します。
+     * <p>赤ドラ牌と非赤ドラ牌は区別されます。
+     */
+    private List<Tile> allTilesOf(Tile drawnTile){
+        long mask = 1L<<drawnTile.ordinal();
+        for(var tile:handTiles){
+            mask |= 1L<<tile.ordinal();
+        }
+        var tiles = new ArrayList<Tile>(Long.bitCount(mask));
+        for(long rest = mask; rest!=0; rest &= rest - 1){
+            tiles.add(TILES[Long.numberOfTrailingZeros(rest)]);
+        }
+        return tiles;
+    }
+}
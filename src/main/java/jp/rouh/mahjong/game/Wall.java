@@ -110,4 +110,18 @@ interface Wall{
      */
     List<Tile> getLowerIndicators();
 
+    /**
+     * 牌山の全ての牌を生成時の配列上の順にリスト形式で取得します。
+     * <p>同じ牌のリストとサイコロの目から同一の牌山を再現できます。
+     * @return 牌のリスト(長さ136)
+     */
+    List<Tile> getTiles();
+
+    /**
+     * 現在の状態の牌山の複製を取得します。
+     * <p>複製には牌山オブザーバは登録されず, 以降の操作は互いに影響しません。
+     * @return 牌山の複製
+     */
+    Wall copy();
+
 }
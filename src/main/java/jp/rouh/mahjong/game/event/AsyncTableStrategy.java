@@ -0,0 +1,100 @@
+package jp.rouh.mahjong.game.event;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * 対局時の入力を非同期にプレイヤーへ求めるインターフェース。
+ * <p>人間のプレイヤーの入力のように回答までに時間を要する戦略は,
+ * このインターフェースを実装することで回答を待機するスレッドを占有せずに選択を返すことができます。
+ * 非同期に進行する局では回答の完了を以て局の処理が再開されます。
+ * <p>同期的な選択要求に対しては, 非同期の選択の完了を待機して回答します。
+ * @author Rouh
+ * @version 1.0
+ */
+public interface AsyncTableStrategy extends TableStrategy{
+
+    /**
+     * 摸打中の行動の入力を非同期に求めます。
+     * @param choices 選択可能な行動のリスト
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices);
+
+    /**
+     * 他家の打牌時の行動の入力を非同期に求めます。
+     * @param choices 選択可能な行動のリスト
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices);
+
+    /**
+     * 摸打中の行動の入力を非同期に求めます。
+     * <p>選択の過程で同期的な処理を要する場合は, 指定された実行サービスを用います。
+     * 既定では実行サービスを用いずに{@link #selectTurnActionAsync(List)}を呼び出します。
+     * @param choices 選択可能な行動のリスト
+     * @param executor 同期的な処理を行う実行サービス
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    default CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices, Executor executor){
+        return selectTurnActionAsync(choices);
+    }
+
+    /**
+     * 他家の打牌時の行動の入力を非同期に求めます。
+     * <p>選択の過程で同期的な処理を要する場合は, 指定された実行サービスを用います。
+     * 既定では実行サービスを用いずに{@link #selectCallActionAsync(List)}を呼び出します。
+     * @param choices 選択可能な行動のリスト
+     * @param executor 同期的な処理を行う実行サービス
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    default CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices, Executor executor){
+        return selectCallActionAsync(choices);
+    }
+
+    @Override
+    default TurnAction selectTurnAction(List<TurnAction> choices){
+        return selectTurnActionAsync(choices).toCompletableFuture().join();
+    }
+
+    @Override
+    default CallAction selectCallAction(List<CallAction> choices){
+        return selectCallActionAsync(choices).toCompletableFuture().join();
+    }
+
+    /**
+     * 与えられた戦略に摸打中の行動の入力を非同期に求めます。
+     * <p>戦略が{@link AsyncTableStrategy}を実装していない場合は,
+     * 実行サービス上で同期的な選択要求を行います。
+     * 実装している場合は実行サービスを指定して非同期の選択要求を行います。
+     * @param strategy 戦略
+     * @param choices 選択可能な行動のリスト
+     * @param executor 同期的な選択要求を行う実行サービス
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    static CompletionStage<TurnAction> selectTurnActionAsync(TableStrategy strategy, List<TurnAction> choices, Executor executor){
+        if(strategy instanceof AsyncTableStrategy async){
+            return async.selectTurnActionAsync(choices, executor);
+        }
+        return CompletableFuture.supplyAsync(()->strategy.selectTurnAction(choices), executor);
+    }
+
+    /**
+     * 与えられた戦略に他家の打牌時の行動の入力を非同期に求めます。
+     * <p>戦略が{@link AsyncTableStrategy}を実装していない場合は,
+     * 実行サービス上で同期的な選択要求を行います。
+     * 実装している場合は実行サービスを指定して非同期の選択要求を行います。
+     * @param strategy 戦略
+     * @param choices 選択可能な行動のリスト
+     * @param executor 同期的な選択要求を行う実行サービス
+     * @return 行動の選択の完了を表すオブジェクト
+     */
+    static CompletionStage<CallAction> selectCallActionAsync(TableStrategy strategy, List<CallAction> choices, Executor executor){
+        if(strategy instanceof AsyncTableStrategy async){
+            return async.selectCallActionAsync(choices, executor);
+        }
+        return CompletableFuture.supplyAsync(()->strategy.selectCallAction(choices), executor);
+    }
+}
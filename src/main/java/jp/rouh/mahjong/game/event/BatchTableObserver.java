@@ -0,0 +1,25 @@
+package jp.rouh.mahjong.game.event;
+
+import java.util.List;
+
+/**
+ * まとめて転送された通知を受け取ることができる通知先のインターフェース。
+ * <p>{@link BatchingTableStrategy}はこのインターフェースを実装した委譲先に対して,
+ * 保留した通知を{@link #eventsNotified}の一回の呼び出しで転送します。
+ * 例えばメッセージ通信越しのプロキシでは, 一連の通知が一つのメッセージで送信されます。
+ * @author Rouh
+ * @version 1.0
+ */
+public interface BatchTableObserver extends TableObserver{
+
+    /**
+     * 一連の通知をまとめて通知します。
+     * <p>既定では各通知を順に個別の通知メソッドで通知します。
+     * @param events 発生順の通知のリスト
+     */
+    default void eventsNotified(List<TableEvent> events){
+        for(var event:events){
+            event.dispatchTo(this);
+        }
+    }
+}
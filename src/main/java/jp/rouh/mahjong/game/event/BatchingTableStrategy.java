@@ -0,0 +1,236 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import static jp.rouh.mahjong.game.event.TableEvent.Type.*;
+
+/**
+ * 通知を保留し, まとめて委譲先へ転送するアダプタクラス。
+ * <p>各通知は{@link TableEvent}として保留され, 以下の時点で発生順に委譲先へ転送されます。
+ * <ul>
+ *   <li>{@link #notificationsCompleted}が通知された時点(局の進行が行動選択の待機に入る直前)</li>
+ *   <li>行動選択の要求及び{@link #acknowledge}の委譲の直前</li>
+ *   <li>対局の開始及び終了, 局の終了の通知の直後</li>
+ * </ul>
+ * <p>委譲先が{@link BatchTableObserver}を実装している場合は{@link BatchTableObserver#eventsNotified}の
+ * 一回の呼び出しで転送し, そうでない場合は各通知を個別の通知メソッドで転送します。
+ * 一手番あたり数件から十数件の通知が一回の転送にまとめられるため,
+ * メッセージ通信越しの通知先ではメッセージの数を大きく削減できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class BatchingTableStrategy extends ForwardingTableStrategy{
+    private final TableStrategy strategy;
+    private final List<TableEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * アダプタクラスのコンストラクタ。
+     * @param strategy 委譲先オブジェクト
+     */
+    public BatchingTableStrategy(TableStrategy strategy){
+        super(strategy);
+        this.strategy = strategy;
+    }
+
+    private synchronized void add(TableEvent event){
+        pendingEvents.add(event);
+    }
+
+    /**
+     * 保留している通知を委譲先へ転送します。
+     */
+    private synchronized void flush(){
+        if(pendingEvents.isEmpty()){
+            return;
+        }
+        var events = List.copyOf(pendingEvents);
+        pendingEvents.clear();
+        if(strategy instanceof BatchTableObserver batchObserver){
+            batchObserver.eventsNotified(events);
+        }else{
+            for(var event:events){
+                event.dispatchTo(strategy);
+            }
+        }
+    }
+
+    @Override
+    public void gameStarted(List<ProfileData> players){
+        add(TableEvent.of(GAME_STARTED, players));
+        flush();
+    }
+
+    @Override
+    public void gameFinished(List<GameScoreData> scores){
+        add(TableEvent.of(GAME_FINISHED, scores));
+        flush();
+    }
+
+    @Override
+    public void temporarySeatUpdated(Map<Side, PlayerTempData> players){
+        add(TableEvent.of(TEMPORARY_SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void seatUpdated(Map<Side, PlayerData> players){
+        add(TableEvent.of(SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        add(TableEvent.of(ROUND_STARTED, wind, count, streak, deposit, last));
+    }
+
+    @Override
+    public void roundDrawn(DrawType drawType){
+        add(TableEvent.of(ROUND_DRAWN, drawType));
+    }
+
+    @Override
+    public void handScoreNotified(List<HandScoreData> scores){
+        add(TableEvent.of(HAND_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void riverScoreNotified(List<RiverScoreData> scores){
+        add(TableEvent.of(RIVER_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void paymentNotified(Map<Side, PaymentData> payments){
+        add(TableEvent.of(PAYMENT_NOTIFIED, payments));
+    }
+
+    @Override
+    public void roundFinished(){
+        add(TableEvent.of(ROUND_FINISHED));
+        flush();
+    }
+
+    @Override
+    public void diceRolled(Side side, int dice1, int dice2){
+        add(TableEvent.of(DICE_ROLLED, side, dice1, dice2));
+    }
+
+    @Override
+    public void declared(Side side, Declaration declaration){
+        add(TableEvent.of(DECLARED, side, declaration));
+    }
+
+    @Override
+    public void readyBoneAdded(Side side){
+        add(TableEvent.of(READY_BONE_ADDED, side));
+    }
+
+    @Override
+    public void wallGenerated(){
+        add(TableEvent.of(WALL_GENERATED));
+    }
+
+    @Override
+    public void wallTileTaken(Side side, int column, int floor){
+        add(TableEvent.of(WALL_TILE_TAKEN, side, column, floor));
+    }
+
+    @Override
+    public void wallTileRevealed(Side side, int column, Tile tile){
+        add(TableEvent.of(WALL_TILE_REVEALED, side, column, tile));
+    }
+
+    @Override
+    public void turnStarted(Side side){
+        add(TableEvent.of(TURN_STARTED, side));
+    }
+
+    @Override
+    public void handLocked(){
+        add(TableEvent.of(HAND_LOCKED));
+    }
+
+    @Override
+    public void handUpdated(Side side, int size, boolean wide){
+        add(TableEvent.of(OTHER_HAND_UPDATED, side, size, wide));
+    }
+
+    @Override
+    public void handUpdated(List<Tile> allTiles, boolean wide){
+        add(TableEvent.of(HAND_UPDATED, allTiles, wide));
+    }
+
+    @Override
+    public void handRevealed(Side side, List<Tile> allTiles, boolean wide){
+        add(TableEvent.of(HAND_REVEALED, side, allTiles, wide));
+    }
+
+    @Override
+    public void riverTileAdded(Side side, Tile tile, boolean tilt){
+        add(TableEvent.of(RIVER_TILE_ADDED, side, tile, tilt));
+    }
+
+    @Override
+    public void riverTileTaken(Side side){
+        add(TableEvent.of(RIVER_TILE_TAKEN, side));
+    }
+
+    @Override
+    public void tiltMeldAdded(Side side, Side tilt, List<Tile> tiles){
+        add(TableEvent.of(TILT_MELD_ADDED, side, tilt, tiles));
+    }
+
+    @Override
+    public void selfQuadAdded(Side side, List<Tile> tiles){
+        add(TableEvent.of(SELF_QUAD_ADDED, side, tiles));
+    }
+
+    @Override
+    public void meldTileAdded(Side side, int index, Tile tile){
+        add(TableEvent.of(MELD_TILE_ADDED, side, index, tile));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>保留している通知を転送します。この通知自体は委譲先へ転送しません。
+     */
+    @Override
+    public void notificationsCompleted(){
+        flush();
+    }
+
+    @Override
+    public void acknowledge(){
+        flush();
+        strategy.acknowledge();
+    }
+
+    @Override
+    public TurnAction selectTurnAction(List<TurnAction> choices){
+        flush();
+        return super.selectTurnAction(choices);
+    }
+
+    @Override
+    public CallAction selectCallAction(List<CallAction> choices){
+        flush();
+        return super.selectCallAction(choices);
+    }
+
+    @Override
+    public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices, Executor executor){
+        flush();
+        return super.selectTurnActionAsync(choices, executor);
+    }
+
+    @Override
+    public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices, Executor executor){
+        flush();
+        return super.selectCallActionAsync(choices, executor);
+    }
+}
@@ -1,15 +1,12 @@
 package jp.rouh.mahjong.game.event;
 
 import jp.rouh.mahjong.tile.Wind;
+import jp.rouh.util.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Executors;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 
 /**
@@ -17,12 +14,23 @@ import java.util.function.Function;
  * <p>ある打牌に対するターン外行動は, 打牌者を除くプレイヤー3人に同時に選択を要求し,
  * 出揃った行動のうち最も優先度の高いものが選出される形で決定します。
  * このクラスではこの操作を管理します。
+ * <p>複数のプレイヤーへの選択要求は実行サービス上で並行に行われます。
+ * 実行サービスを指定しない場合は, 全てのインスタンスで共有される実行サービスが用いられます。
+ * 共有の実行サービスは仮想スレッドが利用可能であれば仮想スレッドで, そうでなければ常駐のスレッドで選択を要求します。
+ * <p>待機時間を設定した場合, 待機時間内に回答しなかったプレイヤーはパスを選択したものとみなします。
+ * ただし選択に要する時間を自ら制限しているプレイヤー({@link TableStrategy#isDecisionTimeBounded})には
+ * 待機時間を適用せず, 回答を待機します。
  * @author Rouh
  * @version 1.0
  */
 public class CallActionMediator{
     private final Logger LOG = LoggerFactory.getLogger(CallActionMediator.class);
+    private static final ExecutorService SHARED_EXECUTOR = Threads.newVirtualThreadPerTaskExecutorOr(
+            ()->Executors.newCachedThreadPool(Threads.newDaemonThreadFactory("call-mediator")));
     private final List<Wind> winds;
+    private final Set<Wind> timedOutWinds = EnumSet.noneOf(Wind.class);
+    private Executor executor = SHARED_EXECUTOR;
+    private long timeoutMillis = 0;
     private final Map<Wind, TableStrategy> playerMap = new HashMap<>();
     private final Map<Wind, List<CallAction>> choicesMap = new HashMap<>();
 
@@ -58,6 +66,49 @@ public class CallActionMediator{
         return this;
     }
 
+    /**
+     * プレイヤーへの選択要求を実行する実行サービスを設定します。
+     * <p>実行サービスは複数のプレイヤーに同時に選択を要求する場合にのみ用いられます。
+     * 設定しない場合は共有の実行サービスが用いられます。
+     * @param executor 実行サービス
+     * @return このオブジェクトの参照
+     */
+    public CallActionMediator withExecutor(Executor executor){
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * プレイヤーの回答の待機時間を設定します。
+     * <p>待機時間内に回答しなかったプレイヤーはパスを選択したものとみなします。
+     * 待機時間を設定した場合, 選択を要求するプレイヤーが一人のみの場合も実行サービス上で選択を要求します。
+     * 選択に要する時間を自ら制限しているプレイヤーには待機時間を適用しません。
+     * <p>設定しない場合は回答が出揃うまで待機します。
+     * @param timeoutMillis 待機時間(ミリ秒), 0以下の場合は無制限
+     * @return このオブジェクトの参照
+     */
+    public CallActionMediator withTimeout(long timeoutMillis){
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * 直前の{@link #mediate}又は{@link #mediateAsync}で待機時間内に回答しなかったプレイヤーの自風を取得します。
+     * @return プレイヤーの自風のセット
+     */
+    public Set<Wind> getTimedOutWinds(){
+        return Collections.unmodifiableSet(timedOutWinds);
+    }
+
+    /**
+     * プレイヤーへの選択要求に用いる共有の実行サービスを取得します。
+     * <p>ターン内行動の選択要求を待機時間付きで行う場合にも用いられます。
+     * @return 共有の実行サービス
+     */
+    public static Executor getSharedExecutor(){
+        return SHARED_EXECUTOR;
+    }
+
     /**
      * 署名付きターン外行動
      * @param from この選択を行ったプレイヤーの自風
@@ -76,10 +127,13 @@ public class CallActionMediator{
      * <p>この操作では以下の通り必要に応じ新規スレッドの開始や,
      * {@link TableStrategy#selectCallAction}メソッドを用いたプレイヤーへの選択要求を行います。
      * <ul>
-     *   <li>全てのプレイヤーの選択肢がパスのみの場合, 新規スレッドを開始せず空のマップを返します。</li>
+     *   <li>全てのプレイヤーの選択肢がパスのみの場合, 選択を要求せず空のマップを返します。</li>
      *   <li>あるプレイヤーの選択肢がパスのみの場合, プレイヤーへの選択を要求せずにパスを返します。</li>
+     *   <li>選択を要求するプレイヤーが一人のみの場合, 待機時間が設定されていないか,
+     * そのプレイヤーが選択に要する時間を自ら制限していれば呼び出し元のスレッドで選択を要求します。</li>
+     *   <li>待機時間内に回答しなかったプレイヤーはパスを選択したものとみなし, 選択要求を中断します。</li>
      *   <li>あるプレイヤーが選択を回答した時点で, 他プレイヤーがその行動よりも優先度の高い行動を取り得ない場合
-     * 他プレイヤーへの選択要求スレッドを中断してマップを返します。</li>
+     * 他プレイヤーへの選択要求を中断してマップを返します。</li>
      * </ul>
      * <p>このメソッドを呼び出す前にあらかじめ{@link #withPlayers}及び{@link #withChoices}を用いて
      * 必要なパラメータを設定しておく必要があります。
@@ -88,56 +142,234 @@ public class CallActionMediator{
      */
     public Map<Wind, CallAction> mediate(){
         if(playerMap.isEmpty() || choicesMap.isEmpty()) throw new IllegalStateException("parameter not initialized yet");
+        timedOutWinds.clear();
         for(var key:choicesMap.keySet()){
             LOG.info("choices({}): ", choicesMap.get(key));
         }
-
-        var winds = playerMap.keySet();
         var highestPriorityMap = new HashMap<Wind, Integer>();
-        for(var wind:winds){
-            var highestPriority = choicesMap.get(wind).stream()
-                    .mapToInt(CallAction::priority).max().orElse(CallAction.PASS_PRIORITY);
-            highestPriorityMap.put(wind, highestPriority);
+        var answerMap = new HashMap<Wind, CallAction>();
+        var selectingWinds = new ArrayList<Wind>(winds.size());
+        if(prepare(highestPriorityMap, answerMap, selectingWinds)){
+            return answerMap;
         }
-        // return immediately if all player can select nothing but pass action
-        if(highestPriorityMap.values().stream().allMatch(priority->priority==CallAction.PASS_PRIORITY)){
-            return Map.of();
+        // select on the caller thread if only one player has to select
+        if(selectingWinds.size()==1 && !isDeadlineApplied(selectingWinds.get(0))){
+            var wind = selectingWinds.get(0);
+            var action = playerMap.get(wind).selectCallAction(choicesMap.get(wind));
+            accept(new SignedCallAction(wind, action), highestPriorityMap, answerMap);
+            return answerMap;
         }
-        var executorService = Executors.newFixedThreadPool(playerMap.size());
-        var completionService = new ExecutorCompletionService<SignedCallAction>(executorService);
-        for(var wind:winds){
+        var completionService = new ExecutorCompletionService<SignedCallAction>(executor);
+        var futures = new EnumMap<Wind, Future<SignedCallAction>>(Wind.class);
+        for(var wind:selectingWinds){
             var player = playerMap.get(wind);
             var choices = choicesMap.get(wind);
-            // if player can select single action only, the action will be selected automatically
-            completionService.submit(()->choices.size()==1?
-                    new SignedCallAction(wind, choices.get(0)):
-                    new SignedCallAction(wind, player.selectCallAction(choices)));
+            futures.put(wind, completionService.submit(()->new SignedCallAction(wind, player.selectCallAction(choices))));
         }
-        executorService.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
         try{
-            var answerMap = new HashMap<Wind, CallAction>();
-            for(int i = 0; i<winds.size(); i++){
-                var answer = completionService.take().get();
-                LOG.info("answer({}) {}", answer.from, answer.action);
-                if(!choicesMap.get(answer.from).contains(answer.action)){
-                    throw new IllegalArgumentException("illegal action has been detected: choices:"+choicesMap.get(answer.from)+" the choice:"+answer.action);
-                }
-                highestPriorityMap.remove(answer.from());
-                if(answer.action().priority()!=CallAction.PASS_PRIORITY){
-                    answerMap.entrySet().removeIf(entry->entry.getValue().priority()<answer.action.priority());
-                    answerMap.put(answer.from, answer.action);
-                    // return immediately if all remaining actions are lower priority
-                    if(highestPriorityMap.values().stream().noneMatch(priority->priority>=answer.action().priority())){
-                        executorService.shutdownNow();
-                        LOG.info("answer interrupted");
+            while(!highestPriorityMap.isEmpty()){
+                var answer = highestPriorityMap.keySet().stream().anyMatch(this::isDeadlineApplied)?
+                        completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS):
+                        completionService.take();
+                if(answer==null){
+                    if(timeOut(highestPriorityMap, answerMap, futures)){
                         return answerMap;
                     }
+                    continue;
+                }
+                if(answer.isCancelled()){
+                    continue;
+                }
+                var signedAnswer = answer.get();
+                if(!highestPriorityMap.containsKey(signedAnswer.from())){
+                    // answered after timed out
+                    continue;
+                }
+                if(accept(signedAnswer, highestPriorityMap, answerMap)){
+                    LOG.info("answer interrupted");
+                    return answerMap;
                 }
             }
             return answerMap;
         }catch(InterruptedException | ExecutionException e){
             LOG.error("call action mediator interrupted", e);
             throw new RuntimeException(e);
+        }finally{
+            for(var future:futures.values()){
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * プレイヤーに待機時間を適用するか検査します。
+     * @param wind プレイヤーの自風
+     * @return true  待機時間を適用する場合
+     *         false 回答を待機する場合
+     */
+    private boolean isDeadlineApplied(Wind wind){
+        return timeoutMillis>0 && !playerMap.get(wind).isDecisionTimeBounded();
+    }
+
+    /**
+     * 待機時間内に回答しなかったプレイヤーがパスを選択したものとみなし, 選択要求を中断します。
+     * <p>待機時間を適用しないプレイヤーへの選択要求は継続します。
+     * @param highestPriorityMap 未回答のプレイヤーの自風と取り得る行動の最も高い優先度のマップ
+     * @param answerMap 適用される行動のマップ
+     * @param futures プレイヤーの自風と選択要求のマップ
+     * @return true  未回答のプレイヤーの回答を待たずに行動が確定した場合
+     *         false 未回答のプレイヤーの回答を待つ必要がある場合
+     */
+    private boolean timeOut(Map<Wind, Integer> highestPriorityMap, Map<Wind, CallAction> answerMap,
+                            Map<Wind, ? extends Future<?>> futures){
+        boolean decided = false;
+        for(var wind:List.copyOf(highestPriorityMap.keySet())){
+            if(isDeadlineApplied(wind)){
+                LOG.warn("call action timed out: {}", wind);
+                timedOutWinds.add(wind);
+                // regard unanswered players as passed
+                decided = accept(new SignedCallAction(wind, new CallActionSelector(choicesMap.get(wind)).getPassAction()),
+                        highestPriorityMap, answerMap);
+                futures.get(wind).cancel(true);
+            }
+        }
+        return decided || highestPriorityMap.isEmpty();
+    }
+
+    /**
+     * 各プレイヤーの選択を非同期に要求し, 最終的に適用される行動のマップで完了するオブジェクトを取得します。
+     * <p>返されるマップの形式及び選択要求の中断の条件は{@link #mediate}と同様です。
+     * 選択を要求するプレイヤーが{@link AsyncTableStrategy}を実装している場合は
+     * その非同期の選択要求を用いるため, 回答を待機するスレッドを占有しません。
+     * そうでない場合は実行サービス上で同期的な選択要求を行います。
+     * <p>待機時間が設定されている場合, 待機時間の経過時点で未回答のプレイヤーはパスを選択したものとみなし,
+     * その時点の行動のマップで完了します。
+     * <p>このメソッドを呼び出す前にあらかじめ{@link #withPlayers}及び{@link #withChoices}を用いて
+     * 必要なパラメータを設定しておく必要があります。
+     * @throws IllegalStateException プレイヤーと選択肢が設定されていない場合
+     * @return プレイヤーの自風と行動のマップで完了するオブジェクト
+     */
+    public CompletableFuture<Map<Wind, CallAction>> mediateAsync(){
+        if(playerMap.isEmpty() || choicesMap.isEmpty()) throw new IllegalStateException("parameter not initialized yet");
+        timedOutWinds.clear();
+        var highestPriorityMap = new HashMap<Wind, Integer>();
+        var answerMap = new HashMap<Wind, CallAction>();
+        var selectingWinds = new ArrayList<Wind>(winds.size());
+        if(prepare(highestPriorityMap, answerMap, selectingWinds) || selectingWinds.isEmpty()){
+            return CompletableFuture.completedFuture(answerMap);
+        }
+        var result = new CompletableFuture<Map<Wind, CallAction>>();
+        var futures = new EnumMap<Wind, CompletableFuture<CallAction>>(Wind.class);
+        for(var wind:selectingWinds){
+            if(result.isDone()){
+                break;
+            }
+            var future = AsyncTableStrategy.selectCallActionAsync(playerMap.get(wind), choicesMap.get(wind), executor).toCompletableFuture();
+            synchronized(answerMap){
+                futures.put(wind, future);
+            }
+            future.whenComplete((action, e)->{
+                synchronized(answerMap){
+                    if(result.isDone() || !highestPriorityMap.containsKey(wind)){
+                        return;
+                    }
+                    if(e!=null){
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    try{
+                        if(accept(new SignedCallAction(wind, action), highestPriorityMap, answerMap) || highestPriorityMap.isEmpty()){
+                            result.complete(new HashMap<>(answerMap));
+                        }
+                    }catch(IllegalArgumentException ex){
+                        result.completeExceptionally(ex);
+                    }
+                }
+            });
+        }
+        if(selectingWinds.stream().anyMatch(this::isDeadlineApplied)){
+            CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, executor).execute(()->{
+                synchronized(answerMap){
+                    if(!result.isDone()){
+                        try{
+                            if(timeOut(highestPriorityMap, answerMap, futures)){
+                                result.complete(new HashMap<>(answerMap));
+                            }
+                        }catch(IllegalArgumentException ex){
+                            result.completeExceptionally(ex);
+                        }
+                    }
+                }
+            });
+        }
+        result.whenComplete((answer, e)->{
+            synchronized(answerMap){
+                futures.values().forEach(future->future.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 選択肢から各プレイヤーの取り得る行動の最も高い優先度を求め, 選択肢が一つのみのプレイヤーの回答を適用します。
+     * @param highestPriorityMap 未回答のプレイヤーの自風と取り得る行動の最も高い優先度のマップ
+     * @param answerMap 適用される行動のマップ
+     * @param selectingWinds 選択を要求する必要のあるプレイヤーの自風のリスト
+     * @return true  選択を要求せずに行動が確定した場合
+     *         false 選択を要求する必要がある場合
+     */
+    private boolean prepare(Map<Wind, Integer> highestPriorityMap, Map<Wind, CallAction> answerMap, List<Wind> selectingWinds){
+        var winds = playerMap.keySet();
+        for(var wind:winds){
+            var highestPriority = choicesMap.get(wind).stream()
+                    .mapToInt(CallAction::priority).max().orElse(CallAction.PASS_PRIORITY);
+            highestPriorityMap.put(wind, highestPriority);
+        }
+        // return immediately if all player can select nothing but pass action
+        if(highestPriorityMap.values().stream().allMatch(priority->priority==CallAction.PASS_PRIORITY)){
+            return true;
+        }
+        for(var wind:winds){
+            var choices = choicesMap.get(wind);
+            // if player can select single action only, the action will be selected automatically
+            if(choices.size()==1){
+                if(accept(new SignedCallAction(wind, choices.get(0)), highestPriorityMap, answerMap)){
+                    return true;
+                }
+            }else{
+                selectingWinds.add(wind);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * プレイヤーの回答を適用します。
+     * @param answer 回答
+     * @param highestPriorityMap 未回答のプレイヤーの自風と取り得る行動の最も高い優先度のマップ
+     * @param answerMap 適用される行動のマップ
+     * @throws IllegalArgumentException 回答が選択肢に含まれない場合
+     * @return true  未回答のプレイヤーの回答を待たずに行動が確定した場合
+     *         false 未回答のプレイヤーの回答を待つ必要がある場合
+     */
+    private boolean accept(SignedCallAction answer, Map<Wind, Integer> highestPriorityMap, Map<Wind, CallAction> answerMap){
+        LOG.info("answer({}) {}", answer.from, answer.action);
+        if(!choicesMap.get(answer.from).contains(answer.action)){
+            throw new IllegalArgumentException("illegal action has been detected: choices:"+choicesMap.get(answer.from)+" the choice:"+answer.action);
+        }
+        highestPriorityMap.remove(answer.from());
+        if(answer.action().priority()!=CallAction.PASS_PRIORITY){
+            answerMap.entrySet().removeIf(entry->entry.getValue().priority()<answer.action.priority());
+            if(answerMap.values().stream().allMatch(action->action.priority()<=answer.action.priority())){
+                answerMap.put(answer.from, answer.action);
+            }
+        }
+        if(answerMap.isEmpty()){
+            return false;
         }
+        // return immediately if all remaining actions are lower priority
+        int answeredPriority = answerMap.values().iterator().next().priority();
+        return highestPriorityMap.values().stream().noneMatch(priority->priority>=answeredPriority);
     }
 }
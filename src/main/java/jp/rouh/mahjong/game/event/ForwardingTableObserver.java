@@ -6,6 +6,7 @@ import jp.rouh.mahjong.tile.Wind;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * プレイヤーの通知先{@link TableObserver}を
@@ -153,4 +154,14 @@ public abstract class ForwardingTableObserver implements TableObserver{
     public void meldTileAdded(Side side, int index, Tile tile){
         observer.meldTileAdded(side, index, tile);
     }
+
+    @Override
+    public void notificationsCompleted(){
+        observer.notificationsCompleted();
+    }
+
+    @Override
+    public Set<TableEventCategory> getRequiredEventCategories(){
+        return observer.getRequiredEventCategories();
+    }
 }
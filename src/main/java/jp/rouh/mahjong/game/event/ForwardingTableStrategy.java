@@ -6,14 +6,24 @@ import jp.rouh.mahjong.tile.Wind;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 /**
  * プレイヤーの戦略{@link TableStrategy}を
  * 注入したオブジェクトに委譲するアダプタクラス。
+ * <p>非同期の選択要求は, 委譲先が{@link AsyncTableStrategy}を実装している場合は委譲先へ転送し,
+ * そうでない場合は要求時に指定された実行サービス上でこのオブジェクトの同期的な選択要求を行います。
+ * 実行サービスを指定しない非同期の選択要求では共有の実行サービスを用います。
+ * 委譲先の非同期の選択を利用しつつ選択要求に処理を加えるサブクラスは,
+ * 同期的な選択要求のメソッドと, 実行サービスを指定する非同期の選択要求のメソッドをオーバーライドする必要があります。
+ * <p>選択の時間を変えうるため, {@link #isDecisionTimeBounded}は委譲先へ転送しません。
  * @author Rouh
  * @version 1.0
  */
-public abstract class ForwardingTableStrategy implements TableStrategy{
+public abstract class ForwardingTableStrategy implements AsyncTableStrategy{
     private final TableStrategy strategy;
 
     /**
@@ -154,6 +164,11 @@ public abstract class ForwardingTableStrategy implements TableStrategy{
         strategy.meldTileAdded(side, index, tile);
     }
 
+    @Override
+    public void notificationsCompleted(){
+        strategy.notificationsCompleted();
+    }
+
     @Override
     public TurnAction selectTurnAction(List<TurnAction> choices){
         return strategy.selectTurnAction(choices);
@@ -163,4 +178,35 @@ public abstract class ForwardingTableStrategy implements TableStrategy{
     public CallAction selectCallAction(List<CallAction> choices){
         return strategy.selectCallAction(choices);
     }
+
+    @Override
+    public final CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices){
+        return selectTurnActionAsync(choices, CallActionMediator.getSharedExecutor());
+    }
+
+    @Override
+    public final CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices){
+        return selectCallActionAsync(choices, CallActionMediator.getSharedExecutor());
+    }
+
+    @Override
+    public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices, Executor executor){
+        if(strategy instanceof AsyncTableStrategy async){
+            return async.selectTurnActionAsync(choices, executor);
+        }
+        return CompletableFuture.supplyAsync(()->selectTurnAction(choices), executor);
+    }
+
+    @Override
+    public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices, Executor executor){
+        if(strategy instanceof AsyncTableStrategy async){
+            return async.selectCallActionAsync(choices, executor);
+        }
+        return CompletableFuture.supplyAsync(()->selectCallAction(choices), executor);
+    }
+
+    @Override
+    public Set<TableEventCategory> getRequiredEventCategories(){
+        return strategy.getRequiredEventCategories();
+    }
 }
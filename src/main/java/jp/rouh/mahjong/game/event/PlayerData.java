@@ -13,6 +13,7 @@ public class PlayerData{
     private Wind seatWind;
     private int score;
     private int rank;
+    private int scoreGapToUpperRank;
 
     public String getName(){
         return name;
@@ -53,4 +54,17 @@ public class PlayerData{
     public void setRank(int rank){
         this.rank = rank;
     }
+
+    /**
+     * 一つ上の順位のプレイヤーとの点差を取得します。
+     * <p>1位の場合や, 同点で上位のプレイヤーがいる場合は0となります。
+     * @return 点差
+     */
+    public int getScoreGapToUpperRank(){
+        return scoreGapToUpperRank;
+    }
+
+    public void setScoreGapToUpperRank(int scoreGapToUpperRank){
+        this.scoreGapToUpperRank = scoreGapToUpperRank;
+    }
 }
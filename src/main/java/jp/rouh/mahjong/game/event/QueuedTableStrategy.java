@@ -0,0 +1,559 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static jp.rouh.mahjong.game.event.TableEvent.Type.*;
+
+/**
+ * 通知を待ち行列に積み, 委譲先へ非同期に転送するアダプタクラス。
+ * <p>{@link ForwardingTableStrategy}が通知を呼び出し元のスレッドで同期的に転送するのに対し,
+ * このクラスは各通知を{@link TableEvent}として容量付きの待ち行列に積んで即座に復帰します。
+ * 待ち行列の通知は実行サービス上で発生順に一件ずつ委譲先へ転送されます。
+ * そのため描画を待機する画面や送信に時間を要する通信先が通知先であっても,
+ * 局の進行はその通知先の処理を待ちません。
+ * <p>行動選択の要求及び{@link #acknowledge}は, 待ち行列の通知が全て転送されてから委譲先へ転送されます。
+ * 委譲先は必ずそれまでの通知を受け取った状態で選択を行います。
+ * <p>待ち行列が容量に達した場合の処理は{@link OverflowPolicy}で指定します。
+ * {@link OverflowPolicy#DISCONNECT}で切断した場合は{@link #setDisconnectHandler}で設定した処理が呼び出されます。
+ * 待ち行列の長さなどの統計値は{@link #getQueueDepth}などのメソッドで取得できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class QueuedTableStrategy extends ForwardingTableStrategy{
+    private static final Logger LOG = LoggerFactory.getLogger(QueuedTableStrategy.class);
+    private final TableStrategy strategy;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+    private final ArrayDeque<TableEvent> queue;
+    private final List<CompletableFuture<Void>> idleWaiters = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    private volatile Runnable disconnectHandler = ()->{};
+    private boolean dispatching;
+    private boolean disconnected;
+    private int maxQueueDepth;
+    private long dispatchedCount;
+    private long coalescedCount;
+    private long droppedCount;
+
+    /**
+     * 待ち行列が容量に達した場合の処理。
+     */
+    public enum OverflowPolicy{
+
+        /** 待ち行列に空きができるまで通知元のスレッドを待機させます。 */
+        BLOCK,
+
+        /**
+         * 待ち行列の中の同じ対象の状態を表す古い通知を取り除き, 新しい通知を末尾に積みます。
+         * <p>手牌の更新及び座席情報の更新の通知が対象となります。
+         * 取り除ける通知が存在しない場合は{@link #BLOCK}と同様に待機します。
+         */
+        COALESCE,
+
+        /**
+         * 委譲先を切断されたものとみなし, 待ち行列の通知及び以降の通知を全て破棄します。
+         * <p>切断時には{@link #setDisconnectHandler}で設定した処理が一度だけ呼び出されます。
+         * 以降の行動選択の要求は委譲先へ転送されず, 即座に既定の行動を選択したものとみなします。
+         */
+        DISCONNECT
+    }
+
+    /**
+     * アダプタクラスのコンストラクタ。
+     * <p>通知は{@link CallActionMediator#getSharedExecutor}上で転送されます。
+     * @param strategy 委譲先オブジェクト
+     * @param capacity 待ち行列の容量
+     * @param policy 待ち行列が容量に達した場合の処理
+     * @throws IllegalArgumentException 容量が1未満の場合
+     */
+    public QueuedTableStrategy(TableStrategy strategy, int capacity, OverflowPolicy policy){
+        this(strategy, capacity, policy, CallActionMediator.getSharedExecutor());
+    }
+
+    /**
+     * アダプタクラスのコンストラクタ。
+     * @param strategy 委譲先オブジェクト
+     * @param capacity 待ち行列の容量
+     * @param policy 待ち行列が容量に達した場合の処理
+     * @param executor 通知を転送する実行サービス
+     * @throws IllegalArgumentException 容量が1未満の場合
+     */
+    public QueuedTableStrategy(TableStrategy strategy, int capacity, OverflowPolicy policy, Executor executor){
+        super(strategy);
+        if(capacity<1){
+            throw new IllegalArgumentException("invalid capacity: "+capacity);
+        }
+        this.strategy = strategy;
+        this.capacity = capacity;
+        this.policy = Objects.requireNonNull(policy);
+        this.executor = Objects.requireNonNull(executor);
+        this.queue = new ArrayDeque<>(Math.min(capacity, 256));
+    }
+
+    /**
+     * {@link OverflowPolicy#DISCONNECT}により委譲先を切断した際の処理を設定します。
+     * <p>処理は待ち行列が溢れた通知元のスレッドで一度だけ呼び出されます。
+     * 通信先の接続を閉じるなど, 切断に伴う後始末に用います。
+     * @param handler 切断時の処理
+     */
+    public void setDisconnectHandler(Runnable handler){
+        this.disconnectHandler = Objects.requireNonNull(handler);
+    }
+
+    /**
+     * 通知を待ち行列に積みます。
+     * @param event 通知
+     */
+    private void enqueue(TableEvent event){
+        boolean overflowed = false;
+        lock.lock();
+        try{
+            while(!disconnected && queue.size()>=capacity){
+                if(policy==OverflowPolicy.DISCONNECT){
+                    droppedCount += queue.size();
+                    queue.clear();
+                    disconnected = true;
+                    overflowed = true;
+                    LOG.warn("observer disconnected by queue overflow: capacity={}", capacity);
+                    break;
+                }
+                if(policy==OverflowPolicy.COALESCE && removeSuperseded(event)){
+                    coalescedCount++;
+                    break;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            if(disconnected){
+                droppedCount++;
+            }else{
+                queue.addLast(event);
+                maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+                if(!dispatching){
+                    dispatching = true;
+                    executor.execute(this::dispatch);
+                }
+            }
+        }finally{
+            lock.unlock();
+        }
+        if(overflowed){
+            try{
+                disconnectHandler.run();
+            }catch(RuntimeException e){
+                LOG.error("exception caught while handling disconnection", e);
+            }
+        }
+    }
+
+    /**
+     * 待ち行列から与えられた通知で置き換えられる最も新しい通知を取り除きます。
+     * @param event 新しい通知
+     * @return true  通知を取り除いた場合
+     *         false 取り除ける通知が存在しない場合
+     */
+    private boolean removeSuperseded(TableEvent event){
+        var type = event.getType();
+        switch(type){
+            case HAND_UPDATED, TEMPORARY_SEAT_UPDATED, SEAT_UPDATED, OTHER_HAND_UPDATED -> {
+                var iterator = queue.descendingIterator();
+                while(iterator.hasNext()){
+                    var queued = iterator.next();
+                    if(queued.getType()==type && (type!=OTHER_HAND_UPDATED
+                            || queued.getArguments().get(0)==event.getArguments().get(0))){
+                        iterator.remove();
+                        return true;
+                    }
+                }
+                return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 待ち行列が空になるまで通知を委譲先へ転送します。
+     * <p>転送中に{@link Error}が発生した場合も転送中の状態を解除し, 待機中のスレッドを再開させます。
+     */
+    private void dispatch(){
+        boolean finished = false;
+        try{
+            while(true){
+                TableEvent event;
+                List<CompletableFuture<Void>> waiters = List.of();
+                lock.lock();
+                try{
+                    event = queue.pollFirst();
+                    if(event==null){
+                        waiters = becomeIdle();
+                        finished = true;
+                    }else{
+                        notFull.signalAll();
+                    }
+                }finally{
+                    lock.unlock();
+                }
+                if(event==null){
+                    waiters.forEach(waiter->waiter.complete(null));
+                    return;
+                }
+                try{
+                    event.dispatchTo(strategy);
+                }catch(RuntimeException e){
+                    LOG.error("failed to dispatch "+event, e);
+                }
+                lock.lock();
+                try{
+                    dispatchedCount++;
+                }finally{
+                    lock.unlock();
+                }
+            }
+        }finally{
+            if(!finished){
+                List<CompletableFuture<Void>> waiters;
+                lock.lock();
+                try{
+                    waiters = becomeIdle();
+                }finally{
+                    lock.unlock();
+                }
+                waiters.forEach(waiter->waiter.complete(null));
+            }
+        }
+    }
+
+    /**
+     * 転送中の状態を解除し, 待機中のスレッドを再開させます。
+     * <p>呼び出し元は{@code lock}を保持している必要があります。
+     * @return 完了させる待機中のオブジェクト
+     */
+    private List<CompletableFuture<Void>> becomeIdle(){
+        dispatching = false;
+        idle.signalAll();
+        notFull.signalAll();
+        var waiters = List.copyOf(idleWaiters);
+        idleWaiters.clear();
+        return waiters;
+    }
+
+    /**
+     * 待ち行列の通知が全て委譲先へ転送されるまで待機します。
+     */
+    public void awaitIdle(){
+        lock.lock();
+        try{
+            while(dispatching){
+                idle.awaitUninterruptibly();
+            }
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 待ち行列の通知が全て委譲先へ転送された時点で完了するオブジェクトを取得します。
+     * @return 転送の完了を表すオブジェクト
+     */
+    private CompletableFuture<Void> whenIdle(){
+        lock.lock();
+        try{
+            if(!dispatching){
+                return CompletableFuture.completedFuture(null);
+            }
+            var waiter = new CompletableFuture<Void>();
+            idleWaiters.add(waiter);
+            return waiter;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 現在の待ち行列の長さを取得します。
+     * @return 待ち行列の長さ
+     */
+    public int getQueueDepth(){
+        lock.lock();
+        try{
+            return queue.size();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * これまでの待ち行列の長さの最大値を取得します。
+     * @return 待ち行列の長さの最大値
+     */
+    public int getMaxQueueDepth(){
+        lock.lock();
+        try{
+            return maxQueueDepth;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 委譲先へ転送した通知の数を取得します。
+     * @return 転送した通知の数
+     */
+    public long getDispatchedCount(){
+        lock.lock();
+        try{
+            return dispatchedCount;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@link OverflowPolicy#COALESCE}により取り除いた通知の数を取得します。
+     * @return 取り除いた通知の数
+     */
+    public long getCoalescedCount(){
+        lock.lock();
+        try{
+            return coalescedCount;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@link OverflowPolicy#DISCONNECT}により破棄した通知の数を取得します。
+     * @return 破棄した通知の数
+     */
+    public long getDroppedCount(){
+        lock.lock();
+        try{
+            return droppedCount;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 待ち行列の溢れにより委譲先が切断されたか検査します。
+     * @return true  切断された場合
+     *         false 切断されていない場合
+     */
+    public boolean isDisconnected(){
+        lock.lock();
+        try{
+            return disconnected;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void gameStarted(List<ProfileData> players){
+        enqueue(TableEvent.of(GAME_STARTED, players));
+    }
+
+    @Override
+    public void gameFinished(List<GameScoreData> scores){
+        enqueue(TableEvent.of(GAME_FINISHED, scores));
+    }
+
+    @Override
+    public void temporarySeatUpdated(Map<Side, PlayerTempData> players){
+        enqueue(TableEvent.of(TEMPORARY_SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void seatUpdated(Map<Side, PlayerData> players){
+        enqueue(TableEvent.of(SEAT_UPDATED, players));
+    }
+
+    @Override
+    public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+        enqueue(TableEvent.of(ROUND_STARTED, wind, count, streak, deposit, last));
+    }
+
+    @Override
+    public void roundDrawn(DrawType drawType){
+        enqueue(TableEvent.of(ROUND_DRAWN, drawType));
+    }
+
+    @Override
+    public void handScoreNotified(List<HandScoreData> scores){
+        enqueue(TableEvent.of(HAND_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void riverScoreNotified(List<RiverScoreData> scores){
+        enqueue(TableEvent.of(RIVER_SCORE_NOTIFIED, scores));
+    }
+
+    @Override
+    public void paymentNotified(Map<Side, PaymentData> payments){
+        enqueue(TableEvent.of(PAYMENT_NOTIFIED, payments));
+    }
+
+    @Override
+    public void roundFinished(){
+        enqueue(TableEvent.of(ROUND_FINISHED));
+    }
+
+    @Override
+    public void diceRolled(Side side, int dice1, int dice2){
+        enqueue(TableEvent.of(DICE_ROLLED, side, dice1, dice2));
+    }
+
+    @Override
+    public void declared(Side side, Declaration declaration){
+        enqueue(TableEvent.of(DECLARED, side, declaration));
+    }
+
+    @Override
+    public void readyBoneAdded(Side side){
+        enqueue(TableEvent.of(READY_BONE_ADDED, side));
+    }
+
+    @Override
+    public void wallGenerated(){
+        enqueue(TableEvent.of(WALL_GENERATED));
+    }
+
+    @Override
+    public void wallTileTaken(Side side, int column, int floor){
+        enqueue(TableEvent.of(WALL_TILE_TAKEN, side, column, floor));
+    }
+
+    @Override
+    public void wallTileRevealed(Side side, int column, Tile tile){
+        enqueue(TableEvent.of(WALL_TILE_REVEALED, side, column, tile));
+    }
+
+    @Override
+    public void turnStarted(Side side){
+        enqueue(TableEvent.of(TURN_STARTED, side));
+    }
+
+    @Override
+    public void handLocked(){
+        enqueue(TableEvent.of(HAND_LOCKED));
+    }
+
+    @Override
+    public void handUpdated(Side side, int size, boolean wide){
+        enqueue(TableEvent.of(OTHER_HAND_UPDATED, side, size, wide));
+    }
+
+    @Override
+    public void handUpdated(List<Tile> allTiles, boolean wide){
+        enqueue(TableEvent.of(HAND_UPDATED, allTiles, wide));
+    }
+
+    @Override
+    public void handRevealed(Side side, List<Tile> allTiles, boolean wide){
+        enqueue(TableEvent.of(HAND_REVEALED, side, allTiles, wide));
+    }
+
+    @Override
+    public void riverTileAdded(Side side, Tile tile, boolean tilt){
+        enqueue(TableEvent.of(RIVER_TILE_ADDED, side, tile, tilt));
+    }
+
+    @Override
+    public void riverTileTaken(Side side){
+        enqueue(TableEvent.of(RIVER_TILE_TAKEN, side));
+    }
+
+    @Override
+    public void tiltMeldAdded(Side side, Side tilt, List<Tile> tiles){
+        enqueue(TableEvent.of(TILT_MELD_ADDED, side, tilt, tiles));
+    }
+
+    @Override
+    public void selfQuadAdded(Side side, List<Tile> tiles){
+        enqueue(TableEvent.of(SELF_QUAD_ADDED, side, tiles));
+    }
+
+    @Override
+    public void meldTileAdded(Side side, int index, Tile tile){
+        enqueue(TableEvent.of(MELD_TILE_ADDED, side, index, tile));
+    }
+
+    @Override
+    public void notificationsCompleted(){
+        enqueue(TableEvent.of(NOTIFICATIONS_COMPLETED));
+    }
+
+    @Override
+    public void acknowledge(){
+        if(isDisconnected()){
+            return;
+        }
+        awaitIdle();
+        strategy.acknowledge();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>委譲先が切断されている場合は委譲先へ転送せず, 既定の打牌を選択したものとみなします。
+     */
+    @Override
+    public TurnAction selectTurnAction(List<TurnAction> choices){
+        if(!isDisconnected()){
+            awaitIdle();
+        }
+        if(isDisconnected()){
+            return new TurnActionSelector(choices).getDefaultAction();
+        }
+        return super.selectTurnAction(choices);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>委譲先が切断されている場合は委譲先へ転送せず, パスを選択したものとみなします。
+     */
+    @Override
+    public CallAction selectCallAction(List<CallAction> choices){
+        if(!isDisconnected()){
+            awaitIdle();
+        }
+        if(isDisconnected()){
+            return new CallActionSelector(choices).getPassAction();
+        }
+        return super.selectCallAction(choices);
+    }
+
+    @Override
+    public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices, Executor executor){
+        var forwarded = isDisconnected()? CompletableFuture.<Void>completedFuture(null):whenIdle();
+        return forwarded.thenCompose(ignored->isDisconnected()?
+                CompletableFuture.completedFuture(new TurnActionSelector(choices).getDefaultAction()):
+                super.selectTurnActionAsync(choices, executor));
+    }
+
+    @Override
+    public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices, Executor executor){
+        var forwarded = isDisconnected()? CompletableFuture.<Void>completedFuture(null):whenIdle();
+        return forwarded.thenCompose(ignored->isDisconnected()?
+                CompletableFuture.completedFuture(new CallActionSelector(choices).getPassAction()):
+                super.selectCallActionAsync(choices, executor));
+    }
+}
@@ -0,0 +1,163 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知先{@link TableObserver}への一回分の通知を表すクラス。
+ * <p>通知の種類と引数を保持し, {@link #dispatchTo}で任意の通知先に同じ通知を行うことができます。
+ * {@link BatchingTableStrategy}が通知をまとめて転送する際や,
+ * {@link QueuedTableStrategy}が通知を待ち行列に積む際に用います。
+ * <p>メッセージ通信で転送できるよう, 引数なしのコンストラクタとアクセサを備えます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class TableEvent{
+    private Type type;
+    private List<Object> arguments;
+
+    /**
+     * 通知の種類。
+     * <p>{@link TableObserver}の通知メソッドに一対一で対応します。
+     */
+    public enum Type{
+        /** {@link TableObserver#gameStarted} */
+        GAME_STARTED,
+        /** {@link TableObserver#gameFinished} */
+        GAME_FINISHED,
+        /** {@link TableObserver#temporarySeatUpdated} */
+        TEMPORARY_SEAT_UPDATED,
+        /** {@link TableObserver#seatUpdated} */
+        SEAT_UPDATED,
+        /** {@link TableObserver#roundStarted} */
+        ROUND_STARTED,
+        /** {@link TableObserver#roundDrawn} */
+        ROUND_DRAWN,
+        /** {@link TableObserver#handScoreNotified} */
+        HAND_SCORE_NOTIFIED,
+        /** {@link TableObserver#riverScoreNotified} */
+        RIVER_SCORE_NOTIFIED,
+        /** {@link TableObserver#paymentNotified} */
+        PAYMENT_NOTIFIED,
+        /** {@link TableObserver#roundFinished} */
+        ROUND_FINISHED,
+        /** {@link TableObserver#diceRolled} */
+        DICE_ROLLED,
+        /** {@link TableObserver#declared} */
+        DECLARED,
+        /** {@link TableObserver#readyBoneAdded} */
+        READY_BONE_ADDED,
+        /** {@link TableObserver#wallGenerated} */
+        WALL_GENERATED,
+        /** {@link TableObserver#wallTileTaken} */
+        WALL_TILE_TAKEN,
+        /** {@link TableObserver#wallTileRevealed} */
+        WALL_TILE_REVEALED,
+        /** {@link TableObserver#turnStarted} */
+        TURN_STARTED,
+        /** {@link TableObserver#handLocked} */
+        HAND_LOCKED,
+        /** {@link TableObserver#handUpdated(Side, int, boolean)} */
+        OTHER_HAND_UPDATED,
+        /** {@link TableObserver#handUpdated(List, boolean)} */
+        HAND_UPDATED,
+        /** {@link TableObserver#handRevealed} */
+        HAND_REVEALED,
+        /** {@link TableObserver#riverTileAdded} */
+        RIVER_TILE_ADDED,
+        /** {@link TableObserver#riverTileTaken} */
+        RIVER_TILE_TAKEN,
+        /** {@link TableObserver#tiltMeldAdded} */
+        TILT_MELD_ADDED,
+        /** {@link TableObserver#selfQuadAdded} */
+        SELF_QUAD_ADDED,
+        /** {@link TableObserver#meldTileAdded} */
+        MELD_TILE_ADDED,
+        /** {@link TableObserver#notificationsCompleted} */
+        NOTIFICATIONS_COMPLETED
+    }
+
+    /**
+     * 空の通知を生成します。
+     * <p>メッセージ通信での復元に用います。
+     */
+    public TableEvent(){
+    }
+
+    /**
+     * 通知を生成します。
+     * @param type 通知の種類
+     * @param arguments 通知メソッドの引数
+     * @return 通知
+     */
+    public static TableEvent of(Type type, Object... arguments){
+        var event = new TableEvent();
+        event.setType(type);
+        event.setArguments(Arrays.asList(arguments));
+        return event;
+    }
+
+    /**
+     * 指定された通知先にこの通知を行います。
+     * @param observer 通知先
+     */
+    @SuppressWarnings("unchecked")
+    public void dispatchTo(TableObserver observer){
+        switch(type){
+            case GAME_STARTED -> observer.gameStarted((List<ProfileData>)arguments.get(0));
+            case GAME_FINISHED -> observer.gameFinished((List<GameScoreData>)arguments.get(0));
+            case TEMPORARY_SEAT_UPDATED -> observer.temporarySeatUpdated((Map<Side, PlayerTempData>)arguments.get(0));
+            case SEAT_UPDATED -> observer.seatUpdated((Map<Side, PlayerData>)arguments.get(0));
+            case ROUND_STARTED -> observer.roundStarted((Wind)arguments.get(0), (Integer)arguments.get(1),
+                    (Integer)arguments.get(2), (Integer)arguments.get(3), (Boolean)arguments.get(4));
+            case ROUND_DRAWN -> observer.roundDrawn((DrawType)arguments.get(0));
+            case HAND_SCORE_NOTIFIED -> observer.handScoreNotified((List<HandScoreData>)arguments.get(0));
+            case RIVER_SCORE_NOTIFIED -> observer.riverScoreNotified((List<RiverScoreData>)arguments.get(0));
+            case PAYMENT_NOTIFIED -> observer.paymentNotified((Map<Side, PaymentData>)arguments.get(0));
+            case ROUND_FINISHED -> observer.roundFinished();
+            case DICE_ROLLED -> observer.diceRolled((Side)arguments.get(0), (Integer)arguments.get(1), (Integer)arguments.get(2));
+            case DECLARED -> observer.declared((Side)arguments.get(0), (Declaration)arguments.get(1));
+            case READY_BONE_ADDED -> observer.readyBoneAdded((Side)arguments.get(0));
+            case WALL_GENERATED -> observer.wallGenerated();
+            case WALL_TILE_TAKEN -> observer.wallTileTaken((Side)arguments.get(0), (Integer)arguments.get(1), (Integer)arguments.get(2));
+            case WALL_TILE_REVEALED -> observer.wallTileRevealed((Side)arguments.get(0), (Integer)arguments.get(1), (Tile)arguments.get(2));
+            case TURN_STARTED -> observer.turnStarted((Side)arguments.get(0));
+            case HAND_LOCKED -> observer.handLocked();
+            case OTHER_HAND_UPDATED -> observer.handUpdated((Side)arguments.get(0), (Integer)arguments.get(1), (Boolean)arguments.get(2));
+            case HAND_UPDATED -> observer.handUpdated((List<Tile>)arguments.get(0), (Boolean)arguments.get(1));
+            case HAND_REVEALED -> observer.handRevealed((Side)arguments.get(0), (List<Tile>)arguments.get(1), (Boolean)arguments.get(2));
+            case RIVER_TILE_ADDED -> observer.riverTileAdded((Side)arguments.get(0), (Tile)arguments.get(1), (Boolean)arguments.get(2));
+            case RIVER_TILE_TAKEN -> observer.riverTileTaken((Side)arguments.get(0));
+            case TILT_MELD_ADDED -> observer.tiltMeldAdded((Side)arguments.get(0), (Side)arguments.get(1), (List<Tile>)arguments.get(2));
+            case SELF_QUAD_ADDED -> observer.selfQuadAdded((Side)arguments.get(0), (List<Tile>)arguments.get(1));
+            case MELD_TILE_ADDED -> observer.meldTileAdded((Side)arguments.get(0), (Integer)arguments.get(1), (Tile)arguments.get(2));
+            case NOTIFICATIONS_COMPLETED -> observer.notificationsCompleted();
+        }
+    }
+
+    public Type getType(){
+        return type;
+    }
+
+    public void setType(Type type){
+        this.type = type;
+    }
+
+    public List<Object> getArguments(){
+        return arguments;
+    }
+
+    public void setArguments(List<Object> arguments){
+        this.arguments = arguments;
+    }
+
+    @Override
+    public String toString(){
+        return type+""+arguments;
+    }
+}
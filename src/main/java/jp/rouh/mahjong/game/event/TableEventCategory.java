@@ -0,0 +1,80 @@
+package jp.rouh.mahjong.game.event;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 対局時の通知の分類を表すクラス。
+ * <p>シミュレーションモードの対局では, 通知先{@link TableObserver}が
+ * {@link TableObserver#getRequiredEventCategories}で宣言した分類の通知のみが
+ * 生成及び通知されます。
+ * @author Rouh
+ * @version 1.0
+ */
+public enum TableEventCategory{
+
+    /**
+     * 対局及び局の進行(開始/終了/和了/流局/精算)
+     * <p>この分類の通知は宣言の有無によらず常に通知されます。
+     */
+    PROGRESS,
+
+    /**
+     * 座席情報({@link TableObserver#seatUpdated}/{@link TableObserver#temporarySeatUpdated})
+     */
+    SEAT,
+
+    /**
+     * 賽振り({@link TableObserver#diceRolled})
+     */
+    DICE,
+
+    /**
+     * 牌山の生成と牌の取得({@link TableObserver#wallGenerated}/{@link TableObserver#wallTileTaken})
+     */
+    WALL,
+
+    /**
+     * ドラ表示牌の公開({@link TableObserver#wallTileRevealed})
+     */
+    INDICATOR,
+
+    /**
+     * 手番の開始({@link TableObserver#turnStarted})
+     */
+    TURN,
+
+    /**
+     * 自身の手牌の更新({@link TableObserver#handUpdated(java.util.List, boolean)})
+     */
+    HAND,
+
+    /**
+     * 他家の手牌の更新及び公開
+     * ({@link TableObserver#handUpdated(jp.rouh.mahjong.tile.Side, int, boolean)}/{@link TableObserver#handRevealed})
+     */
+    OTHER_HAND,
+
+    /**
+     * 河への打牌及び河からの副露({@link TableObserver#riverTileAdded}/{@link TableObserver#riverTileTaken})
+     */
+    RIVER,
+
+    /**
+     * 副露の追加({@link TableObserver#tiltMeldAdded}/{@link TableObserver#selfQuadAdded}/{@link TableObserver#meldTileAdded})
+     */
+    MELD,
+
+    /**
+     * 宣言及び立直棒({@link TableObserver#declared}/{@link TableObserver#readyBoneAdded})
+     */
+    DECLARATION;
+
+    /**
+     * 全ての分類を含む集合を取得します。
+     * @return 全ての分類の集合
+     */
+    public static Set<TableEventCategory> all(){
+        return EnumSet.allOf(TableEventCategory.class);
+    }
+}
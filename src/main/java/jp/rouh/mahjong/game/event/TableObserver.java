@@ -6,6 +6,7 @@ import jp.rouh.mahjong.tile.Wind;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 対局時の情報をプレイヤーへ通知するインターフェース。
@@ -194,4 +195,26 @@ public interface TableObserver {
      */
     void meldTileAdded(Side side, int index, Tile tile);
 
+    /**
+     * 一連の通知が完了したことを通知します。
+     * <p>局の進行がプレイヤーの行動選択の待機に入る直前に通知されます。
+     * 通知をまとめて転送する通知先は, この時点で保留している通知を転送する必要があります。
+     * <p>この通知は通知の分類によらず全ての通知先に通知されます。
+     */
+    default void notificationsCompleted(){
+        //pass
+    }
+
+    /**
+     * この通知先が必要とする通知の分類を取得します。
+     * <p>シミュレーションモードの対局では, 対局の開始時に一度だけ参照され,
+     * 含まれない分類の通知は生成及び通知されません。
+     * {@link TableEventCategory#PROGRESS}の通知は宣言の有無によらず常に通知されます。
+     * <p>通常の対局ではこのメソッドは参照されず, 全ての通知が行われます。
+     * @return 必要とする通知の分類の集合
+     */
+    default Set<TableEventCategory> getRequiredEventCategories(){
+        return TableEventCategory.all();
+    }
+
 }
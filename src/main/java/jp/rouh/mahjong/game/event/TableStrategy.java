@@ -30,4 +30,16 @@ public interface TableStrategy extends TableObserver{
     default void acknowledge(){
         //pass
     }
+
+    /**
+     * この戦略が行動の選択に要する時間を自ら制限しているか検査します。
+     * <p>プロセス内で即座に選択を行う戦略や, 独自の待機時間と既定の行動を持つ戦略はtrueを返します。
+     * 局はこの戦略に対して待機時間を適用せず, 呼び出し元のスレッドで選択を要求します。
+     * <p>既定ではfalseを返し, 局の待機時間が適用されます。
+     * @return true  選択に要する時間を自ら制限している場合
+     *         false 局の待機時間を適用する必要がある場合
+     */
+    default boolean isDecisionTimeBounded(){
+        return false;
+    }
 }
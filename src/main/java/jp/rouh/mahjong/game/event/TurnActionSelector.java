@@ -213,6 +213,23 @@ public class TurnActionSelector{
         return discardDrawnActionNullable;
     }
 
+    /**
+     * 既定の打牌の選択肢を取得します。
+     * <p>ツモ切り打牌が可能であればツモ切り打牌を, そうでなければ最初の打牌の選択肢を返します。
+     * プレイヤーが時間内に行動を選択しなかった場合などに用いられます。
+     * @return 既定の打牌の選択肢
+     * @throws NoSuchElementException 打牌が不可能な場合
+     */
+    public TurnAction getDefaultAction(){
+        if(discardDrawnActionNullable!=null){
+            return discardDrawnActionNullable;
+        }
+        if(discardActions.isEmpty()){
+            throw new NoSuchElementException("invalid action");
+        }
+        return discardActions.get(0);
+    }
+
     /**
      * 構成牌を指定してカン宣言を行う選択肢を取得します。
      * <p>カン宣言が可能かどうか, 事前に{@link #canDeclareKan()} ()}メソッドの
@@ -0,0 +1,174 @@
+package jp.rouh.mahjong.net;
+
+import jp.rouh.mahjong.bot.BotExecutionService;
+import jp.rouh.mahjong.game.TableHost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 専用サーバの実行クラス。
+ * <p>GUIを持たない麻雀ルームサーバを起動します。
+ * {@code java.awt}及び{@code javax.swing}には依存しないため, ヘッドレス環境で実行できます。
+ * <p>設定はプロパティファイルから読み込みます。プロパティファイルは
+ * 第1引数, システムプロパティ{@code mahjong.server.config},
+ * カレントディレクトリの{@code server.properties}の順に探索され,
+ * 見つからない場合は既定値を使用します。
+ * また, {@code mahjong.server.}を接頭辞とするシステムプロパティで各設定を上書きできます。
+ * <table>
+ *     <tr><th>キー</th><th>内容</th><th>既定値</th></tr>
+ *     <tr><td>port</td><td>待ち受けポート番号</td><td>{@value #DEFAULT_PORT}</td></tr>
+ *     <tr><td>rooms</td><td>同時に開設できるルームの数</td><td>{@value #DEFAULT_ROOMS}</td></tr>
+ *     <tr><td>decisionTimeoutSeconds</td><td>行動選択の待機秒数</td><td>{@value #DEFAULT_DECISION_TIMEOUT_SECONDS}</td></tr>
+ *     <tr><td>drainTimeoutSeconds</td><td>終了時の対局終了待機秒数</td><td>{@value #DEFAULT_DRAIN_TIMEOUT_SECONDS}</td></tr>
+ *     <tr><td>journalDirectory</td><td>対局の記録ファイルを作成するディレクトリ</td><td>記録しない</td></tr>
+ * </table>
+ * <p>ログ出力は{@code logback-server.xml}の設定に従います。
+ * システムプロパティ{@code logback.configurationFile}を指定した場合はその設定に従います。
+ * <p>プロセスの終了時には新たな対局の受付を停止し, 実行中の対局の終了を待機します。
+ * @author Rouh
+ * @version 1.0
+ */
+public final class DedicatedServer{
+    static final String PROPERTY_PREFIX = "mahjong.server.";
+    static final String DEFAULT_CONFIG_FILE = "server.properties";
+    static final int DEFAULT_PORT = 12345;
+    static final int DEFAULT_ROOMS = 16;
+    static final int DEFAULT_DECISION_TIMEOUT_SECONDS = 60;
+    static final int DEFAULT_DRAIN_TIMEOUT_SECONDS = 600;
+    private final int port;
+    private final int rooms;
+    private final int decisionTimeoutSeconds;
+    private final int drainTimeoutSeconds;
+    private final Path journalDirectory;
+
+    /**
+     * 設定から専用サーバを生成します。
+     * @param config 設定
+     * @throws IllegalArgumentException 設定値が不正な場合
+     */
+    DedicatedServer(Properties config){
+        this.port = intOf(config, "port", DEFAULT_PORT);
+        this.rooms = intOf(config, "rooms", DEFAULT_ROOMS);
+        this.decisionTimeoutSeconds = intOf(config, "decisionTimeoutSeconds", DEFAULT_DECISION_TIMEOUT_SECONDS);
+        this.drainTimeoutSeconds = intOf(config, "drainTimeoutSeconds", DEFAULT_DRAIN_TIMEOUT_SECONDS);
+        var journal = config.getProperty("journalDirectory");
+        this.journalDirectory = journal==null || journal.isBlank()? null:Path.of(journal.strip());
+        if(port<0 || port>65535){
+            throw new IllegalArgumentException("invalid port: "+port);
+        }
+        if(rooms<1){
+            throw new IllegalArgumentException("invalid rooms: "+rooms);
+        }
+    }
+
+    private static int intOf(Properties config, String key, int defaultValue){
+        var value = config.getProperty(key);
+        if(value==null || value.isBlank()){
+            return defaultValue;
+        }
+        try{
+            return Integer.parseInt(value.strip());
+        }catch(NumberFormatException e){
+            throw new IllegalArgumentException("invalid "+key+": "+value, e);
+        }
+    }
+
+    /**
+     * 設定を読み込みます。
+     * <p>プロパティファイルの値を{@code mahjong.server.}を接頭辞とする
+     * システムプロパティの値で上書きした設定を返します。
+     * @param args コマンドライン引数
+     * @param systemProperties システムプロパティ
+     * @return 設定
+     * @throws IOException プロパティファイルの読み込みに失敗した場合
+     */
+    static Properties loadConfig(String[] args, Properties systemProperties) throws IOException{
+        var config = new Properties();
+        Path file = null;
+        if(args.length>0){
+            file = Path.of(args[0]);
+        }else if(systemProperties.getProperty(PROPERTY_PREFIX + "config")!=null){
+            file = Path.of(systemProperties.getProperty(PROPERTY_PREFIX + "config"));
+        }else if(Files.exists(Path.of(DEFAULT_CONFIG_FILE))){
+            file = Path.of(DEFAULT_CONFIG_FILE);
+        }
+        if(file!=null){
+            try(InputStream in = Files.newInputStream(file)){
+                config.load(in);
+            }
+        }
+        for(var name:systemProperties.stringPropertyNames()){
+            if(name.startsWith(PROPERTY_PREFIX)){
+                config.setProperty(name.substring(PROPERTY_PREFIX.length()), systemProperties.getProperty(name));
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 待ち受けポート番号を取得します。
+     * @return ポート番号
+     */
+    int getPort(){
+        return port;
+    }
+
+    /**
+     * 同時に開設できるルームの数を取得します。
+     * @return ルームの数の上限
+     */
+    int getRooms(){
+        return rooms;
+    }
+
+    /**
+     * 専用サーバを起動し, プロセスの終了時に停止するよう登録します。
+     * @throws IOException サーバの起動に失敗した場合
+     */
+    private void run() throws IOException{
+        var log = LoggerFactory.getLogger(DedicatedServer.class);
+        var tableHost = new TableHost(rooms);
+        var botService = new BotExecutionService();
+        var server = new RoomServer(botService, tableHost);
+        server.setMaxRooms(rooms);
+        server.setDecisionTimeout(decisionTimeoutSeconds, TimeUnit.SECONDS);
+        server.setJournalDirectory(journalDirectory);
+        Runtime.getRuntime().addShutdownHook(new Thread(()->shutdown(log, server, tableHost, botService), "server-shutdown"));
+        server.start(port);
+        log.info("dedicated server started: port={} rooms={} decisionTimeout={}s journal={}",
+                port, rooms, decisionTimeoutSeconds, journalDirectory);
+    }
+
+    private void shutdown(Logger log, RoomServer server, TableHost tableHost, BotExecutionService botService){
+        log.info("dedicated server stopping: rooms={} members={} {}",
+                server.getRoomCount(), server.getMemberCount(), tableHost);
+        tableHost.drain();
+        try{
+            if(!tableHost.awaitDrained(drainTimeoutSeconds, TimeUnit.SECONDS)){
+                log.warn("running tables interrupted: {}", tableHost.getRunningTableIds());
+                tableHost.shutdownNow();
+            }
+        }catch(InterruptedException e){
+            tableHost.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server.close();
+        botService.shutdown();
+        log.info("dedicated server stopped");
+    }
+
+    public static void main(String[] args) throws IOException{
+        System.setProperty("java.awt.headless", "true");
+        if(System.getProperty("logback.configurationFile")==null){
+            System.setProperty("logback.configurationFile", "logback-server.xml");
+        }
+        new DedicatedServer(loadConfig(args, System.getProperties())).run();
+    }
+}
@@ -7,20 +7,26 @@ import jp.rouh.mahjong.game.event.TurnActionType;
 import jp.rouh.mahjong.tile.Tile;
 import jp.rouh.util.net.msg.MessageConversionRule;
 import jp.rouh.util.net.msg.MessageConverter;
+import jp.rouh.util.net.msg.PojoAccessor;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * 麻雀ルーム{@link Room}及び通知先{@link RoomObserver}で使用するオブジェクトを
  * 文字列変換するコンバータを用意するユーティリティクラス。
+ * <p>データクラスのプロパティへのアクセスは{@link PojoAccessor}でクラスごとに一度だけ解決され,
+ * クラス名及びメソッドの解決結果も再利用されます。
  * @author Rouh
  * @version 1.0
  */
 public final class RoomMessageConverters{
+    private static final Map<String, Class<?>> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<String, Method> METHODS = new ConcurrentHashMap<>();
+    private static final Map<Method, String> METHOD_STRINGS = new ConcurrentHashMap<>();
     private static final MessageConverter INSTANCE;
     static{
         var converter = new MessageConverter();
@@ -71,15 +77,19 @@ public final class RoomMessageConverters{
 
     private static MessageConversionRule<Method> ofMethod(){
         return new MessageConversionRule.Builder<Method>()
-                .setEncoder(method->{
+                .setEncoder(method->METHOD_STRINGS.computeIfAbsent(method, key->{
                     var declaringClass = method.getDeclaringClass().getName();
                     var methodName = method.getName();
                     var parameterTypes = method.getParameterTypes().length==0?"null":
                             "types("+Stream.of(method.getParameterTypes()).map(Class::getName).collect(Collectors.joining(","))+")";
                     return "method("+declaringClass+","+methodName+","+parameterTypes+")";
-                })
+                }))
                 .setSelector(str->str.startsWith("method("))
                 .setDecoder(str->{
+                    var cached = METHODS.get(str);
+                    if(cached!=null){
+                        return cached;
+                    }
                     try{
                         var params = split(unwrap(str));
                         var declaringClass = classOf(params.get(0));
@@ -90,7 +100,9 @@ public final class RoomMessageConverters{
                                 parameterTypes.add(classOf(typeString));
                             }
                         }
-                        return declaringClass.getMethod(methodName, parameterTypes.toArray(new Class[0]));
+                        var method = declaringClass.getMethod(methodName, parameterTypes.toArray(new Class[0]));
+                        METHODS.put(str, method);
+                        return method;
                     }catch(ClassNotFoundException | NoSuchMethodException e){
                         throw new RuntimeException(e);
                     }
@@ -189,11 +201,13 @@ public final class RoomMessageConverters{
                 .setDecoder(str->{
                     try{
                         var params = split(unwrap(str));
-                        var clazz = classOf(params.get(0));
-                        var valueOf = clazz.getMethod("valueOf", String.class);
+                        @SuppressWarnings("unchecked")
+                        var clazz = (Class<Enum>)classOf(params.get(0));
                         var name = params.get(1);
-                        return (Enum)valueOf.invoke(null, name);
-                    }catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e){
+                        @SuppressWarnings("unchecked")
+                        var constant = Enum.valueOf(clazz, name);
+                        return constant;
+                    }catch(ClassNotFoundException e){
                         throw new RuntimeException(e);
                     }
                 })
@@ -249,56 +263,54 @@ public final class RoomMessageConverters{
     private static MessageConversionRule<Object> ofPojo(MessageConverter converter){
         return new MessageConversionRule.Builder<>()
                 .setEncoder(pojo->{
-                    try{
-                        var fieldStrings = new ArrayList<String>();
-                        for(var method: pojo.getClass().getDeclaredMethods()){
-                            if(method.getDeclaringClass()==pojo.getClass()){
-                                var getterPrefix = method.getReturnType()==boolean.class?"is":"get";
-                                if(method.getReturnType()!=void.class && method.getName().startsWith(getterPrefix)){
-                                    var fieldName = method.getName().substring(getterPrefix.length());
-                                    var fieldClass = method.getReturnType().getName();
-                                    var fieldValue = method.invoke(pojo);
-                                    fieldStrings.add("(" + fieldName + "," + fieldClass + "," + converter.encode(fieldValue) + ")");
-                                }
-                            }
+                    var accessor = PojoAccessor.of(pojo.getClass());
+                    var builder = new StringBuilder("pojo(").append(accessor.getType().getName()).append(",fields(");
+                    var properties = accessor.getProperties();
+                    for(int i = 0; i<properties.size(); i++){
+                        var property = properties.get(i);
+                        if(i>0){
+                            builder.append(',');
                         }
-                        return "pojo("+ pojo.getClass().getName() + ",fields(" + String.join(",", fieldStrings) +"))";
-                    }catch(IllegalAccessException | InvocationTargetException e){
-                        throw new RuntimeException("exception caught while encoding object: "+pojo.getClass().getName(), e);
+                        builder.append('(').append(property.getName())
+                                .append(',').append(property.getType().getName())
+                                .append(',').append(converter.encode(property.get(pojo))).append(')');
                     }
+                    return builder.append("))").toString();
                 })
                 .setSelector(str->str.startsWith("pojo("))
                 .setDecoder(str->{
                     try{
                         var params = split(unwrap(str));
-                        var clazz = classOf(params.get(0));
+                        var accessor = PojoAccessor.of(classOf(params.get(0)));
                         var fieldStrings = split(unwrap(params.get(1)));
-                        var constructor = clazz.getDeclaredConstructor();
-                        var instance = constructor.newInstance();
+                        var instance = accessor.newInstance();
                         for(var fieldString:fieldStrings){
                             var fieldParams = split(unwrap(fieldString));
                             var fieldName = fieldParams.get(0);
                             var fieldClass = classOf(fieldParams.get(1));
                             var fieldValue = converter.decode(fieldParams.get(2));
-                            var setter = clazz.getMethod("set" + fieldName, fieldClass);
-                            setter.invoke(instance, fieldValue);
+                            accessor.set(instance, fieldName, fieldClass, fieldValue);
                         }
                         return instance;
-                    }catch(ClassNotFoundException | NoSuchMethodException | IllegalAccessException |
-                            InvocationTargetException | InstantiationException e){
+                    }catch(ClassNotFoundException e){
                         throw new RuntimeException(e);
                     }
                 })
                 .build();
     }
-    
+
     private static Class<?> classOf(String name) throws ClassNotFoundException{
-        return switch(name){
-            case "int" -> int.class;
-            case "double" -> double.class;
-            case "boolean" -> boolean.class;
-            default -> Class.forName(name);
-        };
+        var clazz = CLASSES.get(name);
+        if(clazz==null){
+            clazz = switch(name){
+                case "int" -> int.class;
+                case "double" -> double.class;
+                case "boolean" -> boolean.class;
+                default -> Class.forName(name);
+            };
+            CLASSES.put(name, clazz);
+        }
+        return clazz;
     }
 
     private static List<String> split(String str){
@@ -1,15 +1,17 @@
 package jp.rouh.mahjong.net;
 
+import jp.rouh.mahjong.game.event.BatchTableObserver;
 import jp.rouh.mahjong.game.event.TableStrategy;
 
 import java.util.List;
 
 /**
  * 麻雀ルームの状態変更通知先インターフェース。
+ * <p>対局中の通知は{@link BatchTableObserver#eventsNotified}でまとめて送信されます。
  * @author Rouh
  * @version 1.0
  */
-public interface RoomObserver extends TableStrategy{
+public interface RoomObserver extends TableStrategy, BatchTableObserver{
 
     /**
      * 部屋の状態が更新されたことを通知します。
@@ -1,8 +1,12 @@
 package jp.rouh.mahjong.net;
 
+import jp.rouh.mahjong.bot.BotExecutionService;
 import jp.rouh.mahjong.bot.TableStrategyBots;
 import jp.rouh.mahjong.game.GameTable;
-import jp.rouh.util.net.BioMessageServer;
+import jp.rouh.mahjong.game.TableHost;
+import jp.rouh.mahjong.game.event.BatchingTableStrategy;
+import jp.rouh.mahjong.game.event.QueuedTableStrategy;
+import jp.rouh.util.net.NioMessageServer;
 import jp.rouh.util.net.MessageConnection;
 import jp.rouh.util.net.MessageServerListener;
 import jp.rouh.util.net.msg.MessageConverter;
@@ -10,35 +14,149 @@ import jp.rouh.util.net.msg.RemoteConnections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 麻雀ルームサーバ。
+ * <p>1つのポートで最大{@link #setMaxRooms}個のルームを開設し,
+ * ルームごとに最大4人のメンバで対局を行います。
  * @author Rouh
  * @version 1.0
  */
-public class RoomServer extends BioMessageServer implements MessageServerListener{
+public class RoomServer extends NioMessageServer implements MessageServerListener{
     private static final Logger LOG = LoggerFactory.getLogger(RoomServer.class);
+    private static final AtomicInteger TABLE_SEQUENCE = new AtomicInteger();
+    private static final AtomicInteger ROOM_SEQUENCE = new AtomicInteger();
+    private static final int OBSERVER_QUEUE_CAPACITY = 4096;
     private final MessageConverter converter = RoomMessageConverters.getConverter();
     private final Map<String, RoomMember> members = new ConcurrentHashMap<>();
+    private final List<GameRoom> rooms = new ArrayList<>();
+    private final BotExecutionService botService;
+    private final TableHost tableHost;
+    private volatile long decisionTimeoutMillis = TimeUnit.SECONDS.toMillis(60);
+    private volatile Path journalDirectory;
+    private volatile int maxRooms = 1;
 
     /**
      * 麻雀ルームサーバを生成します。
+     * <p>NPCの意思決定はプロセス内で共有される{@link BotExecutionService}で実行されます。
+     * 対局はプロセス内で共有される{@link TableHost}で実行されます。
      */
     public RoomServer(){
+        this(BotExecutionService.getShared(), TableHost.getShared());
+    }
+
+    /**
+     * 麻雀ルームサーバを生成します。
+     * @param botService NPCの意思決定を実行するサービス
+     * @param tableHost 対局を実行するサービス
+     */
+    public RoomServer(BotExecutionService botService, TableHost tableHost){
+        this.botService = botService;
+        this.tableHost = tableHost;
         addListener(this);
     }
 
+    /**
+     * 対局中のプレイヤーの行動選択の待機時間を設定します。
+     * <p>応答しないプレイヤーによって対局が停止することを防ぐため, 既定では60秒となります。
+     * @see GameTable#setDecisionTimeout
+     * @param timeout 待機時間, 0以下の場合は無制限
+     * @param unit 待機時間の単位
+     */
+    public void setDecisionTimeout(long timeout, TimeUnit unit){
+        this.decisionTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * 対局の記録ファイルを作成するディレクトリを設定します。
+     * <p>設定しない場合は対局を記録しません。
+     * @see GameTable#setJournalDirectory
+     * @param journalDirectory 記録ファイルを作成するディレクトリ
+     */
+    public void setJournalDirectory(Path journalDirectory){
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * 同時に開設できるルームの数を設定します。
+     * <p>接続したメンバは対局中でなく空席のあるルームへ順に割り当てられ,
+     * 全てのルームが満席または対局中の場合は新たなルームが開設されます。
+     * ルームの数が上限に達している場合, 接続は切断されます。
+     * 既定ではルームは1つのみです。
+     * @param maxRooms ルームの数の上限
+     * @throws IllegalArgumentException ルームの数が1未満の場合
+     */
+    public void setMaxRooms(int maxRooms){
+        if(maxRooms<1){
+            throw new IllegalArgumentException("invalid max rooms: "+maxRooms);
+        }
+        this.maxRooms = maxRooms;
+    }
+
+    /**
+     * 同時に開設できるルームの数を取得します。
+     * @return ルームの数の上限
+     */
+    public int getMaxRooms(){
+        return maxRooms;
+    }
+
+    /**
+     * 開設中のルームの数を取得します。
+     * @return ルームの数
+     */
+    public int getRoomCount(){
+        synchronized(rooms){
+            return rooms.size();
+        }
+    }
+
+    /**
+     * 接続中のメンバの数を取得します。
+     * @return メンバの数
+     */
+    public int getMemberCount(){
+        return members.size();
+    }
+
+    /**
+     * 麻雀ルームサーバ内の1卓分のルーム。
+     * <p>最大4人のメンバが所属し, メンバの要求によって対局を開始します。
+     */
+    private class GameRoom{
+        private final String roomId;
+        private final Map<String, RoomMember> members = new ConcurrentHashMap<>();
+        private boolean playing;
+
+        private GameRoom(String roomId){
+            this.roomId = roomId;
+        }
+
+        private boolean isOpen(){
+            return !playing && members.size()<4;
+        }
+    }
+
     /**
      * 麻雀ルームサーバに接続したメンバ。
      */
     private class RoomMember implements Room{
+        private final GameRoom room;
+        private final MessageConnection connection;
         private final RoomObserver observer;
         private String name;
         private boolean ready;
-        private RoomMember(MessageConnection connection){
+        private RoomMember(GameRoom room, MessageConnection connection){
+            this.room = room;
+            this.connection = connection;
             connection.addListener(RemoteConnections.newDispatcher(this, connection, converter));
             observer = RemoteConnections.newProxy(RoomObserver.class, connection, converter);
         }
@@ -49,21 +167,21 @@ public class RoomServer extends BioMessageServer implements MessageServerListene
 
         @Override
         public void notifyName(String name){
-            LOG.info("new name notified: {} -> {}", this.name, name);
+            LOG.info("new name notified: {} -> {} in room {}", this.name, name, room.roomId);
             this.name = name;
-            updated();
+            updated(room);
         }
 
         @Override
         public void notifyReady(boolean ready){
             LOG.info(" ready notified: {} ready={}", name, ready);
             this.ready = ready;
-            updated();
+            updated(room);
         }
 
         @Override
         public void start(){
-            RoomServer.this.start();
+            RoomServer.this.start(room);
         }
 
         public RoomMemberData getData(){
@@ -76,53 +194,116 @@ public class RoomServer extends BioMessageServer implements MessageServerListene
 
     /**
      * メンバからゲーム開始要求を受け取った際の処理。
-     * <p>接続した全メンバにゲーム開始を通知し, 新規スレッドでゲームを開始します。
+     * <p>ルームの全メンバにゲーム開始を通知し, {@link TableHost}でゲームを開始します。
+     * ゲームが終了するまで, ルームには新たなメンバは割り当てられません。
+     * <p>接続メンバへの通知は{@link BatchingTableStrategy}でまとめて送信されます。
+     * 送信は{@link QueuedTableStrategy}によりゲームのスレッドとは別に行われます。
+     * 送信が滞り待ち行列が溢れたメンバは接続を切断され, 以降の行動選択では既定の行動が選択されます。
      * <p>接続メンバが4人に満たない場合はNPCを数合わせとして追加してゲームを開始します。
+     * NPCの意思決定はゲームのスレッドではなく{@link BotExecutionService}で実行されます。
+     * @param room ゲームを開始するルーム
      */
-    private void start(){
-        if(members.values().stream().allMatch(member->member.ready)){
-            members.values().forEach(member->member.observer.gameStarted());
-            var executor = Executors.newSingleThreadExecutor();
-            executor.submit(()->{
-                try{
-                    var table = new GameTable();
-                    var players = members.values().stream().toList();
-                    for(var player: players){
-                        table.addPlayer(player.name, player.getObserver());
-                    }
-                    for(int i = 1; i<=(4 - players.size()); i++){
-                        table.addPlayer("bot" + i, TableStrategyBots.newReadyBot());
-                    }
-                    table.start();
-                }catch(Exception e){
-                    LOG.error("exception caught while playing online game", e);
-                }
+    private void start(GameRoom room){
+        List<RoomMember> players;
+        synchronized(rooms){
+            if(room.playing || !room.members.values().stream().allMatch(member->member.ready)){
+                return;
+            }
+            room.playing = true;
+            players = room.members.values().stream().toList();
+        }
+        players.forEach(member->member.observer.gameStarted());
+        var tableId = "T" + TABLE_SEQUENCE.incrementAndGet();
+        LOG.info("room {} starting table {}", room.roomId, tableId);
+        var table = new GameTable();
+        table.setDecisionTimeout(decisionTimeoutMillis, TimeUnit.MILLISECONDS);
+        table.setJournalDirectory(journalDirectory);
+        var queuedPlayers = new ArrayList<QueuedTableStrategy>(players.size());
+        for(var player: players){
+            var batching = new BatchingTableStrategy(player.getObserver());
+            var queued = new QueuedTableStrategy(batching,
+                    OBSERVER_QUEUE_CAPACITY, QueuedTableStrategy.OverflowPolicy.DISCONNECT);
+            queued.setDisconnectHandler(()->{
+                LOG.warn("member {} disconnected from table {}: notification queue overflowed", player.name, tableId);
+                player.connection.close();
+            });
+            queuedPlayers.add(queued);
+            table.addPlayer(player.name, queued);
+        }
+        for(int i = 1; i<=(4 - players.size()); i++){
+            table.addPlayer("bot" + i, botService.schedule(tableId, TableStrategyBots.newReadyBot()));
+        }
+        try{
+            tableHost.submit(tableId, table).whenComplete((result, e)->{
+                LOG.info("table {} closed: decision timeouts={}, dropped notifications={}", tableId, table.getTimeoutCounts(),
+                        queuedPlayers.stream().map(QueuedTableStrategy::getDroppedCount).toList());
+                botService.closeTable(tableId);
+                gameFinished(room);
             });
-            executor.shutdown();
+        }catch(RejectedExecutionException e){
+            LOG.error("online game rejected: "+tableHost, e);
+            botService.closeTable(tableId);
+            gameFinished(room);
+        }
+    }
+
+    private void gameFinished(GameRoom room){
+        synchronized(rooms){
+            room.playing = false;
+            if(room.members.isEmpty()){
+                rooms.remove(room);
+            }
         }
     }
 
     /**
      * メンバが接続, 名前通知, 準備完了状態変更した際に実行される情報更新処理。
-     * <p>接続した全メンバに変更を通知します。
+     * <p>ルームの全メンバに変更を通知します。
+     * @param room 変更のあったルーム
      */
-    private void updated(){
-        var memberList = members.values().stream().map(RoomMember::getData).toList();
-        members.values().forEach(member->member.getObserver().roomUpdated(memberList));
+    private void updated(GameRoom room){
+        //名前を通知していないメンバは一覧に含めない
+        var memberList = room.members.values().stream()
+                .filter(member->member.name!=null).map(RoomMember::getData).toList();
+        room.members.values().forEach(member->member.getObserver().roomUpdated(memberList));
     }
 
     @Override
     public void userConnected(String userId, MessageConnection connection){
-        if(members.size()<4){
-            members.put(userId, new RoomMember(connection));
-        }else{
+        GameRoom room;
+        synchronized(rooms){
+            room = rooms.stream().filter(GameRoom::isOpen).findFirst().orElse(null);
+            if(room==null && rooms.size()<maxRooms){
+                room = new GameRoom("R" + ROOM_SEQUENCE.incrementAndGet());
+                rooms.add(room);
+                LOG.info("room {} opened", room.roomId);
+            }
+            if(room!=null){
+                var member = new RoomMember(room, connection);
+                room.members.put(userId, member);
+                members.put(userId, member);
+            }
+        }
+        if(room==null){
+            LOG.info("user {} rejected: all {} rooms are occupied", userId, maxRooms);
             connection.close();
         }
     }
 
     @Override
     public void userDisconnected(String userId){
-        members.remove(userId);
-        updated();
+        var member = members.remove(userId);
+        if(member==null){
+            return;
+        }
+        var room = member.room;
+        synchronized(rooms){
+            room.members.remove(userId);
+            if(room.members.isEmpty() && !room.playing){
+                rooms.remove(room);
+                LOG.info("room {} closed", room.roomId);
+            }
+        }
+        updated(room);
     }
 }
@@ -261,4 +261,154 @@ final class HandTileMetrics{
                 .filter(tile->!exhaustedTiles.contains(tile))
                 .collect(toSet());
     }
+
+    /**
+     * 牌の種類ごとの枚数から面子手, 七対子形及び国士無双形のうち最小の向聴数を計算します。
+     *
+     * <p>牌の種類は{@link Tile#tileNumber}で区別し, 赤ドラ牌は区別しません。
+     * 枚数の配列は計算中に変更されますが, 計算後には元の状態に戻されます。
+     * @param tileCounts 牌の種類ごとの枚数(長さ34)
+     * @param tileCount 牌の総数(3n+1または3n+2(n=0..4))
+     * @return 向聴数(聴牌形の場合0, 和了形の場合-1)
+     */
+    static int minimumSwapToReady(int[] tileCounts, int tileCount){
+        int swap = minimumSwapToMeldHandReady(tileCounts, tileCount);
+        if (tileCount<13) return swap;
+        int kinds = 0;
+        int pairs = 0;
+        int orphanKinds = 0;
+        boolean orphanPair = false;
+        for (int i = 0; i<tileCounts.length; i++){
+            if (tileCounts[i]==0) continue;
+            kinds++;
+            if (tileCounts[i]>=2) pairs++;
+            if (i>=27 || i%9==0 || i%9==8){
+                orphanKinds++;
+                if (tileCounts[i]>=2) orphanPair = true;
+            }
+        }
+        int sevenPairsSwap = 6 - pairs + Math.max(0, 7 - kinds);
+        int thirteenOrphansSwap = 13 - orphanKinds - (orphanPair? 1:0);
+        return Math.min(swap, Math.min(sevenPairsSwap, thirteenOrphansSwap));
+    }
+
+    /**
+     * 牌の種類ごとの枚数から面子手の向聴数を計算します。
+     *
+     * <p>萬子, 筒子, 索子及び字牌ごとに取りうる面子数, 塔子数及び雀頭の有無の
+     * 組み合わせを探索した後, それらを合成して求めます。
+     * 枚数の配列は計算中に変更されますが, 計算後には元の状態に戻されます。
+     * @param tileCounts 牌の種類ごとの枚数(長さ34)
+     * @param tileCount 牌の総数(3n+1または3n+2(n=0..4))
+     * @return 向聴数(聴牌形の場合0, 和了形の場合-1)
+     */
+    static int minimumSwapToMeldHandReady(int[] tileCounts, int tileCount){
+        int openMelds = 4 - tileCount/3;
+        var table = blockTableOf(tileCounts, 0, 9, true);
+        table = mergeBlockTables(table, blockTableOf(tileCounts, 9, 18, true));
+        table = mergeBlockTables(table, blockTableOf(tileCounts, 18, 27, true));
+        table = mergeBlockTables(table, blockTableOf(tileCounts, 27, 34, false));
+        int swap = Integer.MAX_VALUE;
+        for (int head = 0; head<=1; head++){
+            for (int melds = 0; melds + openMelds<=4; melds++){
+                int partials = table[head*5 + melds];
+                if (partials<0) continue;
+                swap = Math.min(swap, minimumSwapToReady(melds + openMelds, partials, head==1));
+            }
+        }
+        return swap;
+    }
+
+    /**
+     * 面子数, 塔子数及び雀頭の有無から面子手の向聴数を計算します。
+     *
+     * <p>面子と塔子は合わせて4つまでが数えられ, 5つ目以降の塔子は向聴数を下げません。
+     * @param meldCount 面子の数(副露面子を含む, 0..4)
+     * @param partialCount 雀頭以外の対子及び塔子の数
+     * @param head 雀頭があるかどうか
+     * @return 向聴数(聴牌形の場合0, 和了形の場合-1)
+     */
+    static int minimumSwapToReady(int meldCount, int partialCount, boolean head){
+        return 8 - meldCount*2 - Math.min(partialCount, 4 - meldCount) - (head? 1:0);
+    }
+
+    /**
+     * 指定された範囲の牌から構成可能な面子数と雀頭の有無ごとの最大の塔子数の表を作成します。
+     *
+     * <p>表の{@code 雀頭の有無*5 + 面子数}番目の要素が塔子数(0..4)を表し,
+     * 構成できない組み合わせは-1で表します。
+     */
+    private static int[] blockTableOf(int[] counts, int from, int to, boolean suit){
+        var table = new int[10];
+        Arrays.fill(table, -1);
+        searchBlocks(counts, from, to, suit, 0, 0, 0, table);
+        return table;
+    }
+
+    private static void searchBlocks(int[] counts, int index, int to, boolean suit, int melds, int partials, int head, int[] table){
+        while (index<to && counts[index]==0) index++;
+        if (index==to){
+            int i = head*5 + melds;
+            table[i] = Math.max(table[i], partials);
+            return;
+        }
+        int number = index%9;
+        if (melds<4){
+            if (counts[index]>=3){
+                counts[index] -= 3;
+                searchBlocks(counts, index, to, suit, melds + 1, Math.min(partials, 3 - melds), head, table);
+                counts[index] += 3;
+            }
+            if (suit && number<=6 && counts[index + 1]>0 && counts[index + 2]>0){
+                counts[index]--; counts[index + 1]--; counts[index + 2]--;
+                searchBlocks(counts, index, to, suit, melds + 1, Math.min(partials, 3 - melds), head, table);
+                counts[index]++; counts[index + 1]++; counts[index + 2]++;
+            }
+        }
+        if (head==0 && counts[index]>=2){
+            counts[index] -= 2;
+            searchBlocks(counts, index, to, suit, melds, partials, 1, table);
+            counts[index] += 2;
+        }
+        //5つ以上の面子及び塔子は向聴数を下げないため探索しない
+        if (melds + partials<4){
+            if (counts[index]>=2){
+                counts[index] -= 2;
+                searchBlocks(counts, index, to, suit, melds, partials + 1, head, table);
+                counts[index] += 2;
+            }
+            if (suit && number<=7 && counts[index + 1]>0){
+                counts[index]--; counts[index + 1]--;
+                searchBlocks(counts, index, to, suit, melds, partials + 1, head, table);
+                counts[index]++; counts[index + 1]++;
+            }
+            if (suit && number<=6 && counts[index + 2]>0){
+                counts[index]--; counts[index + 2]--;
+                searchBlocks(counts, index, to, suit, melds, partials + 1, head, table);
+                counts[index]++; counts[index + 2]++;
+            }
+        }
+        //残りの同種牌を孤立牌として扱う
+        int rest = counts[index];
+        counts[index] = 0;
+        searchBlocks(counts, index + 1, to, suit, melds, partials, head, table);
+        counts[index] = rest;
+    }
+
+    private static int[] mergeBlockTables(int[] left, int[] right){
+        var table = new int[10];
+        Arrays.fill(table, -1);
+        for (int i = 0; i<10; i++){
+            if (left[i]<0) continue;
+            for (int j = 0; j<10; j++){
+                if (right[j]<0) continue;
+                int head = i/5 + j/5;
+                int melds = i%5 + j%5;
+                if (head>1 || melds>4) continue;
+                int k = head*5 + melds;
+                table[k] = Math.max(table[k], Math.min(left[i] + right[j], 4 - melds));
+            }
+        }
+        return table;
+    }
 }
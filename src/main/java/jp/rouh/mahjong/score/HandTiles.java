@@ -220,6 +220,101 @@ public final class HandTiles{
         return Set.of(nonPairTiles.get(0));
     }
 
+    /**
+     * 手牌の聴牌までに必要な牌の交換回数(向聴数)を取得します。
+     *
+     * <p>面子手, 七対子形及び国士無双形のうち最小の向聴数を返します。
+     * 手牌の長さが3n+2の場合, 和了形であれば-1を返します。
+     * <p>手牌中で4枚全て使われている牌を待つ形も聴牌形として数えるため,
+     * 結果が0であっても{@link #isHandReady}が真であるとは限りません。
+     * 一方で結果が1以上であれば聴牌でないことが保証されるため,
+     * 聴牌判定の事前検査として利用できます。
+     * <pre>
+     *     [1 2 3 4 5 6 7 8 9 1 2 3 E] ... {@code List<Tile>}
+     *     +-> 0                       ... {@code int}
+     * </pre>
+     * @param handTiles 手牌(長さ3n+1または3n+2(n=0..4))
+     * @return 向聴数
+     * @throws IllegalArgumentException 手牌の長さが不正の場合
+     */
+    public static int minimumSwapToReady(List<Tile> handTiles){
+        var tileCounts = new int[34];
+        for (var tile:handTiles){
+            tileCounts[tile.tileNumber()]++;
+        }
+        return minimumSwapToReady(tileCounts);
+    }
+
+    /**
+     * 牌の種類ごとの枚数で表された手牌の聴牌までに必要な牌の交換回数(向聴数)を取得します。
+     *
+     * <p>牌の種類は{@link Tile#tileNumber}で区別します。
+     * 結果の意味は{@link #minimumSwapToReady(List)}と同じです。
+     * 与えられた配列は変更されません。
+     * @param tileCounts 牌の種類ごとの枚数(長さ34)
+     * @return 向聴数
+     * @throws IllegalArgumentException 配列の長さもしくは牌の総数が不正の場合
+     */
+    public static int minimumSwapToReady(int[] tileCounts){
+        return HandTileMetrics.minimumSwapToReady(tileCounts, tileCountOf(tileCounts));
+    }
+
+    /**
+     * 手牌の面子手としての聴牌までに必要な牌の交換回数(向聴数)を取得します。
+     *
+     * <p>{@link #minimumSwapToReady(List)}と異なり, 七対子形及び国士無双形は考慮しません。
+     * 手牌の長さが3n+2の場合, 面子手の和了形であれば-1を返します。
+     * @param handTiles 手牌(長さ3n+1または3n+2(n=0..4))
+     * @return 向聴数
+     * @throws IllegalArgumentException 手牌の長さが不正の場合
+     */
+    public static int minimumSwapToMeldHandReady(List<Tile> handTiles){
+        var tileCounts = new int[34];
+        for (var tile:handTiles){
+            tileCounts[tile.tileNumber()]++;
+        }
+        return HandTileMetrics.minimumSwapToMeldHandReady(tileCounts, tileCountOf(tileCounts));
+    }
+
+    /**
+     * 面子数, 塔子数及び雀頭の有無から面子手の聴牌までに必要な牌の交換回数(向聴数)を取得します。
+     *
+     * <p>手牌を面子/塔子/雀頭/孤立牌に分解した結果を評価する際に用います。
+     * 雀頭として数えない対子は塔子に含めます。面子と塔子は合わせて4つまでが数えられます。
+     * <pre>
+     *     [123][55][67][9][E] ... 面子1, 塔子1, 雀頭あり
+     *     +-> 2               ... {@code int}
+     * </pre>
+     * @param meldCount 面子の数(副露面子を含む, 0..4)
+     * @param partialCount 雀頭以外の対子及び塔子の数
+     * @param head 雀頭があるかどうか
+     * @return 向聴数
+     * @throws IllegalArgumentException 面子の数もしくは塔子の数が不正の場合
+     */
+    public static int minimumSwapToReady(int meldCount, int partialCount, boolean head){
+        if (meldCount<0 || meldCount>4 || partialCount<0){
+            throw new IllegalArgumentException("illegal pattern: meld="+meldCount+" partial="+partialCount);
+        }
+        return HandTileMetrics.minimumSwapToReady(meldCount, partialCount, head);
+    }
+
+    private static int tileCountOf(int[] tileCounts){
+        if (tileCounts.length!=34){
+            throw new IllegalArgumentException("illegal length of tile counts: "+tileCounts.length);
+        }
+        int tileCount = 0;
+        for (int count:tileCounts){
+            if (count<0 || count>4){
+                throw new IllegalArgumentException("illegal count of tiles: "+Arrays.toString(tileCounts));
+            }
+            tileCount += count;
+        }
+        if (tileCount==0 || tileCount%3==0 || tileCount>14){
+            throw new IllegalArgumentException("illegal size of hand tiles: "+tileCount);
+        }
+        return tileCount;
+    }
+
     /**
      * 手牌と自摸牌から立直宣言可能牌のセットを取得します。
      *
@@ -501,7 +596,7 @@ public final class HandTiles{
      * </pre>
      * @param handTiles 手牌(自摸牌を含まない、長さ3n+1(n=0..4))
      * @param discardedTile 打牌
-     * @return ポン構成牌のセット
+     * @return ポン構成牌のセット(牌の順に整列)
      * @throws IllegalArgumentException 手牌の長さが不正の場合
      */
     public static Set<List<Tile>> ponBasesOf(List<Tile> handTiles, Tile discardedTile){
@@ -512,7 +607,7 @@ public final class HandTiles{
                 .toList();
         if(targetTiles.size()<2) return emptySet();
         if(targetTiles.size()==2) return Set.of(targetTiles);
-        return Set.copyOf(Lists.combinationsOf(targetTiles, 2));
+        return sortedBasesOf(Lists.combinationsOf(targetTiles, 2));
     }
 
     /**
@@ -542,17 +637,29 @@ public final class HandTiles{
      * </pre>
      * @param handTiles 手牌(自摸牌を含まない、長さ3n+1(n=0..4))
      * @param discardedTile 打牌
-     * @return チー構成牌のセット
+     * @return チー構成牌のセット(牌の順に整列)
      * @throws IllegalArgumentException 手牌の長さが不正の場合
      */
     public static Set<List<Tile>> chiBasesOf(List<Tile> handTiles, Tile discardedTile){
         requireValidSize(handTiles);
-        return chiBasesOf(discardedTile).stream()
+        return sortedBasesOf(chiBasesOf(discardedTile).stream()
                 .flatMap(base->colorBasesOf(base).stream())
                 .filter(base->Lists.containsEach(handTiles, base))
                 .filter(base->!waitingTargetsOf(base) //全手牌喰い替え牌の事前防止
                         .containsAll(Lists.removedEach(handTiles, base)))
-                .collect(toSet());
+                .toList());
+    }
+
+    /**
+     * 構成牌を牌の順に整列したセットを返します。
+     * <p>ハッシュ値に依存しない順序で返すことで, 選択肢の並びを実行ごとに一定にします。
+     * @param bases 構成牌のコレクション
+     * @return 整列済みの変更不可能なセット
+     */
+    private static Set<List<Tile>> sortedBasesOf(Collection<List<Tile>> bases){
+        var sortedBases = new TreeSet<>(meldComparator());
+        sortedBases.addAll(bases);
+        return Collections.unmodifiableSet(sortedBases);
     }
 
 
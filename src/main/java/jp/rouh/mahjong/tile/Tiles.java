@@ -31,6 +31,22 @@ public final class Tiles{
         throw new AssertionError("instantiate utility class");
     }
 
+    /**
+     * シャッフルしていない136枚の牌セットの可変のリストを取得します。
+     * <p>牌は常に同じ順序で格納されます。
+     * 各牌4枚のうち, 赤ドラ牌を持つ牌は1枚が赤ドラ牌となります。
+     *
+     * @return 牌のリスト
+     */
+    public static List<Tile> newTileSet(){
+        var tiles = new ArrayList<Tile>(136);
+        tiles.addAll(FULL_SEQUENCE);
+        tiles.addAll(FULL_SEQUENCE);
+        tiles.addAll(FULL_SEQUENCE);
+        tiles.addAll(FULL_RED_SEQUENCE);
+        return tiles;
+    }
+
     /**
      * 136枚の牌セットをシャッフルした可変のリストを取得します。
      *
@@ -50,11 +66,7 @@ public final class Tiles{
         try{
             var random = SecureRandom.getInstance("SHA1PRNG");
             random.setSeed(seed);
-            var tiles = new ArrayList<Tile>();
-            tiles.addAll(FULL_SEQUENCE);
-            tiles.addAll(FULL_SEQUENCE);
-            tiles.addAll(FULL_SEQUENCE);
-            tiles.addAll(FULL_RED_SEQUENCE);
+            var tiles = newTileSet();
             Collections.shuffle(tiles, random);
             return tiles;
         }catch(NoSuchAlgorithmException e){
@@ -0,0 +1,83 @@
+package jp.rouh.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * スレッド関連のユーティリティクラス。
+ * <p>このプロジェクトはJava17を対象としてコンパイルされるため,
+ * 仮想スレッドは実行環境で利用可能な場合にのみリフレクションを介して利用されます。
+ * @author Rouh
+ * @version 1.0
+ */
+public final class Threads{
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    private Threads(){
+        throw new AssertionError("instantiate utility class");
+    }
+
+    private static MethodHandle findVirtualThreadPerTaskExecutor(){
+        try{
+            return MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        }catch(NoSuchMethodException | IllegalAccessException e){
+            return null;
+        }
+    }
+
+    /**
+     * タスクごとに仮想スレッドを開始する実行サービスを生成します。
+     * <p>実行環境で仮想スレッドが利用できない場合は, 代替の実行サービスを生成します。
+     * @param fallback 代替の実行サービスの供給関数
+     * @return 実行サービス
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutorOr(Supplier<? extends ExecutorService> fallback){
+        if(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR!=null){
+            try{
+                return (ExecutorService)NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+            }catch(Throwable e){
+                //プレビュー機能が無効な実行環境など
+            }
+        }
+        return fallback.get();
+    }
+
+    /**
+     * 仮想スレッドが利用可能か検査します。
+     * @return true  仮想スレッドが利用可能な場合
+     *         false 仮想スレッドが利用できない場合
+     */
+    public static boolean isVirtualThreadAvailable(){
+        if(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR==null){
+            return false;
+        }
+        try{
+            ((ExecutorService)NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke()).shutdown();
+            return true;
+        }catch(Throwable e){
+            return false;
+        }
+    }
+
+    /**
+     * デーモンスレッドを生成するスレッドファクトリを生成します。
+     * <p>スレッド名は接頭辞と通し番号から{@code prefix-1}の形式で付与されます。
+     * @param prefix スレッド名の接頭辞
+     * @return スレッドファクトリ
+     */
+    public static ThreadFactory newDaemonThreadFactory(String prefix){
+        var sequence = new AtomicInteger();
+        return task->{
+            var thread = new Thread(task, prefix+"-"+sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
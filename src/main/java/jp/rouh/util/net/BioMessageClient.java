@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
@@ -13,13 +14,19 @@ import java.util.concurrent.Executors;
 /**
  * ブロッキングIOによるメッセージ通信クライアント。
  * このクラスはメッセージ通信{@link MessageConnection}の実装です。
+ * <p>{@link MessageFraming#LENGTH_PREFIXED}を指定した場合は接続時にハンドシェイクを行います。
+ * この形式は{@link NioMessageServer}への接続でのみ利用できます。
  * @author Rouh
  * @version 1.0
  */
 public class BioMessageClient implements MessageConnection{
     private static final Logger LOG = LoggerFactory.getLogger(BioMessageClient.class);
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
     private final ExecutorService messageListeningThread = Executors.newSingleThreadExecutor();
     private final Queue<MessageListener> listeners = new ConcurrentLinkedQueue<>();
+    private final MessageFraming framing;
+    private final InputStream input;
+    private final OutputStream output;
     private final BufferedReader messageReader;
     private final PrintWriter messageWriter;
     private final Socket socket;
@@ -27,19 +34,43 @@ public class BioMessageClient implements MessageConnection{
 
     /**
      * 新規にサーバへの接続を確立します。
+     * <p>メッセージは改行で区切られたテキストとして送受信されます。
      * @param host ホスト名
      * @param port ポート番号
      * @throws IOException 接続に失敗した場合
      */
     public BioMessageClient(String host, int port) throws IOException{
+        this(host, port, MessageFraming.TEXT);
+    }
+
+    /**
+     * 新規にサーバへの接続を確立します。
+     * @param host ホスト名
+     * @param port ポート番号
+     * @param framing メッセージの区切り方
+     * @throws IOException 接続に失敗した場合, またはサーバが指定された形式に対応していない場合
+     */
+    public BioMessageClient(String host, int port, MessageFraming framing) throws IOException{
+        this.framing = framing;
         this.socket = new Socket(host, port);
-        this.messageReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        this.messageWriter = new PrintWriter(socket.getOutputStream());
+        this.input = new BufferedInputStream(socket.getInputStream());
+        this.output = new BufferedOutputStream(socket.getOutputStream());
+        this.messageReader = new BufferedReader(new InputStreamReader(input, MessageFrames.TEXT_CHARSET));
+        this.messageWriter = new PrintWriter(new OutputStreamWriter(output, MessageFrames.TEXT_CHARSET));
+        if(framing==MessageFraming.LENGTH_PREFIXED){
+            try{
+                handshake();
+            }catch(IOException e){
+                socket.close();
+                throw e;
+            }
+        }
         messageListeningThread.submit(()->{
             try{
-                while(!socket.isClosed()){
-                    var message = messageReader.readLine();
-                    received(message);
+                if(framing==MessageFraming.TEXT){
+                    listenLines();
+                }else{
+                    listenFrames();
                 }
             }catch(IOException e){
                 LOG.warn("IOException caught while listening message from client " + e.getMessage());
@@ -56,6 +87,44 @@ public class BioMessageClient implements MessageConnection{
         messageListeningThread.shutdown();
     }
 
+    private void handshake() throws IOException{
+        var handshake = MessageFrames.handshake();
+        var bytes = new byte[handshake.remaining()];
+        handshake.get(bytes);
+        output.write(bytes);
+        output.flush();
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        var reply = input.readNBytes(MessageFrames.HANDSHAKE_LENGTH);
+        socket.setSoTimeout(0);
+        if(reply.length<MessageFrames.HANDSHAKE_LENGTH || !MessageFrames.readHandshake(ByteBuffer.wrap(reply))){
+            throw new IOException("length-prefixed framing is not supported by server");
+        }
+    }
+
+    private void listenLines() throws IOException{
+        while(!socket.isClosed()){
+            var message = messageReader.readLine();
+            received(message);
+        }
+    }
+
+    private void listenFrames() throws IOException{
+        var payload = new byte[256];
+        while(!socket.isClosed()){
+            int length = MessageFrames.readLength(input);
+            if(length<0){
+                return;
+            }
+            if(payload.length<length){
+                payload = new byte[Math.max(length, payload.length*2)];
+            }
+            if(input.readNBytes(payload, 0, length)<length){
+                throw new EOFException("stream ended in frame");
+            }
+            received(new String(payload, 0, length, MessageFrames.FRAMED_CHARSET));
+        }
+    }
+
     private void received(String message){
         LOG.info("received from server message="+message);
         listeners.forEach(listener->listener.received(message));
@@ -70,8 +139,20 @@ public class BioMessageClient implements MessageConnection{
     public void send(String message){
         LOG.info("send to server message=" + message);
         if(!socket.isClosed()){
-            messageWriter.println(message);
-            messageWriter.flush();
+            if(framing==MessageFraming.TEXT){
+                messageWriter.println(message);
+                messageWriter.flush();
+            }else{
+                var frame = MessageFrames.encode(message, framing);
+                synchronized(output){
+                    try{
+                        output.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+                        output.flush();
+                    }catch(IOException e){
+                        LOG.warn("IOException caught while sending message: " + e.getMessage());
+                    }
+                }
+            }
         }else{
             LOG.warn("failed to send message: already closed message="+message);
         }
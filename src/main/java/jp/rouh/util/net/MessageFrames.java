@@ -0,0 +1,138 @@
+package jp.rouh.util.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link MessageFraming}に従ったメッセージの符号化のためのユーティリティクラス。
+ * <p>長さ接頭辞付きの形式では, メッセージをUTF-8のバイト列とし,
+ * その長さを下位7ビットずつ継続ビット付きで並べた可変長整数を前置します。
+ * <p>長さ接頭辞付きの形式を用いるクライアントは接続直後に{@link #HANDSHAKE}を送信し,
+ * サーバは同じバイト列を返信して形式を確定させます。
+ * ハンドシェイクは改行で終わるため, テキスト形式のサーバでは1行の不正なメッセージとして扱われます。
+ * @author Rouh
+ * @version 1.0
+ */
+final class MessageFrames{
+    /** テキスト形式の文字セット */
+    static final Charset TEXT_CHARSET = Charset.defaultCharset();
+    /** 長さ接頭辞付き形式の文字セット */
+    static final Charset FRAMED_CHARSET = StandardCharsets.UTF_8;
+    /** メッセージのバイト数の上限 */
+    static final int MAX_MESSAGE_BYTES = 16*1024*1024;
+    private static final byte[] HANDSHAKE_BYTES = {0, 'R', 'M', 'F', '1', '\n'};
+    /** 長さ接頭辞付き形式のハンドシェイクのバイト数 */
+    static final int HANDSHAKE_LENGTH = HANDSHAKE_BYTES.length;
+
+    private MessageFrames(){
+        throw new AssertionError("instantiate utility class");
+    }
+
+    /**
+     * 長さ接頭辞付き形式のハンドシェイクを取得します。
+     * @return ハンドシェイクのバイト列を読み込み可能なバッファ
+     */
+    static ByteBuffer handshake(){
+        return ByteBuffer.wrap(HANDSHAKE_BYTES).asReadOnlyBuffer();
+    }
+
+    /**
+     * ハンドシェイクの最初のバイトであるかどうか検査します。
+     * <p>テキスト形式のメッセージはこのバイトから始まることはありません。
+     * @param b 受信した最初のバイト
+     * @return true  ハンドシェイクの開始である場合
+     *         false テキスト形式の受信である場合
+     */
+    static boolean isHandshakeStart(byte b){
+        return b==HANDSHAKE_BYTES[0];
+    }
+
+    /**
+     * バッファから読み出したバイト列がハンドシェイクと一致するか検査します。
+     * <p>バッファの位置はハンドシェイクのバイト数だけ進みます。
+     * @param buffer {@link #HANDSHAKE_LENGTH}以上のバイトを読み出し可能なバッファ
+     * @return true  一致する場合
+     *         false 一致しない場合
+     */
+    static boolean readHandshake(ByteBuffer buffer){
+        boolean matched = true;
+        for(var b:HANDSHAKE_BYTES){
+            matched &= buffer.get()==b;
+        }
+        return matched;
+    }
+
+    /**
+     * メッセージを符号化します。
+     * @param message メッセージ
+     * @param framing 形式
+     * @return 符号化したバイト列を読み込み可能なバッファ
+     */
+    static ByteBuffer encode(String message, MessageFraming framing){
+        if(framing==MessageFraming.TEXT){
+            return ByteBuffer.wrap((message + "\n").getBytes(TEXT_CHARSET));
+        }
+        var payload = message.getBytes(FRAMED_CHARSET);
+        var buffer = ByteBuffer.allocate(varintSize(payload.length) + payload.length);
+        putVarint(buffer, payload.length);
+        buffer.put(payload);
+        return buffer.flip();
+    }
+
+    private static int varintSize(int value){
+        int size = 1;
+        while((value >>>= 7)!=0){
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value){
+        while((value & ~0x7F)!=0){
+            buffer.put((byte)(value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    /**
+     * 入力ストリームから可変長整数で表されたメッセージのバイト数を読み込みます。
+     * @param in 入力ストリーム
+     * @return バイト数, ストリームの終端に達している場合は-1
+     * @throws IOException 読み込みに失敗した場合, またはバイト数が不正な場合
+     */
+    static int readLength(InputStream in) throws IOException{
+        int value = 0;
+        for(int shift = 0; shift<35; shift += 7){
+            int b = in.read();
+            if(b<0){
+                if(shift==0){
+                    return -1;
+                }
+                throw new EOFException("stream ended in frame length");
+            }
+            value |= (b & 0x7F)<<shift;
+            if((b & 0x80)==0){
+                return checkLength(value);
+            }
+        }
+        throw new IOException("invalid frame length");
+    }
+
+    /**
+     * メッセージのバイト数が上限以内であるか検査します。
+     * @param length バイト数
+     * @return バイト数
+     * @throws IOException バイト数が範囲外の場合
+     */
+    static int checkLength(int length) throws IOException{
+        if(length<0 || length>MAX_MESSAGE_BYTES){
+            throw new IOException("invalid frame length: "+length);
+        }
+        return length;
+    }
+}
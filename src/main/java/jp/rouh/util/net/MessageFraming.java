@@ -0,0 +1,22 @@
+package jp.rouh.util.net;
+
+/**
+ * メッセージ通信の伝送路上でのメッセージの区切り方。
+ * @author Rouh
+ * @version 1.0
+ */
+public enum MessageFraming{
+
+    /**
+     * メッセージを既定の文字セットのテキストとして改行で区切ります。
+     * <p>メッセージは改行を含むことができません。
+     */
+    TEXT,
+
+    /**
+     * メッセージをUTF-8のバイト列とし, 可変長整数で表したバイト数を前置します。
+     * <p>メッセージの内容を走査せずに区切ることができ, メッセージは改行を含むこともできます。
+     * 接続直後にクライアントとサーバでハンドシェイクを行い, この形式を用いることを取り決めます。
+     */
+    LENGTH_PREFIXED
+}
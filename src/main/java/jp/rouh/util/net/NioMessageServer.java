@@ -0,0 +1,599 @@
+package jp.rouh.util.net;
+
+import jp.rouh.util.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ノンブロッキングIOによるメッセージ通信サーバ。
+ * <p>このクラスはメッセージ通信サーバ{@link MessageServer}の実装です。
+ * 接続ごとに, クライアントが最初に送信したバイト列から{@link MessageFraming}を判別します。
+ * 長さ接頭辞付きのハンドシェイクを受信した場合はハンドシェイクを返信して長さ接頭辞付きの形式で,
+ * それ以外の場合は{@link BioMessageServer}と同じ改行区切りのテキスト形式で送受信します。
+ * 形式が確定するまでの送信は保留され, クライアントが一定時間何も送信しない場合はテキスト形式とみなします。
+ * <p>接続ごとにスレッドを割り当てる{@link BioMessageServer}と異なり,
+ * 接続は少数のIOスレッドの{@link Selector}に振り分けられ, 読み書きは接続ごとのバッファで行われます。
+ * 受信したメッセージは共有の配信スレッドでリスナに通知されます。
+ * 同じ接続のメッセージは受信順に1つずつ通知され, 切断の通知は受信済みのメッセージの後に行われます。
+ * メッセージを受信していない接続はスレッドを占有しません。
+ * <p>送信は呼び出し元のスレッドで可能な限り書き込み, 書き込めなかった残りを
+ * IOスレッドが書き込み可能になり次第送信します。
+ * 送信待ちのバイト数が上限を超えた接続は, 受信が滞っているものとして切断されます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class NioMessageServer implements MessageServer{
+    private static final Logger LOG = LoggerFactory.getLogger(NioMessageServer.class);
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final long NEGOTIATION_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long NEGOTIATION_CHECK_MILLIS = 100;
+    private static final int DEFAULT_MAX_PENDING_BYTES = 64*1024*1024;
+    private final Queue<MessageServerListener> listeners = new ConcurrentLinkedQueue<>();
+    private final Queue<NioMessageChannel> users = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final IoLoop[] loops;
+    private final ThreadFactory ioThreadFactory = Threads.newDaemonThreadFactory("nio-io");
+    private final ExecutorService acceptingThread = Executors.newSingleThreadExecutor(Threads.newDaemonThreadFactory("nio-accept"));
+    private final ExecutorService dispatchExecutor = Threads.newVirtualThreadPerTaskExecutorOr(
+            ()->Executors.newCachedThreadPool(Threads.newDaemonThreadFactory("nio-dispatch")));
+    private volatile ServerSocketChannel serverChannel;
+    private volatile int maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+
+    /**
+     * サーバのインスタンスを生成します。
+     * <p>IOスレッドの数は利用可能なプロセッサ数(最大4)となります。
+     * <p>サーバは{@link #start}メソッドが呼ばれるまで停止状態のままです。
+     */
+    public NioMessageServer(){
+        this(Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * サーバのインスタンスを生成します。
+     * <p>サーバは{@link #start}メソッドが呼ばれるまで停止状態のままです。
+     * @param ioThreadCount IOスレッドの数
+     * @throws IllegalArgumentException IOスレッドの数が1未満の場合
+     */
+    public NioMessageServer(int ioThreadCount){
+        if(ioThreadCount<1){
+            throw new IllegalArgumentException("invalid io thread count: "+ioThreadCount);
+        }
+        this.loops = new IoLoop[ioThreadCount];
+    }
+
+    /**
+     * 接続ごとの送信待ちのバイト数の上限を設定します。
+     * <p>上限を超えた接続は切断されます。既定では64MiBです。
+     * @param maxPendingBytes 送信待ちのバイト数の上限
+     * @throws IllegalArgumentException 上限が1未満の場合
+     */
+    public void setMaxPendingBytes(int maxPendingBytes){
+        if(maxPendingBytes<1){
+            throw new IllegalArgumentException("invalid max pending bytes: "+maxPendingBytes);
+        }
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * 接続中のユーザの数を取得します。
+     * @return ユーザの数
+     */
+    public int getConnectionCount(){
+        return users.size();
+    }
+
+    @Override
+    public void start(int port) throws IOException{
+        if(!started.compareAndSet(false, true)){
+            throw new IllegalStateException("server already started");
+        }
+        for(int i = 0; i<loops.length; i++){
+            loops[i] = new IoLoop(Selector.open());
+            ioThreadFactory.newThread(loops[i]).start();
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        acceptingThread.submit(()->{
+            try{
+                while(serverChannel.isOpen()){
+                    var socketChannel = serverChannel.accept();
+                    accepted(socketChannel);
+                }
+            }catch(IOException e){
+                LOG.info("IOException caught while accepting socket: " + e.getMessage());
+            }
+        });
+        acceptingThread.shutdown();
+    }
+
+    private void accepted(SocketChannel socketChannel){
+        var userId = "U" + UUID.randomUUID();
+        try{
+            LOG.info("user " + userId + " (" + socketChannel.getRemoteAddress() + ") joined server");
+            socketChannel.configureBlocking(false);
+            socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }catch(IOException e){
+            LOG.warn("IOException caught while configuring channel of " + userId + ": " + e.getMessage());
+            try{
+                socketChannel.close();
+            }catch(IOException ignored){
+                //pass
+            }
+            return;
+        }
+        var loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+        var user = new NioMessageChannel(this, socketChannel, userId);
+        users.add(user);
+        listeners.forEach(listener->listener.userConnected(userId, user));
+        loop.register(user);
+    }
+
+    @Override
+    public void addListener(MessageServerListener listener){
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close(){
+        try{
+            LOG.info("closing users");
+            users.forEach(MessageConnection::close);
+            acceptingThread.shutdownNow();
+            LOG.info("closing server");
+            if(serverChannel!=null){
+                serverChannel.close();
+            }
+            for(var loop:loops){
+                if(loop!=null){
+                    loop.close();
+                }
+            }
+            dispatchExecutor.shutdown();
+            LOG.info("server closed");
+        }catch(IOException e){
+            LOG.warn("IOException caught while terminating server: "+e.getMessage());
+        }
+    }
+
+    /**
+     * {@link Selector}で複数の接続の読み書きを行うIOスレッドの処理。
+     */
+    private static class IoLoop implements Runnable{
+        private final Queue<NioMessageChannel> registrations = new ConcurrentLinkedQueue<>();
+        private final List<NioMessageChannel> negotiating = new ArrayList<>();
+        private final Selector selector;
+        private volatile boolean closed = false;
+        private IoLoop(Selector selector){
+            this.selector = selector;
+        }
+
+        private void register(NioMessageChannel channel){
+            registrations.add(channel);
+            selector.wakeup();
+        }
+
+        private void close(){
+            closed = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run(){
+            try{
+                while(!closed){
+                    if(negotiating.isEmpty()){
+                        selector.select();
+                    }else{
+                        selector.select(NEGOTIATION_CHECK_MILLIS);
+                        long now = System.nanoTime();
+                        negotiating.removeIf(channel->channel.isNegotiated(now));
+                    }
+                    for(NioMessageChannel channel; (channel = registrations.poll())!=null;){
+                        channel.registerTo(selector);
+                        negotiating.add(channel);
+                    }
+                    for(var key:selector.selectedKeys()){
+                        var channel = (NioMessageChannel)key.attachment();
+                        if(key.isValid() && key.isReadable()){
+                            channel.readable();
+                        }
+                        if(key.isValid() && key.isWritable()){
+                            channel.writable();
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+                selector.close();
+            }catch(IOException e){
+                LOG.warn("IOException caught while selecting channels: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class NioMessageChannel implements MessageConnection{
+        private final Queue<MessageListener> listeners = new ConcurrentLinkedQueue<>();
+        private final Queue<String> inbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean dispatching = new AtomicBoolean(false);
+        private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+        private final List<String> heldMessages = new ArrayList<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final long connectedNanos = System.nanoTime();
+        private final NioMessageServer server;
+        private final SocketChannel socketChannel;
+        private final String userId;
+        private byte[] lineBytes = new byte[256];
+        private int lineLength = 0;
+        private int frameLength = -1;
+        private int lengthValue = 0;
+        private int lengthShift = 0;
+        private long pendingBytes = 0;
+        private volatile MessageFraming framing;
+        private volatile SelectionKey key;
+        private volatile boolean endOfStream = false;
+        private volatile boolean closed = false;
+        private NioMessageChannel(NioMessageServer server, SocketChannel socketChannel, String userId){
+            this.server = server;
+            this.socketChannel = socketChannel;
+            this.userId = userId;
+        }
+
+        private void registerTo(Selector selector){
+            try{
+                synchronized(pendingWrites){
+                    if(closed){
+                        return;
+                    }
+                    int ops = pendingWrites.isEmpty()? SelectionKey.OP_READ:SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                    key = socketChannel.register(selector, ops, this);
+                }
+            }catch(IOException e){
+                LOG.warn("IOException caught while registering channel of " + userId + ": " + e.getMessage());
+                abort();
+            }
+        }
+
+        /**
+         * IOスレッドで形式を確定させます。
+         * <p>ハンドシェイクの返信及び保留していたメッセージの送信を行います。
+         * @param framing 形式
+         */
+        private void negotiated(MessageFraming framing){
+            boolean failed = false;
+            synchronized(pendingWrites){
+                if(closed){
+                    return;
+                }
+                this.framing = framing;
+                if(framing==MessageFraming.LENGTH_PREFIXED){
+                    failed = !enqueue(MessageFrames.handshake());
+                }
+                for(int i = 0; i<heldMessages.size() && !failed; i++){
+                    failed = !enqueue(MessageFrames.encode(heldMessages.get(i), framing));
+                }
+                heldMessages.clear();
+            }
+            LOG.debug("framing negotiated for " + userId + ": " + framing);
+            if(failed){
+                abort();
+            }
+        }
+
+        /**
+         * IOスレッドで形式が確定しているか検査し, 待機時間を過ぎていればテキスト形式に確定させます。
+         * @param now 現在時刻(ナノ秒)
+         * @return true  形式が確定している場合, または切断済みの場合
+         *         false 形式が未確定の場合
+         */
+        private boolean isNegotiated(long now){
+            if(framing!=null || closed){
+                return true;
+            }
+            if(now - connectedNanos>NEGOTIATION_TIMEOUT_NANOS){
+                negotiated(MessageFraming.TEXT);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * IOスレッドで受信可能なデータを読み込み, 区切られたメッセージを配信待ちにします。
+         */
+        private void readable(){
+            try{
+                int read;
+                while((read = socketChannel.read(readBuffer))>0){
+                    readBuffer.flip();
+                    if(framing!=null || negotiate()){
+                        if(framing==MessageFraming.TEXT){
+                            readLines();
+                        }else{
+                            readFrames();
+                        }
+                    }
+                    readBuffer.compact();
+                }
+                if(read<0){
+                    endOfStream = true;
+                    key.cancel();
+                }
+            }catch(IOException e){
+                LOG.warn("IOException caught while listening message from client " + e.getMessage());
+                endOfStream = true;
+                key.cancel();
+            }
+            scheduleDispatch();
+        }
+
+        /**
+         * 受信した最初のバイト列から形式を判別します。
+         * @return true  形式が確定した場合
+         *         false ハンドシェイクの残りのバイトを待つ場合
+         * @throws IOException ハンドシェイクが不正な場合
+         */
+        private boolean negotiate() throws IOException{
+            if(!MessageFrames.isHandshakeStart(readBuffer.get(readBuffer.position()))){
+                negotiated(MessageFraming.TEXT);
+                return true;
+            }
+            if(readBuffer.remaining()<MessageFrames.HANDSHAKE_LENGTH){
+                return false;
+            }
+            if(!MessageFrames.readHandshake(readBuffer)){
+                throw new IOException("invalid handshake");
+            }
+            negotiated(MessageFraming.LENGTH_PREFIXED);
+            return true;
+        }
+
+        private void readLines() throws IOException{
+            while(readBuffer.hasRemaining()){
+                byte b = readBuffer.get();
+                if(b=='\n'){
+                    int length = lineLength>0 && lineBytes[lineLength - 1]=='\r'? lineLength - 1:lineLength;
+                    inbox.add(new String(lineBytes, 0, length, MessageFrames.TEXT_CHARSET));
+                    lineLength = 0;
+                }else{
+                    if(lineLength==lineBytes.length){
+                        if(lineLength>=MessageFrames.MAX_MESSAGE_BYTES){
+                            throw new IOException("message too long");
+                        }
+                        lineBytes = Arrays.copyOf(lineBytes, Math.min(lineLength*2, MessageFrames.MAX_MESSAGE_BYTES));
+                    }
+                    lineBytes[lineLength++] = b;
+                }
+            }
+        }
+
+        private void readFrames() throws IOException{
+            while(readBuffer.hasRemaining()){
+                if(frameLength<0){
+                    byte b = readBuffer.get();
+                    lengthValue |= (b & 0x7F)<<lengthShift;
+                    if((b & 0x80)!=0){
+                        lengthShift += 7;
+                        if(lengthShift>28){
+                            throw new IOException("invalid frame length");
+                        }
+                        continue;
+                    }
+                    frameLength = MessageFrames.checkLength(lengthValue);
+                    lengthValue = 0;
+                    lengthShift = 0;
+                    lineLength = 0;
+                }
+                int rest = frameLength - lineLength;
+                if(lineLength==0 && readBuffer.remaining()>=rest){
+                    //受信バッファ内で完結するメッセージは複写せずに復号する
+                    int position = readBuffer.position();
+                    inbox.add(new String(readBuffer.array(), readBuffer.arrayOffset() + position, rest, MessageFrames.FRAMED_CHARSET));
+                    readBuffer.position(position + rest);
+                    frameLength = -1;
+                    continue;
+                }
+                if(lineBytes.length<frameLength){
+                    lineBytes = Arrays.copyOf(lineBytes, frameLength);
+                }
+                int length = Math.min(rest, readBuffer.remaining());
+                readBuffer.get(lineBytes, lineLength, length);
+                lineLength += length;
+                if(lineLength==frameLength){
+                    inbox.add(new String(lineBytes, 0, frameLength, MessageFrames.FRAMED_CHARSET));
+                    lineLength = 0;
+                    frameLength = -1;
+                }
+            }
+        }
+
+        private void scheduleDispatch(){
+            if((!inbox.isEmpty() || endOfStream) && dispatching.compareAndSet(false, true)){
+                try{
+                    server.dispatchExecutor.execute(this::dispatch);
+                }catch(RuntimeException e){
+                    //サーバの停止後は配信しない
+                    dispatching.set(false);
+                }
+            }
+        }
+
+        /**
+         * 配信スレッドで配信待ちのメッセージを受信順にリスナに通知します。
+         */
+        private void dispatch(){
+            try{
+                for(String message; (message = inbox.poll())!=null;){
+                    received(message);
+                }
+                if(endOfStream){
+                    close();
+                }
+            }finally{
+                dispatching.set(false);
+            }
+            scheduleDispatch();
+        }
+
+        @Override
+        public void addListener(MessageListener listener){
+            listeners.add(listener);
+        }
+
+        private void received(String message){
+            for(var listener:listeners){
+                try{
+                    listener.received(message);
+                }catch(RuntimeException e){
+                    LOG.error("exception caught while notifying message from " + userId, e);
+                }
+            }
+        }
+
+        @Override
+        public void send(String message){
+            boolean failed;
+            synchronized(pendingWrites){
+                if(closed){
+                    LOG.warn("failed to send message: already closed message="+message);
+                    return;
+                }
+                if(framing==null){
+                    heldMessages.add(message);
+                    return;
+                }
+                failed = !enqueue(MessageFrames.encode(message, framing));
+            }
+            if(failed){
+                abort();
+            }
+        }
+
+        /**
+         * 送信待ちのデータが無ければ書き込み, 書き込めなかった残りを送信待ちにします。
+         * <p>呼び出し元は{@code pendingWrites}のロックを保持している必要があります。
+         * @param buffer 送信するデータ
+         * @return true  正常に書き込みまたは送信待ちにした場合
+         *         false 書き込みに失敗した場合, または送信待ちのバイト数が上限を超えた場合
+         */
+        private boolean enqueue(ByteBuffer buffer){
+            if(pendingWrites.isEmpty()){
+                try{
+                    socketChannel.write(buffer);
+                }catch(IOException e){
+                    LOG.warn("IOException caught while sending message to " + userId + ": " + e.getMessage());
+                    return false;
+                }
+            }
+            if(buffer.hasRemaining()){
+                pendingWrites.add(buffer);
+                pendingBytes += buffer.remaining();
+                if(pendingBytes>server.maxPendingBytes){
+                    LOG.warn("pending bytes exceeded for " + userId + ": " + pendingBytes);
+                    return false;
+                }
+                if(key!=null && key.isValid()){
+                    try{
+                        key.interestOpsOr(SelectionKey.OP_WRITE);
+                        key.selector().wakeup();
+                    }catch(CancelledKeyException e){
+                        //切断処理中のため送信待ちは破棄される
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * IOスレッドで送信待ちのデータを書き込みます。
+         */
+        private void writable(){
+            boolean failed = false;
+            synchronized(pendingWrites){
+                try{
+                    while(!pendingWrites.isEmpty()){
+                        var buffer = pendingWrites.peek();
+                        pendingBytes -= socketChannel.write(buffer);
+                        if(buffer.hasRemaining()){
+                            return;
+                        }
+                        pendingWrites.poll();
+                    }
+                    key.interestOpsAnd(~SelectionKey.OP_WRITE);
+                }catch(IOException e){
+                    LOG.warn("IOException caught while sending message to " + userId + ": " + e.getMessage());
+                    failed = true;
+                }
+            }
+            if(failed){
+                abort();
+            }
+        }
+
+        /**
+         * 送受信に失敗した接続を破棄し, 切断の通知を配信スレッドに委ねます。
+         * <p>IOスレッドや送信元のスレッドでリスナを呼び出さないよう,
+         * 終端を受信した場合と同様に{@link #dispatch}から{@link #close}を呼び出します。
+         */
+        private void abort(){
+            synchronized(pendingWrites){
+                pendingWrites.clear();
+                heldMessages.clear();
+            }
+            endOfStream = true;
+            if(key!=null){
+                key.cancel();
+            }
+            try{
+                socketChannel.close();
+            }catch(IOException e){
+                LOG.warn("IOException caught while closing channel of " + userId + ": " + e.getMessage());
+            }
+            scheduleDispatch();
+        }
+
+        @Override
+        public void close(){
+            synchronized(this){
+                if(!closed){
+                    synchronized(pendingWrites){
+                        closed = true;
+                        pendingWrites.clear();
+                        heldMessages.clear();
+                    }
+                    server.users.remove(this);
+                    server.listeners.forEach(listener->listener.userDisconnected(userId));
+                    if(key!=null){
+                        key.cancel();
+                    }
+                    try{
+                        socketChannel.close();
+                    }catch(IOException e){
+                        LOG.warn("IOException caught while closing channel of " + userId + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package jp.rouh.util.net.msg;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -18,6 +19,7 @@ import java.util.function.Function;
 public class MessageConverter{
     private final Map<Class<?>, MessageConversionRule<?>> rules = new HashMap<>();
     private final Deque<Class<?>> supportedTypes = new ArrayDeque<>();
+    private final Map<Class<?>, Function<Object, String>> encoders = new ConcurrentHashMap<>();
 
     /**
      * 空のコンバータを作成します。
@@ -37,6 +39,7 @@ public class MessageConverter{
     public <E> void addRuleFirst(Class<E> clazz, MessageConversionRule<E> rule){
         rules.put(clazz, rule);
         supportedTypes.addFirst(clazz);
+        encoders.clear();
     }
 
     /**
@@ -50,24 +53,27 @@ public class MessageConverter{
     public <E> void addRuleLast(Class<E> clazz, MessageConversionRule<E> rule){
         rules.put(clazz, rule);
         supportedTypes.addLast(clazz);
+        encoders.clear();
     }
 
     /**
      * このコンバータでオブジェクトを文字列に変換します。
+     * <p>オブジェクトのクラスに適用するルールは, クラスごとに初回の変換時に決定され再利用されます。
      * @param obj オブジェクト
      * @return 文字列
      * @throws MessageConversionException 変換に失敗した場合
      */
     public String encode(Object obj) throws MessageConversionException{
         try{
-            for(var supportedType: supportedTypes){
-                if(supportedType.isAssignableFrom(obj.getClass())){
-                    @SuppressWarnings("unchecked")
-                    var encoder = (Function<Object, String>)rules.get(supportedType).getEncoder();
-                    return encoder.apply(obj);
+            var encoder = encoders.get(obj.getClass());
+            if(encoder==null){
+                encoder = encoderOf(obj.getClass());
+                if(encoder==null){
+                    throw new MessageConversionException("encoding unsupported type object: " + obj);
                 }
+                encoders.put(obj.getClass(), encoder);
             }
-            throw new MessageConversionException("encoding unsupported type object: " + obj);
+            return encoder.apply(obj);
         }catch(MessageConversionException e){
             throw e;
         }catch(Exception e){
@@ -75,6 +81,17 @@ public class MessageConverter{
         }
     }
 
+    private Function<Object, String> encoderOf(Class<?> clazz){
+        for(var supportedType: supportedTypes){
+            if(supportedType.isAssignableFrom(clazz)){
+                @SuppressWarnings("unchecked")
+                var encoder = (Function<Object, String>)rules.get(supportedType).getEncoder();
+                return encoder;
+            }
+        }
+        return null;
+    }
+
     /**
      * このコンバータで文字列をオブジェクトに復元します。
      * @param str 文字列
@@ -0,0 +1,196 @@
+package jp.rouh.util.net.msg;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * データクラスのプロパティへのアクセス手順。
+ * <p>データクラスごとに, 引数のない公開コンストラクタと,
+ * クラスで宣言された{@code get}(戻り値が{@code boolean}の場合は{@code is})で始まる
+ * 戻り値のあるメソッドをプロパティの取得メソッドとして一度だけ解決し,
+ * {@link MethodHandle}として保持します。
+ * プロパティの設定メソッドはプロパティ名と型の組ごとに初回の利用時に解決し, 保持します。
+ * <p>アクセス手順はクラスごとに一つだけ生成され, 同じクラスのオブジェクトの変換で再利用されます。
+ * @param <T> データクラスの型
+ * @author Rouh
+ * @version 1.0
+ */
+public final class PojoAccessor<T>{
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<PojoAccessor<?>> ACCESSORS = new ClassValue<>(){
+        @Override
+        protected PojoAccessor<?> computeValue(Class<?> type){
+            return new PojoAccessor<>(type);
+        }
+    };
+    private final Class<T> type;
+    private final List<Property> properties;
+    private final Map<String, MethodHandle> setters = new ConcurrentHashMap<>();
+    private volatile MethodHandle constructor;
+
+    private PojoAccessor(Class<T> type){
+        this.type = type;
+        var properties = new ArrayList<Property>();
+        for(var method:type.getDeclaredMethods()){
+            var getterPrefix = method.getReturnType()==boolean.class? "is":"get";
+            if(method.getReturnType()!=void.class && method.getName().startsWith(getterPrefix)){
+                var name = method.getName().substring(getterPrefix.length());
+                properties.add(new Property(name, method.getReturnType(), method));
+            }
+        }
+        this.properties = List.copyOf(properties);
+    }
+
+    /**
+     * データクラスのアクセス手順を取得します。
+     * @param type データクラス
+     * @param <T> データクラスの型
+     * @return アクセス手順
+     */
+    public static <T> PojoAccessor<T> of(Class<T> type){
+        @SuppressWarnings("unchecked")
+        var accessor = (PojoAccessor<T>)ACCESSORS.get(type);
+        return accessor;
+    }
+
+    /**
+     * データクラスを取得します。
+     * @return データクラス
+     */
+    public Class<T> getType(){
+        return type;
+    }
+
+    /**
+     * プロパティのリストを取得します。
+     * <p>プロパティは{@link Class#getDeclaredMethods}で取得したメソッドの順に並びます。
+     * @return プロパティのリスト
+     */
+    public List<Property> getProperties(){
+        return properties;
+    }
+
+    /**
+     * 引数のないコンストラクタでデータクラスのインスタンスを生成します。
+     * @return インスタンス
+     * @throws MessageConversionException コンストラクタが利用できない場合, またはインスタンスの生成に失敗した場合
+     */
+    public T newInstance(){
+        var handle = constructor;
+        if(handle==null){
+            try{
+                handle = MethodHandles.publicLookup()
+                        .unreflectConstructor(type.getDeclaredConstructor())
+                        .asType(MethodType.methodType(Object.class));
+            }catch(NoSuchMethodException | IllegalAccessException e){
+                throw new MessageConversionException("no accessible constructor: " + type.getName(), e);
+            }
+            constructor = handle;
+        }
+        try{
+            return type.cast(handle.invokeExact());
+        }catch(RuntimeException | Error e){
+            throw e;
+        }catch(Throwable e){
+            throw new MessageConversionException("exception caught while instantiating: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * インスタンスのプロパティに値を設定します。
+     * <p>設定には{@code set}にプロパティ名を付けた名前で, 指定された型の引数を一つ取る公開メソッドを用います。
+     * @param instance インスタンス
+     * @param name プロパティ名
+     * @param propertyType プロパティの型
+     * @param value 値
+     * @throws MessageConversionException 設定メソッドが存在しない場合, または設定に失敗した場合
+     */
+    public void set(Object instance, String name, Class<?> propertyType, Object value){
+        var setter = setters.computeIfAbsent(name + ":" + propertyType.getName(), key->{
+            try{
+                return MethodHandles.publicLookup()
+                        .unreflect(type.getMethod("set" + name, propertyType))
+                        .asType(SETTER_TYPE);
+            }catch(NoSuchMethodException | IllegalAccessException e){
+                throw new MessageConversionException("no accessible setter: " + type.getName() + ".set" + name, e);
+            }
+        });
+        try{
+            setter.invokeExact(instance, value);
+        }catch(RuntimeException | Error e){
+            throw e;
+        }catch(Throwable e){
+            throw new MessageConversionException("exception caught while setting property: " + type.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * データクラスのプロパティ。
+     */
+    public static final class Property{
+        private final String name;
+        private final Class<?> type;
+        private final Method method;
+        private volatile MethodHandle getter;
+
+        private Property(String name, Class<?> type, Method method){
+            this.name = name;
+            this.type = type;
+            this.method = method;
+        }
+
+        /**
+         * プロパティ名を取得します。
+         * <p>プロパティ名は取得メソッドの名前から{@code get}または{@code is}を除いた文字列です。
+         * @return プロパティ名
+         */
+        public String getName(){
+            return name;
+        }
+
+        /**
+         * プロパティの型を取得します。
+         * @return プロパティの型
+         */
+        public Class<?> getType(){
+            return type;
+        }
+
+        /**
+         * インスタンスからプロパティの値を取得します。
+         * @param instance インスタンス
+         * @return 値
+         * @throws MessageConversionException 取得メソッドが利用できない場合, または取得に失敗した場合
+         */
+        public Object get(Object instance){
+            var handle = getter;
+            if(handle==null){
+                try{
+                    handle = MethodHandles.publicLookup().unreflect(method);
+                    if(Modifier.isStatic(method.getModifiers())){
+                        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                    }
+                    handle = handle.asType(GETTER_TYPE);
+                }catch(IllegalAccessException e){
+                    throw new MessageConversionException("no accessible getter: " + method, e);
+                }
+                getter = handle;
+            }
+            try{
+                return handle.invokeExact(instance);
+            }catch(RuntimeException | Error e){
+                throw e;
+            }catch(Throwable e){
+                throw new MessageConversionException("exception caught while getting property: " + method, e);
+            }
+        }
+    }
+}
@@ -9,10 +9,16 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 接続先オブジェクトでリモートメソッド呼び出しを行うためのユーティリティクラス。
@@ -33,6 +39,8 @@ public class RemoteConnections{
      * メッセージ通信越しのリモートメソッド呼び出しが実現可能です。
      * <p>メソッドに戻り値が存在する場合は, リスナが返答するレスポンスの到着を待つため,
      * メソッド呼び出しはブロッキングな操作となることに注意が必要です。
+     * リクエストはIDで識別されるため, 複数のスレッドから同時に呼び出した場合でも
+     * それぞれの呼び出しは自身のリクエストに対応するレスポンスを受け取ります。
      * <p>また, コンバータは{@link RemoteRequest}及び{@link RemoteResponse}を
      * 文字列に変換することができる必要があります。
      * @param remoteInterface 接続先オブジェクトの呼び出しインターフェース
@@ -42,12 +50,100 @@ public class RemoteConnections{
      * @return プロキシ
      */
     public static <T> T newProxy(Class<T> remoteInterface, MessageConnection connection, MessageConverter converter){
+        return newProxy(remoteInterface, new RemoteProxy(remoteInterface, connection, converter, 0));
+    }
+
+    /**
+     * 接続先オブジェクトへのメソッド呼び出しを発行するためのプロキシを生成します。
+     * <p>{@link #newProxy(Class, MessageConnection, MessageConverter)}と同様のプロキシですが,
+     * 戻り値のあるメソッドの呼び出しでレスポンスを待つ時間に上限を設けます。
+     * 上限までにレスポンスが到着しなかった場合, 呼び出しは{@link IllegalStateException}をスローします。
+     * @param remoteInterface 接続先オブジェクトの呼び出しインターフェース
+     * @param connection メッセージ通信
+     * @param converter オブジェクトを文字列にマッピングする文字列コンバータ
+     * @param timeout レスポンスを待つ時間の上限
+     * @param unit 時間の単位
+     * @param <T> 呼び出しインターフェース
+     * @return プロキシ
+     * @throws IllegalArgumentException 上限が正の値でない場合
+     */
+    public static <T> T newProxy(Class<T> remoteInterface, MessageConnection connection, MessageConverter converter,
+                                 long timeout, TimeUnit unit){
+        return newProxy(remoteInterface, new RemoteProxy(remoteInterface, connection, converter, toTimeoutNanos(timeout, unit)));
+    }
+
+    /**
+     * 接続先オブジェクトへのメソッド呼び出しを非同期に発行するためのプロキシを生成します。
+     * <p>非同期インターフェースの各メソッドは, 呼び出しインターフェースに同じ名前と引数の型で定義されたメソッドに対応し,
+     * 戻り値の型は{@link CompletableFuture}または{@link CompletionStage}である必要があります。
+     * ただし, 対応するメソッドの戻り値が存在しない場合は戻り値の型を{@code void}とすることもできます。
+     * <p>このプロキシのメソッド呼び出しはリクエストを送信するとすぐに,
+     * レスポンスの到着によって完了する{@link CompletableFuture}を返します。
+     * 戻り値の存在しないメソッドの場合は, 送信した時点で完了した{@link CompletableFuture}を返します。
+     * リクエストはIDで識別されるため, 一つのメッセージ通信で複数の呼び出しを同時に発行でき,
+     * それぞれの呼び出しはレスポンスの到着順に関わらず完了します。
+     * <p>上限までにレスポンスが到着しなかった場合, 戻り値は{@link TimeoutException}で例外的に完了します。
+     * @param asyncInterface 非同期インターフェース
+     * @param remoteInterface 接続先オブジェクトの呼び出しインターフェース
+     * @param connection メッセージ通信
+     * @param converter オブジェクトを文字列にマッピングする文字列コンバータ
+     * @param timeout レスポンスを待つ時間の上限
+     * @param unit 時間の単位
+     * @param <T> 非同期インターフェース
+     * @return プロキシ
+     * @throws IllegalArgumentException 非同期インターフェースのメソッドが呼び出しインターフェースのメソッドに対応しない場合
+     *                                  上限が正の値でない場合
+     */
+    public static <T> T newAsyncProxy(Class<T> asyncInterface, Class<?> remoteInterface, MessageConnection connection,
+                                      MessageConverter converter, long timeout, TimeUnit unit){
+        var methods = new ConcurrentHashMap<Method, Method>();
+        for(var method:asyncInterface.getMethods()){
+            Method remoteMethod;
+            try{
+                remoteMethod = remoteInterface.getMethod(method.getName(), method.getParameterTypes());
+            }catch(NoSuchMethodException e){
+                throw new IllegalArgumentException("no remote method for "+method, e);
+            }
+            var returnType = method.getReturnType();
+            if(returnType!=CompletableFuture.class && returnType!=CompletionStage.class
+                    && !(returnType==void.class && remoteMethod.getReturnType()==void.class)){
+                throw new IllegalArgumentException("return type must be CompletableFuture or CompletionStage: "+method);
+            }
+            methods.put(method, remoteMethod);
+        }
+        var remoteProxy = new RemoteProxy(remoteInterface, connection, converter, toTimeoutNanos(timeout, unit));
+        return newProxy(asyncInterface, (proxy, method, args)->{
+            var remoteMethod = methods.get(method);
+            if(remoteMethod==null){
+                return invokeObjectMethod(proxy, method, args);
+            }
+            var result = remoteProxy.request(remoteMethod, args);
+            return method.getReturnType()==void.class? null:result;
+        });
+    }
+
+    private static <T> T newProxy(Class<T> type, InvocationHandler handler){
         @SuppressWarnings("unchecked")
-        var proxy = (T)Proxy.newProxyInstance(remoteInterface.getClassLoader(),
-                new Class[]{remoteInterface}, new RemoteProxy(remoteInterface, connection, converter));
+        var proxy = (T)Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, handler);
         return proxy;
     }
 
+    private static long toTimeoutNanos(long timeout, TimeUnit unit){
+        if(timeout<=0){
+            throw new IllegalArgumentException("timeout must be positive: "+timeout);
+        }
+        return unit.toNanos(timeout);
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Method method, Object[] args){
+        return switch(method.getName()){
+            case "equals" -> proxy==args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> proxy.getClass().getName()+"@"+Integer.toHexString(System.identityHashCode(proxy));
+            default -> throw new UnsupportedOperationException(method.toString());
+        };
+    }
+
     /**
      * リモートメソッド呼び出しに応答するためのメッセージリスナを生成します。
      * <p>このリスナを登録したメッセージ通信に対して, リモートメソッド呼び出しリクエストが送られた場合,
@@ -61,19 +157,31 @@ public class RemoteConnections{
      * @return メッセージリスナ
      */
     public static MessageListener newDispatcher(Object dispatchTo, MessageConnection connection, MessageConverter converter){
+        return newDispatcher(dispatchTo, connection, converter, Runnable::run);
+    }
+
+    /**
+     * リモートメソッド呼び出しに応答するためのメッセージリスナを生成します。
+     * <p>{@link #newDispatcher(Object, MessageConnection, MessageConverter)}と同様のリスナですが,
+     * 戻り値のあるメソッドの呼び出しは指定した実行者で実行します。
+     * 実行者が並行に処理を行う場合, 時間のかかる呼び出しが後続のリクエストへの応答を妨げることはありません。
+     * 戻り値のないメソッドの呼び出しは, 受信した順序を保つためメッセージを受信したスレッドで実行します。
+     * @param dispatchTo 委譲先
+     * @param connection 戻り値転送時のメッセージ通信(通常はこのリスナの登録先と同じオブジェクト)
+     * @param converter 戻り値転送時のオブジェクトを文字列にマッピングする文字列コンバータ
+     * @param executor 戻り値のあるメソッドの呼び出しの実行者
+     * @return メッセージリスナ
+     */
+    public static MessageListener newDispatcher(Object dispatchTo, MessageConnection connection, MessageConverter converter,
+                                                Executor executor){
         return message->{
             try{
                 var object = converter.decode(message);
                 if(object instanceof RemoteRequest request){
-                    var method = request.getMethod();
-                    var args = request.getParameters().toArray(new Object[0]);
-                    var returnValue = method.invoke(dispatchTo, args);
-                    if(method.getReturnType()!=void.class){
-                        var response = new RemoteResponse();
-                        response.setRequestId(request.getId());
-                        response.setValue(returnValue);
-                        var returnMessage = converter.encode(response);
-                        connection.send(returnMessage);
+                    if(request.getMethod().getReturnType()==void.class){
+                        dispatch(dispatchTo, connection, converter, request, message);
+                    }else{
+                        executor.execute(()->dispatch(dispatchTo, connection, converter, request, message));
                     }
                 }
             }catch(Exception e){
@@ -83,36 +191,63 @@ public class RemoteConnections{
         };
     }
 
+    private static void dispatch(Object dispatchTo, MessageConnection connection, MessageConverter converter,
+                                 RemoteRequest request, String message){
+        try{
+            var method = request.getMethod();
+            var args = request.getParameters().toArray(new Object[0]);
+            var returnValue = method.invoke(dispatchTo, args);
+            if(method.getReturnType()!=void.class){
+                var response = new RemoteResponse();
+                response.setRequestId(request.getId());
+                response.setValue(returnValue);
+                var returnMessage = converter.encode(response);
+                connection.send(returnMessage);
+            }
+        }catch(Exception e){
+            LOG.error("exception caught while resolving received message: message={}", message);
+            LOG.error("error: ", e);
+        }
+    }
+
     private static class RemoteProxy implements InvocationHandler, MessageListener{
-        private final BlockingDeque<Object> blockingDeque = new LinkedBlockingDeque<>();
-        private final AtomicReference<String> currentRequestId = new AtomicReference<>("");
+        private final Map<String, CompletableFuture<Object>> pendingRequests = new ConcurrentHashMap<>();
+        private final String idPrefix = UUID.randomUUID()+"-";
+        private final AtomicLong idSequence = new AtomicLong();
         private final Class<?> remoteInterface;
         private final MessageConnection connection;
         private final MessageConverter converter;
-        private RemoteProxy(Class<?> remoteInterface, MessageConnection connection, MessageConverter converter){
+        private final long timeoutNanos;
+        private RemoteProxy(Class<?> remoteInterface, MessageConnection connection, MessageConverter converter, long timeoutNanos){
             this.remoteInterface = remoteInterface;
             this.converter = converter;
             this.connection = connection;
+            this.timeoutNanos = timeoutNanos;
             this.connection.addListener(this);
         }
 
         @Override
         public Object invoke(Object proxy, Method method, Object[] args) throws Exception{
             try{
-                if(method.getDeclaringClass().isAssignableFrom(remoteInterface)){
-                    var request = new RemoteRequest();
-                    var id = UUID.randomUUID().toString();
-                    request.setId(id);
-                    request.setMethod(method);
-                    request.setParameters(args==null? List.of():List.of(args));
-                    connection.send(converter.encode(request));
+                if(method.getDeclaringClass().isAssignableFrom(remoteInterface)
+                        && method.getDeclaringClass()!=Object.class){
+                    var result = request(method, args);
                     if(method.getReturnType()!=void.class){
-                        currentRequestId.set(id);
-                        return blockingDeque.take();
+                        try{
+                            return result.get();
+                        }catch(ExecutionException e){
+                            if(e.getCause() instanceof TimeoutException){
+                                throw new IllegalStateException("remote call timed out: method="+method, e.getCause());
+                            }
+                            throw new IllegalStateException("remote call failed: method="+method, e.getCause());
+                        }catch(InterruptedException e){
+                            result.cancel(false);
+                            throw e;
+                        }
                     }
                     return null;
                 }
-                return method.invoke(proxy, args);
+                return invokeObjectMethod(proxy, method, args);
             }catch(Exception e){
                 LOG.error("exception caught while invoking remote interface using proxy: method={}", method);
                 LOG.error("error: ", e);
@@ -120,12 +255,46 @@ public class RemoteConnections{
             }
         }
 
+        /**
+         * リクエストを送信します。
+         * <p>戻り値のあるメソッドの場合, 送信前に応答待ちのリクエストとして登録し,
+         * レスポンスの到着, 時間切れまたは取り消しによって完了した時点で登録を解除します。
+         * @param method 呼び出すメソッド
+         * @param args 引数
+         * @return レスポンスの値で完了する{@link CompletableFuture}
+         */
+        private CompletableFuture<Object> request(Method method, Object[] args){
+            var request = new RemoteRequest();
+            var id = idPrefix+idSequence.incrementAndGet();
+            request.setId(id);
+            request.setMethod(method);
+            request.setParameters(args==null? List.of():List.of(args));
+            var message = converter.encode(request);
+            if(method.getReturnType()==void.class){
+                connection.send(message);
+                return CompletableFuture.completedFuture(null);
+            }
+            var result = new CompletableFuture<Object>();
+            pendingRequests.put(id, result);
+            result.whenComplete((value, error)->pendingRequests.remove(id));
+            if(timeoutNanos>0){
+                result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            try{
+                connection.send(message);
+            }catch(RuntimeException e){
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
         @Override
         public void received(String message){
             var object = converter.decode(message);
             if(object instanceof RemoteResponse response){
-                if(response.getRequestId().equals(currentRequestId.get())){
-                    blockingDeque.addLast(response.getValue());
+                var result = pendingRequests.get(response.getRequestId());
+                if(result!=null){
+                    result.complete(response.getValue());
                 }else{
                     LOG.info("response has ignored for id mismatch: {}", message);
                 }
@@ -0,0 +1,169 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.CallAction;
+import jp.rouh.mahjong.game.event.TableObserverAdapter;
+import jp.rouh.mahjong.game.event.TableStrategy;
+import jp.rouh.mahjong.game.event.TurnAction;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BotExecutionServiceTest{
+
+    private static class SleepingStrategy implements TableObserverAdapter, TableStrategy{
+        private final long sleepMillis;
+        private SleepingStrategy(long sleepMillis){
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            try{
+                TimeUnit.MILLISECONDS.sleep(sleepMillis);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return choices.get(0);
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            return choices.get(choices.size() - 1);
+        }
+    }
+
+    /**
+     * 通知と意思決定で同じロックを取得する戦略。
+     */
+    private static class LockingStrategy implements TableObserverAdapter, TableStrategy{
+        private final List<Tile> river = new ArrayList<>();
+
+        @Override
+        public synchronized void riverTileAdded(Side side, Tile tile, boolean tilt){
+            river.add(tile);
+        }
+
+        @Override
+        public synchronized TurnAction selectTurnAction(List<TurnAction> choices){
+            sleep(500);
+            return choices.get(0);
+        }
+
+        @Override
+        public synchronized CallAction selectCallAction(List<CallAction> choices){
+            return river.isEmpty()? choices.get(0):choices.get(choices.size() - 1);
+        }
+    }
+
+    @Test
+    void testDecisionIsDelegated(){
+        var service = new BotExecutionService(1);
+        var strategy = service.schedule("T1", new SleepingStrategy(0));
+        var choices = List.of(CallAction.ofPass(), CallAction.ofRon());
+        assertEquals(CallAction.ofRon(), strategy.selectCallAction(choices));
+        service.shutdown();
+    }
+
+    @Test
+    void testTimeoutFallsBackToDiscardDrawn(){
+        var service = new BotExecutionService(1);
+        service.setDecisionTimeout(50, TimeUnit.MILLISECONDS);
+        var strategy = service.schedule("T1", new SleepingStrategy(1000));
+        var choices = List.of(TurnAction.ofDiscard(M1), TurnAction.ofDiscardDrawn(M2));
+        assertEquals(TurnAction.ofDiscardDrawn(M2), strategy.selectTurnAction(choices));
+        assertEquals(1, service.getTimeoutCount());
+        service.shutdown();
+    }
+
+    @Test
+    void testNotificationsDoNotWaitForTimedOutDecision(){
+        var service = new BotExecutionService(1);
+        service.setDecisionTimeout(50, TimeUnit.MILLISECONDS);
+        var strategy = service.schedule("T1", new LockingStrategy());
+        var turnChoices = List.of(TurnAction.ofDiscard(M1), TurnAction.ofDiscardDrawn(M2));
+        assertEquals(TurnAction.ofDiscardDrawn(M2), strategy.selectTurnAction(turnChoices));
+        long start = System.nanoTime();
+        strategy.riverTileAdded(Side.LEFT, M3, false);
+        assertTrue(System.nanoTime() - start<TimeUnit.MILLISECONDS.toNanos(200));
+        service.setDecisionTimeout(5, TimeUnit.SECONDS);
+        var callChoices = List.of(CallAction.ofPass(), CallAction.ofRon());
+        assertEquals(CallAction.ofRon(), strategy.selectCallAction(callChoices));
+        assertEquals(1, service.getTimeoutCount());
+        service.shutdown();
+    }
+
+    @Test
+    void testTablesAreServedInTurn() throws InterruptedException{
+        var service = new BotExecutionService(1);
+        var finished = Collections.synchronizedList(new ArrayList<String>());
+        var latch = new CountDownLatch(4);
+        service.schedule("A", new SleepingStrategy(0));
+        service.schedule("B", new SleepingStrategy(0));
+        for(int i = 0; i<3; i++){
+            service.submit("A", ()->{
+                sleep(30);
+                finished.add("A");
+                latch.countDown();
+                return null;
+            });
+        }
+        service.submit("B", ()->{
+            finished.add("B");
+            latch.countDown();
+            return null;
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(finished.indexOf("B")<=1, "order: "+finished);
+        service.shutdown();
+    }
+
+    @Test
+    void testNotificationsAreNotCountedAsDecisions() throws InterruptedException{
+        var service = new BotExecutionService(1);
+        var strategy = service.schedule("T1", new LockingStrategy());
+        strategy.riverTileAdded(Side.LEFT, M3, false);
+        strategy.riverTileAdded(Side.LEFT, M4, false);
+        var choices = List.of(CallAction.ofPass(), CallAction.ofRon());
+        assertEquals(CallAction.ofRon(), strategy.selectCallAction(choices));
+        assertEquals(1, service.getCompletedCount());
+        assertEquals(0, service.getPendingCount());
+        service.shutdown();
+    }
+
+    @Test
+    void testClosedTableRejectsLatePosts(){
+        var service = new BotExecutionService(1);
+        var strategy = service.schedule("T1", new SleepingStrategy(0));
+        service.closeTable("T1");
+        strategy.riverTileAdded(Side.LEFT, M3, false);
+        var turnChoices = List.of(TurnAction.ofDiscard(M1), TurnAction.ofDiscardDrawn(M2));
+        assertEquals(TurnAction.ofDiscardDrawn(M2), strategy.selectTurnAction(turnChoices));
+        var callChoices = List.of(CallAction.ofPass(), CallAction.ofRon());
+        assertEquals(CallAction.ofPass(), strategy.selectCallAction(callChoices));
+        assertEquals(0, service.getPendingCount());
+        assertEquals(0, service.getCompletedCount());
+        assertEquals(0, service.getTimeoutCount());
+        var e = assertThrows(CompletionException.class, ()->service.submit("T1", ()->null).join());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        service.shutdown();
+    }
+
+    private static void sleep(long millis){
+        try{
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.CallAction;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallEvaluatorTest{
+    private CallEvaluator evaluator;
+
+    @BeforeEach
+    void setUp(){
+        evaluator = new CallEvaluator();
+        evaluator.reset();
+        evaluator.setWinds(Wind.EAST, Wind.SOUTH);
+    }
+
+    @Test
+    void testRonIsAlwaysSelected(){
+        evaluator.setHand(List.of(M1, M2, M3, P4, P5, P6, S7, S8, S9, WE, WE, WE, DR));
+        var choices = List.of(CallAction.ofPass(), CallAction.ofRon());
+        assertEquals(CallAction.ofRon(), evaluator.select(choices, DR, kind->4, false));
+    }
+
+    @Test
+    void testDragonPonIsSelected(){
+        evaluator.setHand(List.of(M1, M2, M3, P4, P5, S2, S2, S7, S8, S9, WN, DG, DG));
+        var pon = CallAction.ofPon(DG, DG);
+        var choices = List.of(CallAction.ofPass(), pon);
+        assertEquals(pon, evaluator.select(choices, DG, kind->4, false));
+    }
+
+    @Test
+    void testCallWithoutValueIsPassed(){
+        evaluator.setHand(List.of(M1, M2, P4, P5, S2, S3, S7, S8, S9, WN, WN, M9, P9));
+        var chi = CallAction.ofChi(P4, P5);
+        var choices = List.of(CallAction.ofPass(), chi);
+        assertEquals(CallAction.ofPass(), evaluator.select(choices, P6, kind->4, false));
+    }
+
+    @Test
+    void testAllSimplesChiIsSelected(){
+        evaluator.setHand(List.of(M2, M3, M4, P4, P5, S3, S4, S6, S6, S7, M6, M7, P8));
+        var chi = CallAction.ofChi(P4, P5);
+        var choices = List.of(CallAction.ofPass(), chi);
+        assertEquals(chi, evaluator.select(choices, P6, kind->4, false));
+    }
+
+    @Test
+    void testCallIsPassedWhenDefensiveUnlessReady(){
+        evaluator.setHand(List.of(M1, M2, P4, P5, S2, S2, S7, S8, S9, WN, DG, DG, M9));
+        var pon = CallAction.ofPon(DG, DG);
+        var choices = List.of(CallAction.ofPass(), pon);
+        assertEquals(CallAction.ofPass(), evaluator.select(choices, DG, kind->4, true));
+    }
+}
@@ -0,0 +1,77 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.event.Declaration;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DangerMapTest{
+    private DangerMap dangerMap;
+
+    @BeforeEach
+    void setUp(){
+        dangerMap = new DangerMap();
+        dangerMap.roundStarted(Wind.EAST, 1, 0, 0, false);
+        dangerMap.handUpdated(List.of(M1, M1, M2, M3, P4, P6, P7, S1, S2, S3, WE, WE, DR, DR), true);
+    }
+
+    @Test
+    void testNotThreatenedWithoutReady(){
+        dangerMap.riverTileAdded(Side.RIGHT, M5, false);
+        assertFalse(dangerMap.isThreatened());
+        assertEquals(DangerMap.SAFE, dangerMap.dangerOf(P5));
+    }
+
+    @Test
+    void testRiverTileIsSafe(){
+        dangerMap.riverTileAdded(Side.RIGHT, M5, false);
+        dangerMap.declared(Side.RIGHT, Declaration.READY);
+        dangerMap.riverTileAdded(Side.RIGHT, P9, true);
+        assertTrue(dangerMap.isThreatened());
+        assertEquals(DangerMap.SAFE, dangerMap.dangerOf(M5R));
+        assertEquals(DangerMap.SAFE, dangerMap.dangerOf(P9));
+    }
+
+    @Test
+    void testTilePassedAfterReadyIsSafe(){
+        dangerMap.declared(Side.RIGHT, Declaration.READY);
+        dangerMap.riverTileAdded(Side.RIGHT, P9, true);
+        assertTrue(dangerMap.dangerOf(S5)>DangerMap.SAFE);
+        dangerMap.riverTileAdded(Side.ACROSS, S5, false);
+        assertEquals(DangerMap.SAFE, dangerMap.dangerOf(S5));
+        assertTrue(dangerMap.dangerOf(S5, Side.LEFT)>DangerMap.SAFE);
+    }
+
+    @Test
+    void testSujiIsSaferThanNonSuji(){
+        dangerMap.riverTileAdded(Side.RIGHT, S4, false);
+        dangerMap.declared(Side.RIGHT, Declaration.READY);
+        dangerMap.riverTileAdded(Side.RIGHT, S8, true);
+        assertTrue(dangerMap.dangerOf(S1)<dangerMap.dangerOf(M8));
+        assertTrue(dangerMap.dangerOf(S7)<dangerMap.dangerOf(M7));
+        assertTrue(dangerMap.dangerOf(S5)<dangerMap.dangerOf(M5));
+    }
+
+    @Test
+    void testWallBlocksStraightWait(){
+        dangerMap.declared(Side.LEFT, Declaration.READY);
+        dangerMap.riverTileAdded(Side.LEFT, WN, true);
+        int before = dangerMap.dangerOf(S9);
+        dangerMap.riverTileAdded(Side.RIGHT, S8, false);
+        dangerMap.tiltMeldAdded(Side.ACROSS, Side.ACROSS, List.of(S8, S8, S8));
+        assertTrue(dangerMap.dangerOf(S9)<before);
+    }
+
+    @Test
+    void testRoundStartedClearsState(){
+        dangerMap.declared(Side.ACROSS, Declaration.READY);
+        dangerMap.roundStarted(Wind.EAST, 2, 0, 0, false);
+        assertFalse(dangerMap.isThreatened());
+    }
+}
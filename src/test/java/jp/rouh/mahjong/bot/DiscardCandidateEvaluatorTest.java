@@ -0,0 +1,45 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.util.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiscardCandidateEvaluatorTest{
+
+    private static void assertSameAsReadyScore(List<Tile> allTiles, TileCounter counter){
+        var scores = new DiscardCandidateEvaluator(counter).evaluate(allTiles);
+        assertEquals(allTiles.stream().distinct().toList(), List.copyOf(scores.keySet()));
+        for(var entry:scores.entrySet()){
+            int expected = HandAnalyses.calculateReadyScore(Lists.removed(allTiles, entry.getKey()), counter);
+            assertEquals(expected, entry.getValue(), "discard "+entry.getKey()+" from "+allTiles);
+        }
+    }
+
+    @Test
+    void testScatteredHand(){
+        assertSameAsReadyScore(List.of(M1, M4, M7, P2, P5, P8, S3, S6, S9, WE, WS, WW, DW, DG), tile->4);
+    }
+
+    @Test
+    void testSectionSplitByDiscard(){
+        assertSameAsReadyScore(List.of(M1, M3, M5, M7, P1, P2, P3, S4, S5R, S6, S6, WN, WN, DR), tile->3);
+    }
+
+    @Test
+    void testComplexHand(){
+        assertSameAsReadyScore(List.of(S1, S1, S2, S3, S3, S4, S5, S5R, S6, S7, S7, S8, S9, S9), tile->2);
+    }
+
+    @Test
+    void testRandomHands(){
+        for(int i = 0; i<30; i++){
+            var supplier = new TileSupplier();
+            assertSameAsReadyScore(supplier.take(14), supplier);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package jp.rouh.mahjong.bot;
+
+import jp.rouh.mahjong.game.SelfPlayTournament;
+
+/**
+ * 打牌ボット同士の自己対局を実行し, 成績を標準出力に出力する手動テストクラス。
+ * <p>第一引数に対局数, 第二引数にシード値を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class TournamentManualTest{
+    public static void main(String[] args){
+        int gameCount = args.length>0? Integer.parseInt(args[0]):100;
+        long seed = args.length>1? Long.parseLong(args[1]):0L;
+        var tournament = new SelfPlayTournament(gameCount, seed);
+        tournament.addPlayer("defensive", TableStrategyBots::newDefensiveBot);
+        tournament.addPlayer("ready1", TableStrategyBots::newReadyBot);
+        tournament.addPlayer("ready2", TableStrategyBots::newReadyBot);
+        tournament.addPlayer("ready3", TableStrategyBots::newReadyBot);
+        System.out.println(tournament.start());
+    }
+}
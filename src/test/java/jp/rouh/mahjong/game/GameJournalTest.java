@@ -0,0 +1,80 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameJournalTest{
+
+    private static byte[] bytes(int... values){
+        var bytes = new byte[values.length];
+        for(int i = 0; i<values.length; i++){
+            bytes[i] = (byte)values[i];
+        }
+        return bytes;
+    }
+
+    private static Map<Wind, PlayerData> seats(int eastScore){
+        var seats = new EnumMap<Wind, PlayerData>(Wind.class);
+        for(var wind:Wind.values()){
+            var data = new PlayerData();
+            data.setName(wind.name());
+            data.setSeatWind(wind);
+            data.setInitialSeatWind(wind);
+            data.setScore(wind==Wind.EAST? eastScore:25000);
+            data.setRank(wind.ordinal() + 1);
+            seats.put(wind, data);
+        }
+        return seats;
+    }
+
+    @Test
+    void testTurnIsRecordedInFewBytes(@TempDir Path directory) throws Exception{
+        var path = directory.resolve("journal"+GameJournal.FILE_SUFFIX);
+        try(var journal = new GameJournal(path, 0)){
+            journal.turnStarted(Wind.SOUTH);
+            journal.wallTileTaken(Wind.SOUTH, 3, 1);
+            journal.handUpdated(Wind.SOUTH, List.of(M1, M2), true);
+            journal.turnActionSelected(Wind.SOUTH, TurnAction.ofDiscard(M1));
+            journal.riverTileAdded(Wind.SOUTH, M1, true);
+            journal.callActionsSelected(Map.of(Wind.WEST, CallAction.ofRon()));
+            journal.diceRolled(Wind.EAST, 3, 5);
+            assertEquals(17, journal.getSize());
+        }
+        var recorded = Files.readAllBytes(path);
+        assertArrayEquals(GameJournal.MAGIC, Arrays.copyOf(recorded, 4));
+        assertEquals(GameJournal.VERSION, recorded[4]);
+        assertArrayEquals(bytes(
+                0x11,
+                0x21,
+                0x35,
+                0x51, TurnActionType.DISCARD.ordinal(), M1.ordinal(),
+                0x45,
+                0x62, CallActionType.RON.ordinal()<<4,
+                0x00, GameJournal.DICE_ROLLED, 0x35), Arrays.copyOfRange(recorded, 5, recorded.length));
+    }
+
+    @Test
+    void testSeatUpdatedRecordsOnlyChangedPlayers(@TempDir Path directory) throws Exception{
+        var path = directory.resolve("journal"+GameJournal.FILE_SUFFIX);
+        try(var journal = new GameJournal(path, 0)){
+            journal.seatUpdated(seats(25000));
+            long size = journal.getSize();
+            journal.seatUpdated(seats(25000));
+            assertEquals(size + 1, journal.getSize());
+            journal.seatUpdated(seats(24000));
+            assertEquals(size + 1 + 1 + 1 + 3, journal.getSize());
+        }
+    }
+}
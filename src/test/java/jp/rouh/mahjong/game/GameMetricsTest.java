@@ -0,0 +1,69 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.bot.TableStrategyBots;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameMetricsTest{
+
+    @Test
+    void testHistogramPercentiles(){
+        var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(0.99));
+        for(int i = 1; i<=99; i++){
+            histogram.record(10_000);
+        }
+        histogram.record(5_000_000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(59.9, histogram.getMeanMicros(), 0.001);
+        long median = histogram.getPercentileMicros(0.5);
+        assertTrue(median>=10 && median<20, "median: "+median);
+        assertTrue(histogram.getPercentileMicros(0.99)<20);
+        assertEquals(5000, histogram.getPercentileMicros(1.0));
+        assertEquals(5000, histogram.getMaxMicros());
+        histogram.record(-1);
+        assertEquals(101, histogram.getCount());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+    }
+
+    @Test
+    void testDisabledMetricsIgnoreRecords(){
+        var metrics = GameMetrics.DISABLED;
+        long rounds = metrics.getRoundsPlayed();
+        metrics.roundPlayed();
+        metrics.turnDecided(1000);
+        assertEquals(rounds, metrics.getRoundsPlayed());
+        assertEquals(0, metrics.getTurnDecisionCount());
+    }
+
+    @Test
+    void testGameUpdatesSharedMetrics() throws Exception{
+        var metrics = GameMetrics.getShared();
+        long games = metrics.getGamesFinished();
+        long rounds = metrics.getRoundsPlayed();
+        long events = metrics.getEventsNotified();
+        long decisions = metrics.getTurnDecisionCount();
+        var table = new GameTable();
+        for(var name:List.of("A", "B", "C", "D")){
+            table.addPlayer(name, TableStrategyBots.newReadyBot());
+        }
+        table.start();
+        assertEquals(games + 1, metrics.getGamesFinished());
+        assertTrue(metrics.getRoundsPlayed()>rounds);
+        assertTrue(metrics.getEventsNotified()>events);
+        assertTrue(metrics.getTurnDecisionCount()>decisions);
+        assertTrue(metrics.getTurnDecisionP99Micros()>=metrics.getTurnDecisionP50Micros());
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName(GameMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(metrics.getGamesFinished(), server.getAttribute(name, "GamesFinished"));
+        assertNotNull(server.getAttribute(name, "TurnDecisionP99Micros"));
+    }
+}
@@ -0,0 +1,56 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.bot.TableStrategyBots;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameReplayerTest{
+
+    private static Path recordGame(Path directory) throws Exception{
+        var table = new GameTable();
+        for(var name:List.of("A", "B", "C", "D")){
+            table.addPlayer(name, TableStrategyBots.newReadyBot());
+        }
+        table.setJournalDirectory(directory);
+        table.start();
+        try(var files = Files.list(directory)){
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void testRecordedGameIsReplayed(@TempDir Path directory) throws Exception{
+        var path = recordGame(directory);
+        var record = GameRecord.read(path);
+        assertEquals(Set.of("A", "B", "C", "D"), Set.copyOf(record.getNames().values()));
+        assertFalse(record.getDecisions().isEmpty());
+        var replayer = new GameReplayer();
+        replayer.addJournal(path);
+        var result = replayer.start();
+        assertEquals(1, result.getGameCount());
+        assertEquals(0, result.getMismatchCount());
+        assertEquals(record.getDecisions().size(), result.getDecisionCount());
+    }
+
+    @Test
+    void testTamperedRecordIsMismatched(@TempDir Path directory) throws Exception{
+        var path = recordGame(directory);
+        var bytes = Files.readAllBytes(path);
+        var tampered = Arrays.copyOf(bytes, bytes.length + 1);
+        tampered[bytes.length] = (byte)(GameJournal.TURN_STARTED<<4);
+        Files.write(path, tampered);
+        var replayer = new GameReplayer();
+        replayer.addJournal(path);
+        var result = replayer.start();
+        assertEquals(0, result.getGameCount());
+        assertEquals(1, result.getMismatchCount());
+    }
+}
@@ -0,0 +1,249 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoundAsyncTest{
+
+    /**
+     * 局のテスト用の対局プレイヤー。
+     */
+    private static class TestPlayer extends ForwardingTableStrategy implements GamePlayerAccessor{
+        private final Wind seatWind;
+        private int score = 25000;
+        private int timeoutCount;
+
+        private TestPlayer(Wind seatWind, TableStrategy strategy){
+            super(strategy);
+            this.seatWind = seatWind;
+        }
+
+        @Override
+        public String getName(){
+            return seatWind.name();
+        }
+
+        @Override
+        public Wind getSeatWindAt(int roundCount){
+            return seatWind;
+        }
+
+        @Override
+        public int getScore(){
+            return score;
+        }
+
+        @Override
+        public int getRank(){
+            return 1;
+        }
+
+        @Override
+        public int getScoreGapToUpperRank(){
+            return 0;
+        }
+
+        @Override
+        public void applyScore(int score){
+            this.score += score;
+        }
+
+        @Override
+        public void decisionTimedOut(){
+            timeoutCount++;
+        }
+
+        @Override
+        public int getTimeoutCount(){
+            return timeoutCount;
+        }
+    }
+
+    /**
+     * 和了可能であれば和了し, そうでなければツモ切りする戦略。
+     * <p>回答は指定された実行サービス上で非同期に行います。
+     */
+    private static class TsumogiriStrategy implements TableObserverAdapter, AsyncTableStrategy{
+        private final Executor responder;
+
+        private TsumogiriStrategy(Executor responder){
+            this.responder = responder;
+        }
+
+        @Override
+        public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices){
+            return CompletableFuture.supplyAsync(()->{
+                var selector = new TurnActionSelector(choices);
+                return selector.canDeclareTsumo()? selector.getTsumoAction():selector.getDefaultAction();
+            }, responder);
+        }
+
+        @Override
+        public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices){
+            return CompletableFuture.supplyAsync(()->{
+                var selector = new CallActionSelector(choices);
+                return selector.canDeclareRon()? selector.getRonAction():selector.getPassAction();
+            }, responder);
+        }
+    }
+
+    /**
+     * ターン内行動の選択に回答しない戦略。
+     */
+    private static class SilentStrategy implements TableObserverAdapter, AsyncTableStrategy{
+
+        @Override
+        public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices){
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices){
+            return CompletableFuture.completedFuture(new CallActionSelector(choices).getPassAction());
+        }
+    }
+
+    /**
+     * 同期的にツモ切り又はパスを選択し, 選択を行ったスレッドの名前を記録する戦略。
+     * <p>指定された回数のターン開始の通知の後は, 通知に対して{@link AssertionError}をスローします。
+     */
+    private static class BlockingStrategy implements TableObserverAdapter, TableStrategy{
+        private final List<String> threadNames;
+        private int remainingTurns;
+
+        private BlockingStrategy(List<String> threadNames, int remainingTurns){
+            this.threadNames = threadNames;
+            this.remainingTurns = remainingTurns;
+        }
+
+        @Override
+        public void turnStarted(Side side){
+            if(remainingTurns--==0){
+                throw new AssertionError("round stopped by test");
+            }
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            threadNames.add(Thread.currentThread().getName());
+            return new TurnActionSelector(choices).getDefaultAction();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            threadNames.add(Thread.currentThread().getName());
+            return new CallActionSelector(choices).getPassAction();
+        }
+    }
+
+    private static List<TestPlayer> newPlayers(Executor responder){
+        var players = new ArrayList<TestPlayer>(4);
+        for(var wind:Wind.values()){
+            players.add(new TestPlayer(wind, new TsumogiriStrategy(responder)));
+        }
+        return players;
+    }
+
+    private static Round newRound(List<TestPlayer> players, long seed){
+        var params = new RoundParameter(new RoundID(Wind.EAST, 1), 0, 0, false);
+        return new Round(params, players, new SeededWallGenerator(seed));
+    }
+
+    @Test
+    void testAsyncRoundMatchesBlockingRound() throws Exception{
+        var executor = Executors.newFixedThreadPool(2);
+        var responder = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS);
+        try{
+            for(long seed = 0; seed<10; seed++){
+                var blockingPlayers = newPlayers(Runnable::run);
+                var blockingResult = newRound(blockingPlayers, seed).start(3, 4);
+                var asyncPlayers = newPlayers(responder);
+                var asyncResult = newRound(asyncPlayers, seed).startAsync(3, 4, executor).get(30, TimeUnit.SECONDS);
+                assertEquals(blockingResult, asyncResult);
+                for(int i = 0; i<4; i++){
+                    assertEquals(blockingPlayers.get(i).getScore(), asyncPlayers.get(i).getScore());
+                }
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testManyRoundsShareSmallPool() throws Exception{
+        var executor = Executors.newFixedThreadPool(2);
+        var responder = CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS);
+        try{
+            var futures = new ArrayList<CompletableFuture<RoundResultType>>();
+            for(long seed = 0; seed<64; seed++){
+                futures.add(newRound(newPlayers(responder), seed).startAsync(5, 2, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnansweredTurnActionTimesOut() throws Exception{
+        var executor = Executors.newSingleThreadExecutor();
+        try{
+            var players = new ArrayList<TestPlayer>(4);
+            for(var wind:Wind.values()){
+                players.add(new TestPlayer(wind, new SilentStrategy()));
+            }
+            var round = newRound(players, 1L);
+            round.setDecisionTimeout(5);
+            var result = round.startAsync(1, 1, executor).get(30, TimeUnit.SECONDS);
+            assertTrue(result.isDrawn());
+            for(var player:players){
+                assertTrue(player.getTimeoutCount()>0);
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBlockingStrategiesRunOnCallerExecutor() throws Exception{
+        var executor = Executors.newFixedThreadPool(2, runnable->new Thread(runnable, "round-pool"));
+        try{
+            var threadNames = new CopyOnWriteArrayList<String>();
+            var players = new ArrayList<TestPlayer>(4);
+            for(var wind:Wind.values()){
+                players.add(new TestPlayer(wind, new BlockingStrategy(threadNames, Integer.MAX_VALUE)));
+            }
+            newRound(players, 3L).startAsync(2, 5, executor).get(30, TimeUnit.SECONDS);
+            assertFalse(threadNames.isEmpty());
+            for(var threadName:threadNames){
+                assertEquals("round-pool", threadName);
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testErrorCompletesRoundExceptionally() throws Exception{
+        var executor = Executors.newSingleThreadExecutor();
+        try{
+            var players = new ArrayList<TestPlayer>(4);
+            for(var wind:Wind.values()){
+                players.add(new TestPlayer(wind, new BlockingStrategy(new CopyOnWriteArrayList<>(), 2)));
+            }
+            var result = newRound(players, 3L).startAsync(2, 5, executor);
+            var e = assertThrows(ExecutionException.class, ()->result.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AssertionError, "cause: "+e.getCause());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+}
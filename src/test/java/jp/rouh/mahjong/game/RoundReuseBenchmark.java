@@ -0,0 +1,69 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.tile.DiceTwin;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+
+/**
+ * 局のオブジェクトの再利用の有無による自己対局のメモリ割り当て量及びGCの回数を比較する手動テストクラス。
+ * <p>{@link RoundReuseTest.GreedyStrategy}同士の対局を呼び出し元のスレッドで順に実行し,
+ * スレッドが割り当てたバイト数, GCの回数と累計時間及び処理時間を標準出力に出力します。
+ * 割り当て量の計測には{@link com.sun.management.ThreadMXBean}を用います。
+ * <p>第一引数に対局数(既定は10000), 第二引数に計測の繰り返し回数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class RoundReuseBenchmark{
+
+    private static long[] gcTotals(){
+        long count = 0;
+        long millis = 0;
+        for(GarbageCollectorMXBean bean:ManagementFactory.getGarbageCollectorMXBeans()){
+            count += Math.max(0, bean.getCollectionCount());
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    private static void measure(int gameCount, boolean reuse){
+        var threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        System.gc();
+        long[] startGc = gcTotals();
+        long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        for(int i = 0; i<gameCount; i++){
+            var players = new EnumMap<Wind, Player>(Wind.class);
+            for(var wind:Wind.values()){
+                players.put(wind, new Player(wind.name(), new RoundReuseTest.GreedyStrategy()));
+            }
+            var wallGenerator = new SeededWallGenerator(i);
+            wallGenerator.setWallReuse(reuse);
+            var game = new PreparedGame(players, GameSpan.ofHalfGame(), wallGenerator);
+            game.setSimulationMode(true);
+            game.setRoundReuse(reuse);
+            game.setDiceRoller(()->new DiceTwin(3, 4));
+            game.start();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+        long[] endGc = gcTotals();
+        System.out.printf("reuse=%-5s games=%d allocated=%,d bytes (%,d bytes/game) gc=%d (%,d ms) elapsed=%.2fs%n",
+                reuse, gameCount, allocatedBytes, allocatedBytes/gameCount,
+                endGc[0] - startGc[0], endGc[1] - startGc[1], elapsedNanos/1e9);
+    }
+
+    public static void main(String[] args){
+        int gameCount = args.length>0? Integer.parseInt(args[0]):10000;
+        int repeat = args.length>1? Integer.parseInt(args[1]):3;
+        //ウォームアップ
+        measure(gameCount/10 + 1, false);
+        measure(gameCount/10 + 1, true);
+        for(int i = 0; i<repeat; i++){
+            measure(gameCount, false);
+            measure(gameCount, true);
+        }
+    }
+}
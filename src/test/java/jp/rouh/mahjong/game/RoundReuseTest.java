@@ -0,0 +1,191 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.DiceTwin;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Tiles;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoundReuseTest{
+
+    /**
+     * 和了・立直・鳴きが可能であれば宣言し, そうでなければ既定の打牌を行う決定的な戦略。
+     */
+    static class GreedyStrategy implements TableObserverAdapter, TableStrategy{
+
+        @Override
+        public Set<TableEventCategory> getRequiredEventCategories(){
+            return EnumSet.noneOf(TableEventCategory.class);
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            var selector = new TurnActionSelector(choices);
+            if(selector.canDeclareTsumo()){
+                return selector.getTsumoAction();
+            }
+            for(var choice:choices){
+                if(choice.type()==TurnActionType.READY_DISCARD){
+                    return choice;
+                }
+            }
+            return selector.getDefaultAction();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            var selector = new CallActionSelector(choices);
+            if(selector.canDeclareRon()){
+                return selector.getRonAction();
+            }
+            return choices.get(choices.size() - 1);
+        }
+    }
+
+    /**
+     * 局の進行を文字列で記録する記録先。
+     */
+    private static class TraceRecorder implements TableRecorder{
+        private final List<String> trace = new ArrayList<>();
+
+        @Override
+        public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+            trace.add("round "+wind+count+" "+streak+" "+deposit+" "+last);
+        }
+
+        @Override
+        public void wallGenerated(List<Tile> tiles){
+            trace.add("wall "+tiles);
+        }
+
+        @Override
+        public void turnActionSelected(Wind wind, TurnAction action){
+            trace.add(wind+" "+action);
+        }
+
+        @Override
+        public void callActionsSelected(Map<Wind, CallAction> actions){
+            if(!actions.isEmpty()){
+                trace.add("call "+actions);
+            }
+        }
+
+        @Override
+        public void paymentNotified(Map<Wind, PaymentData> payments){
+            var scores = new ArrayList<Integer>();
+            for(var wind:Wind.values()){
+                scores.add(payments.get(wind).getScoreAfter());
+            }
+            trace.add("payment "+scores);
+        }
+    }
+
+    static PreparedGame newGame(long seed, boolean reuse){
+        var players = new EnumMap<Wind, Player>(Wind.class);
+        for(var wind:Wind.values()){
+            players.put(wind, new Player(wind.name(), new GreedyStrategy()));
+        }
+        var wallGenerator = new SeededWallGenerator(seed);
+        wallGenerator.setWallReuse(reuse);
+        var game = new PreparedGame(players, GameSpan.ofHalfGame(), wallGenerator);
+        game.setSimulationMode(true);
+        game.setRoundReuse(reuse);
+        var dices = new int[]{(int)(seed%6)};
+        game.setDiceRoller(()->{
+            dices[0]++;
+            return new DiceTwin(dices[0]%6 + 1, dices[0]*5%6 + 1);
+        });
+        return game;
+    }
+
+    private static List<String> trace(long seed, boolean reuse){
+        var recorder = new TraceRecorder();
+        var game = newGame(seed, reuse);
+        game.setRecorder(recorder);
+        game.start();
+        return recorder.trace;
+    }
+
+    @Test
+    void testReusedRoundsFollowFreshRounds(){
+        for(long seed = 0; seed<10; seed++){
+            var fresh = trace(seed, false);
+            var reused = trace(seed, true);
+            assertTrue(fresh.stream().filter(line->line.startsWith("round")).count()>1);
+            assertEquals(fresh, reused, "seed: "+seed);
+        }
+    }
+
+    @Test
+    void testReadyPlayerRonsInFirstAround(){
+        //第一巡に立直した後, 同じ巡目のうちに他家の打牌でロンする対局
+        for(var reuse:new boolean[]{false, true}){
+            var game = newGame(296L, reuse);
+            game.setDiceRoller(()->new DiceTwin(3, 4));
+            assertDoesNotThrow(game::start);
+        }
+    }
+
+    @Test
+    void testQuadRecomputesWinningTiles(){
+        //南家の[S4 S6 S6 S6]は四索と五索待ちだが, 大明槓の後は四索単騎のみとなる
+        var scenario = new WallScenario(Tiles.newTileSet());
+        scenario.setDistributionTiles(Wind.SOUTH, List.of(Tile.S4, Tile.S6, Tile.S6, Tile.S6,
+                Tile.P1, Tile.P2, Tile.P3, Tile.P4, Tile.P5, Tile.P6, Tile.P7, Tile.P8, Tile.P9));
+        scenario.setTurnDrawTile(Wind.EAST, List.of(Tile.S6));
+        scenario.setQuadDrawTiles(List.of(Tile.S5));
+        var game = newGame(0L, false);
+        var players = new ArrayList<GamePlayerAccessor>();
+        for(var wind:Wind.values()){
+            players.add(new GamePlayer(game, new Player(wind.name(), new GreedyStrategy()), wind));
+        }
+        var params = new RoundParameter(new RoundID(Wind.EAST, 1), 0, 0, false);
+        var round = new Round(params, players, scenario::generateWall);
+        round.deal(3, 4);
+        assertEquals(Round.Phase.TURN_DECISION, round.proceed());
+        round.resumeTurn(new TurnActionSelector(round.getTurnChoices()).getDefaultAction());
+        assertEquals(Round.Phase.DISCARD_CALL_WINDOW, round.proceed());
+        var kan = round.getCallChoices(Wind.SOUTH).stream()
+                .filter(action->action.type()==CallActionType.KAN)
+                .findFirst().orElseThrow();
+        round.resumeCall(Map.of(Wind.SOUTH, kan));
+        assertEquals(Round.Phase.TURN_DECISION, round.proceed());
+        assertEquals(Wind.SOUTH, round.getTurnWind());
+        assertFalse(new TurnActionSelector(round.getTurnChoices()).canDeclareTsumo());
+    }
+
+    @Test
+    void testResetRequiresFinishedRound(){
+        var players = new ArrayList<GamePlayerAccessor>();
+        var game = newGame(0L, false);
+        for(var wind:Wind.values()){
+            players.add(new GamePlayer(game, new Player(wind.name(), new GreedyStrategy()), wind));
+        }
+        var params = new RoundParameter(new RoundID(Wind.EAST, 1), 0, 0, false);
+        var round = new Round(params, players, new SeededWallGenerator(1L));
+        round.deal(3, 4);
+        assertThrows(IllegalStateException.class, ()->round.reset(params));
+    }
+
+    @Test
+    void testSharedWallTilesAreNotOverwritten(){
+        var generator = new SeededWallGenerator(5L);
+        generator.setWallReuse(true);
+        var wall = generator.generate(3, 4);
+        var tiles = wall.getTiles();
+        var copy = wall.copy();
+        assertSame(wall, generator.generate(2, 2));
+        assertEquals(tiles, copy.getTiles());
+        assertNotEquals(tiles, wall.getTiles());
+    }
+}
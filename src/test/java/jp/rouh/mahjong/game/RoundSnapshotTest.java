@@ -0,0 +1,211 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoundSnapshotTest{
+
+    /**
+     * 局のテスト用の対局プレイヤー。
+     */
+    private static class TestPlayer implements GamePlayerAccessor, TableObserverAdapter{
+        private final Wind seatWind;
+        private int score = 25000;
+
+        private TestPlayer(Wind seatWind){
+            this.seatWind = seatWind;
+        }
+
+        @Override
+        public String getName(){
+            return seatWind.name();
+        }
+
+        @Override
+        public Wind getSeatWindAt(int roundCount){
+            return seatWind;
+        }
+
+        @Override
+        public int getScore(){
+            return score;
+        }
+
+        @Override
+        public int getRank(){
+            return 1;
+        }
+
+        @Override
+        public int getScoreGapToUpperRank(){
+            return 0;
+        }
+
+        @Override
+        public void applyScore(int score){
+            this.score += score;
+        }
+
+        @Override
+        public void decisionTimedOut(){
+        }
+
+        @Override
+        public int getTimeoutCount(){
+            return 0;
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            return selectTurn(seatWind, choices);
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            return selectCall(seatWind, choices);
+        }
+    }
+
+    private static TurnAction selectTurn(Wind wind, List<TurnAction> choices){
+        var selector = new TurnActionSelector(choices);
+        return selector.canDeclareTsumo()? selector.getTsumoAction():selector.getDefaultAction();
+    }
+
+    private static CallAction selectCall(Wind wind, List<CallAction> choices){
+        var selector = new CallActionSelector(choices);
+        return selector.canDeclareRon()? selector.getRonAction():selector.getPassAction();
+    }
+
+    private static List<TestPlayer> newPlayers(){
+        var players = new ArrayList<TestPlayer>(4);
+        for(var wind:Wind.values()){
+            players.add(new TestPlayer(wind));
+        }
+        return players;
+    }
+
+    private static Round newDealtRound(List<TestPlayer> players, long seed){
+        var params = new RoundParameter(new RoundID(Wind.EAST, 1), 0, 0, false);
+        var round = new Round(params, players, new SeededWallGenerator(seed));
+        round.deal(3, 4);
+        return round;
+    }
+
+    private static void advance(Round round, int steps){
+        for(int i = 0; i<steps; i++){
+            var phase = round.proceed();
+            if(phase==Round.Phase.FINISHED){
+                return;
+            }
+            if(phase==Round.Phase.TURN_DECISION){
+                round.resumeTurn(selectTurn(round.getTurnWind(), round.getTurnChoices()));
+            }else{
+                var actions = new EnumMap<Wind, CallAction>(Wind.class);
+                for(var wind:round.getTurnWind().others()){
+                    var action = selectCall(wind, round.getCallChoices(wind));
+                    if(action.type()!=CallActionType.PASS){
+                        actions.put(wind, action);
+                    }
+                }
+                round.resumeCall(actions);
+            }
+        }
+    }
+
+    private static Map<Wind, Integer> playOut(SimulationRound round){
+        round.playOut(RoundSnapshotTest::selectTurn, RoundSnapshotTest::selectCall);
+        var scores = new EnumMap<Wind, Integer>(Wind.class);
+        for(var wind:Wind.values()){
+            scores.put(wind, round.getScoreAt(wind));
+        }
+        return scores;
+    }
+
+    @Test
+    void testForkedRoundFollowsOriginalRound(){
+        for(long seed = 0; seed<5; seed++){
+            var players = newPlayers();
+            var round = newDealtRound(players, seed);
+            advance(round, 20);
+            var snapshot = round.snapshot();
+            var fork = snapshot.fork();
+            var forkScores = playOut(fork);
+            advance(round, Integer.MAX_VALUE);
+            assertEquals(Round.Phase.FINISHED, round.getPhase());
+            assertEquals(round.getResultType(), fork.getResultType());
+            for(var player:players){
+                assertEquals(player.getScore(), forkScores.get(player.seatWind));
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByForks(){
+        var round = newDealtRound(newPlayers(), 7L);
+        advance(round, 10);
+        var snapshot = round.snapshot();
+        var turnWind = snapshot.getTurnWind();
+        var river = snapshot.getPlayerAt(turnWind).river().clone();
+        var first = snapshot.fork();
+        var firstScores = playOut(first);
+        assertEquals(Round.Phase.FINISHED, first.getPhase());
+        assertArrayEquals(river, snapshot.getPlayerAt(turnWind).river());
+        var second = snapshot.fork();
+        assertEquals(snapshot.getPhase(), second.getPhase());
+        assertEquals(firstScores, playOut(second));
+        assertEquals(first.getResultType(), second.getResultType());
+    }
+
+    @Test
+    void testForkOfForkFollowsFork(){
+        var round = newDealtRound(newPlayers(), 3L);
+        advance(round, 4);
+        var fork = round.snapshot().fork();
+        for(int i = 0; i<30 && fork.proceed()!=Round.Phase.FINISHED; i++){
+            if(fork.getPhase()==Round.Phase.TURN_DECISION){
+                fork.resumeTurn(selectTurn(fork.getTurnWind(), fork.getTurnChoices()));
+            }else{
+                fork.resumeCall(Map.of());
+            }
+        }
+        var nested = fork.snapshot().fork();
+        assertEquals(fork.getTurnChoices(), nested.getTurnChoices());
+        assertEquals(playOut(fork), playOut(nested));
+        assertEquals(fork.getResultType(), nested.getResultType());
+    }
+
+    @Test
+    void testPlayerSnapshotArraysAreCopied(){
+        var handTiles = new byte[]{0, 1, 2, 3};
+        var river = new byte[]{4, 5};
+        var player = new RoundSnapshot.PlayerSnapshot("A", Wind.EAST, 25000, handTiles, (byte)-1,
+                List.of(), river, 0, 0, 0, 0);
+        handTiles[0] = 9;
+        river[0] = 9;
+        assertArrayEquals(new byte[]{0, 1, 2, 3}, player.handTiles());
+        assertArrayEquals(new byte[]{4, 5}, player.river());
+        player.handTiles()[1] = 9;
+        player.river()[1] = 9;
+        assertArrayEquals(new byte[]{0, 1, 2, 3}, player.handTiles());
+        assertArrayEquals(new byte[]{4, 5}, player.river());
+    }
+
+    @Test
+    void testIllegalCallActionIsRejected(){
+        var round = newDealtRound(newPlayers(), 11L);
+        var fork = round.snapshot().fork();
+        assertEquals(Round.Phase.TURN_DECISION, fork.proceed());
+        assertThrows(IllegalStateException.class, ()->fork.resumeCall(Map.of()));
+        fork.resumeTurn(selectTurn(fork.getTurnWind(), fork.getTurnChoices()));
+        var wind = fork.getTurnWind().next();
+        assertThrows(IllegalArgumentException.class, ()->fork.resumeCall(Map.of(wind, CallAction.ofRon())));
+    }
+}
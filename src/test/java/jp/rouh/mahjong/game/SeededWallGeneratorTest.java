@@ -0,0 +1,52 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Tiles;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeededWallGeneratorTest{
+
+    private static List<Tile> drawAll(Wall wall){
+        var tiles = new ArrayList<Tile>(136);
+        while(wall.hasDrawableTile()){
+            tiles.add(wall.takeTile());
+        }
+        for(int i = 0; i<4; i++){
+            tiles.add(wall.takeQuadTile());
+        }
+        wall.revealIndicatorImmediately();
+        tiles.addAll(wall.getUpperIndicators());
+        return tiles;
+    }
+
+    @Test
+    void testSameSeedGivesSameDrawOrder(){
+        var wall1 = new SeededWallGenerator(42L).generate(1, 1);
+        var wall2 = new SeededWallGenerator(42L).generate(6, 5);
+        assertEquals(drawAll(wall1), drawAll(wall2));
+    }
+
+    @Test
+    void testEachRoundGivesDifferentWall(){
+        var generator = new SeededWallGenerator(42L);
+        var first = drawAll(generator.generate(3, 4));
+        var second = drawAll(generator.generate(3, 4));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void testWallContainsTileSet(){
+        var generator = new SeededWallGenerator(7L);
+        for(int i = 0; i<10; i++){
+            var tileSet = Tiles.newTileSet();
+            for(var tile:drawAll(generator.generate(2, 3)).subList(0, 126)){
+                assertTrue(tileSet.remove(tile));
+            }
+        }
+    }
+}
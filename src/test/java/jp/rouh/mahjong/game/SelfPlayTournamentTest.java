@@ -0,0 +1,79 @@
+package jp.rouh.mahjong.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SelfPlayTournamentTest{
+    private static final int GAME_COUNT = 8;
+
+    private static TournamentResult play(long seed, int parallelism, boolean simulationMode){
+        var tournament = new SelfPlayTournament(GAME_COUNT, seed);
+        for(var name:new String[]{"A", "B", "C", "D"}){
+            tournament.addPlayer(name, RoundReuseTest.GreedyStrategy::new);
+        }
+        tournament.setSpan(GameSpan::ofEastGame);
+        tournament.setParallelism(parallelism);
+        tournament.setSimulationMode(simulationMode);
+        return tournament.start();
+    }
+
+    private static void assertSameResult(TournamentResult expected, TournamentResult actual){
+        assertEquals(expected.getDecisionCount(), actual.getDecisionCount());
+        for(int slot = 0; slot<4; slot++){
+            var e = expected.getStatistics(slot);
+            var a = actual.getStatistics(slot);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getAverageScore(), a.getAverageScore());
+            assertEquals(e.getAverageRank(), a.getAverageRank());
+            assertEquals(e.getAverageResultPoint(), a.getAverageResultPoint());
+            assertEquals(e.getWinRate(), a.getWinRate());
+            assertEquals(e.getDealInRate(), a.getDealInRate());
+            assertEquals(e.getDecisionCount(), a.getDecisionCount());
+        }
+    }
+
+    @Test
+    void testSameSeedGivesSameResult(){
+        var first = play(42L, 2, true);
+        var second = play(42L, 1, true);
+        assertEquals(0, first.getFailedGameCount());
+        assertEquals(GAME_COUNT, first.getGameCount());
+        assertSameResult(first, second);
+    }
+
+    @Test
+    void testSimulationModeGivesSameResult(){
+        assertSameResult(play(7L, 1, false), play(7L, 1, true));
+    }
+
+    @Test
+    void testScoresAndStandingsAddUp(){
+        var result = play(3L, 2, true);
+        assertEquals(0, result.getFailedGameCount());
+        double scoreSum = 0;
+        double resultPointSum = 0;
+        double rankSum = 0;
+        for(int slot = 0; slot<4; slot++){
+            var statistics = result.getStatistics(slot);
+            scoreSum += statistics.getAverageScore()*GAME_COUNT;
+            resultPointSum += statistics.getAverageResultPoint()*GAME_COUNT;
+            rankSum += statistics.getAverageRank()*GAME_COUNT;
+            double rankRateSum = 0;
+            for(int rank = 1; rank<=4; rank++){
+                rankRateSum += statistics.getRankRate(rank);
+            }
+            assertEquals(1.0, rankRateSum, 1e-9);
+        }
+        assertEquals(100000.0*GAME_COUNT, scoreSum, 1e-6);
+        assertEquals(0.0, resultPointSum, 1e-6);
+        assertEquals(10.0*GAME_COUNT, rankSum, 1e-9);
+        for(int rank = 1; rank<=4; rank++){
+            double rateSum = 0;
+            for(int slot = 0; slot<4; slot++){
+                rateSum += result.getStatistics(slot).getRankRate(rank);
+            }
+            assertEquals(1.0, rateSum, 1e-9);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Tile;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * シミュレーションモードの有無による対局の処理速度を比較する手動テストクラス。
+ * <p>戦略の思考時間の影響を除くため, 孤立した牌から打牌するだけの簡易な戦略同士で対局し,
+ * 1秒あたりの対局数を標準出力に出力します。
+ * <p>第一引数に対局数, 第二引数に計測の繰り返し回数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class SimulationModeBenchmark{
+
+    /**
+     * 孤立した牌から打牌する簡易な戦略。
+     * <p>和了及び立直が可能であれば必ず宣言し, 鳴きは行いません。
+     */
+    private static class IsolatedTileStrategy implements TableObserverAdapter, TableStrategy{
+        private final int[] counts = new int[34];
+
+        @Override
+        public Set<TableEventCategory> getRequiredEventCategories(){
+            return EnumSet.of(TableEventCategory.HAND);
+        }
+
+        @Override
+        public void handUpdated(List<Tile> allTiles, boolean wide){
+            Arrays.fill(counts, 0);
+            for(var tile:allTiles){
+                counts[tile.tileNumber()]++;
+            }
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            TurnAction selected = null;
+            int minimum = Integer.MAX_VALUE;
+            for(var choice:choices){
+                switch(choice.type()){
+                    case TSUMO, READY_DISCARD -> {
+                        return choice;
+                    }
+                    case DISCARD, DISCARD_DRAWN -> {
+                        int connection = connectionOf(choice.argument().tileNumber());
+                        if(connection<minimum){
+                            minimum = connection;
+                            selected = choice;
+                        }
+                    }
+                    default -> {}
+                }
+            }
+            return selected!=null? selected:choices.get(0);
+        }
+
+        private int connectionOf(int kind){
+            int connection = (counts[kind] - 1)*4;
+            if(kind<27){
+                for(int distance = -2; distance<=2; distance++){
+                    int number = kind%9 + distance;
+                    if(distance!=0 && number>=0 && number<9){
+                        connection += counts[kind + distance]*(3 - Math.abs(distance));
+                    }
+                }
+            }
+            return connection;
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            var selector = new CallActionSelector(choices);
+            if(selector.canDeclareRon()){
+                return selector.getRonAction();
+            }
+            return selector.getPassAction();
+        }
+    }
+
+    private static double measure(int gameCount, boolean simulationMode){
+        var tournament = new SelfPlayTournament(gameCount, 0L);
+        for(int i = 0; i<4; i++){
+            tournament.addPlayer("isolated"+i, IsolatedTileStrategy::new);
+        }
+        tournament.setParallelism(1);
+        tournament.setSimulationMode(simulationMode);
+        var result = tournament.start();
+        if(result.getFailedGameCount()>0){
+            throw new IllegalStateException("game aborted in benchmark: "+result.getFailedGameCount());
+        }
+        return result.getGamesPerSecond();
+    }
+
+    public static void main(String[] args){
+        int gameCount = args.length>0? Integer.parseInt(args[0]):2000;
+        int repeat = args.length>1? Integer.parseInt(args[1]):5;
+        //ウォームアップ
+        measure(gameCount, false);
+        measure(gameCount, true);
+        for(int i = 0; i<repeat; i++){
+            double normal = measure(gameCount, false);
+            double simulation = measure(gameCount, true);
+            System.out.printf("normal: %.1f games/s, simulation: %.1f games/s (x%.2f)%n",
+                    normal, simulation, simulation/normal);
+        }
+    }
+}
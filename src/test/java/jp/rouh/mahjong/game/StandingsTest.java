@@ -0,0 +1,77 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static jp.rouh.mahjong.tile.Wind.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StandingsTest{
+
+    @Test
+    void testTiedPlayersRankedBySeatOrder(){
+        var standings = new Standings(25000);
+        assertEquals(List.of(EAST, SOUTH, WEST, NORTH), standings.getWindsInRankOrder());
+        for(var wind:Wind.values()){
+            assertEquals(wind.ordinal() + 1, standings.getRankOf(wind));
+            assertEquals(0, standings.getScoreGapToUpperRank(wind));
+        }
+    }
+
+    @Test
+    void testScoreChangedMovesPlayer(){
+        var standings = new Standings(25000);
+        standings.scoreChanged(NORTH, 33000);
+        standings.scoreChanged(EAST, 17000);
+        assertEquals(List.of(NORTH, SOUTH, WEST, EAST), standings.getWindsInRankOrder());
+        assertEquals(1, standings.getRankOf(NORTH));
+        assertEquals(4, standings.getRankOf(EAST));
+        assertEquals(EAST, standings.getWindAt(4));
+        assertEquals(8000, standings.getScoreGapToUpperRank(SOUTH));
+        assertEquals(0, standings.getScoreGapToUpperRank(WEST));
+        assertEquals(8000, standings.getScoreGapToUpperRank(EAST));
+        assertEquals(0, standings.getScoreGapToUpperRank(NORTH));
+        standings.scoreChanged(EAST, 25000);
+        assertEquals(List.of(NORTH, EAST, SOUTH, WEST), standings.getWindsInRankOrder());
+        assertEquals(33000, standings.getScoreOf(NORTH));
+        assertThrows(IllegalArgumentException.class, ()->standings.getWindAt(5));
+    }
+
+    @Test
+    void testMatchesSortedScores(){
+        var random = new Random(45);
+        var standings = new Standings(25000);
+        var scores = new int[]{25000, 25000, 25000, 25000};
+        for(int i = 0; i<1000; i++){
+            var wind = Wind.values()[random.nextInt(4)];
+            scores[wind.ordinal()] += (random.nextInt(9) - 4)*1000;
+            standings.scoreChanged(wind, scores[wind.ordinal()]);
+            var expected = Arrays.stream(Wind.values())
+                    .sorted(Comparator.comparing((Wind w)->scores[w.ordinal()]).reversed().thenComparing(w->w))
+                    .toList();
+            assertEquals(expected, standings.getWindsInRankOrder());
+            for(int rank = 1; rank<=4; rank++){
+                assertEquals(rank, standings.getRankOf(expected.get(rank - 1)));
+            }
+        }
+    }
+
+    @Test
+    void testGamePlayerUpdatesStandings(){
+        var game = RoundReuseTest.newGame(0L, false);
+        var south = new GamePlayer(game, new Player("S", new RoundReuseTest.GreedyStrategy()), SOUTH);
+        var west = new GamePlayer(game, new Player("W", new RoundReuseTest.GreedyStrategy()), WEST);
+        assertEquals(2, south.getRank());
+        south.applyScore(-3000);
+        assertEquals(4, south.getRank());
+        assertEquals(3000, south.getScoreGapToUpperRank());
+        west.applyScore(5000);
+        assertEquals(1, west.getRank());
+        assertEquals(SOUTH, game.getStandings().getWindAt(4));
+    }
+}
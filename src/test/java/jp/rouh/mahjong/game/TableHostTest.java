@@ -0,0 +1,113 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableHostTest{
+
+    /**
+     * 対局開始の通知を受けてからラッチが開放されるまで待機し, 対局を中断させる戦略。
+     */
+    private static class BlockingStrategy implements TableObserverAdapter, TableStrategy{
+        private final CountDownLatch started;
+        private final CountDownLatch released;
+
+        private BlockingStrategy(CountDownLatch started, CountDownLatch released){
+            this.started = started;
+            this.released = released;
+        }
+
+        @Override
+        public void gameStarted(List<ProfileData> players){
+            started.countDown();
+            try{
+                released.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("table stopped by test");
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static GameTable newTable(CountDownLatch started, CountDownLatch released){
+        var table = new GameTable();
+        for(int i = 0; i<4; i++){
+            table.addPlayer("player"+i, new BlockingStrategy(started, released));
+        }
+        return table;
+    }
+
+    @Test
+    void testTableIsRejectedWhenFull() throws Exception{
+        var host = new TableHost(1);
+        var started = new CountDownLatch(1);
+        var released = new CountDownLatch(1);
+        var future = host.submit("T1", newTable(started, released));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, host.getRunningCount());
+        assertThrows(RejectedExecutionException.class, ()->host.submit("T2", newTable(started, released)));
+        assertEquals(1, host.getRejectedCount());
+        released.countDown();
+        assertThrows(Exception.class, ()->future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, host.getFailedCount());
+        var nextReleased = new CountDownLatch(0);
+        host.submit("T3", newTable(new CountDownLatch(1), nextReleased)).handle((r, e)->null).get(5, TimeUnit.SECONDS);
+        assertEquals(0, host.getRunningCount());
+        host.shutdownNow();
+    }
+
+    @Test
+    void testTableFailedByErrorReleasesSlotBeforeCompletion() throws Exception{
+        var host = new TableHost(1);
+        var table = new GameTable();
+        for(int i = 0; i<4; i++){
+            table.addPlayer("player"+i, new BlockingStrategy(new CountDownLatch(1), new CountDownLatch(0)){
+                @Override
+                public void gameStarted(List<ProfileData> players){
+                    throw new AssertionError("table stopped by test");
+                }
+            });
+        }
+        var future = host.submit("T1", table);
+        var e = assertThrows(ExecutionException.class, ()->future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AssertionError);
+        assertEquals(0, host.getRunningCount());
+        assertEquals(1, host.getFailedCount());
+        host.submit("T2", newTable(new CountDownLatch(1), new CountDownLatch(0))).handle((r, t)->null).get(5, TimeUnit.SECONDS);
+        host.shutdownNow();
+    }
+
+    @Test
+    void testDrainWaitsForRunningTables() throws Exception{
+        var host = new TableHost(2);
+        var started = new CountDownLatch(1);
+        var released = new CountDownLatch(1);
+        host.submit("T1", newTable(started, released));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        host.drain();
+        assertThrows(RejectedExecutionException.class, ()->host.submit("T2", newTable(started, released)));
+        assertFalse(host.awaitDrained(50, TimeUnit.MILLISECONDS));
+        released.countDown();
+        assertTrue(host.awaitDrained(5, TimeUnit.SECONDS));
+        assertEquals(0, host.getRunningCount());
+        host.shutdownNow();
+    }
+}
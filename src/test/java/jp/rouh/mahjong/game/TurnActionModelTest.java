@@ -0,0 +1,131 @@
+package jp.rouh.mahjong.game;
+
+import jp.rouh.mahjong.game.event.TurnAction;
+import jp.rouh.mahjong.score.HandTiles;
+import jp.rouh.mahjong.score.Meld;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TurnActionModelTest{
+
+    @Test
+    void testReadyTilesMatchHandTiles(){
+        var hands = List.of(
+                List.of(M1, M1, M1, M2, M2, M2, M3, M3, M3, DW, DW, DR, DR),
+                List.of(M1, M1, M1, M2, M3, M4, M5, M6, M7, M8, M9, M9, M9),
+                List.of(M1, M1, M9, M9, P1, P9, S1, S9, WE, WS, WW, WN, DW),
+                List.of(M1, M1, M4, M4, P2, P2, P8, P8, S3, S3, WE, WE, DR),
+                List.of(M1, M1, M1, M1, S3, S3, S3, S4, S4, S4, S5, S5, S5),
+                List.of(M1, M1, M1, M2, M2, M3, M3, S1, S1, S2));
+        for(var hand:hands){
+            for(var drawnTile:List.of(M5R, M1, M4, S3, WE, DR)){
+                if(hand.stream().filter(drawnTile::equalsIgnoreRed).count()==4){
+                    continue;
+                }
+                var model = new TurnActionModel(hand);
+                var readyTiles = model.readyTilesOf(drawnTile);
+                assertEquals(HandTiles.readyTilesOf(hand, drawnTile), Set.copyOf(readyTiles), hand+" "+drawnTile);
+                assertEquals(readyTiles.stream().sorted().toList(), readyTiles);
+            }
+        }
+    }
+
+    @Test
+    void testRandomHandsMatchHandTiles(){
+        var random = new Random(44);
+        var tiles = new ArrayList<Tile>();
+        for(var tile:Tile.values()){
+            if(!tile.isPrisedRed()){
+                for(int i = 0; i<4; i++){
+                    tiles.add(tile);
+                }
+            }
+        }
+        for(int i = 0; i<300; i++){
+            Collections.shuffle(tiles, random);
+            //同じ種類の牌の並びを切り出し, 聴牌に近い手牌を多く検査する
+            var sorted = new ArrayList<>(tiles.subList(0, 40));
+            Collections.sort(sorted);
+            int from = random.nextInt(27);
+            var hand = new ArrayList<>(i%2==0? sorted.subList(from, from + 13):tiles.subList(0, 13));
+            Collections.sort(hand);
+            var drawnTile = tiles.get(50);
+            if(hand.stream().filter(drawnTile::equalsIgnoreRed).count()==4){
+                continue;
+            }
+            var model = new TurnActionModel(hand);
+            assertEquals(HandTiles.readyTilesOf(hand, drawnTile), Set.copyOf(model.readyTilesOf(drawnTile)), hand+" "+drawnTile);
+            assertEquals(HandTiles.selfKanTargetsOf(hand, drawnTile), Set.copyOf(model.kanTargetsOf(drawnTile, List.of())));
+            assertEquals(HandTiles.isNineTiles(hand, drawnTile), model.isNineTiles(drawnTile));
+        }
+    }
+
+    @Test
+    void testFarHandSkipsSearch(){
+        var hand = List.of(M1, M4, M7, P2, P5, P8, S3, S6, S9, WE, WS, DW, DG);
+        var model = new TurnActionModel(hand);
+        assertTrue(model.getHandSwap()>=2);
+        assertEquals(List.of(), model.readyTilesOf(M2));
+    }
+
+    @Test
+    void testHandChangedDiscardsCache(){
+        var hand = new ArrayList<>(List.of(M1, M2, M3, P4, P5, P6, S7, S8, S9, WE, WE, DW, DR));
+        var model = new TurnActionModel(hand);
+        var readyTiles = model.readyTilesOf(DW);
+        assertEquals(List.of(DR), readyTiles);
+        assertSame(readyTiles, model.readyTilesOf(DW));
+        hand.remove(DR);
+        hand.add(WN);
+        model.handChanged();
+        assertEquals(List.of(WN), model.readyTilesOf(DW));
+    }
+
+    @Test
+    void testKanTargets(){
+        var hand = List.of(M5, M5, M5, P2, P3, P4, S7, S8, WE, DW);
+        var openMelds = List.of(Meld.ofCallTriple(List.of(DW, DW), DW, Side.LEFT));
+        var model = new TurnActionModel(hand);
+        assertEquals(List.of(M5, M5R, DW), model.kanTargetsOf(M5R, openMelds));
+        assertEquals(List.of(), model.kanTargetsOf(M6, List.of()));
+    }
+
+    @Test
+    void testNineTiles(){
+        var model = new TurnActionModel(List.of(M1, M2, M3, M4, M5, M9, P1, P9, S1, S9, WE, WE, DW));
+        assertFalse(model.isNineTiles(M2));
+        assertTrue(model.isNineTiles(DR));
+        assertFalse(new TurnActionModel(List.of(M1, M9, P1, P9, S1, S9, WE, WS, WW, WN)).isNineTiles(DW));
+    }
+
+    @Test
+    void testTurnActionListContains(){
+        var actions = TurnActionList.builder(4)
+                .add(TurnAction.ofDiscard(M1))
+                .add(TurnAction.ofDiscard(M1))
+                .add(TurnAction.ofDiscardDrawn(M5R))
+                .add(TurnAction.ofTsumo())
+                .build();
+        assertEquals(4, actions.size());
+        assertEquals(TurnAction.ofDiscard(M1), actions.get(1));
+        assertTrue(actions.contains(TurnAction.ofDiscard(M1)));
+        assertTrue(actions.contains(TurnAction.ofDiscardDrawn(M5R)));
+        assertTrue(actions.contains(TurnAction.ofTsumo()));
+        assertFalse(actions.contains(TurnAction.ofDiscard(M5R)));
+        assertFalse(actions.contains(TurnAction.ofDiscardDrawn(M5)));
+        assertFalse(actions.contains(TurnAction.ofNineTiles()));
+        assertFalse(actions.contains("M1"));
+        assertEquals(List.copyOf(actions), TurnActionList.copyOf(List.copyOf(actions)));
+        assertThrows(UnsupportedOperationException.class, ()->actions.add(TurnAction.ofNineTiles()));
+    }
+}
@@ -226,6 +226,9 @@ public class WallScenario{
                 }
             }
         }
+        for(var wind:Wind.values()){
+            wallTiles.add(distributionTiles[wind.ordinal()][12]);
+        }
         wallTiles.addAll(List.of(turnDrawTiles));
         for(int i = 0; i<5; i++){
             wallTiles.add(upperIndicatorTiles[4 - i]);
@@ -238,8 +241,8 @@ public class WallScenario{
         int diceSum = dice1 + dice2;
         int firstIndex = ((3 - diceSum%4)*34 + diceSum*2)%136;
         var shiftedWallTiles = new ArrayList<Tile>(136);
-        shiftedWallTiles.addAll(wallTiles.subList(firstIndex, 136));
-        shiftedWallTiles.addAll(wallTiles.subList(0, firstIndex));
+        shiftedWallTiles.addAll(wallTiles.subList(136 - firstIndex, 136));
+        shiftedWallTiles.addAll(wallTiles.subList(0, 136 - firstIndex));
         return new ArrayWall(shiftedWallTiles.toArray(new Tile[0]), diceSum);
     }
 }
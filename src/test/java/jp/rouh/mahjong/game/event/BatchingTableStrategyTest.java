@@ -0,0 +1,149 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.bot.TableStrategyBots;
+import jp.rouh.mahjong.bot.TableStrategyMock;
+import jp.rouh.mahjong.game.GameTable;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchingTableStrategyTest{
+
+    /**
+     * 受け取った通知を記録する戦略。
+     */
+    private static class RecordingStrategy extends ForwardingTableStrategy implements BatchTableObserver{
+        private final List<String> records = new ArrayList<>();
+        private int batchCount;
+        private int eventCount;
+
+        private RecordingStrategy(TableStrategy strategy){
+            super(strategy);
+        }
+
+        @Override
+        public void eventsNotified(List<TableEvent> events){
+            batchCount++;
+            eventCount += events.size();
+            BatchTableObserver.super.eventsNotified(events);
+        }
+
+        @Override
+        public void turnStarted(Side side){
+            records.add("turnStarted "+side);
+            super.turnStarted(side);
+        }
+
+        @Override
+        public void riverTileAdded(Side side, Tile tile, boolean tilt){
+            records.add("riverTileAdded "+side+" "+tile+" "+tilt);
+            super.riverTileAdded(side, tile, tilt);
+        }
+
+        @Override
+        public void handUpdated(List<Tile> allTiles, boolean wide){
+            records.add("handUpdated "+allTiles+" "+wide);
+            super.handUpdated(allTiles, wide);
+        }
+
+        @Override
+        public void roundFinished(){
+            records.add("roundFinished");
+            super.roundFinished();
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            records.add("selectTurnAction");
+            return super.selectTurnAction(choices);
+        }
+    }
+
+    /**
+     * まとめた通知を受け取らない戦略。
+     */
+    private static class PlainStrategy implements TableObserverAdapter, TableStrategy{
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void turnStarted(Side side){
+            records.add("turnStarted "+side);
+        }
+
+        @Override
+        public void riverTileAdded(Side side, Tile tile, boolean tilt){
+            records.add("riverTileAdded "+side+" "+tile);
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            return choices.get(0);
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            return choices.get(0);
+        }
+    }
+
+    private static void notifyTurn(TableStrategy strategy){
+        strategy.turnStarted(Side.SELF);
+        strategy.handUpdated(List.of(Tile.M1, Tile.M2), true);
+        strategy.riverTileAdded(Side.SELF, Tile.M1, false);
+    }
+
+    @Test
+    void testEventsAreHeldUntilCompleted(){
+        var recorder = new RecordingStrategy(TableStrategyMock.DISCARD);
+        var batching = new BatchingTableStrategy(recorder);
+        notifyTurn(batching);
+        assertTrue(recorder.records.isEmpty());
+        batching.notificationsCompleted();
+        assertEquals(List.of("turnStarted SELF", "handUpdated [M1, M2] true", "riverTileAdded SELF M1 false"), recorder.records);
+        assertEquals(1, recorder.batchCount);
+        batching.notificationsCompleted();
+        assertEquals(1, recorder.batchCount);
+    }
+
+    @Test
+    void testEventsAreFlushedBeforeSelection(){
+        var recorder = new RecordingStrategy(TableStrategyMock.DISCARD);
+        var batching = new BatchingTableStrategy(recorder);
+        notifyTurn(batching);
+        batching.selectTurnAction(List.of(TurnAction.ofDiscard(Tile.M1)));
+        assertEquals("selectTurnAction", recorder.records.get(3));
+        batching.roundFinished();
+        assertEquals("roundFinished", recorder.records.get(4));
+        assertEquals(2, recorder.batchCount);
+    }
+
+    @Test
+    void testEventsAreDispatchedIndividuallyToPlainStrategy(){
+        var strategy = new PlainStrategy();
+        var batching = new BatchingTableStrategy(strategy);
+        notifyTurn(batching);
+        assertTrue(strategy.records.isEmpty());
+        batching.notificationsCompleted();
+        assertEquals(List.of("turnStarted SELF", "riverTileAdded SELF M1"), strategy.records);
+    }
+
+    @Test
+    void testGameCompletesWithBatchedPlayer(){
+        var recorder = new RecordingStrategy(TableStrategyBots.newReadyBot());
+        var table = new GameTable();
+        table.addPlayer("batched", new BatchingTableStrategy(recorder));
+        for(var name:List.of("B", "C", "D")){
+            table.addPlayer(name, TableStrategyBots.newReadyBot());
+        }
+        table.start();
+        long turnCount = recorder.records.stream().filter(record->record.startsWith("turnStarted")).count();
+        assertTrue(turnCount>0);
+        assertTrue(recorder.batchCount<=turnCount*2 + 20, "batches: "+recorder.batchCount+", turns: "+turnCount);
+        assertTrue(recorder.eventCount>=recorder.batchCount*4, "events: "+recorder.eventCount+", batches: "+recorder.batchCount);
+    }
+}
@@ -0,0 +1,73 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.tile.Wind;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+
+/**
+ * ターン外行動の選択要求にかかる時間とスレッドの生成数を計測する手動テストクラス。
+ * <p>打牌ごとに実行サービスを生成する従来の方式と, 共有の実行サービスを用いる方式とを
+ * 選択を要求するプレイヤー数ごとに比較し, 標準出力に出力します。
+ * <p>第一引数に計測回数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class CallActionMediatorBenchmark{
+    private static final List<Wind> TARGETS = List.of(Wind.SOUTH, Wind.WEST, Wind.NORTH);
+    private static final TableStrategy PASSING_STRATEGY = new PassingStrategy();
+
+    private static class PassingStrategy implements TableObserverAdapter, TableStrategy{
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            return CallAction.ofPass();
+        }
+    }
+
+    private static CallActionMediator newMediator(int selectorCount){
+        var pon = CallAction.ofPon(DR, DR);
+        return new CallActionMediator(TARGETS)
+                .withPlayers(wind->PASSING_STRATEGY)
+                .withChoices(wind->TARGETS.indexOf(wind)<selectorCount?
+                        List.of(CallAction.ofPass(), pon):
+                        List.of(CallAction.ofPass()));
+    }
+
+    private static void measure(String label, int selectorCount, int count, boolean perCallPool){
+        var threadBean = ManagementFactory.getThreadMXBean();
+        long startedBefore = threadBean.getTotalStartedThreadCount();
+        long start = System.nanoTime();
+        for(int i = 0; i<count; i++){
+            var mediator = newMediator(selectorCount);
+            if(perCallPool){
+                var executorService = Executors.newFixedThreadPool(selectorCount);
+                mediator.withExecutor(executorService).mediate();
+                executorService.shutdownNow();
+            }else{
+                mediator.mediate();
+            }
+        }
+        double micros = (System.nanoTime() - start)/1000.0/count;
+        long started = threadBean.getTotalStartedThreadCount() - startedBefore;
+        System.out.printf("%-10s selectors=%d: %8.2f us/call, %6d threads started%n", label, selectorCount, micros, started);
+    }
+
+    public static void main(String[] args){
+        int count = args.length>0? Integer.parseInt(args[0]):20000;
+        for(int round = 0; round<2; round++){
+            for(int selectorCount = 1; selectorCount<=3; selectorCount++){
+                measure("per-call", selectorCount, count, true);
+                measure("shared", selectorCount, count, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.tile.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static jp.rouh.mahjong.tile.Tile.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallActionMediatorTest{
+    private static final List<Wind> TARGETS = List.of(Wind.SOUTH, Wind.WEST, Wind.NORTH);
+
+    private static class FixedStrategy implements TableObserverAdapter, TableStrategy{
+        private final CallAction action;
+        private final long sleepMillis;
+        private Thread selectedThread;
+
+        private FixedStrategy(CallAction action, long sleepMillis){
+            this.action = action;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            selectedThread = Thread.currentThread();
+            try{
+                TimeUnit.MILLISECONDS.sleep(sleepMillis);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            return action;
+        }
+    }
+
+    private static class BoundedStrategy extends FixedStrategy{
+        private BoundedStrategy(CallAction action, long sleepMillis){
+            super(action, sleepMillis);
+        }
+
+        @Override
+        public boolean isDecisionTimeBounded(){
+            return true;
+        }
+    }
+
+    private static class PendingStrategy implements TableObserverAdapter, AsyncTableStrategy{
+        private final CompletableFuture<CallAction> answer = new CompletableFuture<>();
+
+        @Override
+        public CompletionStage<TurnAction> selectTurnActionAsync(List<TurnAction> choices){
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletionStage<CallAction> selectCallActionAsync(List<CallAction> choices){
+            return answer;
+        }
+    }
+
+    @Test
+    void testSingleSelectorIsAskedOnCallerThread(){
+        var pon = CallAction.ofPon(DR, DR);
+        var strategy = new FixedStrategy(pon, 0);
+        var result = new CallActionMediator(TARGETS)
+                .withPlayers(wind->strategy)
+                .withChoices(wind->wind==Wind.WEST? List.of(CallAction.ofPass(), pon):List.of(CallAction.ofPass()))
+                .mediate();
+        assertEquals(Map.of(Wind.WEST, pon), result);
+        assertSame(Thread.currentThread(), strategy.selectedThread);
+    }
+
+    @Test
+    void testDoubleRonIsReturned(){
+        var ron = CallAction.ofRon();
+        var result = new CallActionMediator(TARGETS)
+                .withPlayers(wind->new FixedStrategy(wind==Wind.NORTH? CallAction.ofPass():ron, 0))
+                .withChoices(wind->List.of(CallAction.ofPass(), ron))
+                .mediate();
+        assertEquals(Map.of(Wind.SOUTH, ron, Wind.WEST, ron), result);
+    }
+
+    @Test
+    void testLowerPriorityAnswerIsDiscarded(){
+        var ron = CallAction.ofRon();
+        var pon = CallAction.ofPon(DR, DR);
+        var result = new CallActionMediator(TARGETS)
+                .withPlayers(wind->switch(wind){
+                    case SOUTH -> new FixedStrategy(ron, 0);
+                    case WEST -> new FixedStrategy(CallAction.ofPass(), 50);
+                    default -> new FixedStrategy(pon, 100);
+                })
+                .withChoices(wind->wind==Wind.NORTH?
+                        List.of(CallAction.ofPass(), pon):
+                        List.of(CallAction.ofPass(), ron))
+                .mediate();
+        assertEquals(Map.of(Wind.SOUTH, ron), result);
+    }
+
+    @Test
+    void testUnansweredPlayerIsRegardedAsPassed(){
+        var ron = CallAction.ofRon();
+        var pon = CallAction.ofPon(DR, DR);
+        var mediator = new CallActionMediator(TARGETS)
+                .withPlayers(wind->wind==Wind.SOUTH? new FixedStrategy(ron, 5000):new FixedStrategy(pon, 0))
+                .withChoices(wind->switch(wind){
+                    case SOUTH -> List.of(CallAction.ofPass(), ron);
+                    case WEST -> List.of(CallAction.ofPass(), pon);
+                    default -> List.of(CallAction.ofPass());
+                })
+                .withTimeout(100);
+        long start = System.nanoTime();
+        var result = mediator.mediate();
+        assertTrue(System.nanoTime() - start<TimeUnit.SECONDS.toNanos(2));
+        assertEquals(Map.of(Wind.WEST, pon), result);
+        assertEquals(Set.of(Wind.SOUTH), mediator.getTimedOutWinds());
+    }
+
+    @Test
+    void testSingleBoundedSelectorIsAskedOnCallerThreadWithTimeout(){
+        var pon = CallAction.ofPon(DR, DR);
+        FixedStrategy strategy = new BoundedStrategy(pon, 300);
+        var mediator = new CallActionMediator(TARGETS)
+                .withPlayers(wind->strategy)
+                .withChoices(wind->wind==Wind.WEST? List.of(CallAction.ofPass(), pon):List.of(CallAction.ofPass()))
+                .withTimeout(100);
+        assertEquals(Map.of(Wind.WEST, pon), mediator.mediate());
+        assertSame(Thread.currentThread(), strategy.selectedThread);
+        assertTrue(mediator.getTimedOutWinds().isEmpty());
+    }
+
+    @Test
+    void testBoundedPlayerIsNotTimedOut(){
+        var ron = CallAction.ofRon();
+        var mediator = new CallActionMediator(TARGETS)
+                .withPlayers(wind->wind==Wind.SOUTH? new BoundedStrategy(ron, 300):new FixedStrategy(ron, 5000))
+                .withChoices(wind->wind==Wind.NORTH? List.of(CallAction.ofPass()):List.of(CallAction.ofPass(), ron))
+                .withTimeout(100);
+        long start = System.nanoTime();
+        var result = mediator.mediate();
+        assertTrue(System.nanoTime() - start<TimeUnit.SECONDS.toNanos(2));
+        assertEquals(Map.of(Wind.SOUTH, ron), result);
+        assertEquals(Set.of(Wind.WEST), mediator.getTimedOutWinds());
+    }
+
+    @Test
+    void testAsyncMediationCompletesByAnswersAndTimeout() throws Exception{
+        var ron = CallAction.ofRon();
+        var strategies = Map.of(Wind.SOUTH, new PendingStrategy(), Wind.WEST, new PendingStrategy(), Wind.NORTH, new PendingStrategy());
+        var mediator = new CallActionMediator(TARGETS)
+                .withPlayers(strategies::get)
+                .withChoices(wind->List.of(CallAction.ofPass(), ron))
+                .withTimeout(100);
+        var result = mediator.mediateAsync();
+        strategies.get(Wind.WEST).answer.complete(ron);
+        strategies.get(Wind.NORTH).answer.complete(CallAction.ofPass());
+        assertFalse(result.isDone());
+        assertEquals(Map.of(Wind.WEST, ron), result.get(2, TimeUnit.SECONDS));
+        assertEquals(Set.of(Wind.SOUTH), mediator.getTimedOutWinds());
+        assertTrue(strategies.get(Wind.SOUTH).answer.isCancelled());
+    }
+}
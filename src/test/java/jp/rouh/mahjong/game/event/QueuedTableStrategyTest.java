@@ -0,0 +1,171 @@
+package jp.rouh.mahjong.game.event;
+
+import jp.rouh.mahjong.bot.TableStrategyBots;
+import jp.rouh.mahjong.bot.TableStrategyMock;
+import jp.rouh.mahjong.game.GameTable;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueuedTableStrategyTest{
+
+    /**
+     * 受け取った通知を記録し, 開放されるまで通知の処理を待機する戦略。
+     */
+    private static class GatedStrategy extends ForwardingTableStrategy{
+        private final List<String> records = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch gate;
+
+        private GatedStrategy(TableStrategy strategy, CountDownLatch gate){
+            super(strategy);
+            this.gate = gate;
+        }
+
+        private void pass(){
+            try{
+                gate.await();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void turnStarted(Side side){
+            pass();
+            records.add("turnStarted "+side);
+        }
+
+        @Override
+        public void riverTileAdded(Side side, Tile tile, boolean tilt){
+            pass();
+            records.add("riverTileAdded "+side+" "+tile);
+        }
+
+        @Override
+        public void handUpdated(List<Tile> allTiles, boolean wide){
+            pass();
+            records.add("handUpdated "+allTiles);
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            records.add("selectTurnAction");
+            return super.selectTurnAction(choices);
+        }
+    }
+
+    @Test
+    void testNotificationsDoNotWaitForSlowObserver(){
+        var gate = new CountDownLatch(1);
+        var gated = new GatedStrategy(TableStrategyMock.DISCARD, gate);
+        var queued = new QueuedTableStrategy(gated, 16, QueuedTableStrategy.OverflowPolicy.BLOCK);
+        queued.turnStarted(Side.SELF);
+        queued.handUpdated(List.of(Tile.M1), false);
+        queued.riverTileAdded(Side.SELF, Tile.M1, false);
+        assertTrue(gated.records.isEmpty());
+        assertTrue(queued.getQueueDepth()>=2);
+        gate.countDown();
+        queued.awaitIdle();
+        assertEquals(List.of("turnStarted SELF", "handUpdated [M1]", "riverTileAdded SELF M1"), gated.records);
+        assertEquals(0, queued.getQueueDepth());
+        assertEquals(3, queued.getDispatchedCount());
+    }
+
+    @Test
+    void testSelectionWaitsForQueuedNotifications() throws Exception{
+        var gate = new CountDownLatch(1);
+        var gated = new GatedStrategy(TableStrategyMock.DISCARD, gate);
+        var queued = new QueuedTableStrategy(gated, 16, QueuedTableStrategy.OverflowPolicy.BLOCK);
+        queued.turnStarted(Side.SELF);
+        queued.riverTileAdded(Side.SELF, Tile.M2, false);
+        var selection = queued.selectTurnActionAsync(List.of(TurnAction.ofDiscard(Tile.M1))).toCompletableFuture();
+        assertFalse(selection.isDone());
+        gate.countDown();
+        assertEquals(TurnAction.ofDiscard(Tile.M1), selection.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("turnStarted SELF", "riverTileAdded SELF M2", "selectTurnAction"), gated.records);
+    }
+
+    @Test
+    void testCoalescePolicyReplacesHandUpdates(){
+        var tasks = new ArrayList<Runnable>();
+        var gated = new GatedStrategy(TableStrategyMock.DISCARD, new CountDownLatch(0));
+        var queued = new QueuedTableStrategy(gated, 2, QueuedTableStrategy.OverflowPolicy.COALESCE, tasks::add);
+        queued.turnStarted(Side.SELF);
+        queued.handUpdated(List.of(Tile.M1), false);
+        queued.handUpdated(List.of(Tile.M2), false);
+        queued.handUpdated(List.of(Tile.M3), false);
+        assertEquals(2, queued.getQueueDepth());
+        assertEquals(2, queued.getCoalescedCount());
+        tasks.forEach(Runnable::run);
+        assertEquals(List.of("turnStarted SELF", "handUpdated [M3]"), gated.records);
+        assertEquals(2, queued.getMaxQueueDepth());
+    }
+
+    @Test
+    void testDisconnectPolicyDropsNotifications() throws Exception{
+        var tasks = new ArrayList<Runnable>();
+        var disconnections = new AtomicInteger();
+        var gated = new GatedStrategy(TableStrategyMock.DISCARD, new CountDownLatch(0));
+        var queued = new QueuedTableStrategy(gated, 2, QueuedTableStrategy.OverflowPolicy.DISCONNECT, tasks::add);
+        queued.setDisconnectHandler(disconnections::incrementAndGet);
+        for(int i = 0; i<10; i++){
+            queued.turnStarted(Side.SELF);
+        }
+        assertTrue(queued.isDisconnected());
+        assertEquals(1, disconnections.get());
+        assertEquals(0, queued.getQueueDepth());
+        assertEquals(10, queued.getDroppedCount());
+        tasks.forEach(Runnable::run);
+        assertTrue(gated.records.isEmpty());
+        var choices = List.of(TurnAction.ofDiscard(Tile.M2), TurnAction.ofDiscard(Tile.M1));
+        assertEquals(new TurnActionSelector(choices).getDefaultAction(), queued.selectTurnAction(choices));
+        var selection = queued.selectCallActionAsync(List.of(CallAction.ofPass(), CallAction.ofRon())).toCompletableFuture();
+        assertEquals(CallAction.ofPass(), selection.get(0, TimeUnit.SECONDS));
+        assertTrue(gated.records.isEmpty());
+    }
+
+    @Test
+    void testErrorInDispatchDoesNotBlockAwaitIdle() throws Exception{
+        var tasks = new ArrayList<Runnable>();
+        var failing = new ForwardingTableStrategy(TableStrategyMock.DISCARD){
+            @Override
+            public void turnStarted(Side side){
+                throw new AssertionError("failure in observer");
+            }
+        };
+        var queued = new QueuedTableStrategy(failing, 16, QueuedTableStrategy.OverflowPolicy.BLOCK, tasks::add);
+        queued.turnStarted(Side.SELF);
+        assertThrows(AssertionError.class, ()->tasks.get(0).run());
+        assertTimeoutPreemptively(Duration.ofSeconds(5), queued::awaitIdle);
+        var selection = queued.selectTurnActionAsync(List.of(TurnAction.ofDiscard(Tile.M1))).toCompletableFuture();
+        assertEquals(TurnAction.ofDiscard(Tile.M1), selection.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGameCompletesWithQueuedPlayers(){
+        var table = new GameTable();
+        var queuedPlayers = new ArrayList<QueuedTableStrategy>();
+        for(var name:List.of("A", "B", "C", "D")){
+            var queued = new QueuedTableStrategy(TableStrategyBots.newReadyBot(), 64, QueuedTableStrategy.OverflowPolicy.BLOCK);
+            queuedPlayers.add(queued);
+            table.addPlayer(name, queued);
+        }
+        table.start();
+        for(var queued:queuedPlayers){
+            queued.awaitIdle();
+            assertEquals(0, queued.getQueueDepth());
+            assertTrue(queued.getDispatchedCount()>0);
+            assertFalse(queued.isDisconnected());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package jp.rouh.mahjong.net;
+
+import jp.rouh.mahjong.bot.BotExecutionService;
+import jp.rouh.mahjong.game.TableHost;
+import jp.rouh.util.net.BioMessageClient;
+import jp.rouh.util.net.MessageConnection;
+import jp.rouh.util.net.msg.RemoteConnections;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DedicatedServerTest{
+
+    @Test
+    void testLoadConfigOverriddenBySystemProperties() throws IOException{
+        var file = Files.createTempFile("server", ".properties");
+        try{
+            Files.writeString(file, "port=23456\nrooms=8\n");
+            var system = new Properties();
+            system.setProperty("mahjong.server.rooms", "32");
+            system.setProperty("user.home", "/home");
+            var server = new DedicatedServer(DedicatedServer.loadConfig(new String[]{file.toString()}, system));
+            assertEquals(23456, server.getPort());
+            assertEquals(32, server.getRooms());
+        }finally{
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testDefaultsAndInvalidConfig(){
+        var server = new DedicatedServer(new Properties());
+        assertEquals(DedicatedServer.DEFAULT_PORT, server.getPort());
+        assertEquals(DedicatedServer.DEFAULT_ROOMS, server.getRooms());
+        var config = new Properties();
+        config.setProperty("rooms", "0");
+        assertThrows(IllegalArgumentException.class, ()->new DedicatedServer(config));
+        config.setProperty("rooms", "four");
+        assertThrows(IllegalArgumentException.class, ()->new DedicatedServer(config));
+        assertThrows(IllegalArgumentException.class, ()->new RoomServer().setMaxRooms(0));
+    }
+
+    @Test
+    void testMembersPlacedIntoRooms() throws Exception{
+        int port;
+        try(var socket = new ServerSocket(0)){
+            port = socket.getLocalPort();
+        }
+        var botService = new BotExecutionService(1);
+        var server = new RoomServer(botService, new TableHost(2));
+        server.setMaxRooms(2);
+        server.start(port);
+        var clients = new ArrayList<MessageConnection>();
+        try{
+            for(int i = 0; i<5; i++){
+                clients.add(connect(port, "P" + i));
+            }
+            awaitEquals(5, server::getMemberCount);
+            assertEquals(2, server.getRoomCount());
+            for(int i = 5; i<9; i++){
+                clients.add(connect(port, "P" + i));
+            }
+            //9人目は満席のため切断される
+            awaitEquals(8, server::getMemberCount);
+            assertEquals(2, server.getRoomCount());
+            for(var client:List.copyOf(clients.subList(4, 9))){
+                client.close();
+            }
+            awaitEquals(4, server::getMemberCount);
+            assertEquals(1, server.getRoomCount());
+        }finally{
+            clients.forEach(MessageConnection::close);
+            server.close();
+            botService.shutdown();
+        }
+    }
+
+    private static MessageConnection connect(int port, String name) throws IOException{
+        var client = new BioMessageClient("localhost", port);
+        RemoteConnections.newProxy(Room.class, client, RoomMessageConverters.getConverter()).notifyName(name);
+        return client;
+    }
+
+    private static void awaitEquals(int expected, IntSupplier actual) throws InterruptedException{
+        for(int i = 0; i<200 && actual.getAsInt()!=expected; i++){
+            Thread.sleep(10);
+        }
+        assertEquals(expected, actual.getAsInt());
+    }
+}
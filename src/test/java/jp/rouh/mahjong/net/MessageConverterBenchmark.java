@@ -0,0 +1,69 @@
+package jp.rouh.mahjong.net;
+
+import jp.rouh.mahjong.game.event.HandScoreData;
+import jp.rouh.mahjong.game.event.PaymentData;
+import jp.rouh.mahjong.game.event.PlayerData;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+
+import java.util.List;
+
+/**
+ * {@link RoomMessageConverters}によるデータクラスの符号化と復号の処理時間を計測する手動テストクラス。
+ * <p>{@link PlayerData}, {@link HandScoreData}, {@link PaymentData}をそれぞれ指定回数だけ
+ * 符号化および復号し, 1回あたりの処理時間を標準出力に出力します。
+ * <p>第一引数に計測の繰り返し回数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class MessageConverterBenchmark{
+
+    private static void measure(String name, Object data, int iterations){
+        var converter = RoomMessageConverters.getConverter();
+        var encoded = converter.encode(data);
+        long checksum = 0;
+        long start = System.nanoTime();
+        for(int i = 0; i<iterations; i++){
+            checksum += converter.encode(data).length();
+        }
+        long encodeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for(int i = 0; i<iterations; i++){
+            checksum += converter.decode(encoded).hashCode() & 1;
+        }
+        long decodeNanos = System.nanoTime() - start;
+        System.out.printf("%-14s length=%,d encode=%.2fus decode=%.2fus (checksum=%d)%n",
+                name, encoded.length(), encodeNanos/1e3/iterations, decodeNanos/1e3/iterations, checksum);
+    }
+
+    public static void main(String[] args){
+        int iterations = args.length>0? Integer.parseInt(args[0]):100000;
+        var player = new PlayerData();
+        player.setName("player");
+        player.setInitialSeatWind(Wind.EAST);
+        player.setSeatWind(Wind.SOUTH);
+        var handScore = new HandScoreData();
+        handScore.setHandTiles(List.of(Tile.M1, Tile.M2, Tile.M3, Tile.P4, Tile.P5R, Tile.P6, Tile.S7, Tile.S8, Tile.S9, Tile.WE));
+        handScore.setWinningTile(Tile.WE);
+        handScore.setOpenMelds(List.of(List.of(Tile.DW, Tile.DW, Tile.DW)));
+        handScore.setMeldTiltSides(List.of(Side.LEFT));
+        handScore.setUpperIndicators(List.of(Tile.S1, Tile.M9));
+        handScore.setLowerIndicators(List.of(Tile.P2, Tile.WN));
+        handScore.setHandTypeNames(List.of("role", "dora"));
+        handScore.setHandTypeGrades(List.of("1", "2"));
+        handScore.setScoreExpression("30fu 3han 3900");
+        var payment = new PaymentData();
+        payment.setWind(Wind.WEST);
+        payment.setName("player");
+        payment.setScoreBefore(25000);
+        payment.setScoreAfter(21100);
+        payment.setRankBefore(2);
+        payment.setRankAfter(4);
+        for(int round = 0; round<3; round++){
+            measure("PlayerData", player, iterations);
+            measure("HandScoreData", handScore, iterations);
+            measure("PaymentData", payment, iterations);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package jp.rouh.mahjong.net;
+
+import jp.rouh.mahjong.game.event.*;
+import jp.rouh.mahjong.tile.Side;
+import jp.rouh.mahjong.tile.Tile;
+import jp.rouh.mahjong.tile.Wind;
+import jp.rouh.util.net.MessageConnection;
+import jp.rouh.util.net.MessageListener;
+import jp.rouh.util.net.msg.MessageConversionException;
+import jp.rouh.util.net.msg.RemoteConnections;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomMessageConvertersTest{
+
+    /**
+     * 送信したメッセージを記録するメッセージ通信。
+     */
+    private static class RecordingConnection implements MessageConnection{
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void addListener(MessageListener listener){
+            //pass
+        }
+
+        @Override
+        public void send(String message){
+            messages.add(message);
+        }
+
+        @Override
+        public void close(){
+            //pass
+        }
+    }
+
+    /**
+     * 受け取った通知を記録する通知先。
+     */
+    private static class RecordingObserver implements TableObserverAdapter, RoomObserver{
+        private final List<String> records = new ArrayList<>();
+
+        @Override
+        public void roundStarted(Wind wind, int count, int streak, int deposit, boolean last){
+            records.add("roundStarted "+wind+count+" "+streak+" "+deposit+" "+last);
+        }
+
+        @Override
+        public void seatUpdated(Map<Side, PlayerData> players){
+            records.add("seatUpdated "+players.get(Side.SELF).getName()+" "+players.get(Side.SELF).getScore());
+        }
+
+        @Override
+        public void handUpdated(List<Tile> allTiles, boolean wide){
+            records.add("handUpdated "+allTiles+" "+wide);
+        }
+
+        @Override
+        public void riverTileAdded(Side side, Tile tile, boolean tilt){
+            records.add("riverTileAdded "+side+" "+tile+" "+tilt);
+        }
+
+        @Override
+        public void roomUpdated(List<RoomMemberData> members){
+        }
+
+        @Override
+        public void gameStarted(){
+        }
+
+        @Override
+        public TurnAction selectTurnAction(List<TurnAction> choices){
+            return choices.get(0);
+        }
+
+        @Override
+        public CallAction selectCallAction(List<CallAction> choices){
+            return choices.get(0);
+        }
+    }
+
+    @Test
+    void testBatchedEventsAreSentAsSingleMessage(){
+        var converter = RoomMessageConverters.getConverter();
+        var connection = new RecordingConnection();
+        var proxy = RemoteConnections.newProxy(RoomObserver.class, connection, converter);
+        var batching = new BatchingTableStrategy(proxy);
+        var player = new PlayerData();
+        player.setName("A");
+        player.setInitialSeatWind(Wind.EAST);
+        player.setSeatWind(Wind.EAST);
+        player.setScore(25000);
+        player.setRank(1);
+        batching.roundStarted(Wind.EAST, 1, 0, 0, false);
+        batching.seatUpdated(Map.of(Side.SELF, player));
+        batching.handUpdated(List.of(Tile.M1, Tile.M5R), true);
+        batching.riverTileAdded(Side.SELF, Tile.M5R, true);
+        assertTrue(connection.messages.isEmpty());
+        batching.notificationsCompleted();
+        assertEquals(1, connection.messages.size());
+
+        var observer = new RecordingObserver();
+        var dispatcher = RemoteConnections.newDispatcher(observer, connection, converter);
+        dispatcher.received(connection.messages.get(0));
+        assertEquals(List.of("roundStarted EAST1 0 0 false", "seatUpdated A 25000",
+                "handUpdated [M1, M5R] true", "riverTileAdded SELF M5R true"), observer.records);
+    }
+
+    private static HandScoreData newHandScoreData(){
+        var data = new HandScoreData();
+        data.setHandTiles(List.of(Tile.M1, Tile.M2, Tile.M3, Tile.M5R));
+        data.setWinningTile(Tile.M5R);
+        data.setOpenMelds(List.of(List.of(Tile.DW, Tile.DW, Tile.DW)));
+        data.setMeldTiltSides(List.of(Side.LEFT));
+        data.setUpperIndicators(List.of(Tile.S1));
+        data.setLowerIndicators(List.of());
+        data.setHandTypeNames(List.of("役牌 白", "ドラ"));
+        data.setHandTypeGrades(List.of("1", "2"));
+        data.setScoreExpression("30符3飜 \"3900\"");
+        return data;
+    }
+
+    /**
+     * 変更前の実装と同じく, 宣言されたメソッドを反射的に呼び出してデータクラスを符号化します。
+     */
+    private static String encodeReflectively(Object pojo) throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var fieldStrings = new ArrayList<String>();
+        for(var method:pojo.getClass().getDeclaredMethods()){
+            var getterPrefix = method.getReturnType()==boolean.class? "is":"get";
+            if(method.getReturnType()!=void.class && method.getName().startsWith(getterPrefix)){
+                var fieldName = method.getName().substring(getterPrefix.length());
+                fieldStrings.add("(" + fieldName + "," + method.getReturnType().getName() + "," + converter.encode(method.invoke(pojo)) + ")");
+            }
+        }
+        return "pojo(" + pojo.getClass().getName() + ",fields(" + String.join(",", fieldStrings) + "))";
+    }
+
+    @Test
+    void testPojoEncodingMatchesReflectiveEncoding() throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var payment = new PaymentData();
+        payment.setWind(Wind.SOUTH);
+        payment.setName("B");
+        payment.setScoreBefore(25000);
+        payment.setScoreAfter(21100);
+        payment.setRankBefore(2);
+        payment.setRankAfter(4);
+        for(var pojo:List.of(payment, newHandScoreData(), new PlayerData(), new RoomMemberData())){
+            if(pojo instanceof RoomMemberData member){
+                member.setName("C");
+            }
+            if(pojo instanceof PlayerData player){
+                player.setName("D");
+                player.setInitialSeatWind(Wind.WEST);
+                player.setSeatWind(Wind.NORTH);
+            }
+            assertEquals(encodeReflectively(pojo), converter.encode(pojo));
+        }
+    }
+
+    @Test
+    void testPojoRoundTrip(){
+        var converter = RoomMessageConverters.getConverter();
+        var data = newHandScoreData();
+        var encoded = converter.encode(data);
+        var decoded = (HandScoreData)converter.decode(encoded);
+        assertEquals(data.getHandTiles(), decoded.getHandTiles());
+        assertEquals(data.getWinningTile(), decoded.getWinningTile());
+        assertEquals(data.getOpenMelds(), decoded.getOpenMelds());
+        assertEquals(data.getMeldTiltSides(), decoded.getMeldTiltSides());
+        assertEquals(data.getHandTypeNames(), decoded.getHandTypeNames());
+        assertEquals(data.getScoreExpression(), decoded.getScoreExpression());
+        assertEquals(encoded, converter.encode(decoded));
+    }
+
+    @Test
+    void testMethodAndEnumRoundTrip() throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var method = RoomObserver.class.getMethod("selectTurnAction", List.class);
+        var encoded = converter.encode(method);
+        assertEquals(method, converter.decode(encoded));
+        assertSame(converter.decode(encoded), converter.decode(encoded));
+        assertEquals(encoded, converter.encode(method));
+        assertSame(Tile.M5R, converter.decode(converter.encode(Tile.M5R)));
+        assertSame(Side.LEFT, converter.decode(converter.encode(Side.LEFT)));
+        assertThrows(MessageConversionException.class, ()->converter.decode("enum(jp.rouh.mahjong.tile.Tile,X1)"));
+        assertThrows(MessageConversionException.class, ()->converter.decode("enum(jp.rouh.NoSuchEnum,X1)"));
+    }
+}
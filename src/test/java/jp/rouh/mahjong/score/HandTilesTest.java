@@ -235,6 +235,91 @@ public class HandTilesTest{
 
     }
 
+    @Nested
+    class TestMinimumSwapToReady {
+
+        @Test
+        void testCompleted(){
+            var handTiles = List.of(M1, M2, M3, P4, P5, P6, S7, S8, S9, WE, WE, DW, DW, DW);
+            assertEquals(-1, minimumSwapToReady(handTiles));
+        }
+
+        @Test
+        void testReady(){
+            var handTiles = List.of(M1, M2, M3, P4, P5, P6, S7, S8, S9, WE, WE, DW, DW);
+            assertEquals(0, minimumSwapToReady(handTiles));
+        }
+
+        @Test
+        void testTwoSwapsToReady(){
+            var handTiles = List.of(M1, M2, M3, P4, P5, P6, S7, S8, WE, WE, DW, DR, WN);
+            assertEquals(2, minimumSwapToReady(handTiles));
+        }
+
+        @Test
+        void testSevenPairsReady(){
+            var handTiles = List.of(M1, M1, M4, M4, P2, P2, P8, P8, S3, S3, WE, WE, DR);
+            assertEquals(0, minimumSwapToReady(handTiles));
+        }
+
+        @Test
+        void testThirteenOrphans(){
+            assertEquals(0, minimumSwapToReady(Tiles.orphans()));
+            var handTiles = List.of(M1, M9, P1, P9, S1, S9, WE, WS, WW, WN, DW, DG, M5);
+            assertEquals(1, minimumSwapToReady(handTiles));
+        }
+
+        @Test
+        void testCalledHand(){
+            assertEquals(0, minimumSwapToReady(List.of(WE)));
+            assertEquals(-1, minimumSwapToReady(List.of(WE, WE)));
+            assertEquals(0, minimumSwapToReady(List.of(M2, M3, M4, S5)));
+            assertEquals(1, minimumSwapToReady(List.of(M2, M4, M8, S5)));
+            assertEquals(2, minimumSwapToReady(List.of(M2, M5, M8, S5)));
+        }
+
+        @Test
+        void testReadyForWinningTileExhaustedInHandTiles(){
+            //手牌中で4枚使われている牌の単騎待ちも聴牌形として数える
+            var handTiles = List.of(M1, M1, M1, M1, M4, M4, M4, S1, S2, S3, WE, WE, WE);
+            assertEquals(0, minimumSwapToReady(handTiles));
+            assertFalse(isHandReady(handTiles));
+        }
+
+        @Test
+        void testIllegalSize(){
+            var handTiles = List.of(M1, M2, M3, P4, P5, P6, S7, S8, S9, WE, WE, DW);
+            assertThrows(IllegalArgumentException.class, ()->minimumSwapToReady(handTiles));
+            assertThrows(IllegalArgumentException.class, ()->minimumSwapToReady(new int[33]));
+        }
+
+        @Test
+        void testMeldHandIgnoresSevenPairs(){
+            var handTiles = List.of(M1, M1, M4, M4, P2, P2, P8, P8, S3, S3, WE, WE, DR);
+            assertEquals(0, minimumSwapToReady(handTiles));
+            assertEquals(3, minimumSwapToMeldHandReady(handTiles));
+            assertEquals(3, minimumSwapToMeldHandReady(List.of(M1, M4, P2, P3, S5, S6, S8, S8, WE, WN)));
+        }
+
+        @Test
+        void testMeldHandSplitsAdjacentShapes(){
+            //三萬-五萬, 六萬の対子, 七萬-九萬の組み合わせは分割せずに数える
+            var handTiles = List.of(M3, M5, M6, M6, M7, M9, P3, P5, S2, S9, WE, WW, DG);
+            assertEquals(4, minimumSwapToMeldHandReady(handTiles));
+        }
+
+        @Test
+        void testPatternCount(){
+            assertEquals(-1, minimumSwapToReady(4, 0, true));
+            assertEquals(0, minimumSwapToReady(4, 0, false));
+            assertEquals(0, minimumSwapToReady(3, 1, true));
+            assertEquals(1, minimumSwapToReady(3, 0, true));
+            assertEquals(2, minimumSwapToReady(2, 3, false));
+            assertEquals(8, minimumSwapToReady(0, 0, false));
+            assertThrows(IllegalArgumentException.class, ()->minimumSwapToReady(5, 0, false));
+        }
+    }
+
     @Nested
     class TestArrangeAll {
 
@@ -610,6 +695,13 @@ public class HandTilesTest{
             var result = ponBasesOf(List.of(M5, M5, M5R, DR), M5);
             assertEquals(expected, result);
         }
+
+        @Test
+        void testBasesAreSorted(){
+            var expected = List.of(List.of(M5, M5), List.of(M5, M5R));
+            var result = ponBasesOf(List.of(M5R, M5, M5, DR), M5);
+            assertEquals(expected, List.copyOf(result));
+        }
     }
 
 
@@ -657,5 +749,12 @@ public class HandTilesTest{
             var result = chiBasesOf(List.of(M1, M2, M4, M5, M5R, DW, DW), M3);
             assertEquals(expected, result);
         }
+
+        @Test
+        void testBasesAreSorted() {
+            var expected = List.of(List.of(M1, M2), List.of(M2, M4), List.of(M4, M5), List.of(M4, M5R));
+            var result = chiBasesOf(List.of(M5R, M5, M4, M2, M1, DW, DW), M3);
+            assertEquals(expected, List.copyOf(result));
+        }
     }
 }
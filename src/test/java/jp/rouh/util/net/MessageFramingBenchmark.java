@@ -0,0 +1,88 @@
+package jp.rouh.util.net;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessageFraming}ごとのメッセージ通信の処理量を比較する手動テストクラス。
+ * <p>受信したメッセージを返信する{@link NioMessageServer}に{@link BioMessageClient}で接続し,
+ * 全クライアントが指定数のメッセージを送信して全ての返信を受信するまでの処理時間を標準出力に出力します。
+ * <p>第一引数にメッセージのバイト数をカンマ区切りで, 第二引数にクライアント数,
+ * 第三引数にクライアントごとのメッセージ数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class MessageFramingBenchmark{
+
+    private static void measure(MessageFraming framing, int messageSize, int clientCount, int messageCount) throws Exception{
+        int port;
+        try(var socket = new ServerSocket(0)){
+            port = socket.getLocalPort();
+        }
+        var server = new NioMessageServer();
+        server.addListener(new MessageServerListener(){
+            @Override
+            public void userConnected(String userId, MessageConnection connection){
+                connection.addListener(connection::send);
+            }
+
+            @Override
+            public void userDisconnected(String userId){
+                //pass
+            }
+        });
+        server.start(port);
+        var message = "{\"type\":\"event\",\"payload\":\"" + "M1P9S5WE".repeat(Math.max(1, messageSize/8)) + "\"}";
+        var latch = new CountDownLatch(clientCount*messageCount);
+        var clients = new ArrayList<MessageConnection>();
+        try{
+            for(int i = 0; i<clientCount; i++){
+                var client = new BioMessageClient("localhost", port, framing);
+                client.addListener(received->latch.countDown());
+                clients.add(client);
+            }
+            long start = System.nanoTime();
+            var senders = new ArrayList<Thread>();
+            for(var client:clients){
+                var sender = new Thread(()->{
+                    for(int i = 0; i<messageCount; i++){
+                        client.send(message);
+                    }
+                });
+                sender.start();
+                senders.add(sender);
+            }
+            for(var sender:senders){
+                sender.join();
+            }
+            if(!latch.await(5, TimeUnit.MINUTES)){
+                System.out.println("timed out: remaining=" + latch.getCount());
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            long messages = (long)clientCount*messageCount;
+            double megabytes = 2.0*messages*message.length()/1e6;
+            System.out.printf("%-15s size=%,d clients=%d messages=%,d elapsed=%.2fs (%,.0f msg/s, %.1f MB/s)%n",
+                    framing, message.length(), clientCount, messages, elapsedNanos/1e9,
+                    messages/(elapsedNanos/1e9), megabytes/(elapsedNanos/1e9));
+        }finally{
+            clients.forEach(MessageConnection::close);
+            server.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception{
+        var messageSizes = args.length>0? args[0].split(","):new String[]{"64", "1024", "16384"};
+        int clientCount = args.length>1? Integer.parseInt(args[1]):8;
+        int messageCount = args.length>2? Integer.parseInt(args[2]):5000;
+        //ウォームアップ
+        measure(MessageFraming.TEXT, 256, clientCount, messageCount/10 + 1);
+        measure(MessageFraming.LENGTH_PREFIXED, 256, clientCount, messageCount/10 + 1);
+        for(var size:messageSizes){
+            int messageSize = Integer.parseInt(size.strip());
+            measure(MessageFraming.TEXT, messageSize, clientCount, messageCount);
+            measure(MessageFraming.LENGTH_PREFIXED, messageSize, clientCount, messageCount);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jp.rouh.util.net;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 接続数に対する{@link BioMessageServer}と{@link NioMessageServer}のスレッド数と往復性能を比較する手動テストクラス。
+ * <p>受信したメッセージを返信するサーバに指定数の接続を確立し,
+ * 接続後に増加したスレッド数と, 全接続が1メッセージずつ送受信する往復を繰り返した際の処理時間を標準出力に出力します。
+ * クライアントはスレッドを消費しないよう, 呼び出し元のスレッドからブロッキングな{@link SocketChannel}で操作します。
+ * <p>第一引数に接続数をカンマ区切りで, 第二引数に往復の回数を指定できます。
+ * @author Rouh
+ * @version 1.0
+ */
+public class MessageServerBenchmark{
+    private static final byte[] MESSAGE = "{\"type\":\"ping\",\"payload\":\"M1M2M3P4P5P6S7S8S9WEWEDWDW\"}\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static MessageServer newEchoServer(Supplier<MessageServer> constructor){
+        var server = constructor.get();
+        server.addListener(new MessageServerListener(){
+            @Override
+            public void userConnected(String userId, MessageConnection connection){
+                connection.addListener(connection::send);
+            }
+
+            @Override
+            public void userDisconnected(String userId){
+                //pass
+            }
+        });
+        return server;
+    }
+
+    private static void readLine(SocketChannel client, ByteBuffer buffer) throws IOException{
+        buffer.clear();
+        while(buffer.position()==0 || buffer.get(buffer.position() - 1)!='\n'){
+            if(client.read(buffer)<0){
+                throw new IOException("closed");
+            }
+        }
+    }
+
+    private static void measure(String name, Supplier<MessageServer> constructor, int connectionCount, int rounds)
+            throws IOException, InterruptedException{
+        int port;
+        try(var socket = new ServerSocket(0)){
+            port = socket.getLocalPort();
+        }
+        var threadBean = ManagementFactory.getThreadMXBean();
+        int startThreads = threadBean.getThreadCount();
+        var server = newEchoServer(constructor);
+        server.start(port);
+        var clients = new ArrayList<SocketChannel>(connectionCount);
+        try{
+            long connectStart = System.nanoTime();
+            for(int i = 0; i<connectionCount; i++){
+                clients.add(SocketChannel.open(new InetSocketAddress("localhost", port)));
+            }
+            long connectNanos = System.nanoTime() - connectStart;
+            var buffer = ByteBuffer.allocate(MESSAGE.length*2);
+            //ウォームアップを兼ねて全接続の受付完了を確認する
+            roundTrip(clients, buffer);
+            int connectedThreads = threadBean.getThreadCount();
+            long start = System.nanoTime();
+            for(int r = 0; r<rounds; r++){
+                roundTrip(clients, buffer);
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            long messages = (long)rounds*connectionCount;
+            System.out.printf("%s connections=%d threads=+%d connect=%.1fms round-trips=%d elapsed=%.2fs (%.1f us/msg, %,.0f msg/s)%n",
+                    name, connectionCount, connectedThreads - startThreads, connectNanos/1e6, messages,
+                    elapsedNanos/1e9, elapsedNanos/1e3/messages, messages/(elapsedNanos/1e9));
+        }finally{
+            for(var client:clients){
+                client.close();
+            }
+            server.close();
+            //切断処理とスレッドの終了を待つ
+            Thread.sleep(500);
+        }
+    }
+
+    private static void roundTrip(List<SocketChannel> clients, ByteBuffer buffer) throws IOException{
+        for(var client:clients){
+            client.write(ByteBuffer.wrap(MESSAGE));
+        }
+        for(var client:clients){
+            readLine(client, buffer);
+        }
+    }
+
+    public static void main(String[] args) throws Exception{
+        var connectionCounts = args.length>0? args[0].split(","):new String[]{"10", "100", "1000"};
+        int rounds = args.length>1? Integer.parseInt(args[1]):200;
+        for(var count:connectionCounts){
+            int connectionCount = Integer.parseInt(count.strip());
+            measure("bio", BioMessageServer::new, connectionCount, rounds);
+            measure("nio", NioMessageServer::new, connectionCount, rounds);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package jp.rouh.util.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NioMessageServerTest{
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private NioMessageServer server;
+    private int port;
+
+    /**
+     * 受信したメッセージをそのまま返信し, 接続と切断を記録するサーバを起動します。
+     */
+    @BeforeEach
+    void setUp() throws IOException{
+        try(var socket = new ServerSocket(0)){
+            port = socket.getLocalPort();
+        }
+        server = new NioMessageServer(2);
+        server.addListener(new MessageServerListener(){
+            @Override
+            public void userConnected(String userId, MessageConnection connection){
+                events.add("connected");
+                connection.addListener(message->{
+                    if(message.equals("close")){
+                        connection.close();
+                    }else{
+                        connection.send(message);
+                    }
+                });
+            }
+
+            @Override
+            public void userDisconnected(String userId){
+                events.add("disconnected");
+            }
+        });
+        server.start(port);
+    }
+
+    @AfterEach
+    void tearDown(){
+        server.close();
+    }
+
+    private static BlockingQueue<String> receiverOf(MessageConnection client){
+        var received = new LinkedBlockingQueue<String>();
+        client.addListener(received::add);
+        return received;
+    }
+
+    @Test
+    void testEchoInOrder() throws Exception{
+        var client = new BioMessageClient("localhost", port);
+        try{
+            var received = receiverOf(client);
+            assertEquals("connected", events.poll(5, TimeUnit.SECONDS));
+            for(int i = 0; i<1000; i++){
+                client.send("message" + i);
+            }
+            for(int i = 0; i<1000; i++){
+                assertEquals("message" + i, received.poll(5, TimeUnit.SECONDS));
+            }
+        }finally{
+            client.close();
+        }
+        assertEquals("disconnected", events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLargeAndEmptyMessages() throws Exception{
+        var client = new BioMessageClient("localhost", port);
+        try{
+            var received = receiverOf(client);
+            var large = "M1P9S5".repeat(100000);
+            client.send("first");
+            client.send(large);
+            client.send("");
+            assertEquals("first", received.poll(5, TimeUnit.SECONDS));
+            assertEquals(large, received.poll(5, TimeUnit.SECONDS));
+            assertEquals("", received.poll(5, TimeUnit.SECONDS));
+        }finally{
+            client.close();
+        }
+    }
+
+    @Test
+    void testManyConnections() throws Exception{
+        var clients = new ArrayList<MessageConnection>();
+        var receivers = new ArrayList<BlockingQueue<String>>();
+        try{
+            for(int i = 0; i<50; i++){
+                var client = new BioMessageClient("localhost", port);
+                clients.add(client);
+                receivers.add(receiverOf(client));
+            }
+            for(int i = 0; i<clients.size(); i++){
+                clients.get(i).send("client" + i);
+            }
+            for(int i = 0; i<clients.size(); i++){
+                assertEquals("client" + i, receivers.get(i).poll(5, TimeUnit.SECONDS));
+            }
+            assertEquals(50, server.getConnectionCount());
+        }finally{
+            clients.forEach(MessageConnection::close);
+        }
+        for(int i = 0; i<200 && server.getConnectionCount()>0; i++){
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getConnectionCount());
+    }
+
+    @Test
+    void testServerSideCloseNotifiesAfterReceivedMessages() throws Exception{
+        var client = new BioMessageClient("localhost", port);
+        try{
+            var received = receiverOf(client);
+            client.send("last");
+            client.send("close");
+            assertEquals("last", received.poll(5, TimeUnit.SECONDS));
+            assertEquals("connected", events.poll(5, TimeUnit.SECONDS));
+            assertEquals("disconnected", events.poll(5, TimeUnit.SECONDS));
+            assertEquals(0, server.getConnectionCount());
+        }finally{
+            client.close();
+        }
+    }
+
+    @Test
+    void testLengthPrefixedFraming() throws Exception{
+        var client = new BioMessageClient("localhost", port, MessageFraming.LENGTH_PREFIXED);
+        try{
+            var received = receiverOf(client);
+            var large = "東南西北\n".repeat(50000);
+            client.send("改行を\n含む\r\nメッセージ");
+            client.send(large);
+            client.send("");
+            assertEquals("改行を\n含む\r\nメッセージ", received.poll(5, TimeUnit.SECONDS));
+            assertEquals(large, received.poll(5, TimeUnit.SECONDS));
+            assertEquals("", received.poll(5, TimeUnit.SECONDS));
+        }finally{
+            client.close();
+        }
+    }
+
+    @Test
+    void testTextAndFramedClientsCoexist() throws Exception{
+        var text = new BioMessageClient("localhost", port);
+        var framed = new BioMessageClient("localhost", port, MessageFraming.LENGTH_PREFIXED);
+        try{
+            var textReceived = receiverOf(text);
+            var framedReceived = receiverOf(framed);
+            for(int i = 0; i<100; i++){
+                text.send("text" + i);
+                framed.send("framed" + i);
+            }
+            for(int i = 0; i<100; i++){
+                assertEquals("text" + i, textReceived.poll(5, TimeUnit.SECONDS));
+                assertEquals("framed" + i, framedReceived.poll(5, TimeUnit.SECONDS));
+            }
+        }finally{
+            text.close();
+            framed.close();
+        }
+    }
+
+    @Test
+    void testMessagesHeldUntilNegotiated() throws Exception{
+        var connections = new LinkedBlockingQueue<MessageConnection>();
+        server.addListener(new MessageServerListener(){
+            @Override
+            public void userConnected(String userId, MessageConnection connection){
+                connection.send("welcome");
+                connections.add(connection);
+            }
+
+            @Override
+            public void userDisconnected(String userId){
+                //pass
+            }
+        });
+        var text = new BioMessageClient("localhost", port);
+        try{
+            var textReceived = receiverOf(text);
+            //何も送信しないテキスト形式のクライアントには待機時間の経過後に送信される
+            assertNull(textReceived.poll(1, TimeUnit.SECONDS));
+            assertEquals("welcome", textReceived.poll(5, TimeUnit.SECONDS));
+            assertNotNull(connections.poll(1, TimeUnit.SECONDS));
+        }finally{
+            text.close();
+        }
+    }
+
+    @Test
+    void testFramingRejectedByTextServer() throws Exception{
+        int textPort;
+        try(var socket = new ServerSocket(0)){
+            textPort = socket.getLocalPort();
+        }
+        var textServer = new BioMessageServer();
+        textServer.start(textPort);
+        try{
+            assertThrows(IOException.class, ()->new BioMessageClient("localhost", textPort, MessageFraming.LENGTH_PREFIXED));
+        }finally{
+            textServer.close();
+        }
+    }
+
+    @Test
+    void testOverflowNotifiesDisconnectOnDispatchThread() throws Exception{
+        int overflowPort;
+        try(var socket = new ServerSocket(0)){
+            overflowPort = socket.getLocalPort();
+        }
+        var connected = new CompletableFuture<MessageConnection>();
+        var disconnectedThread = new CompletableFuture<Thread>();
+        var overflowServer = new NioMessageServer(1);
+        overflowServer.setMaxPendingBytes(1024);
+        overflowServer.addListener(new MessageServerListener(){
+            @Override
+            public void userConnected(String userId, MessageConnection connection){
+                connected.complete(connection);
+            }
+
+            @Override
+            public void userDisconnected(String userId){
+                disconnectedThread.complete(Thread.currentThread());
+            }
+        });
+        overflowServer.start(overflowPort);
+        try(var client = new Socket("localhost", overflowPort)){
+            //受信せずに送信待ちを溢れさせる
+            client.getOutputStream().write("hello\n".getBytes(StandardCharsets.UTF_8));
+            var connection = connected.get(5, TimeUnit.SECONDS);
+            var large = "M1P9S5".repeat(200000);
+            for(int i = 0; i<100 && !disconnectedThread.isDone(); i++){
+                connection.send(large);
+            }
+            assertNotSame(Thread.currentThread(), disconnectedThread.get(5, TimeUnit.SECONDS));
+            assertEquals(0, overflowServer.getConnectionCount());
+        }finally{
+            overflowServer.close();
+        }
+    }
+
+    @Test
+    void testInvalidArguments() throws Exception{
+        assertThrows(IllegalArgumentException.class, ()->new NioMessageServer(0));
+        assertThrows(IllegalArgumentException.class, ()->server.setMaxPendingBytes(0));
+        assertThrows(IllegalStateException.class, ()->server.start(port));
+    }
+}
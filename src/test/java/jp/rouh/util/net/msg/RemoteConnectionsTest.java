@@ -0,0 +1,207 @@
+package jp.rouh.util.net.msg;
+
+import jp.rouh.mahjong.net.RoomMessageConverters;
+import jp.rouh.util.net.MessageConnection;
+import jp.rouh.util.net.MessageListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RemoteConnectionsTest{
+
+    /**
+     * 呼び出しインターフェース。
+     */
+    public interface Calculator{
+        int square(int value);
+        void note(String text);
+    }
+
+    /**
+     * 非同期インターフェース。
+     */
+    public interface AsyncCalculator{
+        CompletableFuture<Integer> square(int value);
+        void note(String text);
+    }
+
+    /**
+     * 戻り値の型が不正な非同期インターフェース。
+     */
+    public interface InvalidAsyncCalculator{
+        Integer square(int value);
+    }
+
+    /**
+     * 送信したメッセージを対向の通信のリスナに同期的に配信するメッセージ通信。
+     */
+    private static class LoopbackConnection implements MessageConnection{
+        private final List<MessageListener> listeners = new CopyOnWriteArrayList<>();
+        private LoopbackConnection peer;
+        private volatile boolean dropping;
+
+        private static LoopbackConnection[] newPair(){
+            var a = new LoopbackConnection();
+            var b = new LoopbackConnection();
+            a.peer = b;
+            b.peer = a;
+            return new LoopbackConnection[]{a, b};
+        }
+
+        @Override
+        public void addListener(MessageListener listener){
+            listeners.add(listener);
+        }
+
+        @Override
+        public void send(String message){
+            if(!dropping){
+                peer.listeners.forEach(listener->listener.received(message));
+            }
+        }
+
+        @Override
+        public void close(){
+            //pass
+        }
+    }
+
+    /**
+     * 引数ごとに解放されるまで応答を保留する計算機。
+     */
+    private static class GatedCalculator implements Calculator{
+        private final Map<Integer, CountDownLatch> gates = new ConcurrentHashMap<>();
+        private final List<String> notes = new CopyOnWriteArrayList<>();
+
+        private CountDownLatch gate(int value){
+            return gates.computeIfAbsent(value, v->new CountDownLatch(1));
+        }
+
+        @Override
+        public int square(int value){
+            try{
+                assertTrue(gate(value).await(5, TimeUnit.SECONDS));
+            }catch(InterruptedException e){
+                throw new IllegalStateException(e);
+            }
+            return value*value;
+        }
+
+        @Override
+        public void note(String text){
+            notes.add(text);
+        }
+    }
+
+    @Test
+    void testAsyncCallsCompleteIndependentlyOverOneConnection() throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var pair = LoopbackConnection.newPair();
+        var calculator = new GatedCalculator();
+        var executor = Executors.newCachedThreadPool();
+        try{
+            pair[1].addListener(RemoteConnections.newDispatcher(calculator, pair[1], converter, executor));
+            var proxy = RemoteConnections.newAsyncProxy(AsyncCalculator.class, Calculator.class, pair[0], converter, 5, TimeUnit.SECONDS);
+            var results = new ArrayList<CompletableFuture<Integer>>();
+            for(int value = 1; value<=3; value++){
+                results.add(proxy.square(value));
+            }
+            calculator.gate(3).countDown();
+            assertEquals(9, results.get(2).get(5, TimeUnit.SECONDS));
+            assertFalse(results.get(0).isDone());
+            assertFalse(results.get(1).isDone());
+            calculator.gate(2).countDown();
+            assertEquals(4, results.get(1).get(5, TimeUnit.SECONDS));
+            assertFalse(results.get(0).isDone());
+            calculator.gate(1).countDown();
+            assertEquals(1, results.get(0).get(5, TimeUnit.SECONDS));
+            proxy.note("a");
+            proxy.note("b");
+            assertEquals(List.of("a", "b"), calculator.notes);
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBlockingCallsFromSeveralThreadsReceiveOwnResponses() throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var pair = LoopbackConnection.newPair();
+        var calculator = new GatedCalculator();
+        var executor = Executors.newCachedThreadPool();
+        try{
+            pair[1].addListener(RemoteConnections.newDispatcher(calculator, pair[1], converter, executor));
+            var proxy = RemoteConnections.newProxy(Calculator.class, pair[0], converter, 5, TimeUnit.SECONDS);
+            var results = new ArrayList<CompletableFuture<Integer>>();
+            for(int value = 1; value<=3; value++){
+                int v = value;
+                results.add(CompletableFuture.supplyAsync(()->proxy.square(v), executor));
+            }
+            for(int value = 3; value>=1; value--){
+                calculator.gate(value).countDown();
+            }
+            for(int value = 1; value<=3; value++){
+                assertEquals(value*value, results.get(value - 1).get(5, TimeUnit.SECONDS));
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCallsTimeOutWithoutResponse(){
+        var converter = RoomMessageConverters.getConverter();
+        var pair = LoopbackConnection.newPair();
+        pair[0].dropping = true;
+        var proxy = RemoteConnections.newProxy(Calculator.class, pair[0], converter, 100, TimeUnit.MILLISECONDS);
+        var e = assertThrows(IllegalStateException.class, ()->proxy.square(2));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        var asyncProxy = RemoteConnections.newAsyncProxy(AsyncCalculator.class, Calculator.class, pair[0], converter, 100, TimeUnit.MILLISECONDS);
+        var result = asyncProxy.square(2);
+        var cause = assertThrows(ExecutionException.class, ()->result.get(5, TimeUnit.SECONDS)).getCause();
+        assertTrue(cause instanceof TimeoutException);
+    }
+
+    @Test
+    void testLateResponseIsIgnored() throws Exception{
+        var converter = RoomMessageConverters.getConverter();
+        var pair = LoopbackConnection.newPair();
+        var calculator = new GatedCalculator();
+        var executor = Executors.newCachedThreadPool();
+        try{
+            pair[1].addListener(RemoteConnections.newDispatcher(calculator, pair[1], converter, executor));
+            var proxy = RemoteConnections.newAsyncProxy(AsyncCalculator.class, Calculator.class, pair[0], converter, 100, TimeUnit.MILLISECONDS);
+            var late = proxy.square(4);
+            assertThrows(ExecutionException.class, ()->late.get(5, TimeUnit.SECONDS));
+            calculator.gate(4).countDown();
+            calculator.gate(5).countDown();
+            assertEquals(25, proxy.square(5).get(5, TimeUnit.SECONDS));
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidAsyncInterfaceIsRejected(){
+        var converter = RoomMessageConverters.getConverter();
+        var pair = LoopbackConnection.newPair();
+        assertThrows(IllegalArgumentException.class, ()->RemoteConnections.newAsyncProxy(
+                InvalidAsyncCalculator.class, Calculator.class, pair[0], converter, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, ()->RemoteConnections.newAsyncProxy(
+                AsyncCalculator.class, Runnable.class, pair[0], converter, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, ()->RemoteConnections.newProxy(
+                Calculator.class, pair[0], converter, 0, TimeUnit.SECONDS));
+    }
+}